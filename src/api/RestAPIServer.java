@@ -1,6 +1,9 @@
 package com.fortis.api;
 //mini backend web server
 
+import com.fortis.utils.MetricsRegistry;
+import com.fortis.utils.RateLimits;
+import com.fortis.utils.SystemHealthMonitor;
 import com.sun.net.httpserver.*;
 import java.io.*;
 import java.net.InetSocketAddress;
@@ -15,9 +18,10 @@ public class RestAPIServer {
     }
     //routes menu
     private void setupRoutes() {
-        server.createContext("/api/test", new TestHandler());
-        server.createContext("/api/accounts", new AccountsHandler());
-        server.createContext("/api/stats", new StatsHandler());
+        server.createContext("/api/test", new TestHandler()).getFilters().add(new RateLimitFilter());
+        server.createContext("/api/accounts", new AccountsHandler()).getFilters().add(new RateLimitFilter());
+        server.createContext("/api/stats", new StatsHandler()).getFilters().add(new RateLimitFilter());
+        server.createContext("/api/metrics", new MetricsHandler()); // scrapes are not limited
     }
     //8080 port
     //start server
@@ -26,6 +30,7 @@ public class RestAPIServer {
     public void start() {
         server.setExecutor(null);
         server.start();
+        SystemHealthMonitor.start();
         System.out.println("\n========================================");
         System.out.println("  FORTIS BANKING - SERVERS RUNNING");
         System.out.println("========================================");
@@ -51,6 +56,24 @@ public class RestAPIServer {
         os.close();
     }
     
+    //per client address + global limit, rejected with 429 before the handler runs
+    class RateLimitFilter extends Filter {
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            String scope = RateLimits.getInstance().tryAcquireClient(
+                    exchange.getRemoteAddress().getAddress().getHostAddress());
+            if (scope != null) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendJSON(exchange, 429, "{\"error\":\"Rate limit exceeded (" + scope + ")\"}");
+                return;
+            }
+            chain.doFilter(exchange);
+        }
+        
+        public String description() {
+            return "Rate limit";
+        }
+    }
+    
     class TestHandler implements HttpHandler {
         public void handle(HttpExchange exchange) throws IOException {
             if ("OPTIONS".equals(exchange.getRequestMethod())) {
@@ -92,6 +115,18 @@ public class RestAPIServer {
         }
     }
     
+    //prometheus text format for the metrics collector
+    class MetricsHandler implements HttpHandler {
+        public void handle(HttpExchange exchange) throws IOException {
+            byte[] response = MetricsRegistry.getInstance().toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            OutputStream os = exchange.getResponseBody();
+            os.write(response);
+            os.close();
+        }
+    }
+    
     public static void main(String[] args) {
         try {
             RestAPIServer server = new RestAPIServer(8080);
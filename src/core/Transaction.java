@@ -22,6 +22,9 @@ public class Transaction {
     private volatile LocalDateTime completedAt;
     private volatile String errorMessage;
     
+    // System.nanoTime() at which each state was entered, 0 if never reached
+    private final long[] stateEnteredNanos = new long[TransactionState.values().length];
+    
     // Constructor for new transaction
     public Transaction(long fromAccountId, long toAccountId, BigDecimal amount, String description) {
         this.transactionId = 0; // Will be set by database
@@ -33,6 +36,7 @@ public class Transaction {
         this.riskScore = 0;
         this.description = description;
         this.initiatedAt = LocalDateTime.now();
+        this.stateEnteredNanos[TransactionState.INIT.ordinal()] = System.nanoTime();
     }
     
     // Constructor for loading from database
@@ -107,6 +111,7 @@ public class Transaction {
     public synchronized boolean transitionTo(TransactionState newState) {
         if (state.canTransitionTo(newState)) {
             this.state = newState;
+            stateEnteredNanos[newState.ordinal()] = System.nanoTime();
             if (newState.isTerminal()) {
                 this.completedAt = LocalDateTime.now();
             }
@@ -148,6 +153,14 @@ public class Transaction {
         return java.time.Duration.between(initiatedAt, completedAt).toMillis();
     }
     
+    /**
+     * Monotonic time (System.nanoTime) the given state was entered, or 0
+     * if the transaction never reached it in this process
+     */
+    public synchronized long getStateEnteredNanos(TransactionState s) {
+        return stateEnteredNanos[s.ordinal()];
+    }
+    
     @Override
     public String toString() {
         return String.format("Transaction[UUID: %s, From: %d, To: %d, Amount: %.2f, State: %s, Risk: %d]",
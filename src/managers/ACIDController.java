@@ -4,6 +4,7 @@ import com.fortis.core.Transaction;
 import com.fortis.core.TransactionState;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -93,6 +94,29 @@ public class ACIDController {
         return transactions;
     }
     
+    /**
+     * Get transactions initiated in [from, to), oldest first
+     */
+    public List<Transaction> getTransactions(LocalDateTime from, LocalDateTime to, Connection conn) throws SQLException {
+        String sql = "SELECT * FROM transactions " +
+                    "WHERE initiated_at >= ? AND initiated_at < ? " +
+                    "ORDER BY initiated_at";
+        
+        List<Transaction> transactions = new ArrayList<>();
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(extractTransaction(rs));
+                }
+            }
+        }
+        return transactions;
+    }
+    
     /**
      * Get transactions by state
      */
@@ -6,6 +6,7 @@ import com.fortis.core.Account.AccountType;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,6 +34,26 @@ public class AccountManager {
         return null;
     }
     
+    /**
+     * Get account by ID without locking the row
+     * A plain consistent read: it neither waits for nor blocks transfers
+     * holding the row. Use getAccount() when the row is about to be updated.
+     */
+    public Account readAccount(long accountId, Connection conn) throws SQLException {
+        String sql = "SELECT * FROM accounts WHERE account_id = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, accountId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return extractAccount(rs);
+                }
+            }
+        }
+        return null;
+    }
+    
     /**
      * Get account by account number
      */
@@ -102,11 +123,14 @@ public class AccountManager {
         String sql = "SELECT COALESCE(SUM(amount), 0) as total " +
                     "FROM transactions " +
                     "WHERE from_account_id = ? " +
-                    "AND DATE(initiated_at) = CURDATE() " +
+                    "AND initiated_at >= ? AND initiated_at < ? " +
                     "AND state = 'COMMITTED'";
         
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, accountId);
+            stmt.setTimestamp(2, Timestamp.valueOf(startOfDay));
+            stmt.setTimestamp(3, Timestamp.valueOf(startOfDay.plusDays(1)));
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -0,0 +1,182 @@
+package com.fortis.managers;
+
+import com.fortis.utils.MetricsRegistry;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AdmissionController - Adaptive concurrency limit in front of the ledger
+ * At most `limit` transfers run at once; a few more may wait in a bounded
+ * queue for a short time, everything else is rejected immediately. That
+ * keeps threads from piling up on account locks and the database connection
+ * when the system is overloaded.
+ *
+ * The limit follows AIMD on observed latency: a transfer that completes
+ * within tolerance x the baseline (the lowest recent latency) while the
+ * limit is being used raises it by 1/limit, so by about one per round of
+ * `limit` transfers; a slower one cuts it by the backoff ratio. Only
+ * transfers admitted after the last cut can cut again, so one slow round
+ * shrinks the limit once, not once per in-flight request.
+ */
+public class AdmissionController {
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double TOLERANCE = 2.0;
+    private static final long MIN_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BASELINE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private final long maxWaitNanos;
+    private final AdjustableSemaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Guarded by this
+    private double limit;
+    private int appliedLimit;
+    private long previousMinNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private long windowStart = System.nanoTime();
+    private long lastDecrease = windowStart;
+
+    private final MetricsRegistry.Counter rejectedQueueFull;
+    private final MetricsRegistry.Counter rejectedTimeout;
+    private final MetricsRegistry.Counter rejectedBusy;
+
+    /**
+     * Ticket for an admitted transfer, handed back to release()
+     */
+    public static final class Permit {
+        final long admittedAt;
+        final int inFlightAtStart;
+
+        Permit(long admittedAt, int inFlightAtStart) {
+            this.admittedAt = admittedAt;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+    }
+
+    private static final class AdjustableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        AdjustableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    public AdmissionController(int initialLimit, int minLimit, int maxLimit, int queueCapacity, long maxWaitMillis) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.appliedLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.limit = appliedLimit;
+        this.permits = new AdjustableSemaphore(appliedLimit);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        String help = "Transfers rejected by admission control";
+        this.rejectedQueueFull = metrics.counter("fortis_admission_rejected_total", help, "reason", "queue_full");
+        this.rejectedTimeout = metrics.counter("fortis_admission_rejected_total", help, "reason", "timeout");
+        this.rejectedBusy = metrics.counter("fortis_admission_rejected_total", help, "reason", "busy");
+        metrics.gauge("fortis_admission_limit", "Current adaptive concurrency limit", this::getLimit);
+        metrics.gauge("fortis_admission_in_flight", "Transfers currently admitted", inFlight::get);
+        metrics.gauge("fortis_admission_queued", "Transfers waiting for admission", waiting::get);
+    }
+
+    /**
+     * Admit a transfer, waiting briefly if the queue has room
+     * @return a permit to pass to release(), or null if the transfer must be rejected
+     */
+    public Permit tryAcquire() {
+        if (!permits.tryAcquire()) {
+            if (waiting.incrementAndGet() > queueCapacity) {
+                waiting.decrementAndGet();
+                rejectedQueueFull.increment();
+                return null;
+            }
+            try {
+                if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    rejectedTimeout.increment();
+                    return null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectedTimeout.increment();
+                return null;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        return new Permit(System.nanoTime(), inFlight.incrementAndGet());
+    }
+
+    /**
+     * Admit a transfer only if a permit is free right now, never waiting
+     * For pooled threads, which must not park while other work queues behind them.
+     * @return a permit to pass to release(), or null if the transfer must be rejected
+     */
+    public Permit tryAcquireNow() {
+        if (!permits.tryAcquire()) {
+            rejectedBusy.increment();
+            return null;
+        }
+        return new Permit(System.nanoTime(), inFlight.incrementAndGet());
+    }
+
+    /**
+     * Return a permit and feed the transfer's latency into the limit
+     */
+    public void release(Permit permit) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        adjust(permit, now - permit.admittedAt, now);
+        permits.release();
+    }
+
+    private synchronized void adjust(Permit permit, long latency, long now) {
+        // Baseline: lowest latency of this window and the previous one, so it can rise again
+        if (now - windowStart > BASELINE_WINDOW_NANOS) {
+            previousMinNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowStart = now;
+        }
+        windowMinNanos = Math.min(windowMinNanos, latency);
+        long baselineNanos = Math.min(previousMinNanos, windowMinNanos);
+        long threshold = Math.max(MIN_THRESHOLD_NANOS, (long) (baselineNanos * TOLERANCE));
+        if (latency > threshold) {
+            if (permit.admittedAt - lastDecrease > 0) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                lastDecrease = now;
+            }
+        } else if (permit.inFlightAtStart * 2 >= appliedLimit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        int target = (int) limit;
+        if (target > appliedLimit) {
+            permits.release(target - appliedLimit);
+        } else if (target < appliedLimit) {
+            permits.reducePermits(appliedLimit - target);
+        }
+        appliedLimit = target;
+    }
+
+    public synchronized int getLimit() {
+        return appliedLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return waiting.get();
+    }
+}
@@ -3,12 +3,15 @@ package com.fortis.managers;
 import com.fortis.core.Account;
 import com.fortis.core.RiskScore;
 import com.fortis.core.Transaction;
+import com.fortis.persistence.EmbeddedLedgerStore;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
@@ -39,8 +42,8 @@ public class RiskEngine {
         Map<String, Integer> factorScores = new HashMap<>();
         
         try {
-            Account fromAccount = accountManager.getAccount(transaction.getFromAccountId(), conn);
-            Account toAccount = accountManager.getAccount(transaction.getToAccountId(), conn);
+            Account fromAccount = accountManager.readAccount(transaction.getFromAccountId(), conn);
+            Account toAccount = accountManager.readAccount(transaction.getToAccountId(), conn);
             
             // Factor 1: Transaction Amount (0-30 points)
             int amountScore = calculateAmountRisk(transaction.getAmount(), fromAccount.getBalance());
@@ -75,11 +78,41 @@ public class RiskEngine {
         }
     }
     
+    /**
+     * Evaluate transaction risk against the embedded ledger
+     * Same factors and thresholds as the JDBC path; counts come from the ledger indexes
+     */
+    public RiskScore evaluateTransaction(Transaction transaction, EmbeddedLedgerStore ledger) {
+        Map<String, Integer> factorScores = new HashMap<>();
+        
+        try {
+            Account fromAccount = ledger.getAccount(transaction.getFromAccountId());
+            Account toAccount = ledger.getAccount(transaction.getToAccountId());
+            long accountId = transaction.getFromAccountId();
+            
+            factorScores.put("amount", calculateAmountRisk(transaction.getAmount(), fromAccount.getBalance()));
+            factorScores.put("frequency", scoreFrequency(
+                    ledger.countOutgoingCommitted(accountId, LocalDate.now().atStartOfDay())));
+            factorScores.put("account_age", calculateAccountAgeRisk(fromAccount));
+            factorScores.put("velocity", scoreVelocity(ledger.countOutgoingCommitted(accountId,
+                    LocalDateTime.now().minusMinutes(VELOCITY_WINDOW_MINUTES))));
+            factorScores.put("status", calculateStatusRisk(fromAccount, toAccount));
+            
+            int totalScore = factorScores.values().stream().mapToInt(Integer::intValue).sum();
+            return new RiskScore(totalScore, factorScores);
+            
+        } catch (Exception e) {
+            e.printStackTrace();
+            factorScores.put("error", 100);
+            return new RiskScore(100, factorScores);
+        }
+    }
+    
     /**
      * Calculate risk based on transaction amount
      * Higher amounts = higher risk
      */
-    private int calculateAmountRisk(BigDecimal amount, BigDecimal balance) {
+    public int calculateAmountRisk(BigDecimal amount, BigDecimal balance) {
         // Risk increases with amount
         if (amount.compareTo(HIGH_AMOUNT_THRESHOLD) > 0) {
             return 30; // Very high amount
@@ -104,34 +137,44 @@ public class RiskEngine {
      * Calculate risk based on transaction frequency
      * Too many transactions = higher risk
      */
-    private int calculateFrequencyRisk(long accountId, Connection conn) throws SQLException {
+    public int calculateFrequencyRisk(long accountId, Connection conn) throws SQLException {
+        // Range predicate instead of DATE(initiated_at) = CURDATE() so the
+        // initiated_at index can be used and the query runs on any SQL engine
         String sql = "SELECT COUNT(*) as count FROM transactions " +
                     "WHERE from_account_id = ? " +
-                    "AND DATE(initiated_at) = CURDATE() " +
+                    "AND initiated_at >= ? AND initiated_at < ? " +
                     "AND state = 'COMMITTED'";
         
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, accountId);
+            stmt.setTimestamp(2, Timestamp.valueOf(startOfDay));
+            stmt.setTimestamp(3, Timestamp.valueOf(startOfDay.plusDays(1)));
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    int count = rs.getInt("count");
-                    
-                    if (count > 20) return 25; // Very high frequency
-                    if (count > 10) return 15; // High frequency
-                    if (count > 5) return 8;   // Moderate frequency
-                    return 0; // Normal frequency
+                    return scoreFrequency(rs.getInt("count"));
                 }
             }
         }
         return 0;
     }
     
+    /**
+     * Frequency points for the number of committed outgoing transfers today
+     */
+    int scoreFrequency(int count) {
+        if (count > 20) return 25; // Very high frequency
+        if (count > 10) return 15; // High frequency
+        if (count > 5) return 8;   // Moderate frequency
+        return 0; // Normal frequency
+    }
+    
     /**
      * Calculate risk based on account age
      * Newer accounts = higher risk
      */
-    private int calculateAccountAgeRisk(Account account) {
+    public int calculateAccountAgeRisk(Account account) {
         int ageInDays = account.getAccountAgeInDays();
         
         if (ageInDays < 7) return 15;   // Less than 1 week
@@ -144,33 +187,38 @@ public class RiskEngine {
      * Calculate risk based on velocity (rapid successive transfers)
      * Multiple transfers in short time = higher risk
      */
-    private int calculateVelocityRisk(long accountId, Connection conn) throws SQLException {
+    public int calculateVelocityRisk(long accountId, Connection conn) throws SQLException {
         String sql = "SELECT COUNT(*) as count FROM transactions " +
                     "WHERE from_account_id = ? " +
-                    "AND initiated_at >= DATE_SUB(NOW(), INTERVAL ? MINUTE) " +
+                    "AND initiated_at >= ? " +
                     "AND state = 'COMMITTED'";
         
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, accountId);
-            stmt.setInt(2, VELOCITY_WINDOW_MINUTES);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().minusMinutes(VELOCITY_WINDOW_MINUTES)));
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    int count = rs.getInt("count");
-                    
-                    if (count > MAX_TRANSACTIONS_PER_HOUR) return 20; // Rapid transfers
-                    if (count > 5) return 10; // Moderate velocity
-                    return 0; // Normal velocity
+                    return scoreVelocity(rs.getInt("count"));
                 }
             }
         }
         return 0;
     }
     
+    /**
+     * Velocity points for the number of committed outgoing transfers in the last hour
+     */
+    int scoreVelocity(int count) {
+        if (count > MAX_TRANSACTIONS_PER_HOUR) return 20; // Rapid transfers
+        if (count > 5) return 10; // Moderate velocity
+        return 0; // Normal velocity
+    }
+    
     /**
      * Calculate risk based on account status
      */
-    private int calculateStatusRisk(Account fromAccount, Account toAccount) {
+    public int calculateStatusRisk(Account fromAccount, Account toAccount) {
         int risk = 0;
         
         // Check risk levels
@@ -190,12 +238,13 @@ public class RiskEngine {
     public void updateAccountRiskLevel(long accountId, Connection conn) throws SQLException {
         String sql = "SELECT AVG(risk_score) as avg_risk FROM transactions " +
                     "WHERE (from_account_id = ? OR to_account_id = ?) " +
-                    "AND initiated_at >= DATE_SUB(NOW(), INTERVAL 30 DAY) " +
+                    "AND initiated_at >= ? " +
                     "AND state = 'COMMITTED'";
         
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, accountId);
             stmt.setLong(2, accountId);
+            stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
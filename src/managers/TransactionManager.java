@@ -1,22 +1,46 @@
 package com.fortis.managers;
 
 import com.fortis.core.*;
+import com.fortis.managers.TransferStageTimer.Stage;
 import com.fortis.persistence.DatabaseManager;
+import com.fortis.persistence.EmbeddedLedgerStore;
+import com.fortis.persistence.IdempotencyCache;
 import com.fortis.persistence.WriteAheadLog;
 import com.fortis.persistence.AuditLogger;
+import com.fortis.utils.AppConfig;
+import com.fortis.utils.ConcurrentLongMap;
+import com.fortis.utils.FlightEvents;
+import com.fortis.utils.FlightEvents.TransferEvent;
+import com.fortis.utils.MetricsRegistry;
+import com.fortis.utils.RateLimits;
 
+import java.io.File;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * TransactionManager - Orchestrates ACID-compliant transactions
  * Implements the transaction state machine and coordinates all managers
  */
 public class TransactionManager {
+    private static IdempotencyCache<Transaction> idempotency; // shared by all instances
+    private static AdmissionController sharedAdmission; // all instances share the ledger
+    // Account-level locks, shared: instances update the same accounts, and the
+    // ledger computes after-images on the assumption that both are held
+    private static final ConcurrentLongMap<ReentrantLock> accountLocks = new ConcurrentLongMap<>();
+    private static ThreadPoolExecutor transferExecutor;
+    private static ExecutorService auditExecutor;
+    
     private final DatabaseManager dbManager;
+    private final EmbeddedLedgerStore ledger;
     private final AccountManager accountManager;
     private final RiskEngine riskEngine;
     private final ACIDController acidController;
@@ -24,18 +48,34 @@ public class TransactionManager {
     private final WriteAheadLog wal;
     private final AuditLogger auditLogger;
     
-    // Account-level locks for concurrency control
-    private final ConcurrentHashMap<Long, ReentrantLock> accountLocks;
+    private final AdmissionController admission; // null when disabled
+    private final AuditSink directAudit;
+    
+    private final MetricsRegistry.Counter committedCount;
+    private final MetricsRegistry.Counter rolledBackCount;
+    private final MetricsRegistry.Histogram riskScores;
+    private final MetricsRegistry.Histogram lockWait;
     
     public TransactionManager() {
-        this.dbManager = DatabaseManager.getInstance();
+        // Exactly one backend is opened: the embedded ledger or MySQL
+        this.ledger = AppConfig.isEmbeddedLedger() ? EmbeddedLedgerStore.getInstance() : null;
+        this.dbManager = ledger == null ? DatabaseManager.getInstance() : null;
         this.accountManager = new AccountManager();
         this.riskEngine = new RiskEngine();
         this.acidController = new ACIDController();
         this.rollbackManager = new RollbackManager();
         this.wal = WriteAheadLog.getInstance();
         this.auditLogger = AuditLogger.getInstance();
-        this.accountLocks = new ConcurrentHashMap<>();
+        this.admission = admissionController();
+        this.directAudit = auditLogger::logEvent;
+        
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        String transfers = "Ledger transfers by outcome";
+        this.committedCount = metrics.counter("fortis_transfers_total", transfers, "outcome", "committed");
+        this.rolledBackCount = metrics.counter("fortis_transfers_total", transfers, "outcome", "rolled_back");
+        this.riskScores = metrics.histogram("fortis_risk_score", "Risk score of evaluated transfers", 1);
+        this.lockWait = metrics.histogram("fortis_lock_wait_seconds",
+                "Time spent waiting for account locks", 1e-9);
     }
     
     /**
@@ -45,101 +85,94 @@ public class TransactionManager {
     public Transaction executeTransfer(long fromAccountId, long toAccountId, 
                                       BigDecimal amount, String description) {
         Transaction transaction = new Transaction(fromAccountId, toAccountId, amount, description);
-        Connection conn = null;
+        if (rateLimited(transaction)) {
+            return transaction;
+        }
+        return execute(transaction, directAudit, true);
+    }
+    
+    /**
+     * Execute a fund transfer on the transfer executor
+     * Runs as a pipeline: the rate limit is checked on the calling thread,
+     * the locked state machine runs on a small dedicated pool, and the audit
+     * entries it produced are written afterwards by a single audit thread,
+     * outside the account locks. The future completes once the transfer is
+     * audited. Waiting callers hold a future, not a thread; when the executor
+     * queue is full, or no admission permit is free when the transfer reaches
+     * a pool thread, the transfer is rolled back straight away.
+     */
+    public CompletableFuture<Transaction> executeTransferAsync(long fromAccountId, long toAccountId,
+                                                               BigDecimal amount, String description) {
+        Transaction transaction = new Transaction(fromAccountId, toAccountId, amount, description);
+        if (rateLimited(transaction)) {
+            return CompletableFuture.completedFuture(transaction);
+        }
+        DeferredAudit audit = new DeferredAudit();
+        try {
+            return CompletableFuture.supplyAsync(() -> execute(transaction, audit, false), transferExecutor())
+                    .thenApplyAsync(done -> {
+                        audit.writeTo(auditLogger);
+                        return done;
+                    }, auditExecutor());
+        } catch (RejectedExecutionException e) {
+            shed(transaction, "System overloaded, transfer not queued");
+            return CompletableFuture.completedFuture(transaction);
+        }
+    }
+    
+    /**
+     * Roll back a transfer that is over its rate limit; no locks, ledger, WAL or audit work
+     */
+    private boolean rateLimited(Transaction transaction) {
+        String limited = RateLimits.getInstance().tryAcquire(0, transaction.getFromAccountId());
+        if (limited != null) {
+            shed(transaction, "Rate limit exceeded (" + limited + ")");
+            return true;
+        }
+        return false;
+    }
+    
+    private void shed(Transaction transaction, String reason) {
+        transaction.transitionTo(TransactionState.ROLLED_BACK);
+        transaction.setErrorMessage(reason);
+        rolledBackCount.increment();
+    }
+    
+    /**
+     * Admission, account locks and the state machine for one transfer
+     * @param mayWait whether admission may wait in its queue; pool threads must not
+     */
+    private Transaction execute(Transaction transaction, AuditSink audit, boolean mayWait) {
+        long fromAccountId = transaction.getFromAccountId();
+        long toAccountId = transaction.getToAccountId();
+        BigDecimal amount = transaction.getAmount();
+        TransferStageTimer timer = TransferStageTimer.start();
+        TransferEvent event = new TransferEvent();
+        event.begin();
+        
+        // Overloaded: shed the transfer instead of queueing on locks and the connection
+        AdmissionController.Permit permit = admission == null ? null
+                : mayWait ? admission.tryAcquire() : admission.tryAcquireNow();
+        if (admission != null && permit == null) {
+            shed(transaction, "System overloaded, transfer not admitted");
+            return transaction;
+        }
         
         // Acquire locks in consistent order to prevent deadlock
         ReentrantLock lock1 = getLockForAccount(Math.min(fromAccountId, toAccountId));
         ReentrantLock lock2 = getLockForAccount(Math.max(fromAccountId, toAccountId));
         
-        lock1.lock();
+        lockTimed(lock1);
         try {
             if (fromAccountId != toAccountId) {
-                lock2.lock();
+                lockTimed(lock2);
             }
+            timer.lap(Stage.LOCK);
             
-            try {
-                // Log transaction initiation
-                auditLogger.logEvent(transaction.getTransactionUuid(), "TRANSACTION_INITIATED",
-                        fromAccountId, String.format("Transfer %.2f to account %d", amount, toAccountId));
-                
-                // Get database connection and start transaction
-                conn = dbManager.getConnection();
-                conn.setAutoCommit(false);
-                conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
-                
-                // Write to WAL: BEGIN
-                wal.logBegin(transaction.getTransactionUuid());
-                
-                // STATE 1: INIT → VALIDATED
-                if (!validateTransaction(transaction, conn)) {
-                    rollback(transaction, conn, "Validation failed");
-                    return transaction;
-                }
-                transaction.transitionTo(TransactionState.VALIDATED);
-                auditLogger.logEvent(transaction.getTransactionUuid(), "VALIDATION_PASSED",
-                        fromAccountId, "Business rules validated");
-                
-                // STATE 2: VALIDATED → RISK_CHECK
-                transaction.transitionTo(TransactionState.RISK_CHECK);
-                RiskScore riskScore = riskEngine.evaluateTransaction(transaction, conn);
-                transaction.setRiskScore(riskScore.getTotalScore());
-                transaction.setRiskFactors(riskScore.getDetailedBreakdown());
-                
-                auditLogger.logEvent(transaction.getTransactionUuid(), "RISK_EVALUATED",
-                        fromAccountId, String.format("Risk score: %d", riskScore.getTotalScore()));
-                
-                // Check if risk is too high
-                if (riskScore.shouldRollback()) {
-                    rollback(transaction, conn, "High risk score: " + riskScore.getTotalScore());
-                    return transaction;
-                }
-                
-                // STATE 3: RISK_CHECK → COMMITTED
-                // Execute the actual transfer
-                Account fromAccount = accountManager.getAccount(fromAccountId, conn);
-                Account toAccount = accountManager.getAccount(toAccountId, conn);
-                
-                // Debit from source
-                BigDecimal oldFromBalance = fromAccount.getBalance();
-                fromAccount.debit(amount);
-                accountManager.updateBalance(fromAccount, conn);
-                wal.logDebit(transaction.getTransactionUuid(), fromAccountId, amount, 
-                           oldFromBalance, fromAccount.getBalance());
-                
-                // Credit to destination
-                BigDecimal oldToBalance = toAccount.getBalance();
-                toAccount.credit(amount);
-                accountManager.updateBalance(toAccount, conn);
-                wal.logCredit(transaction.getTransactionUuid(), toAccountId, amount,
-                            oldToBalance, toAccount.getBalance());
-                
-                // Save transaction to database
-                acidController.saveTransaction(transaction, conn);
-                
-                // Commit database transaction
-                conn.commit();
-                wal.logCommit(transaction.getTransactionUuid());
-                
-                // Update state to COMMITTED
-                transaction.transitionTo(TransactionState.COMMITTED);
-                
-                auditLogger.logEvent(transaction.getTransactionUuid(), "TRANSACTION_COMMITTED",
-                        fromAccountId, String.format("Successfully transferred %.2f", amount));
-                
-                System.out.println("✓ Transaction committed: " + transaction.getTransactionUuid());
-                
-            } catch (Exception e) {
-                rollback(transaction, conn, "Exception: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
-                if (conn != null) {
-                    try {
-                        conn.setAutoCommit(true);
-                        conn.close();
-                    } catch (SQLException e) {
-                        e.printStackTrace();
-                    }
-                }
+            if (ledger != null) {
+                executeOnLedger(transaction, timer, audit);
+            } else {
+                executeOnDatabase(transaction, timer, audit);
             }
             
         } finally {
@@ -147,62 +180,316 @@ public class TransactionManager {
                 lock2.unlock();
             }
             lock1.unlock();
+            if (permit != null) {
+                admission.release(permit);
+            }
+            timer.finish();
+            (transaction.isSuccessful() ? committedCount : rolledBackCount).increment();
+            if (event.shouldCommit()) {
+                event.engine = ledger != null ? "embedded" : "jdbc";
+                event.transactionId = transaction.getTransactionUuid();
+                event.fromAccount = fromAccountId;
+                event.toAccount = toAccountId;
+                event.amountBucket = FlightEvents.amountBucket(amount);
+                event.riskScore = transaction.getRiskScore();
+                event.outcome = transaction.getState().name();
+                event.reason = transaction.getErrorMessage();
+                event.commit();
+            }
         }
         
         return transaction;
     }
     
     /**
-     * Validate transaction business rules
+     * Execute a transfer at most once per idempotency key
+     * A retry with a key seen before returns the original committed or in-doubt
+     * Transaction; rolled-back attempts are not remembered, so they can be retried.
      */
-    private boolean validateTransaction(Transaction transaction, Connection conn) {
+    public Transaction executeTransfer(long fromAccountId, long toAccountId, BigDecimal amount,
+                                       String description, String idempotencyKey) {
+        Transaction transaction = idempotencyCache().execute(idempotencyKey,
+                () -> executeTransfer(fromAccountId, toAccountId, amount, description), this::getTransaction);
+        if (transaction.getFromAccountId() != fromAccountId || transaction.getToAccountId() != toAccountId
+                || transaction.getAmount().compareTo(amount) != 0
+                || !Objects.equals(transaction.getDescription(), description)) {
+            throw new IllegalArgumentException("Idempotency key already used for a different transfer");
+        }
+        return transaction;
+    }
+    
+    private static synchronized IdempotencyCache<Transaction> idempotencyCache() {
+        if (idempotency == null) {
+            idempotency = new IdempotencyCache<>("transfers",
+                    new File(AppConfig.logPath("idempotency"), "transfers.keys"),
+                    AppConfig.getIdempotencyTtlMillis(), AppConfig.getIdempotencyMaxKeys(),
+                    Transaction::getTransactionUuid, t -> t.isSuccessful() || !t.isCompleted());
+        }
+        return idempotency;
+    }
+    
+    /**
+     * Pool for executeTransferAsync; the bounded queue is the async admission queue
+     */
+    private static synchronized ThreadPoolExecutor transferExecutor() {
+        if (transferExecutor == null) {
+            int threads = AppConfig.getAsyncTransferThreads();
+            transferExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(AppConfig.getAsyncTransferQueue()), daemonThreads("transfer-async"));
+            MetricsRegistry.getInstance().gauge("fortis_async_transfers_queued",
+                    "Async transfers waiting for a transfer thread", () -> transferExecutor.getQueue().size());
+        }
+        return transferExecutor;
+    }
+    
+    /**
+     * Single audit writer for async transfers; when it falls behind, transfer threads write themselves
+     */
+    private static synchronized ExecutorService auditExecutor() {
+        if (auditExecutor == null) {
+            auditExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(AppConfig.getAsyncTransferQueue()), daemonThreads("transfer-audit"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return auditExecutor;
+    }
+    
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + count.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+    
+    /**
+     * Admission control shared by all instances, or null when disabled
+     */
+    private static synchronized AdmissionController admissionController() {
+        if (sharedAdmission == null && AppConfig.isAdmissionControlEnabled()) {
+            sharedAdmission = new AdmissionController(AppConfig.getAdmissionInitialLimit(), 1,
+                    AppConfig.getAdmissionMaxLimit(), AppConfig.getAdmissionQueue(),
+                    AppConfig.getAdmissionWaitMillis());
+        }
+        return sharedAdmission;
+    }
+    
+    /**
+     * Run the state machine against MySQL; the caller holds both account locks
+     */
+    private void executeOnDatabase(Transaction transaction, TransferStageTimer timer, AuditSink audit) {
+        long fromAccountId = transaction.getFromAccountId();
+        long toAccountId = transaction.getToAccountId();
+        BigDecimal amount = transaction.getAmount();
+        Connection conn = null;
+        
         try {
-            Account fromAccount = accountManager.getAccount(transaction.getFromAccountId(), conn);
-            Account toAccount = accountManager.getAccount(transaction.getToAccountId(), conn);
+            // Log transaction initiation
+            audit.logEvent(transaction.getTransactionUuid(), "TRANSACTION_INITIATED",
+                    fromAccountId, String.format("Transfer %.2f to account %d", amount, toAccountId));
+            timer.lap(Stage.AUDIT);
             
-            // Check if accounts exist
-            if (fromAccount == null || toAccount == null) {
-                transaction.setErrorMessage("One or both accounts not found");
-                return false;
+            // Get database connection and start transaction
+            conn = dbManager.getConnection();
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            timer.lap(Stage.CONNECTION);
+            
+            // Write to WAL: BEGIN
+            wal.logBegin(transaction.getTransactionUuid());
+            timer.lap(Stage.WAL);
+            
+            // STATE 1: INIT → VALIDATED
+            boolean valid = validateTransaction(transaction, conn);
+            timer.lap(Stage.VALIDATION);
+            if (!valid) {
+                rollback(transaction, conn, "Validation failed", audit);
+                timer.lap(Stage.ROLLBACK);
+                return;
             }
+            transaction.transitionTo(TransactionState.VALIDATED);
+            audit.logEvent(transaction.getTransactionUuid(), "VALIDATION_PASSED",
+                    fromAccountId, "Business rules validated");
+            timer.lap(Stage.AUDIT);
             
-            // Check if accounts are active
-            if (!fromAccount.isActive()) {
-                transaction.setErrorMessage("Source account is not active");
-                return false;
+            // STATE 2: VALIDATED → RISK_CHECK
+            transaction.transitionTo(TransactionState.RISK_CHECK);
+            RiskScore riskScore = riskEngine.evaluateTransaction(transaction, conn);
+            transaction.setRiskScore(riskScore.getTotalScore());
+            transaction.setRiskFactors(riskScore.getDetailedBreakdown());
+            riskScores.record(riskScore.getTotalScore());
+            timer.lap(Stage.RISK);
+            
+            audit.logEvent(transaction.getTransactionUuid(), "RISK_EVALUATED",
+                    fromAccountId, String.format("Risk score: %d", riskScore.getTotalScore()));
+            timer.lap(Stage.AUDIT);
+            
+            // Check if risk is too high
+            if (riskScore.shouldRollback()) {
+                rollback(transaction, conn, "High risk score: " + riskScore.getTotalScore(), audit);
+                timer.lap(Stage.ROLLBACK);
+                return;
             }
-            if (!toAccount.isActive()) {
-                transaction.setErrorMessage("Destination account is not active");
-                return false;
+            
+            // STATE 3: RISK_CHECK → COMMITTED
+            // Execute the actual transfer
+            Account fromAccount = accountManager.getAccount(fromAccountId, conn);
+            Account toAccount = accountManager.getAccount(toAccountId, conn);
+            
+            // Debit from source
+            BigDecimal oldFromBalance = fromAccount.getBalance();
+            fromAccount.debit(amount);
+            accountManager.updateBalance(fromAccount, conn);
+            timer.lap(Stage.DEBIT_CREDIT);
+            wal.logDebit(transaction.getTransactionUuid(), fromAccountId, amount, 
+                       oldFromBalance, fromAccount.getBalance());
+            timer.lap(Stage.WAL);
+            
+            // Credit to destination
+            BigDecimal oldToBalance = toAccount.getBalance();
+            toAccount.credit(amount);
+            accountManager.updateBalance(toAccount, conn);
+            timer.lap(Stage.DEBIT_CREDIT);
+            wal.logCredit(transaction.getTransactionUuid(), toAccountId, amount,
+                        oldToBalance, toAccount.getBalance());
+            timer.lap(Stage.WAL);
+            
+            // Save transaction to database
+            acidController.saveTransaction(transaction, conn);
+            
+            // Commit database transaction
+            conn.commit();
+            timer.lap(Stage.COMMIT);
+            wal.logCommit(transaction.getTransactionUuid());
+            timer.lap(Stage.WAL);
+            
+            // Update state to COMMITTED
+            transaction.transitionTo(TransactionState.COMMITTED);
+            
+            audit.logEvent(transaction.getTransactionUuid(), "TRANSACTION_COMMITTED",
+                    fromAccountId, String.format("Successfully transferred %.2f", amount));
+            timer.lap(Stage.AUDIT);
+            
+            System.out.println("✓ Transaction committed: " + transaction.getTransactionUuid());
+            
+        } catch (Exception e) {
+            rollback(transaction, conn, "Exception: " + e.getMessage(), audit);
+            e.printStackTrace();
+            timer.lap(Stage.ROLLBACK);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
             }
+            timer.lap(Stage.CONNECTION);
+        }
+    }
+    
+    /**
+     * Run the state machine against the embedded ledger; the caller holds both account locks
+     * The ledger log is the WAL here: one record, fsynced with group commit,
+     * carries the debit, the credit and the commit.
+     */
+    private void executeOnLedger(Transaction transaction, TransferStageTimer timer, AuditSink audit) {
+        long fromAccountId = transaction.getFromAccountId();
+        BigDecimal amount = transaction.getAmount();
+        
+        try {
+            audit.logEvent(transaction.getTransactionUuid(), "TRANSACTION_INITIATED",
+                    fromAccountId, String.format("Transfer %.2f to account %d", amount, transaction.getToAccountId()));
+            timer.lap(Stage.AUDIT);
             
-            // Check if same account
-            if (transaction.getFromAccountId() == transaction.getToAccountId()) {
-                transaction.setErrorMessage("Cannot transfer to same account");
-                return false;
+            // STATE 1: INIT → VALIDATED
+            boolean valid = validateTransaction(transaction, ledger);
+            timer.lap(Stage.VALIDATION);
+            if (!valid) {
+                rollback(transaction, ledger, "Validation failed", audit);
+                timer.lap(Stage.ROLLBACK);
+                return;
             }
+            transaction.transitionTo(TransactionState.VALIDATED);
+            audit.logEvent(transaction.getTransactionUuid(), "VALIDATION_PASSED",
+                    fromAccountId, "Business rules validated");
+            timer.lap(Stage.AUDIT);
             
-            // Check amount validity
-            if (transaction.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-                transaction.setErrorMessage("Amount must be positive");
-                return false;
+            // STATE 2: VALIDATED → RISK_CHECK
+            transaction.transitionTo(TransactionState.RISK_CHECK);
+            RiskScore riskScore = riskEngine.evaluateTransaction(transaction, ledger);
+            transaction.setRiskScore(riskScore.getTotalScore());
+            transaction.setRiskFactors(riskScore.getDetailedBreakdown());
+            riskScores.record(riskScore.getTotalScore());
+            timer.lap(Stage.RISK);
+            
+            audit.logEvent(transaction.getTransactionUuid(), "RISK_EVALUATED",
+                    fromAccountId, String.format("Risk score: %d", riskScore.getTotalScore()));
+            timer.lap(Stage.AUDIT);
+            
+            if (riskScore.shouldRollback()) {
+                rollback(transaction, ledger, "High risk score: " + riskScore.getTotalScore(), audit);
+                timer.lap(Stage.ROLLBACK);
+                return;
             }
             
-            // Check sufficient balance
-            if (!fromAccount.hasSufficientBalance(transaction.getAmount())) {
-                transaction.setErrorMessage("Insufficient balance");
+            // STATE 3: RISK_CHECK → COMMITTED
+            ledger.commitTransfer(transaction);
+            timer.lap(Stage.COMMIT);
+            transaction.transitionTo(TransactionState.COMMITTED);
+            
+            audit.logEvent(transaction.getTransactionUuid(), "TRANSACTION_COMMITTED",
+                    fromAccountId, String.format("Successfully transferred %.2f", amount));
+            timer.lap(Stage.AUDIT);
+            
+        } catch (EmbeddedLedgerStore.InDoubtException e) {
+            // The record may be in the log and replay would apply it: a rollback would be a lie
+            transaction.setErrorMessage("Ledger failure, outcome settled when the ledger is reopened: "
+                    + e.getMessage());
+            audit.logEvent(transaction.getTransactionUuid(), "TRANSACTION_IN_DOUBT",
+                    transaction.getFromAccountId(), e.getMessage());
+        } catch (Exception e) {
+            rollback(transaction, ledger, "Exception: " + e.getMessage(), audit);
+            timer.lap(Stage.ROLLBACK);
+        }
+    }
+    
+    /**
+     * Validate transaction business rules
+     */
+    private boolean validateTransaction(Transaction transaction, Connection conn) {
+        try {
+            Account fromAccount = accountManager.getAccount(transaction.getFromAccountId(), conn);
+            Account toAccount = accountManager.getAccount(transaction.getToAccountId(), conn);
+            if (!checkBusinessRules(transaction, fromAccount, toAccount)) {
                 return false;
             }
             
-            // Check daily limit
             BigDecimal todayTotal = accountManager.getTodayTransferTotal(
                     transaction.getFromAccountId(), conn);
-            if (todayTotal.add(transaction.getAmount()).compareTo(fromAccount.getDailyLimit()) > 0) {
-                transaction.setErrorMessage("Daily transfer limit exceeded");
+            return checkDailyLimit(transaction, fromAccount, todayTotal);
+            
+        } catch (Exception e) {
+            transaction.setErrorMessage("Validation error: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Validate transaction business rules against the embedded ledger
+     */
+    private boolean validateTransaction(Transaction transaction, EmbeddedLedgerStore ledger) {
+        try {
+            Account fromAccount = ledger.getAccount(transaction.getFromAccountId());
+            Account toAccount = ledger.getAccount(transaction.getToAccountId());
+            if (!checkBusinessRules(transaction, fromAccount, toAccount)) {
                 return false;
             }
             
-            return true;
+            BigDecimal todayTotal = ledger.getTodayTransferTotal(transaction.getFromAccountId());
+            return checkDailyLimit(transaction, fromAccount, todayTotal);
             
         } catch (Exception e) {
             transaction.setErrorMessage("Validation error: " + e.getMessage());
@@ -210,10 +497,56 @@ public class TransactionManager {
         }
     }
     
+    private boolean checkBusinessRules(Transaction transaction, Account fromAccount, Account toAccount) {
+        // Check if accounts exist
+        if (fromAccount == null || toAccount == null) {
+            transaction.setErrorMessage("One or both accounts not found");
+            return false;
+        }
+        
+        // Check if accounts are active
+        if (!fromAccount.isActive()) {
+            transaction.setErrorMessage("Source account is not active");
+            return false;
+        }
+        if (!toAccount.isActive()) {
+            transaction.setErrorMessage("Destination account is not active");
+            return false;
+        }
+        
+        // Check if same account
+        if (transaction.getFromAccountId() == transaction.getToAccountId()) {
+            transaction.setErrorMessage("Cannot transfer to same account");
+            return false;
+        }
+        
+        // Check amount validity
+        if (transaction.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            transaction.setErrorMessage("Amount must be positive");
+            return false;
+        }
+        
+        // Check sufficient balance
+        if (!fromAccount.hasSufficientBalance(transaction.getAmount())) {
+            transaction.setErrorMessage("Insufficient balance");
+            return false;
+        }
+        
+        return true;
+    }
+    
+    private boolean checkDailyLimit(Transaction transaction, Account fromAccount, BigDecimal todayTotal) {
+        if (todayTotal.add(transaction.getAmount()).compareTo(fromAccount.getDailyLimit()) > 0) {
+            transaction.setErrorMessage("Daily transfer limit exceeded");
+            return false;
+        }
+        return true;
+    }
+    
     /**
      * Rollback transaction
      */
-    private void rollback(Transaction transaction, Connection conn, String reason) {
+    private void rollback(Transaction transaction, Connection conn, String reason, AuditSink audit) {
         try {
             if (conn != null) {
                 conn.rollback();
@@ -228,7 +561,7 @@ public class TransactionManager {
                 conn.commit();
             }
             
-            auditLogger.logEvent(transaction.getTransactionUuid(), "TRANSACTION_ROLLED_BACK",
+            audit.logEvent(transaction.getTransactionUuid(), "TRANSACTION_ROLLED_BACK",
                     transaction.getFromAccountId(), reason);
             
             System.out.println("✗ Transaction rolled back: " + reason);
@@ -238,6 +571,69 @@ public class TransactionManager {
         }
     }
     
+    /**
+     * Rollback transaction on the embedded ledger; the rollback is logged for audit
+     */
+    private void rollback(Transaction transaction, EmbeddedLedgerStore ledger, String reason, AuditSink audit) {
+        try {
+            transaction.transitionTo(TransactionState.ROLLED_BACK);
+            transaction.setErrorMessage(reason);
+            ledger.recordRollback(transaction);
+            
+            audit.logEvent(transaction.getTransactionUuid(), "TRANSACTION_ROLLED_BACK",
+                    transaction.getFromAccountId(), reason);
+            
+        } catch (Exception e) {
+            System.err.println("Ledger rollback record failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Where the state machine sends its audit events
+     */
+    private interface AuditSink {
+        void logEvent(String transactionUuid, String eventType, long accountId, String details);
+    }
+    
+    /**
+     * Audit events of one async transfer, held until the transfer has released its locks
+     */
+    private static final class DeferredAudit implements AuditSink {
+        private final List<Event> events = new ArrayList<>(4);
+        
+        private static final class Event {
+            final String transactionUuid, eventType, details;
+            final long accountId;
+            
+            Event(String transactionUuid, String eventType, long accountId, String details) {
+                this.transactionUuid = transactionUuid;
+                this.eventType = eventType;
+                this.accountId = accountId;
+                this.details = details;
+            }
+        }
+        
+        @Override
+        public void logEvent(String transactionUuid, String eventType, long accountId, String details) {
+            events.add(new Event(transactionUuid, eventType, accountId, details));
+        }
+        
+        void writeTo(AuditLogger logger) {
+            for (Event e : events) {
+                logger.logEvent(e.transactionUuid, e.eventType, e.accountId, e.details);
+            }
+        }
+    }
+    
+    /**
+     * Acquire an account lock, recording how long the caller waited
+     */
+    private void lockTimed(ReentrantLock lock) {
+        long start = System.nanoTime();
+        lock.lock();
+        lockWait.record(System.nanoTime() - start);
+    }
+    
     /**
      * Get or create lock for account
      */
@@ -249,6 +645,9 @@ public class TransactionManager {
      * Get transaction by UUID
      */
     public Transaction getTransaction(String uuid) {
+        if (ledger != null) {
+            return ledger.getTransaction(uuid);
+        }
         try (Connection conn = dbManager.getConnection()) {
             return acidController.getTransaction(uuid, conn);
         } catch (Exception e) {
@@ -256,4 +655,19 @@ public class TransactionManager {
             return null;
         }
     }
+    
+    /**
+     * Get transactions initiated in [from, to), oldest first
+     */
+    public List<Transaction> getTransactions(LocalDateTime from, LocalDateTime to) {
+        if (ledger != null) {
+            return ledger.getTransactions(from, to);
+        }
+        try (Connection conn = dbManager.getConnection()) {
+            return acidController.getTransactions(from, to, conn);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
 }
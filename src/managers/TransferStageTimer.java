@@ -0,0 +1,87 @@
+package com.fortis.managers;
+
+import com.fortis.utils.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * TransferStageTimer - Nanosecond lap timer for the stages of a transfer
+ * Each lap() charges the time since the previous lap to one stage; stage
+ * totals are recorded per transfer into shared lock-free histograms.
+ * Enabled with -Dfortis.stage.timing=true. When disabled, start() hands out
+ * a shared inactive timer and every call returns after one final-field check.
+ */
+public final class TransferStageTimer {
+
+    public enum Stage {
+        LOCK, CONNECTION, VALIDATION, RISK, DEBIT_CREDIT, WAL, COMMIT, AUDIT, ROLLBACK, TOTAL
+    }
+
+    private static final boolean ENABLED = Boolean.getBoolean("fortis.stage.timing");
+    private static final TransferStageTimer DISABLED = new TransferStageTimer(false);
+    private static final Map<Stage, LatencyHistogram> HISTOGRAMS = new EnumMap<>(Stage.class);
+
+    static {
+        for (Stage stage : Stage.values()) {
+            HISTOGRAMS.put(stage, new LatencyHistogram());
+        }
+    }
+
+    private final boolean active;
+    private final long[] stageNanos;
+    private long startNanos;
+    private long lastNanos;
+
+    private TransferStageTimer(boolean active) {
+        this.active = active;
+        this.stageNanos = active ? new long[Stage.values().length] : null;
+    }
+
+    /**
+     * Begin timing one transfer
+     */
+    public static TransferStageTimer start() {
+        if (!ENABLED) return DISABLED;
+        TransferStageTimer timer = new TransferStageTimer(true);
+        timer.startNanos = timer.lastNanos = System.nanoTime();
+        return timer;
+    }
+
+    /**
+     * Charge the time since the previous lap to the given stage
+     */
+    public void lap(Stage stage) {
+        if (!active) return;
+        long now = System.nanoTime();
+        stageNanos[stage.ordinal()] += now - lastNanos;
+        lastNanos = now;
+    }
+
+    /**
+     * Record the stages this transfer went through and its total time
+     */
+    public void finish() {
+        if (!active) return;
+        for (Stage stage : Stage.values()) {
+            if (stage != Stage.TOTAL && stageNanos[stage.ordinal()] > 0) {
+                HISTOGRAMS.get(stage).record(stageNanos[stage.ordinal()]);
+            }
+        }
+        HISTOGRAMS.get(Stage.TOTAL).record(System.nanoTime() - startNanos);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static LatencyHistogram getHistogram(Stage stage) {
+        return HISTOGRAMS.get(stage);
+    }
+
+    public static void reset() {
+        for (LatencyHistogram h : HISTOGRAMS.values()) {
+            h.reset();
+        }
+    }
+}
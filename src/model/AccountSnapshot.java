@@ -0,0 +1,64 @@
+package com.fortis.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable view of an account as of one committed change
+ * BankingService publishes a new snapshot after every commit, so reading
+ * one needs no lock. The version increases with every published change;
+ * an account's snapshots always carry increasing versions, so a caller
+ * can tell whether a snapshot already includes a change it knows about.
+ */
+public final class AccountSnapshot {
+    private final long accountId;
+    private final String accountNumber;
+    private final String accountHolder;
+    private final String accountType;
+    private final BigDecimal balance;
+    private final BankAccount.AccountStatus status;
+    private final BigDecimal dailyLimit;
+    private final long userId;
+    private final LocalDateTime lastTransactionAt;
+    private final long version;
+
+    private AccountSnapshot(BankAccount account, long version) {
+        this.accountId = account.getAccountId();
+        this.accountNumber = account.getAccountNumber();
+        this.accountHolder = account.getAccountHolder();
+        this.accountType = account.getAccountType();
+        this.balance = account.getBalance();
+        this.status = account.getStatus();
+        this.dailyLimit = account.getDailyLimit();
+        this.userId = account.getUserId();
+        this.lastTransactionAt = account.getLastTransactionAt();
+        this.version = version;
+    }
+
+    /**
+     * Capture an account; the caller holds its monitor so balance and status belong together
+     */
+    public static AccountSnapshot of(BankAccount account, long version) {
+        return new AccountSnapshot(account, version);
+    }
+
+    public boolean isActive() {
+        return status == BankAccount.AccountStatus.ACTIVE;
+    }
+
+    public long getAccountId() { return accountId; }
+    public String getAccountNumber() { return accountNumber; }
+    public String getAccountHolder() { return accountHolder; }
+    public String getAccountType() { return accountType; }
+    public BigDecimal getBalance() { return balance; }
+    public BankAccount.AccountStatus getStatus() { return status; }
+    public BigDecimal getDailyLimit() { return dailyLimit; }
+    public long getUserId() { return userId; }
+    public LocalDateTime getLastTransactionAt() { return lastTransactionAt; }
+    public long getVersion() { return version; }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s %s (v%d)", accountNumber, balance, status, version);
+    }
+}
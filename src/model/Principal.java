@@ -0,0 +1,38 @@
+package com.fortis.model;
+
+/**
+ * Immutable identity bound to an authenticated session
+ * Safe to share across threads and hand to request handlers
+ */
+public final class Principal {
+    private final long userId;
+    private final String username;
+    private final User.UserRole role;
+    private final long authenticatedAtMillis;
+    
+    public Principal(long userId, String username, User.UserRole role, long authenticatedAtMillis) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.authenticatedAtMillis = authenticatedAtMillis;
+    }
+    
+    public static Principal of(User user) {
+        return new Principal(user.getUserId(), user.getUsername(), user.getRole(), System.currentTimeMillis());
+    }
+    
+    // Getters
+    public long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public User.UserRole getRole() { return role; }
+    public long getAuthenticatedAtMillis() { return authenticatedAtMillis; }
+    
+    public boolean isAdmin() {
+        return role == User.UserRole.ADMIN;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Principal[%d, %s, %s]", userId, username, role);
+    }
+}
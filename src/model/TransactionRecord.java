@@ -43,15 +43,31 @@ public class TransactionRecord {
     public TransactionRecord(String transactionId, long fromAccountId, long toAccountId,
                            BigDecimal amount, TransactionType type, String description,
                            TransactionStatus status) {
+        this(transactionId, fromAccountId, toAccountId, amount, type, description, status, LocalDateTime.now());
+    }
+
+    /**
+     * Rebuild a stored record with its original timestamp
+     */
+    public TransactionRecord(String transactionId, long fromAccountId, long toAccountId,
+                           BigDecimal amount, TransactionType type, String description,
+                           TransactionStatus status, LocalDateTime timestamp) {
         this.transactionId = transactionId;
         this.fromAccountId = fromAccountId;
         this.toAccountId = toAccountId;
         this.amount = amount;
         this.type = type;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
         this.description = description;
         this.status = status;
     }
+
+    /**
+     * For views that keep the record's data elsewhere and override every getter
+     */
+    protected TransactionRecord() {
+        this(null, 0L, 0L, null, null, null, null, null);
+    }
     
     // Getters
     public String getTransactionId() { return transactionId; }
@@ -64,12 +80,12 @@ public class TransactionRecord {
     public TransactionStatus getStatus() { return status; }
     
     public String getFormattedTimestamp() {
-        return timestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return getTimestamp().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
     
     @Override
     public String toString() {
         return String.format("[%s] %s: ₹%.2f - %s", 
-            getFormattedTimestamp(), type.getDisplayName(), amount, description);
+            getFormattedTimestamp(), getType().getDisplayName(), getAmount(), getDescription());
     }
 }
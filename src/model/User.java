@@ -9,11 +9,11 @@ import java.time.LocalDateTime;
 public class User {
     private final long userId;
     private final String username;
-    private String pin; // Encrypted PIN
+    private volatile String pin; // Encrypted PIN
     private final UserRole role;
     private final LocalDateTime createdAt;
-    private LocalDateTime lastLoginAt;
-    private boolean isLocked;
+    private volatile LocalDateTime lastLoginAt;
+    private volatile boolean isLocked;
     private int failedLoginAttempts;
     
     public enum UserRole {
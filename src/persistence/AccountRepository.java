@@ -0,0 +1,25 @@
+package com.fortis.persistence;
+
+import com.fortis.model.BankAccount;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Storage for BankingService accounts
+ * The service keeps the live accounts in memory; the repository only has
+ * to load them at startup and record every change.
+ */
+public interface AccountRepository {
+    
+    /**
+     * All stored accounts
+     */
+    List<BankAccount> findAll() throws IOException;
+    
+    /**
+     * Insert or replace an account
+     */
+    void save(BankAccount account) throws IOException;
+    
+    void delete(long accountId) throws IOException;
+}
@@ -1,8 +1,12 @@
 package com.fortis.persistence;
 
+import com.fortis.utils.AppConfig;
+import com.fortis.utils.FlightEvents;
+import com.fortis.utils.MetricsRegistry;
 import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * AuditLogger - Immutable audit trail for compliance
@@ -10,14 +14,19 @@ import java.time.format.DateTimeFormatter;
  */
 public class AuditLogger {
     private static AuditLogger instance;
-    private static final String AUDIT_DIR = "logs/audit/";
+    private static final String AUDIT_DIR = AppConfig.logPath("audit");
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
     
     private BufferedWriter writer;
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final MetricsRegistry.Histogram writeLatency = MetricsRegistry.getInstance()
+            .histogram("fortis_audit_write_seconds", "Audit log append and flush latency", 1e-9);
     private String currentLogFile;
     
     private AuditLogger() {
         initializeAuditLog();
+        MetricsRegistry.getInstance().gauge("fortis_audit_queue_depth",
+                "Threads waiting to append to the audit log", this::getQueueDepth);
     }
     
     /**
@@ -56,7 +65,7 @@ public class AuditLogger {
     /**
      * Log an event
      */
-    public synchronized void logEvent(String transactionUuid, String eventType, 
+    public void logEvent(String transactionUuid, String eventType, 
                                      long accountId, String details) {
         String timestamp = LocalDateTime.now().format(formatter);
         String logEntry = String.format("[%s] TXN:%s | EVENT:%s | ACCOUNT:%d | %s",
@@ -68,7 +77,7 @@ public class AuditLogger {
     /**
      * Log system event
      */
-    public synchronized void logSystemEvent(String eventType, String details) {
+    public void logSystemEvent(String eventType, String details) {
         String timestamp = LocalDateTime.now().format(formatter);
         String logEntry = String.format("[%s] SYSTEM | EVENT:%s | %s",
                 timestamp, eventType, details);
@@ -79,7 +88,7 @@ public class AuditLogger {
     /**
      * Log security event
      */
-    public synchronized void logSecurityEvent(String eventType, long accountId, String details) {
+    public void logSecurityEvent(String eventType, long accountId, String details) {
         String timestamp = LocalDateTime.now().format(formatter);
         String logEntry = String.format("[%s] SECURITY | EVENT:%s | ACCOUNT:%d | %s",
                 timestamp, eventType, accountId, details);
@@ -92,16 +101,36 @@ public class AuditLogger {
      * Write log entry
      */
     private void writeLog(String entry) {
-        try {
-            writer.write(entry);
-            writer.newLine();
-            writer.flush(); // Ensure durability
-        } catch (IOException e) {
-            System.err.println("✗ Failed to write to audit log: " + e.getMessage());
-            e.printStackTrace();
+        // Entries are formatted outside the lock; callers queue here for the writer
+        pendingWrites.incrementAndGet();
+        synchronized (this) {
+            pendingWrites.decrementAndGet();
+            long start = System.nanoTime();
+            FlightEvents.AuditWriteEvent event = new FlightEvents.AuditWriteEvent();
+            event.begin();
+            try {
+                writer.write(entry);
+                writer.newLine();
+                writer.flush(); // Ensure durability
+                writeLatency.record(System.nanoTime() - start);
+                if (event.shouldCommit()) {
+                    event.bytes = entry.length() + 1;
+                    event.commit();
+                }
+            } catch (IOException e) {
+                System.err.println("✗ Failed to write to audit log: " + e.getMessage());
+                e.printStackTrace();
+            }
         }
     }
     
+    /**
+     * Number of threads currently waiting to write an entry
+     */
+    public int getQueueDepth() {
+        return pendingWrites.get();
+    }
+    
     /**
      * Close audit logger
      */
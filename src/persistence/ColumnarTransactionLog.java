@@ -0,0 +1,310 @@
+package com.fortis.persistence;
+
+import com.fortis.model.TransactionRecord;
+import com.fortis.model.TransactionRecord.TransactionStatus;
+import com.fortis.model.TransactionRecord.TransactionType;
+import com.fortis.utils.AppendOnlyLog;
+import com.fortis.utils.ConcurrentLongMap;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * ColumnarTransactionLog - Transaction history as parallel primitive columns
+ * A TransactionRecord object with its id string, BigDecimal, LocalDateTime
+ * and description costs around 300 bytes of heap. Here one record is a row
+ * across fixed-size column chunks, 47 bytes:
+ *
+ *   from, to            account ids (long, long)
+ *   amount              unscaled value (long) and scale (byte)
+ *   time                UTC epoch nanoseconds of the timestamp (long)
+ *   id                  "TXN<millis>-<hex>" as millis less the timestamp's
+ *                       (int), hex value (int) and hex width (byte)
+ *   description         code into a dictionary of distinct descriptions (int)
+ *   meta                type | status << 3 (byte)
+ *
+ * Records that do not fit the encoding (another id format, an amount beyond
+ * a long) are kept as they are, in a side map by row. Chunks are never
+ * moved or copied. Like AppendOnlyLog, appends serialize on a short lock
+ * and publish by advancing the volatile size, and a snapshot pins the size
+ * and reads without locking. Rows are handed out as ColumnarTransactionRecord
+ * views that decode on each getter call.
+ */
+public class ColumnarTransactionLog {
+    private static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int STATUS_SHIFT = 3;
+    private static final int KEPT_WHOLE = 1 << 6; // meta flag: the row is in the irregular map
+    private static final long NANOS = 1_000_000_000L;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    /**
+     * One column chunk; the arrays are written once per row, before the row is published
+     */
+    static final class Chunk {
+        final long[] from = new long[CHUNK_SIZE];
+        final long[] to = new long[CHUNK_SIZE];
+        final long[] amount = new long[CHUNK_SIZE];
+        final long[] time = new long[CHUNK_SIZE];
+        final int[] idDelta = new int[CHUNK_SIZE]; // id millis - timestamp millis
+        final int[] idSuffix = new int[CHUNK_SIZE];
+        final int[] description = new int[CHUNK_SIZE];
+        final byte[] scale = new byte[CHUNK_SIZE];
+        final byte[] idWidth = new byte[CHUNK_SIZE];
+        final byte[] meta = new byte[CHUNK_SIZE];
+    }
+
+    private volatile Chunk[] chunks = new Chunk[16];
+    private volatile int size; // high-water mark: rows below it are published
+
+    private final Map<String, Integer> descriptionCodes = new HashMap<>(); // appenders only, under the lock
+    private final AppendOnlyLog<String> descriptions = new AppendOnlyLog<>();
+    private final ConcurrentLongMap<TransactionRecord> irregular = new ConcurrentLongMap<>(16);
+
+    public synchronized void append(TransactionRecord record) {
+        int index = size;
+        int c = index >>> CHUNK_BITS;
+        Chunk[] dir = chunks;
+        if (c == dir.length) {
+            Chunk[] bigger = new Chunk[dir.length * 2];
+            System.arraycopy(dir, 0, bigger, 0, dir.length);
+            chunks = dir = bigger;
+        }
+        if (dir[c] == null) {
+            dir[c] = new Chunk();
+        }
+        if (!encode(dir[c], index & CHUNK_MASK, record)) {
+            irregular.put(index, record);
+            dir[c].meta[index & CHUNK_MASK] = (byte) KEPT_WHOLE;
+        }
+        size = index + 1; // publish
+    }
+
+    public synchronized void appendAll(Collection<? extends TransactionRecord> records) {
+        for (TransactionRecord record : records) {
+            append(record);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Pin the current contents; O(1), no copy and no lock
+     */
+    public Snapshot snapshot() {
+        int pinned = size; // read before the directory, so the directory covers it
+        return new Snapshot(chunks, pinned);
+    }
+
+    /**
+     * Heap held by the columns and the description dictionary, excluding irregular rows
+     */
+    public long allocatedBytes() {
+        long bytes = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                bytes += CHUNK_SIZE * (4 * 8 + 3 * 4 + 3) + 10 * 16L;
+            }
+        }
+        for (String text : descriptions.snapshot()) {
+            bytes += 40 + 2L * text.length(); // String and its array, at most two bytes a char
+        }
+        return bytes;
+    }
+
+    /**
+     * Read-only view of the log at one high-water mark
+     */
+    public final class Snapshot extends AbstractList<TransactionRecord> implements RandomAccess {
+        private final Chunk[] pinnedChunks;
+        private final int pinnedSize;
+
+        private Snapshot(Chunk[] chunks, int size) {
+            this.pinnedChunks = chunks;
+            this.pinnedSize = size;
+        }
+
+        @Override
+        public TransactionRecord get(int index) {
+            if (index < 0 || index >= pinnedSize) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + pinnedSize);
+            }
+            Chunk chunk = pinnedChunks[index >>> CHUNK_BITS];
+            int row = index & CHUNK_MASK;
+            if ((chunk.meta[row] & KEPT_WHOLE) != 0) {
+                return irregular.get(index);
+            }
+            return new ColumnarTransactionRecord(ColumnarTransactionLog.this, chunk, row);
+        }
+
+        @Override
+        public int size() {
+            return pinnedSize;
+        }
+
+        /**
+         * Records from or to the account, oldest first; rows are matched on the
+         * account columns, so only matches become views
+         */
+        public List<TransactionRecord> forAccount(long accountId) {
+            List<TransactionRecord> result = new ArrayList<>();
+            for (int index = 0; index < pinnedSize; index++) {
+                Chunk chunk = pinnedChunks[index >>> CHUNK_BITS];
+                int row = index & CHUNK_MASK;
+                if ((chunk.meta[row] & KEPT_WHOLE) != 0) {
+                    TransactionRecord record = irregular.get(index);
+                    if (record.getFromAccountId() == accountId || record.getToAccountId() == accountId) {
+                        result.add(record);
+                    }
+                } else if (chunk.from[row] == accountId || chunk.to[row] == accountId) {
+                    result.add(new ColumnarTransactionRecord(ColumnarTransactionLog.this, chunk, row));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * First record with the id, scanning the id columns without decoding rows; null if absent
+         */
+        public TransactionRecord find(String transactionId) {
+            if (transactionId == null) {
+                return null;
+            }
+            long[] id = parseId(transactionId);
+            for (int index = 0; index < pinnedSize; index++) {
+                Chunk chunk = pinnedChunks[index >>> CHUNK_BITS];
+                int row = index & CHUNK_MASK;
+                if ((chunk.meta[row] & KEPT_WHOLE) != 0) {
+                    TransactionRecord record = irregular.get(index);
+                    if (transactionId.equals(record.getTransactionId())) {
+                        return record;
+                    }
+                } else if (id != null && chunk.idSuffix[row] == (int) id[1] && chunk.idWidth[row] == id[2]
+                        && chunk.idDelta[row] == id[0] - Math.floorDiv(chunk.time[row], NANOS / 1000)) {
+                    return get(index);
+                }
+            }
+            return null;
+        }
+    }
+
+    // ===== Encoding =====
+
+    private boolean encode(Chunk chunk, int row, TransactionRecord record) {
+        long[] id = parseId(record.getTransactionId());
+        BigDecimal amount = record.getAmount();
+        LocalDateTime timestamp = record.getTimestamp();
+        if (id == null || id[2] > 8 || amount == null || amount.unscaledValue().bitLength() > 63
+                || amount.scale() != (byte) amount.scale() || timestamp == null
+                || timestamp.getYear() < 1700 || timestamp.getYear() > 2200
+                || record.getType() == null || record.getStatus() == null) {
+            return false;
+        }
+        long time = timestamp.toEpochSecond(ZoneOffset.UTC) * NANOS + timestamp.getNano();
+        long idDelta = id[0] - Math.floorDiv(time, NANOS / 1000);
+        if (idDelta != (int) idDelta) {
+            return false;
+        }
+        chunk.from[row] = record.getFromAccountId();
+        chunk.to[row] = record.getToAccountId();
+        chunk.amount[row] = amount.unscaledValue().longValue();
+        chunk.scale[row] = (byte) amount.scale();
+        chunk.time[row] = time;
+        chunk.idDelta[row] = (int) idDelta;
+        chunk.idSuffix[row] = (int) id[1];
+        chunk.idWidth[row] = (byte) id[2];
+        chunk.description[row] = code(record.getDescription());
+        chunk.meta[row] = (byte) (record.getType().ordinal() | record.getStatus().ordinal() << STATUS_SHIFT);
+        return true;
+    }
+
+    private int code(String description) {
+        if (description == null) {
+            return -1;
+        }
+        Integer code = descriptionCodes.get(description);
+        if (code == null) {
+            code = descriptions.size();
+            descriptions.append(description);
+            descriptionCodes.put(description, code);
+        }
+        return code;
+    }
+
+    /**
+     * "TXN<millis>-<uppercase hex>" as {millis, hex value, hex width}, or null for any other id
+     */
+    private static long[] parseId(String id) {
+        if (id == null || !id.startsWith("TXN")) {
+            return null;
+        }
+        int dash = id.indexOf('-', 3);
+        int digits = dash - 3;
+        int width = id.length() - dash - 1;
+        if (digits < 1 || digits > 18 || width < 1 || width > 15
+                || (digits > 1 && id.charAt(3) == '0')) {
+            return null;
+        }
+        long millis = 0;
+        for (int i = 3; i < dash; i++) {
+            char ch = id.charAt(i);
+            if (ch < '0' || ch > '9') return null;
+            millis = millis * 10 + (ch - '0');
+        }
+        long suffix = 0;
+        for (int i = dash + 1; i < id.length(); i++) {
+            char ch = id.charAt(i);
+            int digit = ch >= '0' && ch <= '9' ? ch - '0' : ch >= 'A' && ch <= 'F' ? ch - 'A' + 10 : -1;
+            if (digit < 0) return null;
+            suffix = suffix << 4 | digit;
+        }
+        return new long[] {millis, suffix, width};
+    }
+
+    // ===== Decoding, for ColumnarTransactionRecord =====
+
+    static String id(Chunk chunk, int row) {
+        String hex = Integer.toHexString(chunk.idSuffix[row]).toUpperCase();
+        long millis = Math.floorDiv(chunk.time[row], NANOS / 1000) + chunk.idDelta[row];
+        StringBuilder sb = new StringBuilder(24).append("TXN").append(millis).append('-');
+        for (int i = hex.length(); i < chunk.idWidth[row]; i++) {
+            sb.append('0');
+        }
+        return sb.append(hex).toString();
+    }
+
+    static BigDecimal amount(Chunk chunk, int row) {
+        return BigDecimal.valueOf(chunk.amount[row], chunk.scale[row]);
+    }
+
+    static LocalDateTime timestamp(Chunk chunk, int row) {
+        long nanos = chunk.time[row];
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS), (int) Math.floorMod(nanos, NANOS), ZoneOffset.UTC);
+    }
+
+    static TransactionType type(Chunk chunk, int row) {
+        return TYPES[chunk.meta[row] & ((1 << STATUS_SHIFT) - 1)];
+    }
+
+    static TransactionStatus status(Chunk chunk, int row) {
+        return STATUSES[(chunk.meta[row] >>> STATUS_SHIFT) & 0x7];
+    }
+
+    String description(Chunk chunk, int row) {
+        int code = chunk.description[row];
+        return code < 0 ? null : descriptions.snapshot().get(code);
+    }
+}
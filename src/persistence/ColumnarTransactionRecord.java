@@ -0,0 +1,65 @@
+package com.fortis.persistence;
+
+import com.fortis.model.TransactionRecord;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * TransactionRecord view over one row of a ColumnarTransactionLog
+ * Holds only its chunk and row; every getter decodes the columns, so the
+ * view is cheap to hand out and short-lived views are all callers need.
+ * Rows never change after they are published, so a view is as immutable
+ * as the record it stands for.
+ */
+public class ColumnarTransactionRecord extends TransactionRecord {
+    private final ColumnarTransactionLog log;
+    private final ColumnarTransactionLog.Chunk chunk;
+    private final int row;
+
+    ColumnarTransactionRecord(ColumnarTransactionLog log, ColumnarTransactionLog.Chunk chunk, int row) {
+        this.log = log;
+        this.chunk = chunk;
+        this.row = row;
+    }
+
+    @Override
+    public String getTransactionId() {
+        return ColumnarTransactionLog.id(chunk, row);
+    }
+
+    @Override
+    public long getFromAccountId() {
+        return chunk.from[row];
+    }
+
+    @Override
+    public long getToAccountId() {
+        return chunk.to[row];
+    }
+
+    @Override
+    public BigDecimal getAmount() {
+        return ColumnarTransactionLog.amount(chunk, row);
+    }
+
+    @Override
+    public TransactionType getType() {
+        return ColumnarTransactionLog.type(chunk, row);
+    }
+
+    @Override
+    public LocalDateTime getTimestamp() {
+        return ColumnarTransactionLog.timestamp(chunk, row);
+    }
+
+    @Override
+    public String getDescription() {
+        return log.description(chunk, row);
+    }
+
+    @Override
+    public TransactionStatus getStatus() {
+        return ColumnarTransactionLog.status(chunk, row);
+    }
+}
@@ -0,0 +1,192 @@
+package com.fortis.persistence;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * CommandJournal - Input journal for SequencedBankingCore
+ * Commands are appended in sequence order as CRC-checked binary records
+ * (length, crc, payload). Records are collected in a buffer and written
+ * with one write, and optionally one fsync, per batch. Replay stops at
+ * the first torn or corrupt record and truncates the file there. A batch
+ * whose write or fsync fails is cut off the file again, so a rejected
+ * batch is never replayed; if even that fails, the journal refuses all
+ * further batches.
+ * Single writer: only the journaler thread calls append() and flush(),
+ * after replay() has positioned the file at the end of the last record.
+ */
+public class CommandJournal implements Closeable {
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private static final int READ_CHUNK = 1 << 20;
+    private static final int RECORD_FIXED = 8 + 1 + 8 * 4 + 4;
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer batch = ByteBuffer.allocate(INITIAL_BUFFER);
+    private long position;
+    private IOException failure; // set when a failed batch could not be cut off
+
+    /**
+     * Receives journaled commands during replay
+     */
+    public interface Visitor {
+        void command(long sequence, byte type, long accountId, long otherId, long amountCents,
+                     long timestamp, String text);
+    }
+
+    public CommandJournal(File file, boolean sync) throws IOException {
+        this(open(file), sync);
+    }
+
+    /**
+     * Journal over an open channel, readable and writable
+     */
+    public CommandJournal(FileChannel channel, boolean sync) {
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    private static FileChannel open(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null) dir.mkdirs();
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Visit every complete record in order; returns the last sequence, or -1 if empty
+     * The file is read in large chunks, not one read per record.
+     */
+    public long replay(Visitor visitor) throws IOException {
+        long size = channel.size();
+        ByteBuffer buf = ByteBuffer.allocate(READ_CHUNK);
+        buf.flip();
+        long offset = 0;   // file offset of buf.position()
+        long fileRead = 0; // file offset of buf.limit()
+        long last = -1;
+        while (true) {
+            long needed = buf.remaining() < 8 ? 8 : 8L + buf.getInt(buf.position());
+            if (buf.remaining() >= 8 && (needed < 8 + RECORD_FIXED || offset + needed > size)) {
+                break; // corrupt length or torn record
+            }
+            if (buf.remaining() < needed) {
+                if (fileRead >= size) break;
+                if (needed > buf.capacity()) {
+                    ByteBuffer bigger = ByteBuffer.allocate((int) needed);
+                    bigger.put(buf);
+                    buf = bigger;
+                } else {
+                    buf.compact();
+                }
+                while (buf.hasRemaining() && fileRead < size) {
+                    fileRead += channel.read(buf, fileRead);
+                }
+                buf.flip();
+                continue;
+            }
+            int start = buf.position();
+            int length = buf.getInt(start);
+            int checksum = buf.getInt(start + 4);
+            crc.reset();
+            crc.update(buf.array(), start + 8, length);
+            if ((int) crc.getValue() != checksum) break;
+
+            buf.position(start + 8);
+            last = buf.getLong();
+            byte type = buf.get();
+            long accountId = buf.getLong();
+            long otherId = buf.getLong();
+            long amountCents = buf.getLong();
+            long timestamp = buf.getLong();
+            int textLength = buf.getInt();
+            String text = textLength < 0 ? null
+                    : new String(buf.array(), buf.position(), textLength, StandardCharsets.UTF_8);
+            visitor.command(last, type, accountId, otherId, amountCents, timestamp, text);
+            buf.position(start + 8 + length);
+            offset += 8 + length;
+        }
+        if (offset < size) {
+            System.err.println("Command journal: discarding " + (size - offset) + " bytes of incomplete record");
+            channel.truncate(offset);
+        }
+        position = offset;
+        return last;
+    }
+
+    /**
+     * Add a command to the current batch; nothing is written until flush()
+     */
+    public void append(long sequence, byte type, long accountId, long otherId, long amountCents,
+                       long timestamp, String text) {
+        byte[] textBytes = text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_FIXED + (textBytes == null ? 0 : textBytes.length);
+        ensure(8 + length);
+        int start = batch.position();
+        batch.putInt(length).putInt(0);
+        batch.putLong(sequence).put(type).putLong(accountId).putLong(otherId)
+                .putLong(amountCents).putLong(timestamp);
+        if (textBytes == null) {
+            batch.putInt(-1);
+        } else {
+            batch.putInt(textBytes.length).put(textBytes);
+        }
+        crc.reset();
+        crc.update(batch.array(), start + 8, length);
+        batch.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private void ensure(int bytes) {
+        if (batch.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + bytes));
+            batch.flip();
+            bigger.put(batch);
+            batch = bigger;
+        }
+    }
+
+    /**
+     * Write the batch with one write call and, if enabled, one fsync
+     * On failure the batch is dropped and nothing of it stays in the file.
+     */
+    public void flush() throws IOException {
+        if (batch.position() == 0) return;
+        if (failure != null) {
+            batch.clear();
+            throw new IOException("Command journal failed earlier, restart to recover", failure);
+        }
+        long start = position;
+        batch.flip();
+        try {
+            long end = start;
+            while (batch.hasRemaining()) {
+                end += channel.write(batch, end);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+            position = end;
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+            } catch (IOException truncateFailure) {
+                failure = truncateFailure;
+            }
+            throw e;
+        } finally {
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
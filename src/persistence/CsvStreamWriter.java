@@ -0,0 +1,232 @@
+package com.fortis.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CsvStreamWriter - Bounded-memory CSV encoder for large exports
+ * Rows are encoded as UTF-8 straight into one reusable buffer which is
+ * drained to a FileChannel (optionally through gzip) in large chunks
+ */
+public class CsvStreamWriter implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20; // 1 MB
+    private static final int MAX_CHAR_BYTES = 4;
+
+    private final FileChannel channel;
+    private final OutputStream gzip;
+    private final ByteBuffer buffer;
+    private boolean firstField = true;
+    private long rowCount;
+    private long bytesWritten;
+
+    public CsvStreamWriter(Path path, boolean compress) throws IOException {
+        this(path, compress, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvStreamWriter(Path path, boolean compress, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.gzip = compress
+                ? new GZIPOutputStream(Channels.newOutputStream(channel), bufferSize)
+                : null;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 64));
+    }
+
+    /**
+     * Write a raw field, replacing commas with semicolons so the row stays well-formed
+     */
+    public CsvStreamWriter field(CharSequence value) throws IOException {
+        separator();
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',') {
+                    c = ';';
+                } else if (c == '\n' || c == '\r') {
+                    c = ' ';
+                }
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    putCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+                } else {
+                    putCodePoint(c);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write an enum constant by name
+     */
+    public CsvStreamWriter field(Enum<?> value) throws IOException {
+        return field(value != null ? value.name() : null);
+    }
+
+    /**
+     * Write a long without going through String conversion
+     */
+    public CsvStreamWriter field(long value) throws IOException {
+        separator();
+        putLong(value);
+        return this;
+    }
+
+    /**
+     * Write a monetary amount with two decimals (same rounding as %.2f)
+     */
+    public CsvStreamWriter field(BigDecimal amount) throws IOException {
+        separator();
+        if (amount == null) {
+            return this;
+        }
+        BigDecimal scaled = amount.setScale(2, RoundingMode.HALF_UP);
+        long unscaled;
+        try {
+            unscaled = scaled.unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            putAscii(scaled.toPlainString());
+            return this;
+        }
+        if (unscaled < 0) {
+            put((byte) '-');
+            unscaled = -unscaled;
+        }
+        putLong(unscaled / 100);
+        put((byte) '.');
+        long cents = unscaled % 100;
+        put((byte) ('0' + cents / 10));
+        put((byte) ('0' + cents % 10));
+        return this;
+    }
+
+    /**
+     * Terminate the current row
+     */
+    public void endRow() throws IOException {
+        put((byte) '\n');
+        firstField = true;
+        rowCount++;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Bytes handed to the sink so far (uncompressed size)
+     */
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    /**
+     * Drain the buffer to the underlying channel
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        if (gzip != null) {
+            gzip.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            if (gzip != null) {
+                gzip.close(); // finishes the gzip trailer and closes the channel
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void separator() throws IOException {
+        if (!firstField) {
+            put((byte) ',');
+        }
+        firstField = false;
+    }
+
+    private void putAscii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            put((byte) s.charAt(i));
+        }
+    }
+
+    private void putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            putAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        ensure(20);
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+        // digits were written least-significant first, reverse them in place
+        int end = buffer.position() - 1;
+        byte[] array = buffer.array();
+        int offset = buffer.arrayOffset();
+        for (int i = start, j = end; i < j; i++, j--) {
+            byte tmp = array[offset + i];
+            array[offset + i] = array[offset + j];
+            array[offset + j] = tmp;
+        }
+    }
+
+    private void putCodePoint(int cp) throws IOException {
+        ensure(MAX_CHAR_BYTES);
+        if (cp < 0x80) {
+            buffer.put((byte) cp);
+        } else if (cp < 0x800) {
+            buffer.put((byte) (0xC0 | (cp >> 6)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else if (cp < 0x10000) {
+            if (Character.isSurrogate((char) cp)) {
+                buffer.put((byte) '?'); // unpaired surrogate
+                return;
+            }
+            buffer.put((byte) (0xE0 | (cp >> 12)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else {
+            buffer.put((byte) (0xF0 | (cp >> 18)));
+            buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        }
+    }
+
+    private void put(byte b) throws IOException {
+        ensure(1);
+        buffer.put(b);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
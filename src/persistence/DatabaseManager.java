@@ -1,5 +1,7 @@
 package com.fortis.persistence;
 
+import com.fortis.utils.MetricsRegistry;
+
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.*;
@@ -12,7 +14,7 @@ import java.util.Properties;
 public class DatabaseManager {
     
     private static DatabaseManager instance;
-    private Connection connection;
+    private volatile Connection connection;
     private Properties dbProperties;
     
     // Database configuration
@@ -23,11 +25,17 @@ public class DatabaseManager {
     private String dbPassword;
     private String dbUrl;
     
+    private final MetricsRegistry.Counter connects = MetricsRegistry.getInstance()
+            .counter("fortis_db_connects_total", "Physical database connections opened");
+    
     /**
      * Private constructor for singleton pattern
      */
     private DatabaseManager() {
         loadConfiguration();
+        // There is a single shared connection, so pool usage is 0 or 1
+        MetricsRegistry.getInstance().gauge("fortis_db_connections_open",
+                "Open database connections", () -> isConnectionOpen() ? 1 : 0);
         connect();
     }
     
@@ -83,6 +91,7 @@ public class DatabaseManager {
             
             // Establish connection
             connection = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+            connects.increment();
             
             System.out.println("[SUCCESS] Connected to database: " + dbName);
             
@@ -114,6 +123,18 @@ public class DatabaseManager {
         return connection;
     }
     
+    /**
+     * True if the shared connection is open, without reconnecting
+     */
+    public boolean isConnectionOpen() {
+        try {
+            Connection conn = connection;
+            return conn != null && !conn.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+    
     /**
      * Execute SELECT query
      */
@@ -0,0 +1,814 @@
+package com.fortis.persistence;
+
+import com.fortis.core.Account;
+import com.fortis.core.Account.AccountStatus;
+import com.fortis.core.Account.AccountType;
+import com.fortis.core.Account.RiskLevel;
+import com.fortis.core.Transaction;
+import com.fortis.core.TransactionState;
+import com.fortis.utils.AppConfig;
+import com.fortis.utils.ConcurrentLongMap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * EmbeddedLedgerStore - In-process storage engine for the ACID transfer stack
+ * Lets TransactionManager run without MySQL (-Dfortis.ledger=embedded).
+ *
+ * ledger.log is the write-ahead log and the transaction table at once: every
+ * account creation, committed transfer and rollback is one CRC-checked
+ * binary record, made durable with group commit (one fsync covers every
+ * record written while the previous fsync was running). Transfer records
+ * carry the after-image of both balances, so replaying the log on open is
+ * idempotent and repairs the account file after a crash.
+ *
+ * accounts.dat is a memory-mapped array of fixed 128-byte account records;
+ * balances are read and updated in place, in cents.
+ *
+ * The transaction table is indexed in memory by UUID, by account and by
+ * time; the indexes are rebuilt from the log on open.
+ *
+ * A failed log write is cut off again, so the record is not in the log. A
+ * failed fsync leaves records whose fate only a restart decides: from then
+ * on the store refuses every write, and the waiting committers get an
+ * InDoubtException instead of an outcome.
+ */
+public class EmbeddedLedgerStore implements Closeable {
+    private static EmbeddedLedgerStore instance;
+
+    private static final int MAGIC = 0x464C4447;           // "FLDG"
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 128;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NUMBER_BYTES = 24;
+    private static final int HOLDER_BYTES = 56;
+
+    // Account record layout
+    private static final int OFF_ID = 0;
+    private static final int OFF_BALANCE = 8;
+    private static final int OFF_LIMIT = 16;
+    private static final int OFF_CREATED = 24;
+    private static final int OFF_LAST_TXN = 32;
+    private static final int OFF_TYPE = 40;
+    private static final int OFF_STATUS = 41;
+    private static final int OFF_RISK = 42;
+    private static final int OFF_NUMBER = 44;              // short length + bytes
+    private static final int OFF_HOLDER = 46 + NUMBER_BYTES; // short length + bytes
+
+    // Log record types
+    private static final byte REC_ACCOUNT = 1;
+    private static final byte REC_TRANSFER = 2;
+    private static final byte REC_ROLLBACK = 3;
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final FileChannel accountChannel;
+    private volatile MappedByteBuffer accounts;
+    private int capacity;
+    private int accountCount;
+    private final ConcurrentLongMap<Integer> slots = new ConcurrentLongMap<>();
+    private final AtomicLong nextAccountId = new AtomicLong(1);
+
+    private final FileChannel logChannel;
+    private final boolean syncOnCommit;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private long writePosition;
+    private volatile long writtenPosition;
+    private volatile long durablePosition;
+    private volatile IOException logFailure; // set when the log may hold a record that is not durable
+
+    private final Map<String, Transaction> byUuid = new ConcurrentHashMap<>();
+    private final ConcurrentLongMap<AccountHistory> byAccount = new ConcurrentLongMap<>();
+    private final TimeIndex timeline = new TimeIndex();
+    private final AtomicLong nextTransactionId = new AtomicLong(1);
+
+    public EmbeddedLedgerStore(File dir, boolean syncOnCommit) throws IOException {
+        dir.mkdirs();
+        this.syncOnCommit = syncOnCommit;
+        this.accountChannel = FileChannel.open(new File(dir, "accounts.dat").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.logChannel = FileChannel.open(new File(dir, "ledger.log").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        openAccounts();
+        replayLog();
+    }
+
+    /**
+     * Shared store under the data directory
+     * fortis.ledger.sync=none skips the fsync on commit (OS-buffered durability)
+     */
+    public static synchronized EmbeddedLedgerStore getInstance() {
+        if (instance == null) {
+            try {
+                boolean sync = !"none".equalsIgnoreCase(System.getProperty("fortis.ledger.sync", "commit"));
+                instance = new EmbeddedLedgerStore(AppConfig.dataFile("ledger"), sync);
+                EmbeddedLedgerStore store = instance;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        store.close();
+                    } catch (IOException e) {
+                        System.err.println("Error closing ledger: " + e.getMessage());
+                    }
+                }, "ledger-shutdown"));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open embedded ledger: " + e.getMessage(), e);
+            }
+        }
+        return instance;
+    }
+
+    // ===== Account file =====
+
+    private void openAccounts() throws IOException {
+        long size = accountChannel.size();
+        if (size < HEADER_SIZE) {
+            capacity = INITIAL_CAPACITY;
+            accounts = accountChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            accounts.putInt(0, MAGIC);
+            accounts.putInt(4, 1);
+            accounts.putInt(8, 0);
+            return;
+        }
+        capacity = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+        accounts = accountChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (accounts.getInt(0) != MAGIC) {
+            throw new IOException("accounts.dat is not a ledger account file");
+        }
+        accountCount = accounts.getInt(8);
+        for (int slot = 0; slot < accountCount; slot++) {
+            long id = accounts.getLong(offset(slot) + OFF_ID);
+            slots.put(id, slot);
+            nextAccountId.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /**
+     * Allocate a record for a new account, growing the mapping if needed
+     */
+    private synchronized int allocateSlot(long accountId) throws IOException {
+        Integer existing = slots.get(accountId);
+        if (existing != null) return existing;
+        if (accountCount == capacity) {
+            accounts.force();
+            capacity *= 2;
+            accounts = accountChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        }
+        int slot = accountCount++;
+        accounts.putLong(offset(slot) + OFF_ID, accountId);
+        accounts.putInt(8, accountCount);
+        slots.put(accountId, slot);
+        return slot;
+    }
+
+    private void writeAccount(int slot, long id, String number, String holder, AccountType type,
+                              AccountStatus status, long balance, long dailyLimit, long createdAt) {
+        MappedByteBuffer buf = accounts;
+        int base = offset(slot);
+        buf.putLong(base + OFF_ID, id);
+        buf.putLong(base + OFF_BALANCE, balance);
+        buf.putLong(base + OFF_LIMIT, dailyLimit);
+        buf.putLong(base + OFF_CREATED, createdAt);
+        buf.putLong(base + OFF_LAST_TXN, 0);
+        buf.put(base + OFF_TYPE, (byte) type.ordinal());
+        buf.put(base + OFF_STATUS, (byte) status.ordinal());
+        buf.put(base + OFF_RISK, (byte) RiskLevel.LOW.ordinal());
+        putString(buf, base + OFF_NUMBER, number, NUMBER_BYTES);
+        putString(buf, base + OFF_HOLDER, holder, HOLDER_BYTES);
+    }
+
+    private static void putString(ByteBuffer buf, int pos, String s, int max) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int len = Math.min(bytes.length, max);
+        while (len > 0 && len < bytes.length && (bytes[len] & 0xC0) == 0x80) {
+            len--; // do not cut a multi-byte character in half
+        }
+        buf.putShort(pos, (short) len);
+        for (int i = 0; i < len; i++) {
+            buf.put(pos + 2 + i, bytes[i]);
+        }
+    }
+
+    private static String getString(ByteBuffer buf, int pos) {
+        int len = buf.getShort(pos);
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            bytes[i] = buf.get(pos + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ===== Account API =====
+
+    /**
+     * Create an account; the creation is logged and durable when this returns
+     */
+    public long createAccount(String holder, BigDecimal initialBalance, AccountType type,
+                              BigDecimal dailyLimit) throws IOException {
+        long id = nextAccountId.getAndIncrement();
+        String number = String.format("ACC%010d", id);
+        long createdAt = System.currentTimeMillis();
+        long balance = toCents(initialBalance);
+        long limit = toCents(dailyLimit);
+
+        LogWriter rec = new LogWriter(REC_ACCOUNT);
+        rec.putLong(id).putString(number).putString(holder).putByte((byte) type.ordinal())
+           .putByte((byte) AccountStatus.ACTIVE.ordinal()).putLong(balance).putLong(limit).putLong(createdAt);
+        sync(append(rec));
+
+        applyAccount(id, number, holder, type, AccountStatus.ACTIVE, balance, limit, createdAt);
+        return id;
+    }
+
+    private void applyAccount(long id, String number, String holder, AccountType type, AccountStatus status,
+                              long balance, long limit, long createdAt) throws IOException {
+        int slot = allocateSlot(id);
+        synchronized (slotLock(slot)) {
+            writeAccount(slot, id, number, holder, type, status, balance, limit, createdAt);
+        }
+        nextAccountId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * Snapshot of an account, or null if it does not exist
+     */
+    public Account getAccount(long accountId) {
+        Integer slot = slots.get(accountId);
+        if (slot == null) return null;
+        synchronized (slotLock(slot)) {
+            MappedByteBuffer buf = accounts;
+            int base = offset(slot);
+            Account account = new Account(accountId,
+                    getString(buf, base + OFF_NUMBER),
+                    getString(buf, base + OFF_HOLDER),
+                    fromCents(buf.getLong(base + OFF_BALANCE)),
+                    AccountType.values()[buf.get(base + OFF_TYPE)],
+                    AccountStatus.values()[buf.get(base + OFF_STATUS)],
+                    toDateTime(buf.getLong(base + OFF_CREATED)),
+                    fromCents(buf.getLong(base + OFF_LIMIT)));
+            account.setRiskLevel(RiskLevel.values()[buf.get(base + OFF_RISK)]);
+            long last = buf.getLong(base + OFF_LAST_TXN);
+            if (last != 0) account.setLastTransactionAt(toDateTime(last));
+            return account;
+        }
+    }
+
+    public int getAccountCount() {
+        return slots.size();
+    }
+
+    /**
+     * Per-record monitor; a small fixed pool keeps lock objects off the record path
+     */
+    private final Object[] slotLocks = createLocks(256);
+
+    private static Object[] createLocks(int n) {
+        Object[] locks = new Object[n];
+        for (int i = 0; i < n; i++) locks[i] = new Object();
+        return locks;
+    }
+
+    private Object slotLock(int slot) {
+        return slotLocks[slot & (slotLocks.length - 1)];
+    }
+
+    // ===== Transaction API =====
+
+    /**
+     * Durably commit a transfer that the caller has already validated
+     * The caller must hold both account locks. Balances are updated in
+     * the account file only after the log record is on disk.
+     */
+    public void commitTransfer(Transaction txn) throws IOException {
+        int fromSlot = requireSlot(txn.getFromAccountId());
+        int toSlot = requireSlot(txn.getToAccountId());
+        long amount = toCents(txn.getAmount());
+        long fromAfter = balanceCents(fromSlot) - amount;
+        long toAfter = balanceCents(toSlot) + amount;
+        if (fromAfter < 0) {
+            throw new IllegalStateException("Insufficient balance");
+        }
+
+        long txnId = nextTransactionId.getAndIncrement();
+        long now = System.currentTimeMillis();
+        LogWriter rec = transactionRecord(REC_TRANSFER, txnId, txn, TransactionState.COMMITTED, now);
+        rec.putLong(fromAfter).putLong(toAfter);
+        sync(append(rec));
+
+        applyBalance(fromSlot, fromAfter, now);
+        applyBalance(toSlot, toAfter, now);
+        index(rebuild(txnId, txn, TransactionState.COMMITTED, now));
+    }
+
+    /**
+     * Record a rolled back transfer for the audit trail; balances are untouched
+     */
+    public void recordRollback(Transaction txn) throws IOException {
+        long txnId = nextTransactionId.getAndIncrement();
+        long now = System.currentTimeMillis();
+        LogWriter rec = transactionRecord(REC_ROLLBACK, txnId, txn, TransactionState.ROLLED_BACK, now);
+        rec.putLong(-1).putLong(-1);
+        sync(append(rec));
+        index(rebuild(txnId, txn, TransactionState.ROLLED_BACK, now));
+    }
+
+    private LogWriter transactionRecord(byte type, long txnId, Transaction txn, TransactionState state, long completedAt) {
+        LogWriter rec = new LogWriter(type);
+        rec.putLong(txnId).putString(txn.getTransactionUuid())
+           .putLong(txn.getFromAccountId()).putLong(txn.getToAccountId())
+           .putLong(toCents(txn.getAmount())).putByte((byte) state.ordinal())
+           .putInt(txn.getRiskScore()).putLong(toMillis(txn.getInitiatedAt())).putLong(completedAt)
+           .putString(txn.getDescription()).putString(txn.getRiskFactors()).putString(txn.getErrorMessage());
+        return rec;
+    }
+
+    private Transaction rebuild(long txnId, Transaction txn, TransactionState state, long completedAt) {
+        return new Transaction(txnId, txn.getTransactionUuid(), txn.getFromAccountId(), txn.getToAccountId(),
+                fromCents(toCents(txn.getAmount())), state, txn.getRiskScore(), txn.getRiskFactors(),
+                txn.getDescription(), txn.getInitiatedAt(), toDateTime(completedAt), txn.getErrorMessage());
+    }
+
+    private int requireSlot(long accountId) {
+        Integer slot = slots.get(accountId);
+        if (slot == null) throw new IllegalArgumentException("Account not found: " + accountId);
+        return slot;
+    }
+
+    private long balanceCents(int slot) {
+        synchronized (slotLock(slot)) {
+            return accounts.getLong(offset(slot) + OFF_BALANCE);
+        }
+    }
+
+    private void applyBalance(int slot, long balance, long at) {
+        synchronized (slotLock(slot)) {
+            accounts.putLong(offset(slot) + OFF_BALANCE, balance);
+            accounts.putLong(offset(slot) + OFF_LAST_TXN, at);
+        }
+    }
+
+    private void index(Transaction txn) {
+        byUuid.put(txn.getTransactionUuid(), txn);
+        long time = toMillis(txn.getInitiatedAt());
+        byAccount.computeIfAbsent(txn.getFromAccountId(), k -> new AccountHistory()).add(time, txn, true);
+        if (txn.getToAccountId() != txn.getFromAccountId()) {
+            byAccount.computeIfAbsent(txn.getToAccountId(), k -> new AccountHistory()).add(time, txn, false);
+        }
+        timeline.add(time, txn);
+    }
+
+    public Transaction getTransaction(String uuid) {
+        return byUuid.get(uuid);
+    }
+
+    /**
+     * Newest transactions touching the account, newest first
+     */
+    public List<Transaction> getAccountTransactions(long accountId, int limit) {
+        AccountHistory history = byAccount.get(accountId);
+        return history == null ? new ArrayList<>() : history.latest(limit);
+    }
+
+    /**
+     * Transactions initiated in [from, to), oldest first
+     */
+    public List<Transaction> getTransactions(LocalDateTime from, LocalDateTime to) {
+        return timeline.range(toMillis(from), toMillis(to));
+    }
+
+    /**
+     * Committed outgoing transfers initiated at or after the given time
+     */
+    public int countOutgoingCommitted(long accountId, LocalDateTime since) {
+        AccountHistory history = byAccount.get(accountId);
+        return history == null ? 0 : history.countOutgoingCommitted(toMillis(since));
+    }
+
+    public BigDecimal getTodayTransferTotal(long accountId) {
+        AccountHistory history = byAccount.get(accountId);
+        if (history == null) return BigDecimal.ZERO;
+        return fromCents(history.sumOutgoingCommitted(toMillis(LocalDate.now().atStartOfDay())));
+    }
+
+    public long getTransactionCount() {
+        return byUuid.size();
+    }
+
+    // ===== Log =====
+
+    /**
+     * The record may or may not be in the log; reopening the ledger replays
+     * the log and settles it. Nothing else can be written until then.
+     */
+    public static class InDoubtException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        InDoubtException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Append a record and return the log position just past it
+     * A failed write is truncated away, so nothing of the record stays in the log.
+     */
+    private long append(LogWriter rec) throws IOException {
+        ByteBuffer buf = rec.finish();
+        synchronized (appendLock) {
+            if (logFailure != null) {
+                throw new IOException("Ledger log failed earlier, reopen the ledger to recover", logFailure);
+            }
+            long start = writePosition;
+            long position = start;
+            try {
+                while (buf.hasRemaining()) {
+                    position += logChannel.write(buf, position);
+                }
+            } catch (IOException e) {
+                try {
+                    logChannel.truncate(start);
+                } catch (IOException truncateFailure) {
+                    fail(truncateFailure);
+                    throw new InDoubtException("Ledger log write failed and could not be undone", e);
+                }
+                throw e;
+            }
+            writePosition = position;
+            writtenPosition = position;
+            return position;
+        }
+    }
+
+    /**
+     * Group commit: whoever gets the sync lock forces everything written so far
+     */
+    private void sync(long position) throws IOException {
+        if (!syncOnCommit || durablePosition >= position) return;
+        synchronized (syncLock) {
+            if (durablePosition >= position) return;
+            if (logFailure != null) {
+                throw new InDoubtException("Ledger log fsync failed earlier", logFailure);
+            }
+            long target = writtenPosition;
+            try {
+                logChannel.force(false);
+            } catch (IOException e) {
+                fail(e);
+                throw new InDoubtException("Ledger log fsync failed", e);
+            }
+            durablePosition = target;
+        }
+    }
+
+    private void fail(IOException e) {
+        logFailure = e;
+        System.err.println("Ledger log failed, refusing further writes until reopened: " + e.getMessage());
+    }
+
+    /**
+     * Rebuild account state and indexes from the log; truncate a torn tail
+     */
+    private void replayLog() throws IOException {
+        long size = logChannel.size();
+        ByteBuffer header = ByteBuffer.allocate(8);
+        long position = 0;
+        CRC32 crc = new CRC32();
+        while (position + 8 <= size) {
+            header.clear();
+            logChannel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || position + 8 + length > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            while (payload.hasRemaining()) {
+                if (logChannel.read(payload, position + 8 + payload.position()) < 0) break;
+            }
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != checksum) break;
+
+            payload.flip();
+            applyRecord(payload);
+            position += 8 + length;
+        }
+        if (position < size) {
+            System.err.println("Ledger log: discarding " + (size - position) + " bytes of incomplete record");
+            logChannel.truncate(position);
+        }
+        writePosition = writtenPosition = durablePosition = position;
+    }
+
+    private void applyRecord(ByteBuffer in) throws IOException {
+        LogReader rec = new LogReader(in);
+        byte type = rec.getByte();
+        switch (type) {
+            case REC_ACCOUNT: {
+                long id = rec.getLong();
+                String number = rec.getString();
+                String holder = rec.getString();
+                AccountType accountType = AccountType.values()[rec.getByte()];
+                AccountStatus status = AccountStatus.values()[rec.getByte()];
+                long balance = rec.getLong();
+                long limit = rec.getLong();
+                long createdAt = rec.getLong();
+                if (!slots.containsKey(id)) {
+                    applyAccount(id, number, holder, accountType, status, balance, limit, createdAt);
+                }
+                break;
+            }
+            case REC_TRANSFER:
+            case REC_ROLLBACK: {
+                long txnId = rec.getLong();
+                String uuid = rec.getString();
+                long from = rec.getLong();
+                long to = rec.getLong();
+                BigDecimal amount = fromCents(rec.getLong());
+                TransactionState state = TransactionState.values()[rec.getByte()];
+                int risk = rec.getInt();
+                LocalDateTime initiatedAt = toDateTime(rec.getLong());
+                long completedAt = rec.getLong();
+                String description = rec.getString();
+                String riskFactors = rec.getString();
+                String error = rec.getString();
+                long fromAfter = rec.getLong();
+                long toAfter = rec.getLong();
+
+                if (type == REC_TRANSFER) {
+                    // After-images make redo idempotent
+                    applyBalance(requireSlot(from), fromAfter, completedAt);
+                    applyBalance(requireSlot(to), toAfter, completedAt);
+                }
+                index(new Transaction(txnId, uuid, from, to, amount, state, risk, riskFactors,
+                        description, initiatedAt, toDateTime(completedAt), error));
+                nextTransactionId.accumulateAndGet(txnId + 1, Math::max);
+                break;
+            }
+            default:
+                throw new IOException("Unknown ledger record type " + type);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (!logChannel.isOpen()) return;
+            logChannel.force(true);
+            accounts.force();
+            logChannel.close();
+            accountChannel.close();
+        }
+    }
+
+    // ===== Encoding helpers =====
+
+    static long toCents(BigDecimal amount) {
+        if (amount == null) return 0;
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return millis == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    /**
+     * Builds one length-prefixed, CRC-checked log record
+     */
+    private static final class LogWriter {
+        private ByteBuffer buf = ByteBuffer.allocate(256);
+
+        LogWriter(byte type) {
+            buf.position(8);
+            buf.put(type);
+        }
+
+        private void ensure(int n) {
+            if (buf.remaining() < n) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n));
+                buf.flip();
+                bigger.put(buf);
+                buf = bigger;
+            }
+        }
+
+        LogWriter putByte(byte v) {
+            ensure(1);
+            buf.put(v);
+            return this;
+        }
+
+        LogWriter putInt(int v) {
+            ensure(4);
+            buf.putInt(v);
+            return this;
+        }
+
+        LogWriter putLong(long v) {
+            ensure(8);
+            buf.putLong(v);
+            return this;
+        }
+
+        LogWriter putString(String s) {
+            if (s == null) {
+                return putInt(-1);
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buf.put(bytes);
+            return this;
+        }
+
+        ByteBuffer finish() {
+            int length = buf.position() - 8;
+            CRC32 crc = new CRC32();
+            crc.update(buf.array(), 8, length);
+            buf.putInt(0, length);
+            buf.putInt(4, (int) crc.getValue());
+            buf.flip();
+            return buf;
+        }
+    }
+
+    private static final class LogReader {
+        private final ByteBuffer buf;
+
+        LogReader(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        byte getByte() {
+            return buf.get();
+        }
+
+        int getInt() {
+            return buf.getInt();
+        }
+
+        long getLong() {
+            return buf.getLong();
+        }
+
+        String getString() {
+            int len = buf.getInt();
+            if (len < 0) return null;
+            String s = new String(buf.array(), buf.position(), len, StandardCharsets.UTF_8);
+            buf.position(buf.position() + len);
+            return s;
+        }
+    }
+
+    // ===== Secondary indexes =====
+
+    /**
+     * Transactions of one account ordered by initiation time
+     * Appends arrive almost in order, so insertion from the tail is O(1) in practice.
+     * Running totals make the risk and daily-limit queries a binary search
+     * instead of a scan of the day's history.
+     */
+    private static final class AccountHistory {
+        private long[] times = new long[8];
+        private Transaction[] txns = new Transaction[8];
+        private boolean[] outgoing = new boolean[8];
+        // Running totals over [0..i] of committed transfers
+        private int[] outgoingCount = new int[8];
+        private long[] outgoingCents = new long[8];
+        private int size;
+
+        synchronized void add(long time, Transaction txn, boolean isOutgoing) {
+            if (size == times.length) {
+                int n = size * 2;
+                times = Arrays.copyOf(times, n);
+                txns = Arrays.copyOf(txns, n);
+                outgoing = Arrays.copyOf(outgoing, n);
+                outgoingCount = Arrays.copyOf(outgoingCount, n);
+                outgoingCents = Arrays.copyOf(outgoingCents, n);
+            }
+            int i = size++;
+            while (i > 0 && times[i - 1] > time) {
+                times[i] = times[i - 1];
+                txns[i] = txns[i - 1];
+                outgoing[i] = outgoing[i - 1];
+                i--;
+            }
+            times[i] = time;
+            txns[i] = txn;
+            outgoing[i] = isOutgoing;
+            for (int j = i; j < size; j++) {
+                accumulate(j);
+            }
+        }
+
+        private void accumulate(int i) {
+            boolean committed = txns[i].getState() == TransactionState.COMMITTED;
+            boolean out = committed && outgoing[i];
+            int prev = i - 1;
+            outgoingCount[i] = (prev < 0 ? 0 : outgoingCount[prev]) + (out ? 1 : 0);
+            outgoingCents[i] = (prev < 0 ? 0 : outgoingCents[prev]) + (out ? toCents(txns[i].getAmount()) : 0);
+        }
+
+        private int lowerBound(long time) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < time) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /** Sum of a running total over [from, size) */
+        private static long since(long[] totals, int from, int size) {
+            return size == 0 ? 0 : totals[size - 1] - (from == 0 ? 0 : totals[from - 1]);
+        }
+
+        private static int since(int[] totals, int from, int size) {
+            return size == 0 ? 0 : totals[size - 1] - (from == 0 ? 0 : totals[from - 1]);
+        }
+
+        synchronized int countOutgoingCommitted(long since) {
+            return since(outgoingCount, lowerBound(since), size);
+        }
+
+        synchronized long sumOutgoingCommitted(long since) {
+            return since(outgoingCents, lowerBound(since), size);
+        }
+
+        synchronized List<Transaction> latest(int limit) {
+            List<Transaction> result = new ArrayList<>(Math.min(limit, size));
+            for (int i = size - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(txns[i]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * All transactions ordered by initiation time
+     */
+    private static final class TimeIndex {
+        private long[] times = new long[1024];
+        private Transaction[] txns = new Transaction[1024];
+        private int size;
+
+        synchronized void add(long time, Transaction txn) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                txns = Arrays.copyOf(txns, size * 2);
+            }
+            int i = size++;
+            while (i > 0 && times[i - 1] > time) {
+                times[i] = times[i - 1];
+                txns[i] = txns[i - 1];
+                i--;
+            }
+            times[i] = time;
+            txns[i] = txn;
+        }
+
+        synchronized List<Transaction> range(long from, long to) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < from) lo = mid + 1;
+                else hi = mid;
+            }
+            List<Transaction> result = new ArrayList<>();
+            for (int i = lo; i < size && times[i] < to; i++) {
+                result.add(txns[i]);
+            }
+            return result;
+        }
+    }
+}
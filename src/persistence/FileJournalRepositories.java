@@ -0,0 +1,323 @@
+package com.fortis.persistence;
+
+import com.fortis.model.BankAccount;
+import com.fortis.model.TransactionRecord;
+import com.fortis.model.TransactionRecord.TransactionStatus;
+import com.fortis.model.TransactionRecord.TransactionType;
+import com.fortis.model.User;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * File repositories - the CSV files under the data directory
+ * Accounts and users keep a CSV snapshot plus an append-only journal of
+ * changed rows, so an update costs one appended line instead of a full
+ * file rewrite. The journal is folded back into the snapshot on open,
+ * every COMPACT_EVERY changes and at shutdown, which keeps the CSV files
+ * readable by the SQL terminal and by hand.
+ * Transactions are appended straight to transactions.csv; loans and
+ * notifications use LoanStore and NotificationInboxStore.
+ */
+public final class FileJournalRepositories {
+    static final String ACCOUNTS_HEADER = "ID,NUMBER,HOLDER,BALANCE,LIMIT,TYPE,STATUS,USER_ID";
+    static final String TRANSACTIONS_HEADER = "ID,FROM,TO,AMOUNT,TYPE,DESC,STATUS,DATE";
+    static final String USERS_HEADER = "ID,USERNAME,PIN_HASH,ROLE,STATUS";
+
+    private FileJournalRepositories() {
+    }
+
+    static class Accounts implements AccountRepository, Closeable {
+        private final CsvJournal journal;
+
+        Accounts(File dataDir) throws IOException {
+            this.journal = new CsvJournal(new File(dataDir, "accounts.csv"), ACCOUNTS_HEADER);
+        }
+
+        public List<BankAccount> findAll() {
+            List<BankAccount> accounts = new ArrayList<>();
+            for (String row : journal.rows()) {
+                String[] parts = row.split(",", -1);
+                if (parts.length < 8) continue;
+                try {
+                    BigDecimal limit = parts[4].isEmpty() ? BigDecimal.ZERO : new BigDecimal(parts[4]);
+                    accounts.add(Repositories.newAccount(Long.parseLong(parts[0]), parts[1], parts[2],
+                            new BigDecimal(parts[3]), limit, parts[5], parts[6], Long.parseLong(parts[7])));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping bad account row: " + row);
+                }
+            }
+            return accounts;
+        }
+
+        public void save(BankAccount account) throws IOException {
+            journal.upsert(String.format("%d,%s,%s,%s,%s,%s,%s,%d",
+                    account.getAccountId(), clean(account.getAccountNumber()), clean(account.getAccountHolder()),
+                    account.getBalance(), account.getDailyLimit(), account.getAccountType(),
+                    account.getStatus().name(), account.getUserId()));
+        }
+
+        public void delete(long accountId) throws IOException {
+            journal.delete(String.valueOf(accountId));
+        }
+
+        @Override
+        public void close() throws IOException {
+            journal.close();
+        }
+    }
+
+    static class Transactions implements TransactionRepository, Closeable {
+        private final File file;
+        private final Writer writer;
+
+        Transactions(File dataDir) throws IOException {
+            dataDir.mkdirs();
+            this.file = new File(dataDir, "transactions.csv");
+            boolean fresh = !file.exists() || file.length() == 0;
+            boolean unterminated = !fresh && !endsWithNewline(file);
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(file, true), StandardCharsets.UTF_8));
+            if (fresh) {
+                writer.write(TRANSACTIONS_HEADER + "\n");
+            } else if (unterminated) {
+                writer.write('\n'); // torn last line from a crash; the next append starts cleanly
+            }
+            writer.flush();
+        }
+
+        public synchronized List<TransactionRecord> findAll() throws IOException {
+            List<TransactionRecord> records = new ArrayList<>();
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String[] parts = line.split(",", -1);
+                    if (parts.length < 8) continue;
+                    try {
+                        records.add(new TransactionRecord(parts[0], Long.parseLong(parts[1]),
+                                Long.parseLong(parts[2]), new BigDecimal(parts[3]),
+                                TransactionType.valueOf(parts[4]), parts[5],
+                                TransactionStatus.valueOf(parts[6]), LocalDateTime.parse(parts[7])));
+                    } catch (RuntimeException e) {
+                        // skip header or bad line
+                    }
+                }
+            }
+            return records;
+        }
+
+        public synchronized void append(TransactionRecord t) throws IOException {
+            writer.write(String.format("%s,%d,%d,%s,%s,%s,%s,%s\n",
+                    t.getTransactionId(), t.getFromAccountId(), t.getToAccountId(),
+                    t.getAmount(), t.getType(), clean(t.getDescription()), t.getStatus(), t.getTimestamp()));
+            writer.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    static class Users implements UserRepository, Closeable {
+        private final CsvJournal journal;
+
+        Users(File dataDir) throws IOException {
+            this.journal = new CsvJournal(new File(dataDir, "users.csv"), USERS_HEADER);
+        }
+
+        public List<User> findAll() {
+            List<User> users = new ArrayList<>();
+            for (String row : journal.rows()) {
+                String[] parts = row.split(",", -1);
+                if (parts.length < 4) continue;
+                try {
+                    User user = new User(Long.parseLong(parts[0]), parts[1], parts[2],
+                            User.UserRole.valueOf(parts[3]), LocalDateTime.now());
+                    if (parts.length > 4 && parts[4].equals("LOCKED")) user.setLocked(true);
+                    users.add(user);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping bad user row: " + row);
+                }
+            }
+            return users;
+        }
+
+        public void save(User user) throws IOException {
+            journal.upsert(String.format("%d,%s,%s,%s,%s",
+                    user.getUserId(), user.getUsername(), user.getPin(), user.getRole(),
+                    user.isLocked() ? "LOCKED" : "ACTIVE"));
+        }
+
+        @Override
+        public void close() throws IOException {
+            journal.close();
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace(',', ';').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static boolean endsWithNewline(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() == 0) return true;
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+
+    /**
+     * CSV snapshot keyed by its first column, plus a journal of changes
+     * Journal lines are "U,<row>" for an insert or update and "D,<key>" for a delete.
+     */
+    static final class CsvJournal implements Closeable {
+        private static final int COMPACT_EVERY = 1000;
+
+        private final File snapshot;
+        private final File journal;
+        private final String header;
+        private final Map<String, String> rows = new LinkedHashMap<>();
+        private Writer journalWriter;
+        private int journalEntries;
+
+        CsvJournal(File snapshot, String header) throws IOException {
+            this.snapshot = snapshot;
+            this.journal = new File(snapshot.getPath() + ".journal");
+            this.header = header;
+            File dir = snapshot.getParentFile();
+            if (dir != null) dir.mkdirs();
+
+            loadSnapshot();
+            if (replayJournal() > 0) {
+                writeSnapshot();
+            }
+            journalWriter = openJournal(true);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    close();
+                } catch (IOException e) {
+                    System.err.println("Error compacting " + snapshot.getName() + ": " + e.getMessage());
+                }
+            }, "journal-compact-" + snapshot.getName()));
+        }
+
+        private void loadSnapshot() throws IOException {
+            if (!snapshot.exists()) return;
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(snapshot), StandardCharsets.UTF_8))) {
+                String line = br.readLine(); // header
+                while ((line = br.readLine()) != null) {
+                    if (!line.isEmpty()) rows.put(key(line), line);
+                }
+            }
+        }
+
+        /**
+         * Apply complete journal lines; a torn last line is ignored
+         */
+        private int replayJournal() throws IOException {
+            if (!journal.exists()) return 0;
+            String content = new String(Files.readAllBytes(journal.toPath()), StandardCharsets.UTF_8);
+            int applied = 0;
+            int start = 0;
+            int end;
+            while ((end = content.indexOf('\n', start)) >= 0) {
+                String line = content.substring(start, end);
+                start = end + 1;
+                if (line.startsWith("U,")) {
+                    String row = line.substring(2);
+                    rows.put(key(row), row);
+                    applied++;
+                } else if (line.startsWith("D,")) {
+                    rows.remove(line.substring(2));
+                    applied++;
+                }
+            }
+            return applied;
+        }
+
+        private static String key(String row) {
+            int comma = row.indexOf(',');
+            return comma < 0 ? row : row.substring(0, comma);
+        }
+
+        private Writer openJournal(boolean truncate) throws IOException {
+            return new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(journal, !truncate), StandardCharsets.UTF_8));
+        }
+
+        synchronized List<String> rows() {
+            return new ArrayList<>(rows.values());
+        }
+
+        synchronized void upsert(String row) throws IOException {
+            append("U," + row);
+            rows.put(key(row), row);
+            maybeCompact();
+        }
+
+        synchronized void delete(String key) throws IOException {
+            append("D," + key);
+            rows.remove(key);
+            maybeCompact();
+        }
+
+        private void append(String line) throws IOException {
+            if (journalWriter == null) {
+                journalWriter = openJournal(false); // written after close, e.g. during shutdown
+            }
+            journalWriter.write(line);
+            journalWriter.write('\n');
+            journalWriter.flush();
+            journalEntries++;
+        }
+
+        private void maybeCompact() throws IOException {
+            if (journalEntries >= COMPACT_EVERY) {
+                compact();
+            }
+        }
+
+        /**
+         * Fold the journal into a fresh snapshot and start an empty journal
+         */
+        synchronized void compact() throws IOException {
+            writeSnapshot();
+            journalWriter.close();
+            journalWriter = openJournal(true);
+            journalEntries = 0;
+        }
+
+        private void writeSnapshot() throws IOException {
+            File tmp = new File(snapshot.getPath() + ".tmp");
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+                out.write(header);
+                out.write('\n');
+                for (String row : rows.values()) {
+                    out.write(row);
+                    out.write('\n');
+                }
+            }
+            Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (journalWriter == null) return;
+            if (journalEntries > 0) {
+                compact();
+            }
+            journalWriter.close();
+            journalWriter = null;
+        }
+    }
+}
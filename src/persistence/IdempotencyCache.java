@@ -0,0 +1,260 @@
+package com.fortis.persistence;
+
+import com.fortis.utils.MetricsRegistry;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * IdempotencyCache - Remembers the result of each idempotency key
+ * A retried request with a key seen before gets the original result instead
+ * of running again; a duplicate that arrives while the first is still running
+ * waits for it. Only results accepted by the remember predicate are kept, so
+ * a failed request can be retried with the same key.
+ *
+ * Entries live in a ConcurrentHashMap (O(1) lookup) and expire after a fixed
+ * TTL. Because every entry has the same TTL, insertion order is expiry order,
+ * and one FIFO queue handles both expiry and the size bound.
+ *
+ * With a key file, each remembered key is appended as "created, result id,
+ * key". On open the file is reloaded and compacted. Reloaded entries hold
+ * only the result id, which is resolved on a hit through the caller's lookup.
+ */
+public class IdempotencyCache<V> implements Closeable {
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final String name;
+    private final File file;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Function<V, String> idOf;
+    private final Predicate<V> remember;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry<V>> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger(); // order.size() is O(n)
+    private final MetricsRegistry.Counter replays;
+    private Writer writer;
+    private int appended;
+
+    private static final class Entry<V> {
+        final String key;
+        final long createdAt;
+        final CompletableFuture<V> result; // null for entries reloaded from the key file
+        volatile String resultId;
+
+        Entry(String key, long createdAt, CompletableFuture<V> result, String resultId) {
+            this.key = key;
+            this.createdAt = createdAt;
+            this.result = result;
+            this.resultId = resultId;
+        }
+    }
+
+    /**
+     * @param file     key file, or null to keep keys in memory only
+     * @param idOf     id of a result, written to the key file
+     * @param remember which results to keep; others are forgotten once returned
+     */
+    public IdempotencyCache(String name, File file, long ttlMillis, int maxEntries,
+                            Function<V, String> idOf, Predicate<V> remember) {
+        this.name = name;
+        this.file = file;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.idOf = idOf;
+        this.remember = remember;
+        this.replays = MetricsRegistry.getInstance().counter("fortis_idempotent_replays_total",
+                "Requests answered from the idempotency cache", "cache", name);
+        if (file != null) {
+            try {
+                load();
+            } catch (IOException e) {
+                System.err.println("Idempotency keys " + name + " not loaded: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Run action once per key; a null key always runs it
+     * @param resolve looks up a result by id, for keys reloaded after a restart
+     */
+    public V execute(String key, Supplier<V> action, Function<String, V> resolve) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH || key.indexOf('\n') >= 0 || key.indexOf('\t') >= 0) {
+            throw new IllegalArgumentException("Invalid idempotency key");
+        }
+        long now = System.currentTimeMillis();
+        Entry<V> mine = new Entry<>(key, now, new CompletableFuture<>(), null);
+        while (true) {
+            Entry<V> existing = entries.putIfAbsent(key, mine);
+            if (existing == null) {
+                break;
+            }
+            if (now - existing.createdAt < ttlMillis) {
+                replays.increment();
+                return await(existing, resolve);
+            }
+            if (entries.replace(key, existing, mine)) {
+                break;
+            }
+        }
+        order.add(mine);
+        queued.incrementAndGet();
+        evict(now);
+
+        V value;
+        try {
+            value = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+        if (value != null && remember.test(value)) {
+            mine.resultId = idOf.apply(value);
+            append(mine);
+        } else {
+            entries.remove(key, mine);
+        }
+        mine.result.complete(value);
+        return value;
+    }
+
+    private V await(Entry<V> entry, Function<String, V> resolve) {
+        if (entry.result == null) {
+            V value = resolve.apply(entry.resultId);
+            if (value == null) {
+                throw new IllegalStateException("Original transaction " + entry.resultId + " not found");
+            }
+            return value;
+        }
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drop expired entries, forgotten ones, and the oldest beyond the size bound
+     * Forgotten entries stay queued until they reach the head, so they count
+     * towards the bound; that keeps the queue itself bounded.
+     */
+    private void evict(long now) {
+        Entry<V> head;
+        while ((head = order.peek()) != null
+                && (now - head.createdAt >= ttlMillis || queued.get() > maxEntries
+                    || entries.get(head.key) != head)) {
+            if (order.remove(head)) {
+                queued.decrementAndGet();
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // ===== Key file =====
+
+    private void load() throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null) dir.mkdirs();
+        long now = System.currentTimeMillis();
+        if (file.exists()) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String[] parts = line.split("\t", 3);
+                    if (parts.length < 3) continue; // torn last line
+                    try {
+                        long createdAt = Long.parseLong(parts[0]);
+                        if (now - createdAt >= ttlMillis) continue;
+                        Entry<V> entry = new Entry<>(parts[2], createdAt, null, parts[1]);
+                        entries.put(entry.key, entry);
+                        order.add(entry); // a superseded entry is dropped by evict()
+                        queued.incrementAndGet();
+                    } catch (NumberFormatException e) {
+                        // skip bad line
+                    }
+                }
+            }
+            evict(now);
+        }
+        compact();
+    }
+
+    private synchronized void append(Entry<V> entry) {
+        if (file == null) return;
+        try {
+            if (writer == null) {
+                writer = openWriter();
+            }
+            writer.write(entry.createdAt + "\t" + entry.resultId + "\t" + entry.key + "\n");
+            writer.flush();
+            if (++appended > 2 * maxEntries) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Idempotency key not saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrite the key file with only the live, remembered entries
+     */
+    private synchronized void compact() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        List<Entry<V>> live = new ArrayList<>(order);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            for (Entry<V> entry : live) {
+                if (entry.resultId != null && entries.get(entry.key) == entry) {
+                    out.write(entry.createdAt + "\t" + entry.resultId + "\t" + entry.key + "\n");
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        writer = openWriter();
+        appended = 0;
+    }
+
+    private Writer openWriter() throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.fortis.persistence;
+
+import com.fortis.model.BankAccount;
+import com.fortis.model.TransactionRecord;
+import com.fortis.model.User;
+import com.fortis.persistence.LoanStore.LoanRecord;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory repositories - nothing survives a restart
+ * For tests, benchmarks and deployments that keep state elsewhere
+ * (fortis.repository=memory or fortis.persistence=false).
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    public static class Accounts implements AccountRepository {
+        private final Map<Long, BankAccount> accounts = new ConcurrentSkipListMap<>();
+
+        public List<BankAccount> findAll() {
+            return new ArrayList<>(accounts.values());
+        }
+
+        public void save(BankAccount account) {
+            accounts.put(account.getAccountId(), account);
+        }
+
+        public void delete(long accountId) {
+            accounts.remove(accountId);
+        }
+    }
+
+    public static class Transactions implements TransactionRepository {
+        private final ColumnarTransactionLog records = new ColumnarTransactionLog();
+
+        public List<TransactionRecord> findAll() {
+            return new ArrayList<>(records.snapshot());
+        }
+
+        public void append(TransactionRecord record) {
+            records.append(record);
+        }
+    }
+
+    public static class Users implements UserRepository {
+        private final Map<Long, User> users = new ConcurrentSkipListMap<>();
+
+        public List<User> findAll() {
+            return new ArrayList<>(users.values());
+        }
+
+        public void save(User user) {
+            users.put(user.getUserId(), user);
+        }
+    }
+
+    public static class Loans implements LoanRepository {
+        private final Map<String, LoanRecord> byId = new LinkedHashMap<>();
+        private final Map<Long, List<LoanRecord>> byUser = new HashMap<>();
+
+        public synchronized LoanRecord append(String loanId, long userId, double amount, int duration,
+                                              String purpose, String status, String date) {
+            LoanRecord record = new LoanRecord(loanId, userId, amount, duration,
+                    purpose == null ? "" : purpose, status, date, -1);
+            byId.put(loanId, record);
+            byUser.computeIfAbsent(userId, k -> new ArrayList<>()).add(record);
+            return record;
+        }
+
+        public synchronized boolean updateStatus(String loanId, String newStatus) {
+            LoanRecord record = byId.get(loanId);
+            if (record == null) return false;
+            record.status = newStatus;
+            return true;
+        }
+
+        public synchronized LoanRecord get(String loanId) {
+            return byId.get(loanId);
+        }
+
+        public synchronized List<LoanRecord> getByUser(long userId) {
+            return new ArrayList<>(byUser.getOrDefault(userId, Collections.emptyList()));
+        }
+
+        public synchronized List<LoanRecord> getByStatus(String status) {
+            List<LoanRecord> loans = new ArrayList<>();
+            for (LoanRecord loan : byId.values()) {
+                if (loan.getStatus().equalsIgnoreCase(status)) loans.add(loan);
+            }
+            return loans;
+        }
+    }
+
+    public static class Notifications implements NotificationRepository {
+        private final Map<Long, List<String[]>> inboxes = new ConcurrentHashMap<>();
+        private final Map<Long, Integer> readCounts = new ConcurrentHashMap<>();
+
+        private List<String[]> inbox(long userId) {
+            return inboxes.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>());
+        }
+
+        public void append(long userId, String message, String date) {
+            inbox(userId).add(new String[]{message == null ? "" : message, date});
+        }
+
+        public List<String[]> readPage(long userId, int page, int pageSize) {
+            List<String[]> inbox = inbox(userId);
+            List<String[]> entries = new ArrayList<>();
+            if (page < 0 || pageSize <= 0) return entries;
+            for (int i = inbox.size() - 1 - page * pageSize; i >= 0 && entries.size() < pageSize; i--) {
+                entries.add(inbox.get(i));
+            }
+            return entries;
+        }
+
+        public List<String[]> readAll(long userId) {
+            return new ArrayList<>(inbox(userId));
+        }
+
+        public int getTotalCount(long userId) {
+            return inbox(userId).size();
+        }
+
+        public int getUnreadCount(long userId) {
+            return getTotalCount(userId) - readCounts.getOrDefault(userId, 0);
+        }
+
+        public void markAllRead(long userId) {
+            readCounts.put(userId, getTotalCount(userId));
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.fortis.persistence;
+
+import com.fortis.model.BankAccount;
+import com.fortis.model.TransactionRecord;
+import com.fortis.model.TransactionRecord.TransactionStatus;
+import com.fortis.model.TransactionRecord.TransactionType;
+import com.fortis.model.User;
+import com.fortis.persistence.LoanStore.LoanRecord;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC repositories - service data in SQL tables
+ * The tables are separate from the ACID stack's accounts/transactions
+ * tables (their columns differ) and are created on first use with
+ * portable DDL, so MySQL and MySQL-mode H2 both work.
+ * Upserts are UPDATE-then-INSERT for the same reason.
+ * SQL errors are reported as IOException, like the file repositories.
+ */
+public final class JdbcRepositories {
+
+    /**
+     * Supplies the connection to use; it is borrowed, never closed here
+     */
+    public interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private JdbcRepositories() {
+    }
+
+    private static void createTable(ConnectionSource source, String ddl) throws IOException {
+        try (Statement stmt = source.get().createStatement()) {
+            stmt.execute(ddl);
+        } catch (SQLException e) {
+            throw new IOException("Cannot create table: " + e.getMessage(), e);
+        }
+    }
+
+    private static IOException failure(SQLException e) {
+        return new IOException("Database error: " + e.getMessage(), e);
+    }
+
+    static class Accounts implements AccountRepository {
+        private final ConnectionSource source;
+
+        Accounts(ConnectionSource source) throws IOException {
+            this.source = source;
+            createTable(source, "CREATE TABLE IF NOT EXISTS service_accounts (" +
+                    "account_id BIGINT PRIMARY KEY, account_number VARCHAR(20) NOT NULL, " +
+                    "holder VARCHAR(100) NOT NULL, balance DECIMAL(15, 2) NOT NULL, " +
+                    "daily_limit DECIMAL(15, 2) NOT NULL, account_type VARCHAR(10) NOT NULL, " +
+                    "status VARCHAR(10) NOT NULL, user_id BIGINT NOT NULL)");
+        }
+
+        public synchronized List<BankAccount> findAll() throws IOException {
+            List<BankAccount> accounts = new ArrayList<>();
+            String sql = "SELECT * FROM service_accounts ORDER BY account_id";
+            try (Statement stmt = source.get().createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    accounts.add(Repositories.newAccount(rs.getLong("account_id"),
+                            rs.getString("account_number"), rs.getString("holder"),
+                            rs.getBigDecimal("balance"), rs.getBigDecimal("daily_limit"),
+                            rs.getString("account_type"), rs.getString("status"), rs.getLong("user_id")));
+                }
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+            return accounts;
+        }
+
+        public synchronized void save(BankAccount account) throws IOException {
+            String update = "UPDATE service_accounts SET account_number = ?, holder = ?, balance = ?, " +
+                    "daily_limit = ?, account_type = ?, status = ?, user_id = ? WHERE account_id = ?";
+            String insert = "INSERT INTO service_accounts (account_number, holder, balance, daily_limit, " +
+                    "account_type, status, user_id, account_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+            try {
+                Connection conn = source.get();
+                if (write(conn, update, account) == 0) {
+                    write(conn, insert, account);
+                }
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+
+        private int write(Connection conn, String sql, BankAccount account) throws SQLException {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, account.getAccountNumber());
+                stmt.setString(2, account.getAccountHolder());
+                stmt.setBigDecimal(3, account.getBalance());
+                stmt.setBigDecimal(4, account.getDailyLimit());
+                stmt.setString(5, account.getAccountType());
+                stmt.setString(6, account.getStatus().name());
+                stmt.setLong(7, account.getUserId());
+                stmt.setLong(8, account.getAccountId());
+                return stmt.executeUpdate();
+            }
+        }
+
+        public synchronized void delete(long accountId) throws IOException {
+            try (PreparedStatement stmt = source.get().prepareStatement(
+                    "DELETE FROM service_accounts WHERE account_id = ?")) {
+                stmt.setLong(1, accountId);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+    }
+
+    static class Transactions implements TransactionRepository {
+        private final ConnectionSource source;
+
+        Transactions(ConnectionSource source) throws IOException {
+            this.source = source;
+            createTable(source, "CREATE TABLE IF NOT EXISTS service_transactions (" +
+                    "seq BIGINT AUTO_INCREMENT PRIMARY KEY, txn_id VARCHAR(50) NOT NULL, " +
+                    "from_account_id BIGINT NOT NULL, to_account_id BIGINT NOT NULL, " +
+                    "amount DECIMAL(15, 2) NOT NULL, txn_type VARCHAR(12) NOT NULL, " +
+                    "description VARCHAR(255), status VARCHAR(12) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        }
+
+        public synchronized List<TransactionRecord> findAll() throws IOException {
+            List<TransactionRecord> records = new ArrayList<>();
+            String sql = "SELECT * FROM service_transactions ORDER BY seq";
+            try (Statement stmt = source.get().createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    records.add(new TransactionRecord(rs.getString("txn_id"),
+                            rs.getLong("from_account_id"), rs.getLong("to_account_id"),
+                            rs.getBigDecimal("amount"), TransactionType.valueOf(rs.getString("txn_type")),
+                            rs.getString("description"), TransactionStatus.valueOf(rs.getString("status")),
+                            rs.getTimestamp("created_at").toLocalDateTime()));
+                }
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+            return records;
+        }
+
+        public synchronized void append(TransactionRecord t) throws IOException {
+            String sql = "INSERT INTO service_transactions (txn_id, from_account_id, to_account_id, " +
+                    "amount, txn_type, description, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement stmt = source.get().prepareStatement(sql)) {
+                stmt.setString(1, t.getTransactionId());
+                stmt.setLong(2, t.getFromAccountId());
+                stmt.setLong(3, t.getToAccountId());
+                stmt.setBigDecimal(4, t.getAmount());
+                stmt.setString(5, t.getType().name());
+                stmt.setString(6, t.getDescription());
+                stmt.setString(7, t.getStatus().name());
+                stmt.setTimestamp(8, Timestamp.valueOf(t.getTimestamp()));
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+    }
+
+    static class Users implements UserRepository {
+        private final ConnectionSource source;
+
+        Users(ConnectionSource source) throws IOException {
+            this.source = source;
+            createTable(source, "CREATE TABLE IF NOT EXISTS service_users (" +
+                    "user_id BIGINT PRIMARY KEY, username VARCHAR(50) NOT NULL UNIQUE, " +
+                    "pin_hash VARCHAR(255) NOT NULL, role VARCHAR(10) NOT NULL, status VARCHAR(10) NOT NULL)");
+        }
+
+        public synchronized List<User> findAll() throws IOException {
+            List<User> users = new ArrayList<>();
+            try (Statement stmt = source.get().createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT * FROM service_users ORDER BY user_id")) {
+                while (rs.next()) {
+                    User user = new User(rs.getLong("user_id"), rs.getString("username"),
+                            rs.getString("pin_hash"), User.UserRole.valueOf(rs.getString("role")),
+                            LocalDateTime.now());
+                    if ("LOCKED".equals(rs.getString("status"))) user.setLocked(true);
+                    users.add(user);
+                }
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+            return users;
+        }
+
+        public synchronized void save(User user) throws IOException {
+            String update = "UPDATE service_users SET username = ?, pin_hash = ?, role = ?, status = ? " +
+                    "WHERE user_id = ?";
+            String insert = "INSERT INTO service_users (username, pin_hash, role, status, user_id) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+            try {
+                Connection conn = source.get();
+                if (write(conn, update, user) == 0) {
+                    write(conn, insert, user);
+                }
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+
+        private int write(Connection conn, String sql, User user) throws SQLException {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, user.getUsername());
+                stmt.setString(2, user.getPin());
+                stmt.setString(3, user.getRole().name());
+                stmt.setString(4, user.isLocked() ? "LOCKED" : "ACTIVE");
+                stmt.setLong(5, user.getUserId());
+                return stmt.executeUpdate();
+            }
+        }
+    }
+
+    static class Loans implements LoanRepository {
+        private final ConnectionSource source;
+
+        Loans(ConnectionSource source) throws IOException {
+            this.source = source;
+            createTable(source, "CREATE TABLE IF NOT EXISTS service_loans (" +
+                    "loan_id VARCHAR(20) PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                    "amount DECIMAL(15, 2) NOT NULL, duration INT NOT NULL, purpose VARCHAR(255), " +
+                    "status VARCHAR(8) NOT NULL, applied_at VARCHAR(40) NOT NULL)");
+        }
+
+        public synchronized LoanRecord append(String loanId, long userId, double amount, int duration,
+                                              String purpose, String status, String date) throws IOException {
+            String sql = "INSERT INTO service_loans (loan_id, user_id, amount, duration, purpose, status, " +
+                    "applied_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            String cleanPurpose = purpose == null ? "" : purpose;
+            try (PreparedStatement stmt = source.get().prepareStatement(sql)) {
+                stmt.setString(1, loanId);
+                stmt.setLong(2, userId);
+                stmt.setDouble(3, amount);
+                stmt.setInt(4, duration);
+                stmt.setString(5, cleanPurpose);
+                stmt.setString(6, status);
+                stmt.setString(7, date);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+            return new LoanRecord(loanId, userId, amount, duration, cleanPurpose, status, date, -1);
+        }
+
+        public synchronized boolean updateStatus(String loanId, String newStatus) throws IOException {
+            try (PreparedStatement stmt = source.get().prepareStatement(
+                    "UPDATE service_loans SET status = ? WHERE loan_id = ?")) {
+                stmt.setString(1, newStatus);
+                stmt.setString(2, loanId);
+                return stmt.executeUpdate() > 0;
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+
+        public LoanRecord get(String loanId) throws IOException {
+            List<LoanRecord> loans = query("SELECT * FROM service_loans WHERE loan_id = ?", loanId);
+            return loans.isEmpty() ? null : loans.get(0);
+        }
+
+        public List<LoanRecord> getByUser(long userId) throws IOException {
+            return query("SELECT * FROM service_loans WHERE user_id = ? ORDER BY applied_at", userId);
+        }
+
+        public List<LoanRecord> getByStatus(String status) throws IOException {
+            return query("SELECT * FROM service_loans WHERE UPPER(status) = UPPER(?) ORDER BY applied_at", status);
+        }
+
+        private synchronized List<LoanRecord> query(String sql, Object param) throws IOException {
+            List<LoanRecord> loans = new ArrayList<>();
+            try (PreparedStatement stmt = source.get().prepareStatement(sql)) {
+                stmt.setObject(1, param);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        loans.add(new LoanRecord(rs.getString("loan_id"), rs.getLong("user_id"),
+                                rs.getDouble("amount"), rs.getInt("duration"), rs.getString("purpose"),
+                                rs.getString("status"), rs.getString("applied_at"), -1));
+                    }
+                }
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+            return loans;
+        }
+    }
+
+    static class Notifications implements NotificationRepository {
+        private final ConnectionSource source;
+
+        Notifications(ConnectionSource source) throws IOException {
+            this.source = source;
+            createTable(source, "CREATE TABLE IF NOT EXISTS service_notifications (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                    "message VARCHAR(500) NOT NULL, created_at VARCHAR(40) NOT NULL)");
+            createTable(source, "CREATE TABLE IF NOT EXISTS service_notification_reads (" +
+                    "user_id BIGINT PRIMARY KEY, read_count INT NOT NULL)");
+        }
+
+        public synchronized void append(long userId, String message, String date) throws IOException {
+            try (PreparedStatement stmt = source.get().prepareStatement(
+                    "INSERT INTO service_notifications (user_id, message, created_at) VALUES (?, ?, ?)")) {
+                stmt.setLong(1, userId);
+                stmt.setString(2, message == null ? "" : message);
+                stmt.setString(3, date);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+
+        public synchronized List<String[]> readPage(long userId, int page, int pageSize) throws IOException {
+            if (page < 0 || pageSize <= 0) return new ArrayList<>();
+            String sql = "SELECT message, created_at FROM service_notifications WHERE user_id = ? " +
+                    "ORDER BY id DESC LIMIT ? OFFSET ?";
+            try (PreparedStatement stmt = source.get().prepareStatement(sql)) {
+                stmt.setLong(1, userId);
+                stmt.setInt(2, pageSize);
+                stmt.setInt(3, page * pageSize);
+                return entries(stmt);
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+
+        public synchronized List<String[]> readAll(long userId) throws IOException {
+            String sql = "SELECT message, created_at FROM service_notifications WHERE user_id = ? ORDER BY id";
+            try (PreparedStatement stmt = source.get().prepareStatement(sql)) {
+                stmt.setLong(1, userId);
+                return entries(stmt);
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+
+        private List<String[]> entries(PreparedStatement stmt) throws SQLException {
+            List<String[]> entries = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new String[]{rs.getString(1), rs.getString(2)});
+                }
+            }
+            return entries;
+        }
+
+        public synchronized int getTotalCount(long userId) throws IOException {
+            return count("SELECT COUNT(*) FROM service_notifications WHERE user_id = ?", userId);
+        }
+
+        public synchronized int getUnreadCount(long userId) throws IOException {
+            return getTotalCount(userId)
+                    - count("SELECT COALESCE(MAX(read_count), 0) FROM service_notification_reads WHERE user_id = ?", userId);
+        }
+
+        public synchronized void markAllRead(long userId) throws IOException {
+            int total = getTotalCount(userId);
+            try {
+                Connection conn = source.get();
+                try (PreparedStatement update = conn.prepareStatement(
+                        "UPDATE service_notification_reads SET read_count = ? WHERE user_id = ?")) {
+                    update.setInt(1, total);
+                    update.setLong(2, userId);
+                    if (update.executeUpdate() > 0) return;
+                }
+                try (PreparedStatement insert = conn.prepareStatement(
+                        "INSERT INTO service_notification_reads (user_id, read_count) VALUES (?, ?)")) {
+                    insert.setLong(1, userId);
+                    insert.setInt(2, total);
+                    insert.executeUpdate();
+                }
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+
+        private int count(String sql, long userId) throws IOException {
+            try (PreparedStatement stmt = source.get().prepareStatement(sql)) {
+                stmt.setLong(1, userId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            } catch (SQLException e) {
+                throw failure(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.fortis.persistence;
+
+import com.fortis.persistence.LoanStore.LoanRecord;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Storage for loan applications, indexed by id, user and status
+ */
+public interface LoanRepository {
+    
+    LoanRecord append(String loanId, long userId, double amount, int duration,
+                      String purpose, String status, String date) throws IOException;
+    
+    /**
+     * Change a loan's status; false if the loan does not exist
+     */
+    boolean updateStatus(String loanId, String newStatus) throws IOException;
+    
+    LoanRecord get(String loanId) throws IOException;
+    
+    List<LoanRecord> getByUser(long userId) throws IOException;
+    
+    /**
+     * Loans with the status, matched case-insensitively
+     */
+    List<LoanRecord> getByStatus(String status) throws IOException;
+}
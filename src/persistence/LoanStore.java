@@ -0,0 +1,250 @@
+package com.fortis.persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * LoanStore - Indexed loan repository with in-place status updates
+ * Lines keep the "ID,UserId,Amount,Duration,Purpose,Status,Date" format,
+ * but the status column is padded to a fixed width so a status change is
+ * a single positional write instead of a full file rewrite.
+ * Loans are indexed by id, user and status in memory.
+ */
+public class LoanStore implements LoanRepository, Closeable {
+    public static final int STATUS_WIDTH = 8;
+    private static final int STATUS_FIELD = 5;
+
+    private final File loanFile;
+    private final FileChannel channel;
+    private long appendPosition;
+
+    private final Map<String, LoanRecord> byId = new HashMap<>();
+    private final Map<Long, List<LoanRecord>> byUser = new HashMap<>();
+    private final Map<String, LinkedHashSet<LoanRecord>> byStatus = new HashMap<>();
+
+    public LoanStore(File loanFile) throws IOException {
+        this.loanFile = loanFile;
+        File dir = loanFile.getParentFile();
+        if (dir != null) dir.mkdirs();
+
+        if (loanFile.exists() && needsMigration()) {
+            migrate();
+        }
+        this.channel = FileChannel.open(loanFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+    }
+
+    /**
+     * Immutable loan attributes plus the mutable status and its file position
+     */
+    public static class LoanRecord {
+        public final String loanId;
+        public final long userId;
+        public final double amount;
+        public final int duration;
+        public final String purpose;
+        public final String date;
+        final long statusOffset;
+        volatile String status;
+
+        LoanRecord(String loanId, long userId, double amount, int duration,
+                   String purpose, String status, String date, long statusOffset) {
+            this.loanId = loanId;
+            this.userId = userId;
+            this.amount = amount;
+            this.duration = duration;
+            this.purpose = purpose;
+            this.status = status;
+            this.date = date;
+            this.statusOffset = statusOffset;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * True if any line was written before the status column was fixed-width
+     */
+    private boolean needsMigration() throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(loanFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length > STATUS_FIELD && parts[STATUS_FIELD].length() != STATUS_WIDTH) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One-time rewrite of a legacy file with padded status columns
+     */
+    private void migrate() throws IOException {
+        File tmp = new File(loanFile.getPath() + ".tmp");
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(loanFile), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length > STATUS_FIELD) {
+                    parts[STATUS_FIELD] = pad(parts[STATUS_FIELD].trim());
+                    line = String.join(",", parts);
+                }
+                out.write(line);
+                out.write('\n');
+            }
+        }
+        java.nio.file.Files.move(tmp.toPath(), loanFile.toPath(),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("✓ Loan file migrated to fixed-width status records");
+    }
+
+    private void load() throws IOException {
+        long position = 0;
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(loanFile))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    indexLine(line.toByteArray(), position);
+                    position += line.size() + 1;
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+            if (line.size() > 0) {
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}), position + line.size());
+                indexLine(line.toByteArray(), position);
+                position += line.size() + 1;
+            }
+        }
+        appendPosition = position;
+    }
+
+    private void indexLine(byte[] bytes, long lineOffset) {
+        // Locate the status column by byte position so it can be rewritten in place
+        int commas = 0;
+        int statusStart = -1;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == ',' && ++commas == STATUS_FIELD) {
+                statusStart = i + 1;
+                break;
+            }
+        }
+        if (statusStart < 0) return;
+
+        String[] parts = new String(bytes, StandardCharsets.UTF_8).split(",", -1);
+        if (parts.length <= STATUS_FIELD + 1) return;
+        try {
+            LoanRecord record = new LoanRecord(parts[0], Long.parseLong(parts[1]),
+                    Double.parseDouble(parts[2]), Integer.parseInt(parts[3]), parts[4],
+                    parts[STATUS_FIELD].trim(), parts[6], lineOffset + statusStart);
+            index(record);
+        } catch (NumberFormatException e) {
+            // skip header or bad line
+        }
+    }
+
+    private void index(LoanRecord record) {
+        byId.put(record.loanId, record);
+        byUser.computeIfAbsent(record.userId, k -> new ArrayList<>()).add(record);
+        byStatus.computeIfAbsent(key(record.status), k -> new LinkedHashSet<>()).add(record);
+    }
+
+    /**
+     * Append a new loan application
+     */
+    public synchronized LoanRecord append(String loanId, long userId, double amount,
+                                          int duration, String purpose, String status, String date) throws IOException {
+        String cleanPurpose = purpose == null ? "" : purpose.replace(',', ';').replace('\n', ' ');
+        String amountText = String.format(Locale.ROOT, "%.2f", amount);
+        String prefix = loanId + "," + userId + "," + amountText + "," + duration + "," + cleanPurpose + ",";
+        String line = prefix + pad(status) + "," + date + "\n";
+        long start = appendPosition;
+        LoanRecord record = new LoanRecord(loanId, userId, Double.parseDouble(amountText), duration,
+                cleanPurpose, status, date, start + prefix.getBytes(StandardCharsets.UTF_8).length);
+
+        ByteBuffer buf = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        long position = start;
+        try {
+            while (buf.hasRemaining()) {
+                position += channel.write(buf, position);
+            }
+        } catch (IOException e) {
+            channel.truncate(start); // drop the partial line so the file stays parseable
+            throw e;
+        }
+
+        appendPosition = position;
+        index(record);
+        return record;
+    }
+
+    /**
+     * Change a loan's status with one fixed-width positional write
+     */
+    public synchronized boolean updateStatus(String loanId, String newStatus) throws IOException {
+        LoanRecord record = byId.get(loanId);
+        if (record == null) return false;
+
+        ByteBuffer buf = ByteBuffer.wrap(pad(newStatus).getBytes(StandardCharsets.US_ASCII));
+        long position = record.statusOffset;
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+
+        Set<LoanRecord> oldSet = byStatus.get(key(record.status));
+        if (oldSet != null) oldSet.remove(record);
+        record.status = newStatus;
+        byStatus.computeIfAbsent(key(newStatus), k -> new LinkedHashSet<>()).add(record);
+        return true;
+    }
+
+    public synchronized LoanRecord get(String loanId) {
+        return byId.get(loanId);
+    }
+
+    public synchronized List<LoanRecord> getByUser(long userId) {
+        List<LoanRecord> loans = byUser.get(userId);
+        return loans == null ? new ArrayList<>() : new ArrayList<>(loans);
+    }
+
+    /**
+     * Loans with the status, matched case-insensitively
+     */
+    public synchronized List<LoanRecord> getByStatus(String status) {
+        Set<LoanRecord> loans = byStatus.get(key(status));
+        return loans == null ? new ArrayList<>() : new ArrayList<>(loans);
+    }
+
+    private static String key(String status) {
+        return status.toUpperCase(Locale.ROOT);
+    }
+
+    private static String pad(String status) {
+        if (status.length() > STATUS_WIDTH) {
+            throw new IllegalArgumentException("Status too long: " + status);
+        }
+        StringBuilder sb = new StringBuilder(STATUS_WIDTH).append(status);
+        while (sb.length() < STATUS_WIDTH) sb.append(' ');
+        return sb.toString();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
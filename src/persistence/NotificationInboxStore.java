@@ -0,0 +1,325 @@
+package com.fortis.persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NotificationInboxStore - Per-user inbox over an append-only segment file
+ * The segment keeps the "userId,message,date" line format. On startup it is
+ * scanned once to build an in-memory index of line offsets per user, so
+ * reads only touch the lines that belong to the requested inbox.
+ * Appends are buffered and written in batches.
+ */
+public class NotificationInboxStore implements NotificationRepository, Closeable {
+    private static final int BATCH_BYTES = 64 * 1024;
+    private static final long FLUSH_INTERVAL_MILLIS = 200;
+
+    private final File segmentFile;
+    private final File readMarksFile;
+    private final FileChannel channel;
+    private final Map<Long, Inbox> inboxes = new ConcurrentHashMap<>();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(BATCH_BYTES);
+    private final ScheduledExecutorService flusher;
+
+    // Logical end of the segment including buffered, not yet written bytes
+    private long appendPosition;
+    // End of the bytes that are actually on disk
+    private volatile long flushedPosition;
+
+    public NotificationInboxStore(File segmentFile) throws IOException {
+        this.segmentFile = segmentFile;
+        this.readMarksFile = new File(segmentFile.getParentFile(),
+                segmentFile.getName().replace(".csv", "") + "_read.csv");
+
+        File dir = segmentFile.getParentFile();
+        if (dir != null) dir.mkdirs();
+
+        this.channel = FileChannel.open(segmentFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buildIndex();
+        loadReadMarks();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+                FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly, "notification-shutdown-flush"));
+    }
+
+    /**
+     * Scan the segment once and record where each user's lines start
+     */
+    private void buildIndex() throws IOException {
+        long size = channel.size();
+        ByteBuffer buf = ByteBuffer.allocate(BATCH_BYTES);
+        long position = 0;
+        long lineStart = 0;
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+
+        while (position < size) {
+            buf.clear();
+            int read = channel.read(buf, position);
+            if (read <= 0) break;
+            buf.flip();
+            for (int i = 0; i < read; i++) {
+                byte b = buf.get();
+                if (b == '\n') {
+                    indexLine(line.toByteArray(), lineStart);
+                    line.reset();
+                    lineStart = position + i + 1;
+                } else {
+                    line.write(b);
+                }
+            }
+            position += read;
+        }
+
+        if (line.size() > 0) {
+            // Unterminated tail (e.g. crash mid-write): terminate it so the next append starts cleanly
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}), size);
+            indexLine(line.toByteArray(), lineStart);
+            size++;
+        }
+        appendPosition = size;
+        flushedPosition = size;
+    }
+
+    private void indexLine(byte[] bytes, long offset) {
+        int comma = -1;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == ',') { comma = i; break; }
+        }
+        if (comma <= 0) return;
+        try {
+            long userId = Long.parseLong(new String(bytes, 0, comma, StandardCharsets.US_ASCII).trim());
+            inbox(userId).add(offset, bytes.length);
+        } catch (NumberFormatException e) {
+            // skip header or malformed line
+        }
+    }
+
+    private Inbox inbox(long userId) {
+        return inboxes.computeIfAbsent(userId, k -> new Inbox());
+    }
+
+    /**
+     * Append a notification to the user's inbox (buffered)
+     */
+    public void append(long userId, String message, String date) {
+        String clean = message == null ? "" : message.replace('\n', ' ').replace('\r', ' ');
+        byte[] bytes = String.format("%d,%s,%s", userId, clean, date).getBytes(StandardCharsets.UTF_8);
+
+        boolean flushNow;
+        synchronized (this) {
+            long offset = appendPosition;
+            pending.write(bytes, 0, bytes.length);
+            pending.write('\n');
+            appendPosition += bytes.length + 1;
+            inbox(userId).add(offset, bytes.length);
+            flushNow = pending.size() >= BATCH_BYTES;
+        }
+        if (flushNow) {
+            flushQuietly();
+        }
+    }
+
+    /**
+     * Write any buffered appends to the segment in one call
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.size() == 0) return;
+        ByteBuffer buf = ByteBuffer.wrap(pending.toByteArray());
+        long position = flushedPosition;
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+        pending.reset();
+        flushedPosition = position;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Error flushing notifications: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Page through a user's inbox, newest first
+     * Each entry is returned as {message, date}
+     */
+    public List<String[]> readPage(long userId, int page, int pageSize) throws IOException {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox == null || page < 0 || pageSize <= 0) return new ArrayList<>();
+
+        long[] offsets;
+        int[] lengths;
+        int count;
+        synchronized (inbox) {
+            count = inbox.size;
+            int newest = count - 1 - page * pageSize;
+            int n = Math.max(0, Math.min(pageSize, newest + 1));
+            offsets = new long[n];
+            lengths = new int[n];
+            for (int i = 0; i < n; i++) {
+                offsets[i] = inbox.offsets[newest - i];
+                lengths[i] = inbox.lengths[newest - i];
+            }
+        }
+        return readEntries(offsets, lengths);
+    }
+
+    /**
+     * Read a user's whole inbox, oldest first
+     */
+    public List<String[]> readAll(long userId) throws IOException {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox == null) return new ArrayList<>();
+        long[] offsets;
+        int[] lengths;
+        synchronized (inbox) {
+            offsets = Arrays.copyOf(inbox.offsets, inbox.size);
+            lengths = Arrays.copyOf(inbox.lengths, inbox.size);
+        }
+        return readEntries(offsets, lengths);
+    }
+
+    private List<String[]> readEntries(long[] offsets, int[] lengths) throws IOException {
+        List<String[]> entries = new ArrayList<>(offsets.length);
+        if (offsets.length == 0) return entries;
+
+        for (long offset : offsets) {
+            if (offset >= flushedPosition) {
+                flush(); // entry is still in the batch buffer
+                break;
+            }
+        }
+
+        for (int i = 0; i < offsets.length; i++) {
+            ByteBuffer buf = ByteBuffer.allocate(lengths[i]);
+            long position = offsets[i];
+            while (buf.hasRemaining()) {
+                int read = channel.read(buf, position);
+                if (read < 0) break;
+                position += read;
+            }
+            entries.add(parse(new String(buf.array(), 0, buf.position(), StandardCharsets.UTF_8)));
+        }
+        return entries;
+    }
+
+    /**
+     * Split "userId,message,date" keeping commas inside the message
+     */
+    private String[] parse(String line) {
+        int first = line.indexOf(',');
+        int last = line.lastIndexOf(',');
+        if (first < 0 || last <= first) {
+            return new String[]{line.substring(first + 1), ""};
+        }
+        return new String[]{line.substring(first + 1, last), line.substring(last + 1)};
+    }
+
+    public int getTotalCount(long userId) {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox == null) return 0;
+        synchronized (inbox) {
+            return inbox.size;
+        }
+    }
+
+    public int getUnreadCount(long userId) {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox == null) return 0;
+        synchronized (inbox) {
+            return inbox.size - inbox.readCount;
+        }
+    }
+
+    /**
+     * Mark everything currently in the inbox as read
+     */
+    public void markAllRead(long userId) {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox == null) return;
+        synchronized (inbox) {
+            if (inbox.readCount == inbox.size) return;
+            inbox.readCount = inbox.size;
+        }
+        saveReadMarks();
+    }
+
+    private void loadReadMarks() {
+        if (!readMarksFile.exists()) return;
+        try (BufferedReader br = new BufferedReader(new FileReader(readMarksFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 2) continue;
+                try {
+                    Inbox inbox = inboxes.get(Long.parseLong(parts[0]));
+                    if (inbox != null) {
+                        inbox.readCount = Math.min(inbox.size, Integer.parseInt(parts[1]));
+                    }
+                } catch (NumberFormatException e) {
+                    // skip header or bad line
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading notification read marks: " + e.getMessage());
+        }
+    }
+
+    private synchronized void saveReadMarks() {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(readMarksFile)))) {
+            out.println("USER_ID,READ_COUNT");
+            for (Map.Entry<Long, Inbox> e : inboxes.entrySet()) {
+                int readCount = e.getValue().readCount;
+                if (readCount > 0) {
+                    out.println(e.getKey() + "," + readCount);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving notification read marks: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Growable offset index for one user's lines
+     */
+    private static class Inbox {
+        long[] offsets = new long[8];
+        int[] lengths = new int[8];
+        int size;
+        volatile int readCount;
+
+        synchronized void add(long offset, int length) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            offsets[size] = offset;
+            lengths[size] = length;
+            size++;
+        }
+    }
+}
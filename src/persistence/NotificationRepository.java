@@ -0,0 +1,32 @@
+package com.fortis.persistence;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Per-user notification inboxes
+ * Entries are returned as {message, date}.
+ */
+public interface NotificationRepository {
+    
+    void append(long userId, String message, String date) throws IOException;
+    
+    /**
+     * One page of a user's inbox, newest first
+     */
+    List<String[]> readPage(long userId, int page, int pageSize) throws IOException;
+    
+    /**
+     * A user's whole inbox, oldest first
+     */
+    List<String[]> readAll(long userId) throws IOException;
+    
+    int getTotalCount(long userId) throws IOException;
+    
+    int getUnreadCount(long userId) throws IOException;
+    
+    /**
+     * Mark everything currently in the inbox as read
+     */
+    void markAllRead(long userId) throws IOException;
+}
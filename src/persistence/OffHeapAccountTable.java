@@ -0,0 +1,273 @@
+package com.fortis.persistence;
+
+import com.fortis.model.BankAccount.AccountStatus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapAccountTable - Account balances in fixed-width rows outside the heap
+ * Meant for tens of millions of accounts, where one BankAccount object per
+ * account (BigDecimal, dates, strings, monitor) costs gigabytes of heap and
+ * long GC pauses. Here an account is one 32-byte row in a direct buffer:
+ *
+ *   0  balance in cents (long)
+ *   8  version word: twice the version, odd while a change is in progress (long)
+ *   16 user id (long)
+ *   24 type (byte), status (byte), reserved (2 bytes)
+ *   28 reserved (int)
+ *
+ * Rows are indexed by dense account id (row = id - 1) and live in 32 MB
+ * segments allocated as ids grow. A change claims its row by CASing the
+ * version word from even to odd, writes, and releases it at the next even
+ * value, so a balance and its version always move together and
+ * getBalanceAndVersion reads a consistent pair seqlock-style, without
+ * blocking writers. A row is held for a few instructions; there are no
+ * lock objects and no per-account monitors. A transfer debits then
+ * credits; in between, the amount is in neither account, but it is never
+ * lost or created.
+ */
+public class OffHeapAccountTable {
+    public static final int ROW_SIZE = 32;
+    private static final int SEGMENT_BITS = 20; // rows per segment
+    private static final int SEGMENT_ROWS = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_ROWS - 1;
+
+    private static final int OFF_BALANCE = 0;
+    private static final int OFF_VERSION = 8;
+    private static final int OFF_USER = 16;
+    private static final int OFF_META = 24; // type | status << 8, read and CASed as one int
+    private static final int CREATING = 1 << 24; // meta while create() fills the row; type 0, so not yet visible
+
+    public static final int TYPE_SAVINGS = 1;
+    public static final int TYPE_CURRENT = 2;
+
+    // Same rules as SavingsAccount and CurrentAccount, in cents
+    private static final long SAVINGS_MINIMUM_CENTS = 100_000;
+    private static final long CURRENT_OVERDRAFT_CENTS = 1_000_000;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final AccountStatus[] STATUSES = AccountStatus.values();
+
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+
+    /**
+     * Add an account row; ids should be dense, starting at 1
+     * @param type TYPE_SAVINGS or TYPE_CURRENT
+     */
+    public void create(long accountId, int type, long userId, long balanceCents) {
+        if (type != TYPE_SAVINGS && type != TYPE_CURRENT) {
+            throw new IllegalArgumentException("Unknown account type " + type);
+        }
+        ByteBuffer seg = segmentFor(accountId, true);
+        int off = offset(accountId);
+        if (!INT.compareAndSet(seg, off + OFF_META, 0, CREATING)) {
+            throw new IllegalStateException("Account " + accountId + " already exists");
+        }
+        LONG.setVolatile(seg, off + OFF_BALANCE, balanceCents);
+        LONG.setVolatile(seg, off + OFF_USER, userId);
+        LONG.setVolatile(seg, off + OFF_VERSION, 2L); // version 1
+        // Written last: a non-zero type marks the row as existing
+        INT.setVolatile(seg, off + OFF_META, type | AccountStatus.ACTIVE.ordinal() << 8);
+    }
+
+    public boolean exists(long accountId) {
+        ByteBuffer seg = segmentFor(accountId, false);
+        return seg != null && ((int) INT.getVolatile(seg, offset(accountId) + OFF_META) & 0xFF) != 0;
+    }
+
+    public long getBalanceCents(long accountId) {
+        return (long) LONG.getVolatile(row(accountId), offset(accountId) + OFF_BALANCE);
+    }
+
+    /**
+     * Version of the row, 1 when created and one more after every change
+     */
+    public long getVersion(long accountId) {
+        return (long) LONG.getVolatile(row(accountId), offset(accountId) + OFF_VERSION) >>> 1;
+    }
+
+    /**
+     * Balance and the version it belongs to, read as one: {balance cents, version}
+     */
+    public long[] getBalanceAndVersion(long accountId) {
+        ByteBuffer seg = row(accountId);
+        int off = offset(accountId);
+        while (true) {
+            long word = (long) LONG.getAcquire(seg, off + OFF_VERSION);
+            if ((word & 1) == 0) {
+                long balance = (long) LONG.getAcquire(seg, off + OFF_BALANCE);
+                VarHandle.loadLoadFence();
+                if ((long) LONG.getVolatile(seg, off + OFF_VERSION) == word) {
+                    return new long[] {balance, word >>> 1};
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public long getUserId(long accountId) {
+        return (long) LONG.getVolatile(row(accountId), offset(accountId) + OFF_USER);
+    }
+
+    public int getType(long accountId) {
+        return meta(accountId) & 0xFF;
+    }
+
+    public AccountStatus getStatus(long accountId) {
+        return STATUSES[(meta(accountId) >>> 8) & 0xFF];
+    }
+
+    /**
+     * Lowest balance a withdrawal may leave: the savings minimum or the current overdraft
+     */
+    public long getFloorCents(long accountId) {
+        return getType(accountId) == TYPE_SAVINGS ? SAVINGS_MINIMUM_CENTS : -CURRENT_OVERDRAFT_CENTS;
+    }
+
+    public void deposit(long accountId, long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+        ByteBuffer seg = row(accountId);
+        int off = offset(accountId);
+        long word = claim(seg, off);
+        LONG.setVolatile(seg, off + OFF_BALANCE, (long) LONG.getVolatile(seg, off + OFF_BALANCE) + cents);
+        release(seg, off, word + 2);
+    }
+
+    /**
+     * Debit if the account is active and stays at or above its floor
+     * @return false if the withdrawal is not allowed; nothing is changed then
+     */
+    public boolean withdraw(long accountId, long cents) {
+        if (cents <= 0) {
+            return false;
+        }
+        ByteBuffer seg = row(accountId);
+        int off = offset(accountId);
+        long floor = getFloorCents(accountId);
+        long word = claim(seg, off);
+        long balance = (long) LONG.getVolatile(seg, off + OFF_BALANCE);
+        if (getStatus(accountId) != AccountStatus.ACTIVE || balance - cents < floor) {
+            release(seg, off, word); // unchanged, same version
+            return false;
+        }
+        LONG.setVolatile(seg, off + OFF_BALANCE, balance - cents);
+        release(seg, off, word + 2);
+        return true;
+    }
+
+    /**
+     * Debit one account and credit another
+     * @return false if the debit is not allowed or the target is not active
+     */
+    public boolean transfer(long fromAccountId, long toAccountId, long cents) {
+        if (getStatus(toAccountId) != AccountStatus.ACTIVE || !withdraw(fromAccountId, cents)) {
+            return false;
+        }
+        deposit(toAccountId, cents);
+        return true;
+    }
+
+    public void setBalanceCents(long accountId, long cents) {
+        ByteBuffer seg = row(accountId);
+        int off = offset(accountId);
+        long word = claim(seg, off);
+        LONG.setVolatile(seg, off + OFF_BALANCE, cents);
+        release(seg, off, word + 2);
+    }
+
+    public void setStatus(long accountId, AccountStatus status) {
+        ByteBuffer seg = row(accountId);
+        int off = offset(accountId);
+        long word = claim(seg, off);
+        int meta = (int) INT.getVolatile(seg, off + OFF_META);
+        INT.setVolatile(seg, off + OFF_META, (meta & 0xFF) | status.ordinal() << 8);
+        release(seg, off, word + 2);
+    }
+
+    /**
+     * BankAccount view over a row, for callers written against BankAccount
+     */
+    public OffHeapBankAccount view(long accountId) {
+        if (!exists(accountId)) {
+            return null;
+        }
+        return new OffHeapBankAccount(this, accountId);
+    }
+
+    /**
+     * Off-heap bytes currently allocated
+     */
+    public long allocatedBytes() {
+        return (long) segments.length * SEGMENT_ROWS * ROW_SIZE;
+    }
+
+    // ===== Rows =====
+
+    /**
+     * Take the row for a change: CAS the version word from even to odd; returns the even word
+     */
+    private static long claim(ByteBuffer seg, int off) {
+        while (true) {
+            long word = (long) LONG.getVolatile(seg, off + OFF_VERSION);
+            if ((word & 1) == 0 && LONG.compareAndSet(seg, off + OFF_VERSION, word, word + 1)) {
+                return word;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Give the row back at the given even word: the claimed one if nothing changed, else the next
+     */
+    private static void release(ByteBuffer seg, int off, long word) {
+        LONG.setVolatile(seg, off + OFF_VERSION, word);
+    }
+
+    private int meta(long accountId) {
+        return (int) INT.getVolatile(row(accountId), offset(accountId) + OFF_META);
+    }
+
+    private static int offset(long accountId) {
+        return (int) ((accountId - 1) & SEGMENT_MASK) * ROW_SIZE;
+    }
+
+    private ByteBuffer row(long accountId) {
+        ByteBuffer seg = segmentFor(accountId, false);
+        if (seg == null || ((int) INT.getVolatile(seg, offset(accountId) + OFF_META) & 0xFF) == 0) {
+            throw new IllegalArgumentException("Account not found");
+        }
+        return seg;
+    }
+
+    private ByteBuffer segmentFor(long accountId, boolean create) {
+        if (accountId < 1) {
+            return null;
+        }
+        long index = (accountId - 1) >>> SEGMENT_BITS;
+        ByteBuffer[] segs = segments;
+        if (index < segs.length) {
+            return segs[(int) index];
+        }
+        return create ? grow((int) index) : null;
+    }
+
+    private synchronized ByteBuffer grow(int index) {
+        ByteBuffer[] segs = segments;
+        if (index >= segs.length) {
+            ByteBuffer[] bigger = new ByteBuffer[index + 1];
+            System.arraycopy(segs, 0, bigger, 0, segs.length);
+            for (int i = segs.length; i <= index; i++) {
+                // Aligned so every long is 8-byte aligned, as atomic VarHandle access requires
+                bigger[i] = ByteBuffer.allocateDirect(SEGMENT_ROWS * ROW_SIZE + 8).alignedSlice(8);
+            }
+            segments = segs = bigger;
+        }
+        return segs[index];
+    }
+}
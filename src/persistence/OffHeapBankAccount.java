@@ -0,0 +1,107 @@
+package com.fortis.persistence;
+
+import com.fortis.model.BankAccount;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * BankAccount view over one row of an OffHeapAccountTable
+ * Created on demand and holds no balance or status of its own: every read
+ * and update goes to the row, so any number of views of an account agree.
+ * Holder name, creation time and daily limit are not kept off-heap; the
+ * view reports the account number as holder, the time the view was made
+ * and the default daily limit.
+ */
+public class OffHeapBankAccount extends BankAccount {
+    private static final BigDecimal DAILY_LIMIT = new BigDecimal("100000.00");
+    private static final BigDecimal SAVINGS_RATE = new BigDecimal("0.04");
+
+    private final OffHeapAccountTable table;
+
+    OffHeapBankAccount(OffHeapAccountTable table, long accountId) {
+        super(accountId, String.format("ACC%04d", accountId), String.format("ACC%04d", accountId),
+                null, DAILY_LIMIT, table.getUserId(accountId));
+        this.table = table;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public String getAccountType() {
+        return table.getType(accountId) == OffHeapAccountTable.TYPE_SAVINGS ? "SAVINGS" : "CURRENT";
+    }
+
+    @Override
+    public BigDecimal calculateInterest() {
+        if (table.getType(accountId) != OffHeapAccountTable.TYPE_SAVINGS) {
+            return BigDecimal.ZERO;
+        }
+        return getBalance().multiply(SAVINGS_RATE).divide(new BigDecimal("12"), 2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public boolean canWithdraw(BigDecimal amount) {
+        if (!isActive() || amount.compareTo(BigDecimal.ZERO) <= 0) return false;
+        return table.getBalanceCents(accountId) - toCents(amount) >= table.getFloorCents(accountId);
+    }
+
+    @Override
+    public BigDecimal getMinimumBalance() {
+        return table.getType(accountId) == OffHeapAccountTable.TYPE_SAVINGS
+                ? fromCents(table.getFloorCents(accountId)) : new BigDecimal("5000.00");
+    }
+
+    @Override
+    public void deposit(BigDecimal amount) {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+        table.deposit(accountId, toCents(amount));
+    }
+
+    @Override
+    public void withdraw(BigDecimal amount) {
+        if (!table.withdraw(accountId, toCents(amount))) {
+            throw new IllegalStateException("Withdrawal not allowed");
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+        return table.getStatus(accountId) == AccountStatus.ACTIVE;
+    }
+
+    @Override
+    public BigDecimal getBalance() {
+        return fromCents(table.getBalanceCents(accountId));
+    }
+
+    @Override
+    public AccountStatus getStatus() {
+        return table.getStatus(accountId);
+    }
+
+    @Override
+    public void setBalance(BigDecimal balance) {
+        table.setBalanceCents(accountId, toCents(balance));
+    }
+
+    @Override
+    public void setStatus(AccountStatus status) {
+        table.setStatus(accountId, status);
+    }
+
+    /**
+     * Row version; changes with every balance or status update
+     */
+    public long getVersion() {
+        return table.getVersion(accountId);
+    }
+}
@@ -0,0 +1,138 @@
+package com.fortis.persistence;
+
+import com.fortis.model.BankAccount;
+import com.fortis.model.CurrentAccount;
+import com.fortis.model.SavingsAccount;
+import com.fortis.utils.AppConfig;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Repositories - Storage backend for the service layer
+ * One instance hands out the account, transaction, user, loan and
+ * notification repositories of a single backend:
+ *   memory - nothing is persisted
+ *   file   - CSV files and journals under the data directory (default)
+ *   jdbc   - SQL tables through DatabaseManager
+ * The shared instance follows fortis.repository; benchmarks can build one
+ * per backend. Repositories are opened on first use.
+ */
+public class Repositories {
+    public static final String MEMORY = "memory";
+    public static final String FILE = "file";
+    public static final String JDBC = "jdbc";
+
+    private static Repositories instance;
+
+    private final String backend;
+    private final File dataDir;
+    private final JdbcRepositories.ConnectionSource connections;
+
+    private AccountRepository accounts;
+    private TransactionRepository transactions;
+    private UserRepository users;
+    private LoanRepository loans;
+    private NotificationRepository notifications;
+
+    public Repositories(String backend, File dataDir, JdbcRepositories.ConnectionSource connections) {
+        if (!MEMORY.equals(backend) && !FILE.equals(backend) && !JDBC.equals(backend)) {
+            throw new IllegalArgumentException("Unknown repository backend: " + backend);
+        }
+        this.backend = backend;
+        this.dataDir = dataDir;
+        this.connections = connections;
+    }
+
+    public static synchronized Repositories getInstance() {
+        if (instance == null) {
+            instance = new Repositories(AppConfig.getRepositoryBackend(), new File(AppConfig.getDataDir()),
+                    () -> DatabaseManager.getInstance().getConnection());
+        }
+        return instance;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public synchronized AccountRepository accounts() throws IOException {
+        if (accounts == null) {
+            switch (backend) {
+                case FILE: accounts = new FileJournalRepositories.Accounts(dataDir); break;
+                case JDBC: accounts = new JdbcRepositories.Accounts(connections); break;
+                default: accounts = new InMemoryRepositories.Accounts();
+            }
+        }
+        return accounts;
+    }
+
+    public synchronized TransactionRepository transactions() throws IOException {
+        if (transactions == null) {
+            switch (backend) {
+                case FILE: transactions = new FileJournalRepositories.Transactions(dataDir); break;
+                case JDBC: transactions = new JdbcRepositories.Transactions(connections); break;
+                default: transactions = new InMemoryRepositories.Transactions();
+            }
+        }
+        return transactions;
+    }
+
+    public synchronized UserRepository users() throws IOException {
+        if (users == null) {
+            switch (backend) {
+                case FILE: users = new FileJournalRepositories.Users(dataDir); break;
+                case JDBC: users = new JdbcRepositories.Users(connections); break;
+                default: users = new InMemoryRepositories.Users();
+            }
+        }
+        return users;
+    }
+
+    public synchronized LoanRepository loans() throws IOException {
+        if (loans == null) {
+            switch (backend) {
+                case FILE: loans = new LoanStore(new File(dataDir, "loans.csv")); break;
+                case JDBC: loans = new JdbcRepositories.Loans(connections); break;
+                default: loans = new InMemoryRepositories.Loans();
+            }
+        }
+        return loans;
+    }
+
+    public synchronized NotificationRepository notifications() throws IOException {
+        if (notifications == null) {
+            switch (backend) {
+                case FILE: notifications = new NotificationInboxStore(new File(dataDir, "notifications.csv")); break;
+                case JDBC: notifications = new JdbcRepositories.Notifications(connections); break;
+                default: notifications = new InMemoryRepositories.Notifications();
+            }
+        }
+        return notifications;
+    }
+
+    /**
+     * Close every repository that was opened and holds files
+     */
+    public synchronized void close() throws IOException {
+        for (Object repository : new Object[]{accounts, transactions, users, loans, notifications}) {
+            if (repository instanceof Closeable) {
+                ((Closeable) repository).close();
+            }
+        }
+    }
+
+    /**
+     * Rebuild a service account from stored columns
+     */
+    static BankAccount newAccount(long id, String number, String holder, BigDecimal balance,
+                                  BigDecimal dailyLimit, String type, String status, long userId) {
+        BankAccount account = "SAVINGS".equals(type)
+                ? new SavingsAccount(id, number, holder, balance, dailyLimit, userId)
+                : new CurrentAccount(id, number, holder, balance, dailyLimit, userId);
+        account.setStatus(BankAccount.AccountStatus.valueOf(status));
+        return account;
+    }
+}
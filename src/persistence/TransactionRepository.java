@@ -0,0 +1,18 @@
+package com.fortis.persistence;
+
+import com.fortis.model.TransactionRecord;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Append-only storage for BankingService transaction records
+ */
+public interface TransactionRepository {
+    
+    /**
+     * All stored records in the order they were appended
+     */
+    List<TransactionRecord> findAll() throws IOException;
+    
+    void append(TransactionRecord record) throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.fortis.persistence;
+
+import com.fortis.model.User;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Storage for user credentials, roles and lock state
+ */
+public interface UserRepository {
+    
+    List<User> findAll() throws IOException;
+    
+    /**
+     * Insert or replace a user, keyed by user id
+     */
+    void save(User user) throws IOException;
+}
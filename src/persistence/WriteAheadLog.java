@@ -1,11 +1,15 @@
 package com.fortis.persistence;
 
+import com.fortis.utils.AppConfig;
+import com.fortis.utils.FlightEvents;
+import com.fortis.utils.MetricsRegistry;
 import java.io.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * WriteAheadLog (WAL) - Ensures durability and enables crash recovery
@@ -13,14 +17,19 @@ import java.util.List;
  */
 public class WriteAheadLog {
     private static WriteAheadLog instance;
-    private static final String WAL_DIR = "logs/wal/";
+    private static final String WAL_DIR = AppConfig.logPath("wal");
     private static final String WAL_FILE = WAL_DIR + "transactions.wal";
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
     
     private BufferedWriter writer;
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final MetricsRegistry.Histogram writeLatency = MetricsRegistry.getInstance()
+            .histogram("fortis_wal_write_seconds", "WAL append and flush latency", 1e-9);
     
     private WriteAheadLog() {
         initializeWAL();
+        MetricsRegistry.getInstance().gauge("fortis_wal_queue_depth",
+                "Threads waiting to append to the WAL", this::getQueueDepth);
     }
     
     /**
@@ -55,14 +64,14 @@ public class WriteAheadLog {
     /**
      * Log transaction begin
      */
-    public synchronized void logBegin(String transactionUuid) {
+    public void logBegin(String transactionUuid) {
         writeLog(String.format("BEGIN|%s|%s", transactionUuid, getCurrentTimestamp()));
     }
     
     /**
      * Log debit operation
      */
-    public synchronized void logDebit(String transactionUuid, long accountId, 
+    public void logDebit(String transactionUuid, long accountId, 
                                      BigDecimal amount, BigDecimal oldBalance, BigDecimal newBalance) {
         writeLog(String.format("DEBIT|%s|%d|%.2f|%.2f|%.2f|%s",
                 transactionUuid, accountId, amount, oldBalance, newBalance, getCurrentTimestamp()));
@@ -71,7 +80,7 @@ public class WriteAheadLog {
     /**
      * Log credit operation
      */
-    public synchronized void logCredit(String transactionUuid, long accountId,
+    public void logCredit(String transactionUuid, long accountId,
                                       BigDecimal amount, BigDecimal oldBalance, BigDecimal newBalance) {
         writeLog(String.format("CREDIT|%s|%d|%.2f|%.2f|%.2f|%s",
                 transactionUuid, accountId, amount, oldBalance, newBalance, getCurrentTimestamp()));
@@ -80,14 +89,14 @@ public class WriteAheadLog {
     /**
      * Log transaction commit
      */
-    public synchronized void logCommit(String transactionUuid) {
+    public void logCommit(String transactionUuid) {
         writeLog(String.format("COMMIT|%s|%s", transactionUuid, getCurrentTimestamp()));
     }
     
     /**
      * Log transaction rollback
      */
-    public synchronized void logRollback(String transactionUuid) {
+    public void logRollback(String transactionUuid) {
         writeLog(String.format("ROLLBACK|%s|%s", transactionUuid, getCurrentTimestamp()));
     }
     
@@ -95,16 +104,42 @@ public class WriteAheadLog {
      * Write log entry
      */
     private void writeLog(String entry) {
-        try {
-            writer.write(entry);
-            writer.newLine();
-            writer.flush(); // Ensure durability
-        } catch (IOException e) {
-            System.err.println("✗ Failed to write to WAL: " + e.getMessage());
-            e.printStackTrace();
+        // Entries are formatted outside the lock; callers queue here for the writer
+        pendingWrites.incrementAndGet();
+        synchronized (this) {
+            pendingWrites.decrementAndGet();
+            long start = System.nanoTime();
+            FlightEvents.WalAppendEvent append = new FlightEvents.WalAppendEvent();
+            append.begin();
+            try {
+                writer.write(entry);
+                writer.newLine();
+                append.end();
+                FlightEvents.WalFlushEvent flush = new FlightEvents.WalFlushEvent();
+                flush.begin();
+                writer.flush(); // Ensure durability
+                flush.commit();
+                writeLatency.record(System.nanoTime() - start);
+                if (append.shouldCommit()) {
+                    int sep = entry.indexOf('|');
+                    append.operation = sep > 0 ? entry.substring(0, sep) : entry;
+                    append.bytes = entry.length() + 1;
+                    append.commit();
+                }
+            } catch (IOException e) {
+                System.err.println("✗ Failed to write to WAL: " + e.getMessage());
+                e.printStackTrace();
+            }
         }
     }
     
+    /**
+     * Number of threads currently waiting to write an entry
+     */
+    public int getQueueDepth() {
+        return pendingWrites.get();
+    }
+    
     /**
      * Read all WAL entries
      */
@@ -1,28 +1,42 @@
 package com.fortis.service;
 
+import com.fortis.model.Principal;
 import com.fortis.model.User;
+import com.fortis.persistence.Repositories;
+import com.fortis.persistence.UserRepository;
 import com.fortis.utils.SecurityUtils;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Authentication Service - Implements Authenticatable interface
- * Handles user login, logout, and session management
+ * Handles user login, logout, and session management.
+ * Any number of sessions can be open at once (console, ATM, REST); each is
+ * identified by a token from the SessionRegistry. The interactive console
+ * keeps its own token so the Authenticatable methods work as before; it
+ * lasts until logout, since the console has no way to log back in mid-menu.
  */
 public class AuthenticationService implements Authenticatable {
-    private static final String USERS_FILE = "data/users.csv";
+    private static final long SESSION_IDLE_MINUTES = 
+        Long.getLong("fortis.session.idle.minutes", 30);
     private static AuthenticationService instance;
-    private User currentUser;
-    private final Map<String, User> userDatabase;
+    private final ConcurrentHashMap<String, User> userDatabase;
+    private final SessionRegistry sessions;
+    private final AtomicLong lastUserId = new AtomicLong();
+    private UserRepository userStore;
+    private volatile String consoleToken;
 
     public User getUserByUsername(String username) {
         return userDatabase.get(username);
     }
 
     private AuthenticationService() {
-        this.userDatabase = new HashMap<>();
+        this.userDatabase = new ConcurrentHashMap<>();
+        this.sessions = new SessionRegistry(SESSION_IDLE_MINUTES, TimeUnit.MINUTES);
         loadUsers();
+        userDatabase.values().forEach(u -> lastUserId.accumulateAndGet(u.getUserId(), Math::max));
     }
     
     public static synchronized AuthenticationService getInstance() {
@@ -33,47 +47,25 @@ public class AuthenticationService implements Authenticatable {
     }
     
     private void loadUsers() {
-        java.io.File file = new java.io.File(USERS_FILE);
-        if (!file.exists()) {
-            initializeDefaultUsers();
-            saveUsers();
-            return;
-        }
-        
-        try (java.util.Scanner scanner = new java.util.Scanner(file)) {
-            if (scanner.hasNextLine()) scanner.nextLine(); // Skip header
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    long id = Long.parseLong(parts[0]);
-                    String username = parts[1];
-                    String pinHash = parts[2];
-                    User.UserRole role = User.UserRole.valueOf(parts[3]);
-                    boolean locked = parts.length > 4 && parts[4].equals("LOCKED");
-                    
-                    User user = new User(id, username, pinHash, role, LocalDateTime.now());
-                    if (locked) user.setLocked(true);
-                    userDatabase.put(username, user);
-                }
+        try {
+            userStore = Repositories.getInstance().users();
+            for (User user : userStore.findAll()) {
+                userDatabase.put(user.getUsername(), user);
             }
         } catch (Exception e) {
             System.err.println("Failed to load users: " + e.getMessage());
+        }
+        if (userDatabase.isEmpty()) {
             initializeDefaultUsers();
+            userDatabase.values().forEach(this::saveUser);
         }
     }
     
-    private void saveUsers() {
-        try (java.io.PrintWriter pw = new java.io.PrintWriter(new java.io.FileWriter(USERS_FILE))) {
-            pw.println("ID,USERNAME,PIN_HASH,ROLE,STATUS");
-            for (User user : userDatabase.values()) {
-                pw.printf("%d,%s,%s,%s,%s%n",
-                    user.getUserId(),
-                    user.getUsername(),
-                    user.getPin(),
-                    user.getRole(),
-                    user.isLocked() ? "LOCKED" : "ACTIVE"
-                );
+    private void saveUser(User user) {
+        if (userStore == null) return;
+        try {
+            synchronized (user) {
+                userStore.save(user);
             }
         } catch (Exception e) {
             System.err.println("Failed to save users: " + e.getMessage());
@@ -110,6 +102,24 @@ public class AuthenticationService implements Authenticatable {
     
     @Override
     public User authenticate(String username, String pin) {
+        User user = verifyCredentials(username, pin);
+        if (user != null) {
+            String previous = consoleToken;
+            consoleToken = sessions.open(Principal.of(user), false);
+            sessions.close(previous);
+        }
+        return user;
+    }
+    
+    /**
+     * Open an independent session (ATM, REST) and return its token, or null on bad credentials
+     */
+    public String login(String username, String pin) {
+        User user = verifyCredentials(username, pin);
+        return user != null ? sessions.open(Principal.of(user)) : null;
+    }
+    
+    private User verifyCredentials(String username, String pin) {
         User user = userDatabase.get(username);
         
         if (user == null) {
@@ -120,39 +130,82 @@ public class AuthenticationService implements Authenticatable {
             throw new SecurityException("Account is locked due to multiple failed attempts");
         }
         
-        String hashedPin = SecurityUtils.hashPin(pin);
-        if (user.getPin().equals(hashedPin)) {
-            user.resetFailedAttempts();
-            user.setLastLoginAt(LocalDateTime.now());
-            this.currentUser = user;
-            return user;
-        } else {
-            user.incrementFailedAttempts();
-            if (user.isLocked()) saveUsers(); // Save lock state
-            return null;
+        // Hash outside the user lock: the KDF is deliberately slow
+        String storedPin = user.getPin();
+        boolean valid = SecurityUtils.verifyPin(pin, storedPin);
+        
+        boolean lockedNow = false;
+        boolean rehashed = false;
+        synchronized (user) {
+            if (user.isLocked()) {
+                throw new SecurityException("Account is locked due to multiple failed attempts");
+            }
+            if (valid) {
+                user.resetFailedAttempts();
+                user.setLastLoginAt(LocalDateTime.now());
+                // Lazy migration of legacy or outdated hashes
+                if (SecurityUtils.needsRehash(storedPin) && storedPin.equals(user.getPin())) {
+                    user.setPin(SecurityUtils.hashPin(pin));
+                    rehashed = true;
+                }
+            } else {
+                user.incrementFailedAttempts();
+                lockedNow = user.isLocked();
+            }
         }
+        if (lockedNow || rehashed) saveUser(user); // Save lock state / upgraded hash
+        return valid ? user : null;
+    }
+    
+    /**
+     * Resolve a session token to its principal (lock-free, refreshes idle timer)
+     */
+    public Principal getPrincipal(String token) {
+        return sessions.lookup(token);
+    }
+    
+    /**
+     * Resolve a session token to the full user record
+     */
+    public User getUser(String token) {
+        Principal principal = sessions.lookup(token);
+        return principal != null ? userDatabase.get(principal.getUsername()) : null;
+    }
+    
+    public boolean validatePin(String token, String pin) {
+        User user = getUser(token);
+        if (user == null) return false;
+        return SecurityUtils.verifyPin(pin, user.getPin());
+    }
+    
+    public void logout(String token) {
+        sessions.close(token);
+    }
+    
+    public int getActiveSessionCount() {
+        return sessions.getActiveSessionCount();
     }
     
     @Override
     public boolean validatePin(String pin) {
-        if (currentUser == null) return false;
-        String hashedPin = SecurityUtils.hashPin(pin);
-        return currentUser.getPin().equals(hashedPin);
+        return validatePin(consoleToken, pin);
     }
     
     @Override
     public void logout() {
-        this.currentUser = null;
+        String token = consoleToken;
+        consoleToken = null;
+        sessions.close(token);
     }
     
     @Override
     public User getCurrentUser() {
-        return currentUser;
+        return getUser(consoleToken);
     }
     
     @Override
     public boolean isAuthenticated() {
-        return currentUser != null;
+        return getCurrentUser() != null;
     }
     
     public void registerUser(String username, String pin, User.UserRole role) {
@@ -160,31 +213,38 @@ public class AuthenticationService implements Authenticatable {
             throw new IllegalArgumentException("Username already exists");
         }
         
-        long userId = userDatabase.size() + 1L;
+        long userId = lastUserId.incrementAndGet();
         User newUser = new User(userId, username, 
             SecurityUtils.hashPin(pin), 
             role, 
             LocalDateTime.now());
-        userDatabase.put(username, newUser);
-        saveUsers();
+        if (userDatabase.putIfAbsent(username, newUser) != null) {
+            throw new IllegalArgumentException("Username already exists");
+        }
+        saveUser(newUser);
     }
     
     public void unlockUser(String username) {
         User user = userDatabase.get(username);
         if (user != null) {
-            user.setLocked(false);
-            user.resetFailedAttempts();
-            saveUsers();
+            synchronized (user) {
+                user.setLocked(false);
+                user.resetFailedAttempts();
+            }
+            saveUser(user);
         }
     }
     
     public boolean resetPassword(String username, String newPlainPin) {
         User user = userDatabase.get(username);
         if (user != null) {
-             user.setPin(SecurityUtils.hashPin(newPlainPin));
-             user.setLocked(false);
-             user.resetFailedAttempts();
-             saveUsers();
+             synchronized (user) {
+                 user.setPin(SecurityUtils.hashPin(newPlainPin));
+                 user.setLocked(false);
+                 user.resetFailedAttempts();
+             }
+             sessions.closeAll(user.getUserId());
+             saveUser(user);
              return true;
         }
         return false;
@@ -3,12 +3,29 @@ package com.fortis.service;
 import com.fortis.model.*;
 import com.fortis.model.TransactionRecord.TransactionStatus;
 import com.fortis.model.TransactionRecord.TransactionType;
+import com.fortis.persistence.AccountRepository;
 import com.fortis.persistence.AuditLogger;
+import com.fortis.persistence.ColumnarTransactionLog;
+import com.fortis.persistence.IdempotencyCache;
+import com.fortis.persistence.InMemoryRepositories;
+import com.fortis.persistence.Repositories;
+import com.fortis.persistence.TransactionRepository;
+import com.fortis.utils.AppConfig;
+import com.fortis.utils.ConcurrentLongMap;
+import com.fortis.utils.FlightEvents;
+import com.fortis.utils.FlightEvents.CsvSaveEvent;
+import com.fortis.utils.FlightEvents.TransferEvent;
+import com.fortis.utils.MetricsRegistry;
+import com.fortis.utils.RateLimits;
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.io.File;
+import java.io.IOException;
 
 /**
  * Banking Service - Core business logic
@@ -16,18 +33,46 @@ import java.io.File;
  */
 public class BankingService implements Transactionable {
     private static BankingService instance;
-    private final Map<Long, BankAccount> accounts;
-    private final List<TransactionRecord> transactions;
+    private final ConcurrentLongMap<BankAccount> accounts; // keyed by primitive id, no Long boxing
+    private final ConcurrentLongMap<AccountSnapshot> snapshots = new ConcurrentLongMap<>();
+    private final AtomicLong snapshotVersion = new AtomicLong();
+    private final ColumnarTransactionLog transactions; // readers pin snapshots, never copy
     private final AuditLogger auditLogger;
+    private final AccountRepository accountStore;
+    private final TransactionRepository transactionStore;
+    private final ShardedAccountEngine engine; // null unless fortis.shards > 0
+    private final IdempotencyCache<TransactionRecord> idempotency;
+    private final MetricsRegistry.Counter transfersCompleted = MetricsRegistry.getInstance()
+            .counter("fortis_service_transfers_total", "In-memory transfers by outcome", "outcome", "completed");
+    private final MetricsRegistry.Counter transfersFailed = MetricsRegistry.getInstance()
+            .counter("fortis_service_transfers_total", "In-memory transfers by outcome", "outcome", "failed");
     
     private BankingService() {
-        this.accounts = new ConcurrentHashMap<>();
-        this.transactions = Collections.synchronizedList(new ArrayList<>());
+        this.accounts = new ConcurrentLongMap<>();
+        this.transactions = new ColumnarTransactionLog();
         this.auditLogger = AuditLogger.getInstance();
-        loadData(); // Load from CSV
+        AccountRepository accountRepo;
+        TransactionRepository transactionRepo;
+        try {
+            accountRepo = Repositories.getInstance().accounts();
+            transactionRepo = Repositories.getInstance().transactions();
+        } catch (IOException e) {
+            System.err.println("Load Error: " + e.getMessage() + " - keeping data in memory only");
+            accountRepo = new InMemoryRepositories.Accounts();
+            transactionRepo = new InMemoryRepositories.Transactions();
+        }
+        this.accountStore = accountRepo;
+        this.transactionStore = transactionRepo;
+        int shards = AppConfig.getShardCount();
+        this.engine = shards > 0 ? new ShardedAccountEngine(shards, accounts::get) : null;
+        File keyFile = AppConfig.isPersistenceEnabled()
+                ? new File(AppConfig.logPath("idempotency"), "banking-service.keys") : null;
+        this.idempotency = new IdempotencyCache<>("service", keyFile, AppConfig.getIdempotencyTtlMillis(),
+                AppConfig.getIdempotencyMaxKeys(), TransactionRecord::getTransactionId, record -> true);
+        loadData();
         if (accounts.isEmpty()) {
             initializeSampleAccounts();
-            saveData();
+            persist(null, accounts.values().toArray(new BankAccount[0]));
         }
     }
     
@@ -39,62 +84,56 @@ public class BankingService implements Transactionable {
     }
     
     // PERSISTENCE LOGIC
-    private void saveData() {
+    /**
+     * Record changed accounts and an optional new transaction in the repositories,
+     * then publish the accounts' new snapshots
+     */
+    private void persist(TransactionRecord record, BankAccount... changed) {
+        for (BankAccount acc : changed) {
+            publish(acc);
+        }
+        CsvSaveEvent event = new CsvSaveEvent();
+        event.begin();
         try {
-            new File("data").mkdirs();
-            // Save Accounts
-            java.io.FileWriter fw = new java.io.FileWriter("data/accounts.csv");
-            fw.write("ID,NUMBER,HOLDER,BALANCE,LIMIT,TYPE,STATUS,USER_ID\n");
-            for (BankAccount acc : accounts.values()) {
-                String type = acc instanceof SavingsAccount ? "SAVINGS" : "CURRENT";
-                String status = acc.isActive() ? "ACTIVE" : "BLOCKED";
-                fw.write(String.format("%d,%s,%s,%s,%s,%s,%s,%d\n", 
-                    acc.getAccountId(), acc.getAccountNumber(), acc.getAccountHolder(), 
-                    acc.getBalance(), "0", type, status, acc.getUserId()));
+            for (BankAccount acc : changed) {
+                // Under the account's monitor so saves reach the store in balance order
+                synchronized (acc) {
+                    accountStore.save(acc);
+                }
             }
-            fw.close();
-            
-            // Save Transactions
-            java.io.FileWriter fw2 = new java.io.FileWriter("data/transactions.csv");
-            fw2.write("ID,FROM,TO,AMOUNT,TYPE,DESC,STATUS,DATE\n");
-            for (TransactionRecord t : transactions) {
-                fw2.write(String.format("%s,%d,%d,%s,%s,%s,%s,%s\n",
-                    t.getTransactionId(), t.getFromAccountId(), t.getToAccountId(),
-                    t.getAmount(), t.getType(), t.getDescription(), t.getStatus(), t.getTimestamp()));
+            if (record != null) {
+                transactionStore.append(record);
             }
-            fw2.close();
-            
         } catch (Exception e) {
             System.err.println("Data Save Error: " + e.getMessage());
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.accounts = changed.length;
+            event.transactions = record != null ? 1 : 0;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Replace the account's snapshot with its current state
+     * Balance changes, on the locking path and on the shards alike, and
+     * publishing all hold the account's monitor, so each account's snapshots
+     * are published in the order its changes happened.
+     */
+    private void publish(BankAccount acc) {
+        synchronized (acc) {
+            snapshots.put(acc.getAccountId(), AccountSnapshot.of(acc, snapshotVersion.incrementAndGet()));
+        }
     }
     
     private void loadData() {
         try {
-            File f = new File("data/accounts.csv");
-            if (!f.exists()) return;
-            
-            Scanner sc = new Scanner(f);
-            if (sc.hasNextLine()) sc.nextLine(); // Skip header
-            while (sc.hasNextLine()) {
-                String[] parts = sc.nextLine().split(",");
-                if (parts.length < 8) continue; // Ensure we have USER_ID
-                long id = Long.parseLong(parts[0]);
-                String num = parts[1];
-                String holder = parts[2];
-                BigDecimal bal = new BigDecimal(parts[3]);
-                String type = parts[5];
-                boolean active = parts[6].equals("ACTIVE");
-                long userId = Long.parseLong(parts[7]);
-                
-                BankAccount acc;
-                if (type.equals("SAVINGS")) acc = new SavingsAccount(id, num, holder, bal, BigDecimal.ZERO, userId);
-                else acc = new CurrentAccount(id, num, holder, bal, BigDecimal.ZERO, userId);
-                
-                if (!active) acc.setStatus(BankAccount.AccountStatus.BLOCKED);
-                accounts.put(id, acc);
+            for (BankAccount acc : accountStore.findAll()) {
+                accounts.put(acc.getAccountId(), acc);
+                publish(acc);
             }
-            sc.close();
+            transactions.appendAll(transactionStore.findAll());
         } catch (Exception e) {
             System.err.println("Load Error: " + e.getMessage());
         }
@@ -115,16 +154,31 @@ public class BankingService implements Transactionable {
         accounts.put(3L, acc3);
     }
     
+    /**
+     * Reject before any lookup, lock or I/O when the caller is over its rate limit
+     */
+    private static void checkRateLimit(User user, long accountId) {
+        String scope = RateLimits.getInstance().tryAcquire(user == null ? 0 : user.getUserId(), accountId);
+        if (scope != null) {
+            throw new IllegalStateException("Rate limit exceeded (" + scope + "), please try again shortly");
+        }
+    }
+    
     private void validateAccess(BankAccount account, User user) {
+        validateAccess(account.getUserId(), user);
+    }
+    
+    private void validateAccess(long ownerId, User user) {
         if (user.isAdmin()) return; // Admin has full access
         
-        if (account.getUserId() != user.getUserId()) {
+        if (ownerId != user.getUserId()) {
             throw new SecurityException("ACCESS DENIED - This account does not belong to you.");
         }
     }
     
     @Override
     public TransactionRecord deposit(long accountId, BigDecimal amount, String description, User user) {
+        checkRateLimit(user, accountId);
         BankAccount account = accounts.get(accountId);
         if (account == null) {
             throw new IllegalArgumentException("Account not found");
@@ -139,24 +193,30 @@ public class BankingService implements Transactionable {
         
         String txnId = generateTransactionId();
         try {
-            account.deposit(amount);
+            if (engine != null) {
+                await(engine.deposit(accountId, amount));
+            } else {
+                account.deposit(amount);
+            }
             TransactionRecord record = new TransactionRecord(txnId, 0L, accountId, 
                 amount, TransactionType.DEPOSIT, description, TransactionStatus.COMPLETED);
-            transactions.add(record);
+            transactions.append(record);
             
             auditLogger.logSystemEvent("DEPOSIT", String.format("Account %d, Amount: %.2f, User: %s", accountId, amount, user.getUsername()));
-            saveData();
+            persist(record, account);
             return record;
         } catch (Exception e) {
             TransactionRecord record = new TransactionRecord(txnId, 0L, accountId, 
                 amount, TransactionType.DEPOSIT, description, TransactionStatus.FAILED);
-            transactions.add(record);
+            transactions.append(record);
+            persist(record);
             throw e;
         }
     }
     
     @Override
     public TransactionRecord withdraw(long accountId, BigDecimal amount, String description, User user) {
+        checkRateLimit(user, accountId);
         BankAccount account = accounts.get(accountId);
         if (account == null) {
             throw new IllegalArgumentException("Account not found");
@@ -169,34 +229,43 @@ public class BankingService implements Transactionable {
         }
         
         // CONSISTENCY Check: Ensure balance checks are atomic with withdrawal
-        synchronized (account) {
-            if (!account.canWithdraw(amount)) {
-                throw new IllegalStateException("Insufficient Funds");
+        // (in sharded mode the owning shard checks and debits in one step)
+        if (engine == null) {
+            synchronized (account) {
+                if (!account.canWithdraw(amount)) {
+                    throw new IllegalStateException("Insufficient Funds");
+                }
             }
         }
         
         String txnId = generateTransactionId();
         try {
             // ATOMICITY: All or nothing
-            account.withdraw(amount);
+            if (engine != null) {
+                await(engine.withdraw(accountId, amount));
+            } else {
+                account.withdraw(amount);
+            }
             
             TransactionRecord record = new TransactionRecord(txnId, accountId, 0L, 
                 amount, TransactionType.WITHDRAWAL, description, TransactionStatus.COMPLETED);
-            transactions.add(record);
+            transactions.append(record);
             
             auditLogger.logSystemEvent("WITHDRAWAL", String.format("Account %d, Amount: %.2f, User: %s", accountId, amount, user.getUsername()));
-            saveData();
+            persist(record, account);
             return record;
         } catch (Exception e) {
             TransactionRecord record = new TransactionRecord(txnId, accountId, 0L, 
                 amount, TransactionType.WITHDRAWAL, description, TransactionStatus.FAILED);
-            transactions.add(record);
+            transactions.append(record);
+            persist(record);
             throw e;
         }
     }
     
     @Override
     public TransactionRecord transfer(long fromAccountId, long toAccountId, BigDecimal amount, String description, User user) {
+        checkRateLimit(user, fromAccountId);
         BankAccount fromAccount = accounts.get(fromAccountId);
         BankAccount toAccount = accounts.get(toAccountId);
         
@@ -212,46 +281,141 @@ public class BankingService implements Transactionable {
         }
         
         String txnId = generateTransactionId();
+        TransferEvent event = new TransferEvent();
+        event.begin();
         try {
-            // ATOMICITY & ISOLATION
-            // Determine lock order to prevent deadlocks
-            BankAccount first = fromAccountId < toAccountId ? fromAccount : toAccount;
-            BankAccount second = fromAccountId < toAccountId ? toAccount : fromAccount;
-            
-            synchronized (first) {
-                synchronized (second) {
-                   // Double-check consistency inside lock
-                   if (!fromAccount.canWithdraw(amount)) {
-                       throw new IllegalStateException("Insufficient Funds");
-                   }
-                   
-                   fromAccount.withdraw(amount);
-                   try {
-                       toAccount.deposit(amount);
-                   } catch (Exception e) {
-                       // ROLLBACK
-                       fromAccount.deposit(amount); 
-                       throw new IllegalStateException("Transfer failed, rolled back: " + e.getMessage());
-                   }
-                }
+            if (engine != null) {
+                // Debit on the source shard, credit on the target shard, refund on failure
+                await(engine.transfer(fromAccountId, toAccountId, amount));
+            } else {
+                transferLocked(fromAccount, toAccount, amount);
             }
             
             TransactionRecord record = new TransactionRecord(txnId, fromAccountId, toAccountId, 
                 amount, TransactionType.TRANSFER, description, TransactionStatus.COMPLETED);
-            transactions.add(record);
+            transactions.append(record);
             
             auditLogger.logSystemEvent("TRANSFER", String.format("From %d to %d, Amount: %.2f, User: %s", 
                 fromAccountId, toAccountId, amount, user.getUsername()));
-            saveData();
+            persist(record, fromAccount, toAccount);
+            transfersCompleted.increment();
+            commitTransferEvent(event, txnId, fromAccountId, toAccountId, amount, "COMPLETED", null);
             return record;
         } catch (Exception e) {
             TransactionRecord record = new TransactionRecord(txnId, fromAccountId, toAccountId, 
                 amount, TransactionType.TRANSFER, description, TransactionStatus.FAILED);
-            transactions.add(record);
+            transactions.append(record);
+            persist(record);
+            transfersFailed.increment();
+            commitTransferEvent(event, txnId, fromAccountId, toAccountId, amount, "FAILED", e.getMessage());
             throw e;
         }
     }
     
+    /**
+     * Move funds holding both account monitors, taken in id order
+     */
+    private void transferLocked(BankAccount fromAccount, BankAccount toAccount, BigDecimal amount) {
+        // ATOMICITY & ISOLATION
+        // Determine lock order to prevent deadlocks
+        boolean fromFirst = fromAccount.getAccountId() < toAccount.getAccountId();
+        BankAccount first = fromFirst ? fromAccount : toAccount;
+        BankAccount second = fromFirst ? toAccount : fromAccount;
+        
+        synchronized (first) {
+            synchronized (second) {
+               // Double-check consistency inside lock
+               if (!fromAccount.canWithdraw(amount)) {
+                   throw new IllegalStateException("Insufficient Funds");
+               }
+               
+               fromAccount.withdraw(amount);
+               try {
+                   toAccount.deposit(amount);
+               } catch (Exception e) {
+                   // ROLLBACK
+                   fromAccount.deposit(amount); 
+                   throw new IllegalStateException("Transfer failed, rolled back: " + e.getMessage());
+               }
+            }
+        }
+    }
+    
+    /**
+     * Wait for a shard step, rethrowing its failure as thrown by the locking path
+     */
+    private static void await(CompletableFuture<Void> step) {
+        try {
+            step.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private static void commitTransferEvent(TransferEvent event, String txnId, long from, long to,
+                                            BigDecimal amount, String outcome, String reason) {
+        if (event.shouldCommit()) {
+            event.engine = "service";
+            event.transactionId = txnId;
+            event.fromAccount = from;
+            event.toAccount = to;
+            event.amountBucket = FlightEvents.amountBucket(amount);
+            event.outcome = outcome;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+    
+    // IDEMPOTENT VARIANTS
+    // A retry with the same key (per user) returns the original record instead of
+    // moving money again. Failed attempts are not remembered and can be retried.
+    
+    public TransactionRecord deposit(long accountId, BigDecimal amount, String description, User user,
+                                     String idempotencyKey) {
+        return checkReplay(idempotency.execute(scopedKey(idempotencyKey, user),
+                () -> deposit(accountId, amount, description, user), this::findTransaction),
+                0L, accountId, amount, TransactionType.DEPOSIT, description);
+    }
+    
+    public TransactionRecord withdraw(long accountId, BigDecimal amount, String description, User user,
+                                      String idempotencyKey) {
+        return checkReplay(idempotency.execute(scopedKey(idempotencyKey, user),
+                () -> withdraw(accountId, amount, description, user), this::findTransaction),
+                accountId, 0L, amount, TransactionType.WITHDRAWAL, description);
+    }
+    
+    public TransactionRecord transfer(long fromAccountId, long toAccountId, BigDecimal amount, String description,
+                                      User user, String idempotencyKey) {
+        return checkReplay(idempotency.execute(scopedKey(idempotencyKey, user),
+                () -> transfer(fromAccountId, toAccountId, amount, description, user), this::findTransaction),
+                fromAccountId, toAccountId, amount, TransactionType.TRANSFER, description);
+    }
+    
+    private static String scopedKey(String idempotencyKey, User user) {
+        // A null user is user 0, as for the rate limits
+        return idempotencyKey == null ? null : (user == null ? 0 : user.getUserId()) + ":" + idempotencyKey;
+    }
+    
+    /**
+     * A key reused for a different request must not return the other request's record
+     */
+    private static TransactionRecord checkReplay(TransactionRecord record, long from, long to,
+                                                 BigDecimal amount, TransactionType type, String description) {
+        if (record.getType() != type || record.getFromAccountId() != from || record.getToAccountId() != to
+                || record.getAmount().compareTo(amount) != 0
+                || !Objects.equals(record.getDescription(), description)) {
+            throw new IllegalArgumentException("Idempotency key already used for a different request");
+        }
+        return record;
+    }
+    
+    private TransactionRecord findTransaction(String transactionId) {
+        return transactions.snapshot().find(transactionId);
+    }
+    
     @Override
     public List<TransactionRecord> getTransactionHistory(long accountId, User user) {
         BankAccount account = accounts.get(accountId);
@@ -263,18 +427,14 @@ public class BankingService implements Transactionable {
         }
         validateAccess(account, user);
         
-        return transactions.stream()
-            .filter(t -> t.getFromAccountId() == accountId || t.getToAccountId() == accountId)
+        return transactions.snapshot().forAccount(accountId).stream()
             .sorted((t1, t2) -> t2.getTimestamp().compareTo(t1.getTimestamp()))
             .collect(Collectors.toList());
     }
     
     @Override
     public TransactionRecord getTransactionById(String transactionId, User user) {
-        TransactionRecord txn = transactions.stream()
-            .filter(t -> t.getTransactionId().equals(transactionId))
-            .findFirst()
-            .orElse(null);
+        TransactionRecord txn = findTransaction(transactionId);
             
         if (txn != null) {
             // Check if user owns either 'from' or 'to' account
@@ -302,6 +462,44 @@ public class BankingService implements Transactionable {
         return account;
     }
     
+    /**
+     * Latest committed state of an account, read without any lock
+     * A deposit, withdrawal or transfer publishes before it returns, so the
+     * caller always sees its own completed changes.
+     */
+    public AccountSnapshot getAccountSnapshot(long accountId, User user) {
+        AccountSnapshot snapshot = snapshots.get(accountId);
+        if (snapshot == null) return null;
+        validateAccess(snapshot.getUserId(), user);
+        return snapshot;
+    }
+    
+    public List<AccountSnapshot> getAccountSnapshotsByUser(long userId) {
+        List<AccountSnapshot> result = new ArrayList<>();
+        for (AccountSnapshot snapshot : snapshots.values()) {
+            if (snapshot.getUserId() == userId) {
+                result.add(snapshot);
+            }
+        }
+        result.sort(Comparator.comparingLong(AccountSnapshot::getAccountId));
+        return result;
+    }
+    
+    public List<AccountSnapshot> getAllAccountSnapshots() {
+        List<AccountSnapshot> result = new ArrayList<>(snapshots.values());
+        result.sort(Comparator.comparingLong(AccountSnapshot::getAccountId));
+        return result;
+    }
+    
+    /**
+     * Version of the newest published snapshot
+     * Versions are global and each account's snapshots carry increasing
+     * versions, so of two snapshots of one account the higher version is newer.
+     */
+    public long getSnapshotVersion() {
+        return snapshotVersion.get();
+    }
+    
     // Internal use / Admin restricted - DEPRECATED for public use
     public BankAccount getAccountInternal(long accountId) {
         return accounts.get(accountId);
@@ -311,21 +509,40 @@ public class BankingService implements Transactionable {
         return new ArrayList<>(accounts.values());
     }
     
+    /**
+     * Transactions visible to the user
+     * Admins get a read-only snapshot pinned in O(1): later transactions are
+     * not in it, and taking it neither copies nor blocks writers.
+     */
     public List<TransactionRecord> getAllTransactions(User user) {
          if (user.isAdmin()) {
-             return new ArrayList<>(transactions);
+             return transactions.snapshot();
          }
-         return transactions.stream()
-             .filter(t -> {
-                 BankAccount from = accounts.get(t.getFromAccountId());
-                 BankAccount to = accounts.get(t.getToAccountId());
-                 boolean isFromMine = from != null && from.getUserId() == user.getUserId();
-                 boolean isToMine = to != null && to.getUserId() == user.getUserId();
-                 return isFromMine || isToMine;
-             })
+         return transactions.snapshot().stream()
+             .filter(t -> isOwnedBy(t, user))
              .collect(Collectors.toList());
     }
     
+    /**
+     * Visit transactions visible to the user without copying the list
+     * Walks a snapshot pinned at the start, so the view is stable and lock-free.
+     */
+    public void forEachTransaction(User user, Consumer<TransactionRecord> action) {
+        for (TransactionRecord t : transactions.snapshot()) {
+            if (user.isAdmin() || isOwnedBy(t, user)) {
+                action.accept(t);
+            }
+        }
+    }
+    
+    private boolean isOwnedBy(TransactionRecord t, User user) {
+        BankAccount from = accounts.get(t.getFromAccountId());
+        BankAccount to = accounts.get(t.getToAccountId());
+        boolean isFromMine = from != null && from.getUserId() == user.getUserId();
+        boolean isToMine = to != null && to.getUserId() == user.getUserId();
+        return isFromMine || isToMine;
+    }
+    
     public List<BankAccount> getAccountsByUser(long userId) {
         return accounts.values().stream()
             .filter(acc -> acc.getUserId() == userId)
@@ -354,7 +571,7 @@ public class BankingService implements Transactionable {
         accounts.put(accountId, account);
         auditLogger.logSystemEvent("ACCOUNT_CREATED", String.format("ID %d, Type: %s, Holder: %s, By: %s", 
             accountId, accountType, accountHolder, user.getUsername()));
-        saveData();
+        persist(null, account);
         return accountId;
     }
     
@@ -366,7 +583,7 @@ public class BankingService implements Transactionable {
         if (account != null) {
             account.setStatus(BankAccount.AccountStatus.BLOCKED);
             auditLogger.logSystemEvent("ACCOUNT_BLOCKED", String.format("ID %d, By: %s", accountId, user.getUsername()));
-            saveData();
+            persist(null, account);
         }
     }
     
@@ -378,7 +595,7 @@ public class BankingService implements Transactionable {
         if (account != null) {
             account.setStatus(BankAccount.AccountStatus.ACTIVE);
             auditLogger.logSystemEvent("ACCOUNT_UNBLOCKED", String.format("ID %d, By: %s", accountId, user.getUsername()));
-            saveData();
+            persist(null, account);
         }
     }
     
@@ -390,8 +607,13 @@ public class BankingService implements Transactionable {
             throw new IllegalArgumentException("Account not found");
         }
         accounts.remove(accountId);
+        snapshots.remove(accountId);
         auditLogger.logSystemEvent("ACCOUNT_DELETED", String.format("ID %d, By: %s", accountId, user.getUsername()));
-        saveData();
+        try {
+            accountStore.delete(accountId);
+        } catch (IOException e) {
+            System.err.println("Data Save Error: " + e.getMessage());
+        }
     }
     
     private String generateTransactionId() {
@@ -1,25 +1,25 @@
 package com.fortis.service;
 
+import com.fortis.persistence.LoanRepository;
+import com.fortis.persistence.LoanStore.LoanRecord;
+import com.fortis.persistence.Repositories;
 import java.io.*;
 import java.util.*;
-import java.math.BigDecimal;
 
 /**
  * Loan Service - Manages loan applications and status
+ * Backed by the configured LoanRepository; with file storage lookups are
+ * served from the LoanStore index and approvals update one record in place
  */
 public class LoanService {
     private static LoanService instance;
-    private final File loanFile = new File("data/loans.csv");
+    private LoanRepository store;
 
     private LoanService() {
-        if (!loanFile.exists()) {
-            try {
-                File dir = loanFile.getParentFile();
-                if (dir != null) dir.mkdirs();
-                loanFile.createNewFile();
-            } catch (IOException e) {
-                System.err.println("Could not create loan file: " + e.getMessage());
-            }
+        try {
+            store = Repositories.getInstance().loans();
+        } catch (IOException e) {
+            System.err.println("Could not open loan store: " + e.getMessage());
         }
     }
 
@@ -31,13 +31,11 @@ public class LoanService {
     }
 
     public void requestLoan(long userId, double amount, int duration, String purpose) {
-        try (FileWriter fw = new FileWriter(loanFile, true);
-             BufferedWriter bw = new BufferedWriter(fw);
-             PrintWriter out = new PrintWriter(bw)) {
+        if (store == null) return;
+        try {
             String loanId = "LN-" + (System.currentTimeMillis() % 100000);
             // Format: ID,UserId,Amount,Duration,Purpose,Status,Date
-            out.println(String.format("%s,%d,%.2f,%d,%s,%s,%s", 
-                loanId, userId, amount, duration, purpose, "PENDING", new java.util.Date()));
+            store.append(loanId, userId, amount, duration, purpose, "PENDING", new java.util.Date().toString());
         } catch (IOException e) {
             System.err.println("Error saving loan request: " + e.getMessage());
         }
@@ -45,101 +43,53 @@ public class LoanService {
 
     public List<String> getLoanStatus(long userId) {
         List<String> loans = new ArrayList<>();
-        if (!loanFile.exists()) return loans;
+        if (store == null) return loans;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(loanFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6) {
-                    try {
-                        long uid = Long.parseLong(parts[1]);
-                        if (uid == userId) {
-                             loans.add(String.format("Loan #%s: $%.2f - %s (%s)", parts[0], Double.parseDouble(parts[2]), parts[5], parts[6]));
-                        }
-                    } catch (NumberFormatException e) {
-                        // skip header or bad line
-                    }
-                }
+        try {
+            for (LoanRecord loan : store.getByUser(userId)) {
+                loans.add(String.format("Loan #%s: $%.2f - %s (%s)", loan.loanId, loan.amount, loan.getStatus(), loan.date));
             }
         } catch (IOException e) {
-             System.err.println("Error reading loan status: " + e.getMessage());
+            System.err.println("Error reading loans: " + e.getMessage());
         }
         return loans;
     }
     
     public List<String> getAllPendingLoans() {
         List<String> loans = new ArrayList<>();
-        if (!loanFile.exists()) return loans;
+        if (store == null) return loans;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(loanFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6) {
-                    if ("PENDING".equalsIgnoreCase(parts[5])) {
-                         loans.add(String.format("Loan %s: User %s applied for $%.2f (%s)", parts[0], parts[1], Double.parseDouble(parts[2]), parts[4]));
-                    }
-                }
+        try {
+            for (LoanRecord loan : store.getByStatus("PENDING")) {
+                loans.add(String.format("Loan %s: User %s applied for $%.2f (%s)", loan.loanId, loan.userId, loan.amount, loan.purpose));
             }
         } catch (IOException e) {
-             System.err.println("Error reading loans: " + e.getMessage());
+            System.err.println("Error reading loans: " + e.getMessage());
         }
         return loans;
     }
 
     public boolean approveLoan(String loanId, boolean approved) {
-        if (!loanFile.exists()) return false;
-        
-        List<String> lines = new ArrayList<>();
-        boolean found = false;
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(loanFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                // parts[0] is ID
-                if (parts.length > 0 && parts[0].equals(loanId.trim())) {
-                    found = true;
-                    // Update Status part[5]
-                    if (parts.length >= 6) {
-                        parts[5] = approved ? "APPROVED" : "REJECTED";
-                        line = String.join(",", parts);
-                    }
-                }
-                lines.add(line);
-            }
+        if (store == null) return false;
+        try {
+            return store.updateStatus(loanId.trim(), approved ? "APPROVED" : "REJECTED");
         } catch (IOException e) {
-            System.err.println("Error reading loan file: " + e.getMessage());
+            System.err.println("Error updating loan: " + e.getMessage());
             return false;
         }
-        
-        if (found) {
-            try (PrintWriter out = new PrintWriter(new FileWriter(loanFile))) {
-                for (String l : lines) {
-                    out.println(l);
-                }
-                return true;
-            } catch (IOException e) {
-                System.err.println("Error writing loan file: " + e.getMessage());
-            }
-        }
-        return false;
     }
+
     public double[] getLoanDetails(String loanId) {
-        if (!loanFile.exists()) return null;
-        try (BufferedReader br = new BufferedReader(new FileReader(loanFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 2 && parts[0].equals(loanId)) {
-                    // Returns [UserId, Amount]
-                    return new double[]{ Double.parseDouble(parts[1]), Double.parseDouble(parts[2]) };
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error reading loan details: " + e.getMessage());
+        if (store == null) return null;
+        LoanRecord loan;
+        try {
+            loan = store.get(loanId);
+        } catch (IOException e) {
+            System.err.println("Error reading loans: " + e.getMessage());
+            return null;
         }
-        return null;
+        if (loan == null) return null;
+        // Returns [UserId, Amount]
+        return new double[]{ loan.userId, loan.amount };
     }
 }
@@ -1,24 +1,24 @@
 package com.fortis.service;
 
+import com.fortis.persistence.NotificationRepository;
+import com.fortis.persistence.Repositories;
 import java.io.*;
 import java.util.*;
 
 /**
  * Notification Service - Manages user notifications
+ * Backed by the configured NotificationRepository; with file storage reads
+ * only touch the user's own messages through the indexed inbox store
  */
 public class NotificationService {
     private static NotificationService instance;
-    private final File notifFile = new File("data/notifications.csv");
+    private NotificationRepository store;
 
     private NotificationService() {
-        if (!notifFile.exists()) {
-            try {
-                File dir = notifFile.getParentFile();
-                if (dir != null) dir.mkdirs();
-                notifFile.createNewFile();
-            } catch (IOException e) {
-                System.err.println("Could not create notifications file: " + e.getMessage());
-            }
+        try {
+            store = Repositories.getInstance().notifications();
+        } catch (IOException e) {
+            System.err.println("Could not open notification store: " + e.getMessage());
         }
     }
 
@@ -30,38 +30,76 @@ public class NotificationService {
     }
 
     public void addNotification(long userId, String message) {
-        try (FileWriter fw = new FileWriter(notifFile, true);
-             BufferedWriter bw = new BufferedWriter(fw);
-             PrintWriter out = new PrintWriter(bw)) {
-            // UserId,Message,Date
-            out.println(String.format("%d,%s,%s", userId, message, new java.util.Date()));
+        if (store == null) return;
+        try {
+            store.append(userId, message, new java.util.Date().toString());
         } catch (IOException e) {
             System.err.println("Error saving notification: " + e.getMessage());
         }
     }
 
+    /**
+     * All notifications for a user, oldest first
+     */
     public List<String> getNotifications(long userId) {
         List<String> notifs = new ArrayList<>();
-        if (!notifFile.exists()) return notifs;
+        if (store == null) return notifs;
+        try {
+            for (String[] entry : store.readAll(userId)) {
+                notifs.add(format(entry));
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading notifications: " + e.getMessage());
+        }
+        return notifs;
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(notifFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", 3); // Limit split to handle message with commas if careful, or just simple
-                if (parts.length >= 3) {
-                    try {
-                        long uid = Long.parseLong(parts[0]);
-                        if (uid == userId) {
-                             notifs.add(String.format("[%s] %s", parts[2], parts[1]));
-                        }
-                    } catch (NumberFormatException e) {
-                        // skip
-                    }
-                }
+    /**
+     * One page of notifications for a user, newest first
+     */
+    public List<String> getNotifications(long userId, int page, int pageSize) {
+        List<String> notifs = new ArrayList<>();
+        if (store == null) return notifs;
+        try {
+            for (String[] entry : store.readPage(userId, page, pageSize)) {
+                notifs.add(format(entry));
             }
         } catch (IOException e) {
-             System.err.println("Error reading notifications: " + e.getMessage());
+            System.err.println("Error reading notifications: " + e.getMessage());
         }
         return notifs;
     }
+
+    public int getNotificationCount(long userId) {
+        if (store == null) return 0;
+        try {
+            return store.getTotalCount(userId);
+        } catch (IOException e) {
+            System.err.println("Error reading notifications: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public int getUnreadCount(long userId) {
+        if (store == null) return 0;
+        try {
+            return store.getUnreadCount(userId);
+        } catch (IOException e) {
+            System.err.println("Error reading notifications: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public void markAllRead(long userId) {
+        if (store == null) return;
+        try {
+            store.markAllRead(userId);
+        } catch (IOException e) {
+            System.err.println("Error updating notifications: " + e.getMessage());
+        }
+    }
+
+    private String format(String[] entry) {
+        return String.format("[%s] %s", entry[1], entry[0]);
+    }
 }
@@ -1,11 +1,15 @@
 package com.fortis.service;
 
 import com.fortis.model.TransactionRecord;
+import com.fortis.persistence.CsvStreamWriter;
 import com.fortis.utils.ANSIColors;
+import com.fortis.utils.FlightEvents.ReportGenerationEvent;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -62,6 +66,8 @@ public class ScheduledReportGenerator {
      */
     public void generateDailyReport() {
         long startTime = System.currentTimeMillis();
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         
         LocalDate today = LocalDate.now();
         String reportFilename = reportDirectory + "daily_report_" + 
@@ -91,6 +97,7 @@ public class ScheduledReportGenerator {
             writer.println("═══════════════════════════════════════════════════════════════════════");
             
             long totalCount = todayTransactions.size();
+            event.rows = totalCount;
             long successCount = todayTransactions.parallelStream()
                 .filter(t -> t.getStatus().toString().equals("COMPLETED"))
                 .count();
@@ -191,12 +198,15 @@ public class ScheduledReportGenerator {
         } catch (IOException e) {
             System.err.println(ANSIColors.error("Failed to write report: " + e.getMessage()));
         }
+        commitReportEvent(event, "daily", reportFilename);
     }
     
     /**
      * Generate monthly summary report
      */
     public void generateMonthlyReport() {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         LocalDate today = LocalDate.now();
         String reportFilename = reportDirectory + "monthly_report_" + 
                                today.format(DateTimeFormatter.ofPattern("yyyyMM")) + ".txt";
@@ -218,6 +228,7 @@ public class ScheduledReportGenerator {
                 .collect(Collectors.toList());
             
             long totalCount = monthTransactions.size();
+            event.rows = totalCount;
             long successCount = monthTransactions.parallelStream()
                 .filter(t -> t.getStatus().toString().equals("COMPLETED"))
                 .count();
@@ -237,38 +248,73 @@ public class ScheduledReportGenerator {
         } catch (IOException e) {
             System.err.println(ANSIColors.error("Failed to write monthly report: " + e.getMessage()));
         }
+        commitReportEvent(event, "monthly", reportFilename);
     }
     
     /**
      * Export report to CSV format for data analysis
      */
     public void exportToCSV(LocalDate date) {
+        exportToCSV(date, false);
+    }
+    
+    /**
+     * Export report to CSV, optionally gzip-compressed
+     * Rows are streamed straight from the transaction store into a fixed-size
+     * buffer, so memory stays flat no matter how many rows the day holds
+     */
+    public void exportToCSV(LocalDate date, boolean compress) {
         String csvFilename = reportDirectory + "transactions_" + 
-                            date.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".csv";
+                            date.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + 
+                            (compress ? ".csv.gz" : ".csv");
+        long startTime = System.currentTimeMillis();
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         
-        try (PrintWriter writer = new PrintWriter(new FileWriter(csvFilename))) {
-            writer.println("Transaction ID,Type,Amount,Status,Timestamp,Description");
-            
-            List<TransactionRecord> transactions = getAllTransactions().parallelStream()
-                .filter(t -> t.getTimestamp().toLocalDate().equals(date))
-                .collect(Collectors.toList());
-            
-            for (TransactionRecord txn : transactions) {
-                writer.printf("%s,%s,%.2f,%s,%s,%s%n",
-                    txn.getTransactionId(),
-                    txn.getType(),
-                    txn.getAmount(),
-                    txn.getStatus(),
-                    txn.getTimestamp(),
-                    txn.getDescription() != null ? txn.getDescription().replace(",", ";") : ""
-                );
-            }
-            
+        try (CsvStreamWriter writer = new CsvStreamWriter(Paths.get(csvFilename), compress)) {
+            writer.field("Transaction ID").field("Type").field("Amount")
+                  .field("Status").field("Timestamp").field("Description");
+            writer.endRow();
+            
+            LocalDateTime dayStart = date.atStartOfDay();
+            LocalDateTime dayEnd = dayStart.plusDays(1);
+            
+            bankingService.forEachTransaction(authService.getCurrentUser(), txn -> {
+                LocalDateTime ts = txn.getTimestamp();
+                if (ts.isBefore(dayStart) || !ts.isBefore(dayEnd)) {
+                    return;
+                }
+                try {
+                    writer.field(txn.getTransactionId())
+                          .field(txn.getType())
+                          .field(txn.getAmount())
+                          .field(txn.getStatus())
+                          .field(ts.toString())
+                          .field(txn.getDescription());
+                    writer.endRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            
+            event.rows = writer.getRowCount() - 1;
             System.out.println(ANSIColors.success("✓ CSV export completed: " + csvFilename));
+            System.out.println(ANSIColors.info("  Rows: " + (writer.getRowCount() - 1) + 
+                ", time: " + (System.currentTimeMillis() - startTime) + " ms"));
             
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             System.err.println(ANSIColors.error("Failed to export CSV: " + e.getMessage()));
         }
+        commitReportEvent(event, compress ? "csv.gz" : "csv", csvFilename);
+    }
+    
+    private static void commitReportEvent(ReportGenerationEvent event, String report, String file) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.report = report;
+            event.file = file;
+            event.commit();
+        }
     }
     
     /**
@@ -0,0 +1,540 @@
+package com.fortis.service;
+
+import com.fortis.model.BankAccount;
+import com.fortis.model.CurrentAccount;
+import com.fortis.model.SavingsAccount;
+import com.fortis.model.TransactionRecord;
+import com.fortis.model.TransactionRecord.TransactionStatus;
+import com.fortis.model.TransactionRecord.TransactionType;
+import com.fortis.persistence.AccountRepository;
+import com.fortis.persistence.AuditLogger;
+import com.fortis.persistence.CommandJournal;
+import com.fortis.persistence.TransactionRepository;
+import com.fortis.utils.ConcurrentLongMap;
+import com.fortis.utils.MetricsRegistry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sequenced banking core - single-threaded business logic behind a ring buffer
+ * Callers publish commands into a pre-allocated ring; every command gets a
+ * sequence number and flows through fixed stages, each on its own thread:
+ *
+ *   journaler -> business logic -> audit
+ *                               -> persistence
+ *
+ * The journaler writes each batch of commands to the CommandJournal before
+ * the business-logic thread sees them. That thread owns all account state,
+ * so it applies commands without locks and answers each caller through its
+ * Callback. Audit and persistence trail behind and never hold up a caller.
+ *
+ * State is rebuilt on open by replaying the journal through the same
+ * business logic. Account ids, transaction ids and timestamps all come from
+ * the journaled command, so replay is deterministic.
+ *
+ * Access control is the caller's job, as in BankingService.
+ */
+public class SequencedBankingCore implements Closeable {
+    static final byte OPEN = 1;
+    static final byte DEPOSIT = 2;
+    static final byte WITHDRAW = 3;
+    static final byte TRANSFER = 4;
+    private static final long CURRENT = 0;
+    private static final long SAVINGS = 1;
+    private static final BigDecimal DAILY_LIMIT = new BigDecimal("100000.00");
+
+    /**
+     * Completion of one command, called on the business-logic thread
+     * accountId is the new account for an open, otherwise the debited or credited account.
+     * record is null for an open and for commands rejected before any balance check.
+     * Callbacks must not publish commands: the ring may be full of work only this thread can drain.
+     */
+    public interface Callback {
+        void onComplete(long accountId, TransactionRecord record, RuntimeException error);
+    }
+
+    /**
+     * Pre-allocated ring entry; inputs are written by the publisher, outputs by the business logic
+     */
+    private static final class Slot {
+        byte type;
+        long accountId;
+        long otherId;
+        long amountCents;
+        long timestamp;
+        String text;
+        Callback callback;
+
+        long resultAccountId;
+        TransactionRecord record;
+        RuntimeException error;
+        BankAccount first;
+        BankAccount second;
+    }
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong cursor;
+    private final CommandJournal journal;
+    private final AuditLogger auditLogger;
+    private final AccountRepository accountStore;
+    private final TransactionRepository transactionStore;
+    private final ConcurrentLongMap<BankAccount> accounts = new ConcurrentLongMap<>();
+    private long nextAccountId = 1; // business-logic thread only
+
+    private final Stage logic;
+    private final Stage[] stages;
+    private final Stage[] gating;
+    private volatile long gatingCache;
+    private volatile boolean running = true;
+
+    /**
+     * @param ringSize         ring capacity, a power of two
+     * @param syncJournal      fsync each journal batch before it is applied
+     * @param auditLogger      audit stage target, or null for no audit stage
+     * @param accountStore     persistence stage target for changed accounts, or null
+     * @param transactionStore persistence stage target for records, or null
+     */
+    public SequencedBankingCore(File journalFile, int ringSize, boolean syncJournal, AuditLogger auditLogger,
+                                AccountRepository accountStore, TransactionRepository transactionStore)
+            throws IOException {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two");
+        }
+        this.ring = new Slot[ringSize];
+        this.published = new AtomicLongArray(ringSize);
+        for (int i = 0; i < ringSize; i++) {
+            ring[i] = new Slot();
+            published.set(i, -1);
+        }
+        this.mask = ringSize - 1;
+        this.auditLogger = auditLogger;
+        this.accountStore = accountStore;
+        this.transactionStore = transactionStore;
+
+        this.journal = new CommandJournal(journalFile, syncJournal);
+        Slot replay = new Slot();
+        long last = journal.replay((sequence, type, accountId, otherId, amountCents, timestamp, text) -> {
+            fill(replay, type, accountId, otherId, amountCents, timestamp, text, null);
+            try {
+                apply(replay, sequence);
+            } catch (RuntimeException e) {
+                // rejected the first time too
+            }
+        });
+        this.cursor = new AtomicLong(last + 1);
+        this.gatingCache = last;
+
+        Stage journaler = new Journaler(last);
+        this.logic = new BusinessLogic(last, journaler);
+        List<Stage> all = new ArrayList<>(List.of(journaler, logic));
+        List<Stage> tail = new ArrayList<>();
+        if (auditLogger != null) {
+            tail.add(new Audit(last, logic));
+        }
+        if (accountStore != null || transactionStore != null) {
+            tail.add(new Persistence(last, logic));
+        }
+        all.addAll(tail);
+        this.stages = all.toArray(new Stage[0]);
+        this.gating = tail.isEmpty() ? new Stage[]{logic} : tail.toArray(new Stage[0]);
+
+        MetricsRegistry.getInstance().gauge("fortis_core_ring_lag",
+                "Commands published but not yet through every stage of the sequenced core",
+                () -> cursor.get() - 1 - minSequence(gating));
+        for (Stage stage : stages) {
+            stage.start();
+        }
+    }
+
+    // ===== Commands =====
+
+    /**
+     * Open a SAVINGS or CURRENT account; the new id is passed to the callback
+     */
+    public void openAccount(String holder, String accountType, BigDecimal initialBalance, long userId,
+                            Callback callback) {
+        long cents = toCents(initialBalance);
+        if (cents < 0) {
+            throw new IllegalArgumentException("Initial balance cannot be negative");
+        }
+        publish(OPEN, userId, "SAVINGS".equalsIgnoreCase(accountType) ? SAVINGS : CURRENT, cents, holder, callback);
+    }
+
+    public void deposit(long accountId, BigDecimal amount, String description, Callback callback) {
+        publish(DEPOSIT, accountId, 0, positiveCents(amount), description, callback);
+    }
+
+    public void withdraw(long accountId, BigDecimal amount, String description, Callback callback) {
+        publish(WITHDRAW, accountId, 0, positiveCents(amount), description, callback);
+    }
+
+    public void transfer(long fromAccountId, long toAccountId, BigDecimal amount, String description,
+                         Callback callback) {
+        publish(TRANSFER, fromAccountId, toAccountId, positiveCents(amount), description, callback);
+    }
+
+    /**
+     * Claim the next sequence, fill its slot and make it visible to the journaler
+     */
+    private void publish(byte type, long accountId, long otherId, long amountCents, String text, Callback callback) {
+        if (!running) {
+            throw new IllegalStateException("Sequenced core is closed");
+        }
+        long sequence = cursor.getAndIncrement();
+        long wrapPoint = sequence - ring.length;
+        if (wrapPoint > gatingCache) {
+            long min;
+            int idle = 0;
+            while (wrapPoint > (min = minSequence(gating))) {
+                idle = idle(idle); // ring full: wait for the slowest stage
+            }
+            gatingCache = min;
+        }
+        int index = (int) sequence & mask;
+        fill(ring[index], type, accountId, otherId, amountCents, System.currentTimeMillis(), text, callback);
+        published.set(index, sequence);
+    }
+
+    private static void fill(Slot slot, byte type, long accountId, long otherId, long amountCents,
+                             long timestamp, String text, Callback callback) {
+        slot.type = type;
+        slot.accountId = accountId;
+        slot.otherId = otherId;
+        slot.amountCents = amountCents;
+        slot.timestamp = timestamp;
+        slot.text = text;
+        slot.callback = callback;
+        slot.resultAccountId = accountId;
+        slot.record = null;
+        slot.error = null;
+        slot.first = null;
+        slot.second = null;
+    }
+
+    // ===== Reads =====
+
+    /**
+     * Account as of the last applied command; balances keep changing underneath
+     */
+    public BankAccount getAccount(long accountId) {
+        return accounts.get(accountId);
+    }
+
+    public int getAccountCount() {
+        return accounts.size();
+    }
+
+    /**
+     * Sequence of the last command applied by the business logic
+     */
+    public long getAppliedSequence() {
+        return logic.sequence.get();
+    }
+
+    // ===== Business logic (single thread) =====
+
+    private void apply(Slot slot, long sequence) {
+        if (slot.type == OPEN) {
+            long id = nextAccountId++;
+            String number = "ACC" + String.format("%04d", id);
+            BigDecimal initial = BigDecimal.valueOf(slot.amountCents, 2);
+            BankAccount account = slot.otherId == SAVINGS
+                    ? new SavingsAccount(id, number, slot.text, initial, DAILY_LIMIT, slot.accountId)
+                    : new CurrentAccount(id, number, slot.text, initial, DAILY_LIMIT, slot.accountId);
+            accounts.put(id, account);
+            slot.resultAccountId = id;
+            slot.first = account;
+            return;
+        }
+
+        BankAccount account = accounts.get(slot.accountId);
+        BankAccount other = slot.type == TRANSFER ? accounts.get(slot.otherId) : null;
+        if (account == null || (slot.type == TRANSFER && other == null)) {
+            throw new IllegalArgumentException("Account not found");
+        }
+        BigDecimal amount = BigDecimal.valueOf(slot.amountCents, 2);
+        try {
+            switch (slot.type) {
+                case DEPOSIT:
+                    checkActive(account);
+                    account.deposit(amount);
+                    break;
+                case WITHDRAW:
+                    checkActive(account);
+                    debit(account, amount);
+                    break;
+                case TRANSFER:
+                    if (!account.isActive() || !other.isActive()) {
+                        throw new IllegalStateException("One or both accounts are not active");
+                    }
+                    debit(account, amount);
+                    other.deposit(amount); // cannot fail: active and amount positive
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown command type " + slot.type);
+            }
+            slot.record = record(slot, sequence, amount, TransactionStatus.COMPLETED);
+            slot.first = account;
+            slot.second = other;
+        } catch (RuntimeException e) {
+            slot.record = record(slot, sequence, amount, TransactionStatus.FAILED);
+            throw e;
+        }
+    }
+
+    private static void checkActive(BankAccount account) {
+        if (!account.isActive()) {
+            throw new IllegalStateException("Account is not active");
+        }
+    }
+
+    private static void debit(BankAccount account, BigDecimal amount) {
+        if (!account.canWithdraw(amount)) {
+            throw new IllegalStateException("Insufficient Funds");
+        }
+        account.withdraw(amount);
+    }
+
+    private static TransactionRecord record(Slot slot, long sequence, BigDecimal amount, TransactionStatus status) {
+        long from;
+        long to;
+        TransactionType type;
+        switch (slot.type) {
+            case DEPOSIT:  from = 0L; to = slot.accountId; type = TransactionType.DEPOSIT; break;
+            case WITHDRAW: from = slot.accountId; to = 0L; type = TransactionType.WITHDRAWAL; break;
+            default:       from = slot.accountId; to = slot.otherId; type = TransactionType.TRANSFER;
+        }
+        String txnId = "TXN" + slot.timestamp + "-" + Long.toHexString(sequence).toUpperCase();
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(slot.timestamp), ZoneId.systemDefault());
+        return new TransactionRecord(txnId, from, to, amount, type, slot.text, status, time);
+    }
+
+    // ===== Stages =====
+
+    /**
+     * One consumer thread; processes every sequence its upstream stages have finished
+     */
+    private abstract class Stage implements Runnable {
+        final AtomicLong sequence;
+        private final Stage[] upstream; // empty: consumes published slots directly
+        private final Thread thread;
+        private volatile boolean stopped;
+
+        Stage(String name, long start, Stage... upstream) {
+            this.sequence = new AtomicLong(start);
+            this.upstream = upstream;
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        private long available(long next) {
+            if (upstream.length > 0) {
+                return minSequence(upstream);
+            }
+            long s = next;
+            while (published.get((int) s & mask) == s) {
+                s++;
+            }
+            return s - 1;
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            int idle = 0;
+            while (true) {
+                long available = available(next);
+                if (available >= next) {
+                    onBatch(next, available);
+                    sequence.set(available);
+                    next = available + 1;
+                    idle = 0;
+                } else if (stopped) {
+                    return;
+                } else {
+                    idle = idle(idle);
+                }
+            }
+        }
+
+        abstract void onBatch(long from, long to);
+    }
+
+    private final class Journaler extends Stage {
+        Journaler(long start) {
+            super("core-journaler", start);
+        }
+
+        @Override
+        void onBatch(long from, long to) {
+            for (long s = from; s <= to; s++) {
+                Slot slot = ring[(int) s & mask];
+                journal.append(s, slot.type, slot.accountId, slot.otherId, slot.amountCents,
+                        slot.timestamp, slot.text);
+            }
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                // Not durable, so not applied: the whole batch is rejected
+                System.err.println("Command journal write failed: " + e.getMessage());
+                for (long s = from; s <= to; s++) {
+                    ring[(int) s & mask].error = new IllegalStateException("Journal write failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private final class BusinessLogic extends Stage {
+        BusinessLogic(long start, Stage journaler) {
+            super("core-logic", start, journaler);
+        }
+
+        @Override
+        void onBatch(long from, long to) {
+            for (long s = from; s <= to; s++) {
+                Slot slot = ring[(int) s & mask];
+                if (slot.error == null) {
+                    try {
+                        apply(slot, s);
+                    } catch (RuntimeException e) {
+                        slot.error = e;
+                    }
+                }
+                if (slot.callback != null) {
+                    try {
+                        slot.callback.onComplete(slot.resultAccountId, slot.record, slot.error);
+                    } catch (RuntimeException e) {
+                        System.err.println("Sequenced core callback failed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private final class Audit extends Stage {
+        Audit(long start, Stage logic) {
+            super("core-audit", start, logic);
+        }
+
+        @Override
+        void onBatch(long from, long to) {
+            for (long s = from; s <= to; s++) {
+                Slot slot = ring[(int) s & mask];
+                if (slot.type == OPEN && slot.first != null) {
+                    auditLogger.logSystemEvent("ACCOUNT_CREATED", String.format("ID %d, Holder: %s, Seq: %d",
+                            slot.resultAccountId, slot.text, s));
+                } else if (slot.record != null && slot.error == null) {
+                    auditLogger.logSystemEvent(slot.record.getType().name(), String.format(
+                            "From %d to %d, Amount: %.2f, Seq: %d", slot.record.getFromAccountId(),
+                            slot.record.getToAccountId(), slot.record.getAmount(), s));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes changed accounts (their latest state) and records to the repositories
+     */
+    private final class Persistence extends Stage {
+        Persistence(long start, Stage logic) {
+            super("core-persistence", start, logic);
+        }
+
+        @Override
+        void onBatch(long from, long to) {
+            for (long s = from; s <= to; s++) {
+                Slot slot = ring[(int) s & mask];
+                try {
+                    if (accountStore != null) {
+                        if (slot.first != null) accountStore.save(slot.first);
+                        if (slot.second != null) accountStore.save(slot.second);
+                    }
+                    if (transactionStore != null && slot.record != null) {
+                        transactionStore.append(slot.record);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Data Save Error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // ===== Helpers =====
+
+    private static long minSequence(Stage[] stages) {
+        long min = Long.MAX_VALUE;
+        for (Stage stage : stages) {
+            min = Math.min(min, stage.sequence.get());
+        }
+        return min;
+    }
+
+    /**
+     * Spin, then yield, then park briefly
+     */
+    private static int idle(int count) {
+        if (count < 100) {
+            Thread.onSpinWait();
+        } else if (count < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+        return count + 1;
+    }
+
+    private static long positiveCents(BigDecimal amount) {
+        long cents = toCents(amount);
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return cents;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most two decimal places");
+        }
+    }
+
+    /**
+     * Refuse new commands, drain the published ones through every stage in order, then stop
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        int idle = 0;
+        while (stages[0].sequence.get() < cursor.get() - 1) {
+            idle = idle(idle); // publishers that passed the running check are still filling slots
+        }
+        for (Stage stage : stages) {
+            stage.stopped = true; // upstream stages have exited, so this one sees their final sequence
+            try {
+                stage.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,121 @@
+package com.fortis.service;
+
+import com.fortis.model.Principal;
+import com.fortis.utils.TimerWheel;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Session Registry - Maps opaque session tokens to immutable principals
+ * Lookups are a single ConcurrentHashMap read with no locking.
+ * Idle expiry is driven by one shared timer wheel instead of a thread per session.
+ */
+public class SessionRegistry {
+    private static final int TOKEN_BYTES = 24;
+    
+    private final ConcurrentHashMap<String, SessionEntry> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final TimerWheel wheel;
+    private final long idleTimeoutMillis;
+    private final SecureRandom random = new SecureRandom();
+    
+    public SessionRegistry(long idleTimeout, TimeUnit unit) {
+        this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+        this.wheel = new TimerWheel("session-expiry", 1, TimeUnit.SECONDS, 512);
+    }
+    
+    private static final class SessionEntry {
+        final Principal principal;
+        final boolean expires;
+        volatile long lastAccessMillis;
+        
+        SessionEntry(Principal principal, boolean expires) {
+            this.principal = principal;
+            this.expires = expires;
+            this.lastAccessMillis = System.currentTimeMillis();
+        }
+    }
+    
+    /**
+     * Open a session and return its token
+     */
+    public String open(Principal principal) {
+        return open(principal, true);
+    }
+    
+    /**
+     * Open a session, optionally exempt from idle expiry, and return its token
+     */
+    public String open(Principal principal, boolean expires) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        
+        sessions.put(token, new SessionEntry(principal, expires));
+        activeCount.incrementAndGet();
+        if (expires) {
+            scheduleExpiry(token, idleTimeoutMillis);
+        }
+        return token;
+    }
+    
+    /**
+     * Resolve a token, refreshing its idle timer. Returns null if unknown or expired.
+     */
+    public Principal lookup(String token) {
+        if (token == null) return null;
+        SessionEntry entry = sessions.get(token);
+        if (entry == null) return null;
+        
+        long now = System.currentTimeMillis();
+        if (entry.expires && now - entry.lastAccessMillis >= idleTimeoutMillis) {
+            close(token);
+            return null;
+        }
+        entry.lastAccessMillis = now;
+        return entry.principal;
+    }
+    
+    public void close(String token) {
+        if (token != null && sessions.remove(token) != null) {
+            activeCount.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Close every session belonging to a user (e.g. after a PIN reset)
+     */
+    public void closeAll(long userId) {
+        sessions.forEach((token, entry) -> {
+            if (entry.principal.getUserId() == userId) close(token);
+        });
+    }
+    
+    public int getActiveSessionCount() {
+        return activeCount.get();
+    }
+    
+    /**
+     * The wheel fires at the earliest possible expiry; sessions touched since
+     * then are re-armed for the remainder of their idle window.
+     */
+    private void scheduleExpiry(String token, long delayMillis) {
+        wheel.schedule(() -> {
+            SessionEntry entry = sessions.get(token);
+            if (entry == null) return;
+            long remaining = entry.lastAccessMillis + idleTimeoutMillis - System.currentTimeMillis();
+            if (remaining <= 0) {
+                close(token);
+            } else {
+                scheduleExpiry(token, remaining);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public void shutdown() {
+        wheel.stop();
+    }
+}
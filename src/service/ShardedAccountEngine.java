@@ -0,0 +1,301 @@
+package com.fortis.service;
+
+import com.fortis.model.BankAccount;
+import com.fortis.utils.MetricsRegistry;
+import com.fortis.utils.MpscQueue;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Sharded single-writer engine for BankingService balance changes
+ * Accounts are hash-partitioned over N shards. Each shard is owned by one
+ * thread that drains a lock-free MPSC command queue, so every balance change
+ * of an account happens on the same thread and no caller ever waits on
+ * another caller's lock.
+ *
+ * A transfer between shards runs as a two-step saga: the source shard
+ * debits and forwards a credit to the target shard; if the credit cannot be
+ * applied the source shard refunds the debit and the transfer fails.
+ * While a credit is in flight the money is in neither balance.
+ *
+ * Each change still holds the account's monitor, as BankingService's
+ * locking path does, so snapshot publishing and saves, which take the same
+ * monitor, see an account's balance changes in order. Only those readers
+ * ever contend for it.
+ */
+public class ShardedAccountEngine {
+    private static final int DEPOSIT = 0;
+    private static final int WITHDRAW = 1;
+    private static final int DEBIT = 2;
+    private static final int CREDIT = 3;
+    private static final int REFUND = 4;
+    private static final int SPINS_BEFORE_PARK = 100;
+
+    private final LongFunction<BankAccount> accounts;
+    private final Shard[] shards;
+    private final LongAdder submitting = new LongAdder(); // callers between the stopped check and the offer
+    private volatile boolean stopped;
+
+    /**
+     * @param shardCount number of shards, capped at the processor count
+     * @param accounts   account lookup; must be safe to call from any thread
+     */
+    public ShardedAccountEngine(int shardCount, LongFunction<BankAccount> accounts) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.accounts = accounts;
+        this.shards = new Shard[Math.min(shardCount, Runtime.getRuntime().availableProcessors())];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public CompletableFuture<Void> deposit(long accountId, BigDecimal amount) {
+        return submit(new Command(DEPOSIT, accountId, 0, amount));
+    }
+
+    public CompletableFuture<Void> withdraw(long accountId, BigDecimal amount) {
+        return submit(new Command(WITHDRAW, accountId, 0, amount));
+    }
+
+    /**
+     * Debit on the source shard, then credit on the target shard
+     */
+    public CompletableFuture<Void> transfer(long fromAccountId, long toAccountId, BigDecimal amount) {
+        return submit(new Command(DEBIT, fromAccountId, toAccountId, amount));
+    }
+
+    private CompletableFuture<Void> submit(Command command) {
+        submitting.increment();
+        try {
+            if (stopped) {
+                command.result.completeExceptionally(new IllegalStateException("Engine shut down"));
+            } else {
+                shardFor(command.accountId).submit(command);
+            }
+        } finally {
+            submitting.decrement();
+        }
+        return command.result;
+    }
+
+    private Shard shardFor(long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L; // spread sequential ids evenly
+        return shards[(int) ((h >>> 32) % shards.length)];
+    }
+
+    /**
+     * Stop the shard threads and settle every command still queued
+     * Commands not yet started, and any submitted from now on, fail with
+     * IllegalStateException. Credits and refunds of transfers already debited
+     * are applied, so no money is left in flight.
+     */
+    public synchronized void shutdown() {
+        if (stopped) return;
+        stopped = true;
+        while (submitting.sum() != 0) {
+            Thread.onSpinWait();
+        }
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        boolean interrupted = false;
+        for (Shard shard : shards) {
+            while (shard.thread.isAlive()) {
+                try {
+                    shard.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        // The shard threads are gone, so this thread is now the only consumer;
+        // a failed credit queues a refund, hence the loop until all queues are empty
+        boolean drained;
+        do {
+            drained = true;
+            for (Shard shard : shards) {
+                Command command;
+                while ((command = shard.queue.poll()) != null) {
+                    drained = false;
+                    shard.settle(command);
+                }
+            }
+        } while (!drained);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Command {
+        private final int op;
+        private final long accountId;   // account this step applies to
+        private final long otherId;     // transfer counterparty
+        private final BigDecimal amount;
+        private final CompletableFuture<Void> result;
+        private String reason;
+
+        private Command(int op, long accountId, long otherId, BigDecimal amount) {
+            this(op, accountId, otherId, amount, new CompletableFuture<>());
+        }
+
+        private Command(int op, long accountId, long otherId, BigDecimal amount, CompletableFuture<Void> result) {
+            this.op = op;
+            this.accountId = accountId;
+            this.otherId = otherId;
+            this.amount = amount;
+            this.result = result;
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final MpscQueue<Command> queue = new MpscQueue<>();
+        private final LongAdder submitted = new LongAdder();
+        private final Thread thread;
+        private volatile long processed;
+        private volatile boolean parked;
+        private volatile boolean running = true;
+
+        private Shard(int index) {
+            MetricsRegistry.getInstance().gauge("fortis_shard_queue_depth",
+                    "Commands waiting on a BankingService shard",
+                    () -> submitted.sum() - processed, "shard", String.valueOf(index));
+            this.thread = new Thread(this, "account-shard-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void submit(Command command) {
+            submitted.increment();
+            queue.offer(command);
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                Command command = queue.poll();
+                if (command != null) {
+                    idle = 0;
+                    apply(command);
+                    processed++; // only this thread writes it
+                } else if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (queue.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        /**
+         * Finish a command left queued at shutdown
+         */
+        private void settle(Command c) {
+            if (c.op == CREDIT || c.op == REFUND) {
+                apply(c);
+            } else {
+                c.result.completeExceptionally(new IllegalStateException("Engine shut down"));
+            }
+            processed++;
+        }
+
+        private void apply(Command c) {
+            try {
+                BankAccount account = accounts.apply(c.accountId);
+                switch (c.op) {
+                    case DEPOSIT:
+                        checkActive(account);
+                        deposit(account, c.amount);
+                        c.result.complete(null);
+                        break;
+                    case WITHDRAW:
+                        debit(account, c.amount);
+                        c.result.complete(null);
+                        break;
+                    case DEBIT:
+                        debit(account, c.amount);
+                        Command credit = new Command(CREDIT, c.otherId, c.accountId, c.amount, c.result);
+                        Shard target = shardFor(c.otherId);
+                        if (target == this) {
+                            apply(credit);
+                        } else {
+                            target.submit(credit);
+                        }
+                        break;
+                    case CREDIT:
+                        credit(c, account);
+                        break;
+                    case REFUND:
+                        // The debit on this account already succeeded, so the refund cannot fail
+                        deposit(account, c.amount);
+                        c.result.completeExceptionally(
+                                new IllegalStateException("Transfer failed, rolled back: " + c.reason));
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown command " + c.op);
+                }
+            } catch (RuntimeException e) {
+                c.result.completeExceptionally(e);
+            }
+        }
+
+        private void credit(Command c, BankAccount account) {
+            try {
+                checkActive(account);
+                deposit(account, c.amount);
+                c.result.complete(null);
+            } catch (RuntimeException e) {
+                Command refund = new Command(REFUND, c.otherId, c.accountId, c.amount, c.result);
+                refund.reason = e.getMessage();
+                Shard source = shardFor(c.otherId);
+                if (source == this) {
+                    apply(refund);
+                } else {
+                    source.submit(refund);
+                }
+            }
+        }
+    }
+
+    private static void checkActive(BankAccount account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found");
+        }
+        if (!account.isActive()) {
+            throw new IllegalStateException("Account is not active");
+        }
+    }
+
+    private static void debit(BankAccount account, BigDecimal amount) {
+        checkActive(account);
+        synchronized (account) {
+            if (!account.canWithdraw(amount)) {
+                throw new IllegalStateException("Insufficient Funds");
+            }
+            account.withdraw(amount);
+        }
+    }
+
+    private static void deposit(BankAccount account, BigDecimal amount) {
+        synchronized (account) {
+            account.deposit(amount);
+        }
+    }
+}
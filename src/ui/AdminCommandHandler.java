@@ -52,12 +52,12 @@ public class AdminCommandHandler {
 
     private void listAccounts() {
         User user = authService.getCurrentUser();
-        List<BankAccount> accounts;
+        List<AccountSnapshot> accounts;
         if (user.isAdmin()) {
-            accounts = bankingService.getAllAccounts();
+            accounts = bankingService.getAllAccountSnapshots();
         } else {
             // Fallback although this is admin handler
-            accounts = bankingService.getAccountsByUser(user.getUserId());
+            accounts = bankingService.getAccountSnapshotsByUser(user.getUserId());
         }
         
         String[] headers = {"ID", "Account Number", "Holder", "Balance", "Status"};
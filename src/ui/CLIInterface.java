@@ -157,7 +157,7 @@ public class CLIInterface {
         long accountId = Long.parseLong(scanner.nextLine().trim());
         
         try (Connection conn = dbManager.getConnection()) {
-            Account account = accountManager.getAccount(accountId, conn);
+            Account account = accountManager.readAccount(accountId, conn);
             
             if (account == null) {
                 System.out.println("✗ Account not found");
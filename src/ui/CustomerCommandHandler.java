@@ -15,6 +15,8 @@ import java.util.stream.Collectors;
  */
 public class CustomerCommandHandler {
     
+    private static final int NOTIFICATION_PAGE_SIZE = 20;
+    
     private final Scanner scanner;
     private final AuthenticationService authService;
     private final BankingService bankingService;
@@ -147,11 +149,11 @@ public class CustomerCommandHandler {
     
     private void listAccounts() {
         User user = authService.getCurrentUser();
-        List<BankAccount> accounts = bankingService.getAccountsByUser(user.getUserId());
+        List<AccountSnapshot> accounts = bankingService.getAccountSnapshotsByUser(user.getUserId());
         
         String[] headers = {"ID", "Account Number", "Holder", "Balance", "Status"};
         List<String[]> data = new ArrayList<>();
-        for (BankAccount a : accounts) {
+        for (AccountSnapshot a : accounts) {
             data.add(new String[]{
                 String.valueOf(a.getAccountId()),
                 a.getAccountNumber(),
@@ -169,14 +171,14 @@ public class CustomerCommandHandler {
             User user = authService.getCurrentUser();
             long id = resolveTargetAccountId(user);
             
-            BankAccount acc = bankingService.getAccount(id, user);
+            AccountSnapshot acc = bankingService.getAccountSnapshot(id, user);
             if (acc != null) {
                 String content = 
                     "Number:  " + acc.getAccountNumber() + "\n" +
                     "Holder:  " + acc.getAccountHolder() + "\n" +
                     "Balance: $" + acc.getBalance() + "\n" +
                     "Status:  " + (acc.isActive() ? "ACTIVE" : "BLOCKED") + "\n" +
-                    "Type:    " + acc.getClass().getSimpleName();
+                    "Type:    " + acc.getAccountType();
                 TerminalUI.printBox("ACCOUNT DETAILS", content, ANSIColors.CYAN);
             }
         } catch (Exception e) {
@@ -330,11 +332,15 @@ public class CustomerCommandHandler {
     
     private void checkNotifications() {
         System.out.println(ANSIColors.BOLD_CYAN + "\nNOTIFICATIONS" + ANSIColors.RESET);
-        List<String> notifs = notifService.getNotifications(authService.getCurrentUser().getUserId());
+        long userId = authService.getCurrentUser().getUserId();
+        int unread = notifService.getUnreadCount(userId);
+        List<String> notifs = notifService.getNotifications(userId, 0, NOTIFICATION_PAGE_SIZE);
         if (notifs.isEmpty()) {
             System.out.println(ANSIColors.success("No new notifications."));
         } else {
+            System.out.println(ANSIColors.info(unread + " unread of " + notifService.getNotificationCount(userId)));
             notifs.forEach(System.out::println);
+            notifService.markAllRead(userId);
         }
     }
     
@@ -26,6 +26,7 @@ public class EnhancedCLI {
         this.authService = AuthenticationService.getInstance();
         this.auditLogger = AuditLogger.getInstance();
         this.running = true;
+        SystemHealthMonitor.start();
         
         // Initialize handlers
         this.customerHandler = new CustomerCommandHandler(scanner);
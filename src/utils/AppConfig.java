@@ -0,0 +1,129 @@
+package com.fortis.utils;
+
+import java.io.File;
+
+/**
+ * Application configuration read from system properties
+ *   fortis.data.dir     - directory for CSV data files (default: data)
+ *   fortis.log.dir      - directory for audit and WAL logs (default: logs)
+ *   fortis.persistence  - set to false to keep service data purely in memory
+ *   fortis.repository   - service storage backend: memory, file (default) or jdbc
+ *   fortis.shards       - BankingService balance shards, one thread each (default 0: lock per account)
+ *   fortis.idempotency.ttl.hours - how long idempotency keys are remembered (default 24)
+ *   fortis.idempotency.max       - idempotency keys kept per cache (default 100000)
+ *   fortis.ledger       - storage for the ACID transfer stack: mysql (default) or embedded
+ *   fortis.ratelimit    - set to true to turn on request rate limits (see RateLimits)
+ *   fortis.ratelimit.max.keys - users, accounts or clients tracked per limit (default 100000)
+ *   fortis.admission    - set to false to turn off transfer admission control
+ *   fortis.admission.limit / .max - initial and largest concurrent transfers (default 16 / 256)
+ *   fortis.admission.queue   - synchronous transfers that may wait for admission (default 64)
+ *   fortis.admission.wait.ms - longest wait in that queue (default 100)
+ *   fortis.async.threads - threads running executeTransferAsync (default 16)
+ *   fortis.async.queue   - async transfers queued before new ones are rejected (default 10000)
+ */
+public class AppConfig {
+    
+    private AppConfig() {}
+    
+    public static String getDataDir() {
+        return System.getProperty("fortis.data.dir", "data");
+    }
+    
+    public static String getLogDir() {
+        return System.getProperty("fortis.log.dir", "logs");
+    }
+    
+    public static boolean isPersistenceEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("fortis.persistence", "true"));
+    }
+    
+    /**
+     * Service storage backend; fortis.persistence=false forces memory
+     */
+    public static String getRepositoryBackend() {
+        if (!isPersistenceEnabled()) {
+            return "memory";
+        }
+        return System.getProperty("fortis.repository", "file").toLowerCase();
+    }
+    
+    /**
+     * Shard count for BankingService balance changes; 0 keeps the locking path
+     */
+    public static int getShardCount() {
+        return Math.max(0, Integer.getInteger("fortis.shards", 0));
+    }
+    
+    public static long getIdempotencyTtlMillis() {
+        return Long.getLong("fortis.idempotency.ttl.hours", 24) * 3_600_000L;
+    }
+    
+    public static int getIdempotencyMaxKeys() {
+        return Integer.getInteger("fortis.idempotency.max", 100_000);
+    }
+    
+    public static String getLedgerBackend() {
+        return System.getProperty("fortis.ledger", "mysql");
+    }
+    
+    public static boolean isEmbeddedLedger() {
+        return "embedded".equalsIgnoreCase(getLedgerBackend());
+    }
+    
+    public static boolean isRateLimitEnabled() {
+        return Boolean.getBoolean("fortis.ratelimit");
+    }
+    
+    /**
+     * Rate limit for a scope as "rate,burst", e.g. fortis.ratelimit.user=20,40
+     */
+    public static String getRateLimit(String scope, String defaultSpec) {
+        return System.getProperty("fortis.ratelimit." + scope, defaultSpec);
+    }
+    
+    public static int getRateLimitMaxKeys() {
+        return Integer.getInteger("fortis.ratelimit.max.keys", 100_000);
+    }
+    
+    public static boolean isAdmissionControlEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("fortis.admission", "true"));
+    }
+    
+    public static int getAdmissionInitialLimit() {
+        return Integer.getInteger("fortis.admission.limit", 16);
+    }
+    
+    public static int getAdmissionMaxLimit() {
+        return Integer.getInteger("fortis.admission.max", 256);
+    }
+    
+    public static int getAdmissionQueue() {
+        return Integer.getInteger("fortis.admission.queue", 64);
+    }
+    
+    public static long getAdmissionWaitMillis() {
+        return Long.getLong("fortis.admission.wait.ms", 100);
+    }
+    
+    public static int getAsyncTransferThreads() {
+        return Math.max(1, Integer.getInteger("fortis.async.threads", 16));
+    }
+    
+    public static int getAsyncTransferQueue() {
+        return Math.max(1, Integer.getInteger("fortis.async.queue", 10_000));
+    }
+    
+    /**
+     * Resolve a file name inside the data directory
+     */
+    public static File dataFile(String name) {
+        return new File(getDataDir(), name);
+    }
+    
+    /**
+     * Resolve a sub-directory of the log directory, with trailing separator
+     */
+    public static String logPath(String subDir) {
+        return getLogDir() + "/" + subDir + "/";
+    }
+}
@@ -0,0 +1,84 @@
+package com.fortis.utils;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Append-only list with O(1) consistent snapshots
+ * Elements live in fixed-size chunks that are never moved or copied, so
+ * growing only adds a chunk (and, rarely, copies the small chunk directory).
+ * Appenders serialize on a short lock, store the element, then publish it
+ * by advancing the volatile high-water mark. Readers take no lock: a
+ * snapshot pins the high-water mark and sees exactly the elements below it,
+ * however many are appended afterwards.
+ */
+public class AppendOnlyLog<T> {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile Object[][] chunks = new Object[16][];
+    private volatile int size; // high-water mark: elements below it are published
+
+    public synchronized void append(T element) {
+        int index = size;
+        int chunk = index >>> CHUNK_BITS;
+        Object[][] dir = chunks;
+        if (chunk == dir.length) {
+            Object[][] bigger = new Object[dir.length * 2][];
+            System.arraycopy(dir, 0, bigger, 0, dir.length);
+            chunks = dir = bigger;
+        }
+        if (dir[chunk] == null) {
+            dir[chunk] = new Object[CHUNK_SIZE];
+        }
+        dir[chunk][index & CHUNK_MASK] = element;
+        size = index + 1; // publish
+    }
+
+    public synchronized void appendAll(Collection<? extends T> elements) {
+        for (T element : elements) {
+            append(element);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Pin the current contents; O(1), no copy and no lock
+     */
+    public Snapshot<T> snapshot() {
+        int pinned = size; // read before the directory, so the directory covers it
+        return new Snapshot<>(chunks, pinned);
+    }
+
+    /**
+     * Read-only view of the log at one high-water mark
+     */
+    public static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] chunks;
+        private final int size;
+
+        private Snapshot(Object[][] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+            }
+            return (T) chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
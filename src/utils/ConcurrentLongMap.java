@@ -0,0 +1,315 @@
+package com.fortis.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent map from primitive long keys, for account ids
+ * No Long boxing on lookup and no entry objects: each segment is an
+ * open-addressing table of a long[] of keys and an Object[] of values,
+ * about 12-24 bytes per entry instead of ~50 for a ConcurrentHashMap node.
+ *
+ * get() takes no lock. Writers lock only their segment (striped by key
+ * hash). Within a table a slot's key never changes once set: the value is
+ * written before the key, and removal only clears the value, so a reader
+ * that finds the key reads the slot's current value. A full table is
+ * rebuilt into a new one, published with a volatile write; writers never
+ * touch a table after it has been replaced.
+ */
+public class ConcurrentLongMap<V> {
+    // Many small segments: fewer writers per lock, and tables stay below G1's
+    // humongous-object size, which would round each one up to whole regions
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final long EMPTY = 0L; // key 0 is kept outside the tables
+
+    private final Segment<V>[] segments;
+    private volatile V zeroValue;
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment<V> {
+        volatile Table table;
+        int used; // slots with a key, live or removed
+        int live;
+
+        Segment(int capacity) {
+            table = new Table(capacity);
+        }
+    }
+
+    public ConcurrentLongMap() {
+        this(256);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap(int expectedSize) {
+        int perSegment = Math.max(8, Integer.highestOneBit(Math.max(1, expectedSize / SEGMENTS * 2 - 1)) << 1);
+        segments = (Segment<V>[]) new Segment<?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads sequential ids
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return segments[hash >>> (32 - SEGMENT_BITS)];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == EMPTY) {
+            return zeroValue;
+        }
+        int hash = hash(key);
+        Table t = segmentFor(hash).table;
+        for (int i = hash & t.mask; ; i = (i + 1) & t.mask) {
+            long k = (long) KEYS.getAcquire(t.keys, i);
+            if (k == key) {
+                return (V) VALUES.getAcquire(t.values, i);
+            }
+            if (k == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the previous value, or null
+     */
+    public V put(long key, V value) {
+        return insert(key, value, false);
+    }
+
+    public V putIfAbsent(long key, V value) {
+        return insert(key, value, true);
+    }
+
+    /**
+     * Value for key, created with the function if absent; the function runs under the segment lock
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> create) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        if (key == EMPTY) {
+            synchronized (this) {
+                if (zeroValue == null) zeroValue = create.apply(key);
+                return zeroValue;
+            }
+        }
+        Segment<V> seg = segmentFor(hash(key));
+        synchronized (seg) {
+            value = get(key);
+            if (value == null) {
+                value = create.apply(key);
+                if (value != null) {
+                    insert(key, value, true);
+                }
+            }
+            return value;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V insert(long key, V value, boolean onlyIfAbsent) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        if (key == EMPTY) {
+            synchronized (this) {
+                V old = zeroValue;
+                if (old == null || !onlyIfAbsent) zeroValue = value;
+                return old;
+            }
+        }
+        int hash = hash(key);
+        Segment<V> seg = segmentFor(hash);
+        synchronized (seg) {
+            Table t = seg.table;
+            int i = hash & t.mask;
+            while (true) {
+                long k = t.keys[i];
+                if (k == key) {
+                    V old = (V) t.values[i];
+                    if (old == null) {
+                        seg.live++;
+                    } else if (onlyIfAbsent) {
+                        return old;
+                    }
+                    VALUES.setRelease(t.values, i, value);
+                    return old;
+                }
+                if (k == EMPTY) {
+                    break;
+                }
+                i = (i + 1) & t.mask;
+            }
+            if ((seg.used + 1) * 4 > t.keys.length * 3) {
+                t = rebuild(seg);
+                i = hash & t.mask;
+                while (t.keys[i] != EMPTY) {
+                    i = (i + 1) & t.mask;
+                }
+            }
+            VALUES.setRelease(t.values, i, value); // value first: a reader that sees the key sees it
+            KEYS.setRelease(t.keys, i, key);
+            seg.used++;
+            seg.live++;
+            return null;
+        }
+    }
+
+    /**
+     * Copy live entries into a new table, doubling it unless removals freed enough room
+     */
+    private Table rebuild(Segment<V> seg) {
+        Table old = seg.table;
+        int capacity = seg.live * 2 >= old.keys.length / 2 ? old.keys.length * 2 : old.keys.length;
+        Table t = new Table(capacity);
+        for (int j = 0; j < old.keys.length; j++) {
+            Object v = old.values[j];
+            if (v != null) {
+                int i = hash(old.keys[j]) & t.mask;
+                while (t.keys[i] != EMPTY) {
+                    i = (i + 1) & t.mask;
+                }
+                t.keys[i] = old.keys[j];
+                t.values[i] = v;
+            }
+        }
+        seg.used = seg.live;
+        seg.table = t; // volatile publish
+        return t;
+    }
+
+    /**
+     * @return the removed value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == EMPTY) {
+            synchronized (this) {
+                V old = zeroValue;
+                zeroValue = null;
+                return old;
+            }
+        }
+        int hash = hash(key);
+        Segment<V> seg = segmentFor(hash);
+        synchronized (seg) {
+            Table t = seg.table;
+            for (int i = hash & t.mask; ; i = (i + 1) & t.mask) {
+                long k = t.keys[i];
+                if (k == key) {
+                    V old = (V) t.values[i];
+                    if (old != null) {
+                        VALUES.setRelease(t.values, i, null); // key stays as a tombstone
+                        seg.live--;
+                    }
+                    return old;
+                }
+                if (k == EMPTY) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove every value the filter accepts; returns how many were removed
+     */
+    @SuppressWarnings("unchecked")
+    public int removeIf(Predicate<? super V> filter) {
+        int removed = 0;
+        synchronized (this) {
+            if (zeroValue != null && filter.test(zeroValue)) {
+                zeroValue = null;
+                removed++;
+            }
+        }
+        for (Segment<V> seg : segments) {
+            synchronized (seg) {
+                Table t = seg.table;
+                for (int i = 0; i < t.values.length; i++) {
+                    Object v = t.values[i];
+                    if (v != null && filter.test((V) v)) {
+                        VALUES.setRelease(t.values, i, null); // key stays as a tombstone
+                        seg.live--;
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int n = zeroValue != null ? 1 : 0;
+        for (Segment<V> seg : segments) {
+            synchronized (seg) {
+                n += seg.live;
+            }
+        }
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Visit every value; weakly consistent like ConcurrentHashMap iteration
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        V zero = zeroValue;
+        if (zero != null) {
+            action.accept(zero);
+        }
+        for (Segment<V> seg : segments) {
+            Table t = seg.table;
+            for (int i = 0; i < t.values.length; i++) {
+                Object v = VALUES.getAcquire(t.values, i);
+                if (v != null) {
+                    action.accept((V) v);
+                }
+            }
+        }
+    }
+
+    /**
+     * Values copied into a new list
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>();
+        forEachValue(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,123 @@
+package com.fortis.utils;
+
+import jdk.jfr.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Flight Events - JDK Flight Recorder events for Fortis domain activity
+ * All events are disabled by default and cost next to nothing until a
+ * recording enables them, e.g. with the bundled profile:
+ *   java -XX:StartFlightRecording=settings=default,settings=fortis.jfc,filename=fortis.jfr ...
+ * Callers follow the usual pattern: create, begin(), do the work, then fill
+ * fields and commit() only if shouldCommit() says the event is wanted.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    @Name("com.fortis.Transfer")
+    @Label("Transfer")
+    @Category({"Fortis", "Transactions"})
+    @Description("A fund transfer from begin to commit or rollback")
+    @Enabled(false)
+    public static class TransferEvent extends Event {
+        @Label("Engine")
+        public String engine;
+
+        @Label("Transaction")
+        public String transactionId;
+
+        @Label("From Account")
+        public long fromAccount;
+
+        @Label("To Account")
+        public long toAccount;
+
+        @Label("Amount Bucket")
+        public String amountBucket;
+
+        @Label("Risk Score")
+        public int riskScore;
+
+        @Label("Outcome")
+        public String outcome;
+
+        @Label("Reason")
+        public String reason;
+    }
+
+    @Name("com.fortis.WalAppend")
+    @Label("WAL Append")
+    @Category({"Fortis", "Persistence"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class WalAppendEvent extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("com.fortis.WalFlush")
+    @Label("WAL Flush")
+    @Category({"Fortis", "Persistence"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class WalFlushEvent extends Event {
+    }
+
+    @Name("com.fortis.AuditWrite")
+    @Label("Audit Write")
+    @Category({"Fortis", "Persistence"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class AuditWriteEvent extends Event {
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("com.fortis.CsvSave")
+    @Label("CSV Save")
+    @Category({"Fortis", "Persistence"})
+    @Enabled(false)
+    public static class CsvSaveEvent extends Event {
+        @Label("Accounts")
+        public int accounts;
+
+        @Label("Transactions")
+        public int transactions;
+    }
+
+    @Name("com.fortis.ReportGeneration")
+    @Label("Report Generation")
+    @Category({"Fortis", "Reports"})
+    @Enabled(false)
+    public static class ReportGenerationEvent extends Event {
+        @Label("Report")
+        public String report;
+
+        @Label("File")
+        public String file;
+
+        @Label("Rows")
+        public long rows;
+    }
+
+    /**
+     * Coarse amount bucket so events can be grouped without leaking exact amounts
+     */
+    public static String amountBucket(BigDecimal amount) {
+        if (amount == null) return "unknown";
+        double v = amount.doubleValue();
+        if (v < 100) return "<100";
+        if (v < 1_000) return "100-1K";
+        if (v < 10_000) return "1K-10K";
+        if (v < 50_000) return "10K-50K";
+        return ">=50K";
+    }
+}
@@ -0,0 +1,207 @@
+package com.fortis.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Metrics Registry - Central counters, gauges and histograms
+ * Counters are LongAdders and histograms are lock-free LatencyHistograms, so
+ * recording from hot paths never blocks. Everything is rendered in the
+ * Prometheus text exposition format for scraping from /api/metrics.
+ * Metrics are identified by name plus optional label pairs:
+ *   metrics.counter("fortis_transfers_total", "Transfers", "outcome", "committed").increment();
+ */
+public class MetricsRegistry {
+    private static MetricsRegistry instance;
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    private MetricsRegistry() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        gauge("fortis_jvm_heap_used_bytes", "JVM heap in use",
+                () -> memory.getHeapMemoryUsage().getUsed());
+        gauge("fortis_jvm_threads", "Live JVM threads",
+                () -> ManagementFactory.getThreadMXBean().getThreadCount());
+        gauge("fortis_uptime_seconds", "Seconds since JVM start",
+                () -> ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Monotonic counter
+     */
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+
+        public void increment() {
+            adder.increment();
+        }
+
+        public void add(long n) {
+            adder.add(n);
+        }
+
+        public long get() {
+            return adder.sum();
+        }
+    }
+
+    /**
+     * Histogram exported as a Prometheus summary; values are multiplied by
+     * scale on output (e.g. 1e-9 to record nanoseconds and export seconds)
+     */
+    public static final class Histogram {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final double scale;
+
+        private Histogram(double scale) {
+            this.scale = scale;
+        }
+
+        public void record(long value) {
+            histogram.record(value);
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    private static final class Family {
+        final String type;
+        final String help;
+        final Map<String, Object> series = new ConcurrentHashMap<>();
+
+        Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) series(name, "counter", help, labels, Counter::new);
+    }
+
+    public Histogram histogram(String name, String help, double scale, String... labels) {
+        return (Histogram) series(name, "summary", help, labels, () -> new Histogram(scale));
+    }
+
+    /**
+     * Register a gauge evaluated at scrape time; re-registering replaces it
+     */
+    public void gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        Family family = family(name, "gauge", help);
+        family.series.put(labelString(labels), supplier);
+    }
+
+    /**
+     * Current value of a counter or gauge, or NaN if it is not registered
+     */
+    public double value(String name, String... labels) {
+        Family family = families.get(name);
+        Object metric = family == null ? null : family.series.get(labelString(labels));
+        if (metric instanceof Counter) {
+            return ((Counter) metric).get();
+        }
+        if (metric instanceof DoubleSupplier) {
+            try {
+                return ((DoubleSupplier) metric).getAsDouble();
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private Object series(String name, String type, String help, String[] labels,
+                          Supplier<Object> factory) {
+        return family(name, type, help).series.computeIfAbsent(labelString(labels), k -> factory.get());
+    }
+
+    private Family family(String name, String type, String help) {
+        Family family = families.computeIfAbsent(name, k -> new Family(type, help));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already a " + family.type);
+        }
+        return family;
+    }
+
+    private static String labelString(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"")
+              .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+              .append('"');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Render all metrics in Prometheus text format (version 0.0.4)
+     */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, Family> e : families.entrySet()) {
+            String name = e.getKey();
+            Family family = e.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+
+            for (Map.Entry<String, Object> s : family.series.entrySet()) {
+                String labels = s.getKey();
+                Object metric = s.getValue();
+                if (metric instanceof Counter) {
+                    sample(out, name, labels, ((Counter) metric).get());
+                } else if (metric instanceof DoubleSupplier) {
+                    double value;
+                    try {
+                        value = ((DoubleSupplier) metric).getAsDouble();
+                    } catch (RuntimeException ex) {
+                        continue; // skip gauges whose source is unavailable
+                    }
+                    sample(out, name, labels, value);
+                } else if (metric instanceof Histogram) {
+                    Histogram h = (Histogram) metric;
+                    LatencyHistogram lh = h.histogram;
+                    for (double q : QUANTILES) {
+                        String ql = (labels.isEmpty() ? "" : labels + ",") + "quantile=\"" + q + "\"";
+                        sample(out, name, ql, lh.getValueAtPercentile(q * 100) * h.scale);
+                    }
+                    sample(out, name + "_sum", labels, lh.getSum() * h.scale);
+                    sample(out, name + "_count", labels, lh.getCount());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+}
@@ -0,0 +1,56 @@
+package com.fortis.utils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded multi-producer, single-consumer queue
+ * Producers link a node with one atomic swap of the tail and never retry;
+ * the single consumer walks the list without any atomic operation.
+ * offer() may be called from any thread, poll() only from the consumer.
+ */
+public class MpscQueue<E> {
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head; // consumer-owned; its value has already been taken
+
+    public MpscQueue() {
+        Node<E> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    private static final class Node<E> {
+        private E value;
+        private volatile Node<E> next;
+
+        private Node(E value) {
+            this.value = value;
+        }
+    }
+
+    public void offer(E value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        Node<E> node = new Node<>(value);
+        Node<E> prev = tail.getAndSet(node);
+        prev.next = node; // until this link lands the consumer sees the queue as empty
+    }
+
+    /**
+     * Next element, or null if none is visible yet
+     */
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+}
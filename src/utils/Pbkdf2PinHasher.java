@@ -0,0 +1,104 @@
+package com.fortis.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 hasher with a tunable iteration count
+ * Stored format: pbkdf2-sha256$<iterations>$<salt>$<hash> (Base64, no padding).
+ * Mac instances are pooled per thread, so hashing never goes through provider lookup.
+ */
+public class Pbkdf2PinHasher implements PinHasher {
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+    
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error hashing PIN", e);
+        }
+    });
+    
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    
+    public Pbkdf2PinHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+    
+    public int getIterations() {
+        return iterations;
+    }
+    
+    @Override
+    public String hash(String pin) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] derived = derive(pin, salt, iterations);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(derived);
+    }
+    
+    @Override
+    public boolean matches(String pin, String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) return false;
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(derive(pin, salt, storedIterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.startsWith(PREFIX + "$");
+    }
+    
+    @Override
+    public boolean needsRehash(String storedHash) {
+        if (!supports(storedHash)) return true;
+        String[] parts = storedHash.split("\\$");
+        return parts.length != 4 || !parts[1].equals(Integer.toString(iterations));
+    }
+    
+    /**
+     * PBKDF2 (RFC 8018) with a single 32-byte block, which is all SHA-256 needs
+     */
+    private static byte[] derive(String pin, byte[] salt, int iterations) {
+        try {
+            Mac mac = MAC.get();
+            mac.init(new SecretKeySpec(pin.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            
+            mac.update(salt);
+            mac.update(new byte[]{0, 0, 0, 1}); // block index
+            byte[] u = mac.doFinal();
+            byte[] result = u.clone();
+            
+            for (int i = 1; i < iterations; i++) {
+                mac.update(u);
+                mac.doFinal(u, 0);
+                for (int j = 0; j < HASH_BYTES; j++) {
+                    result[j] ^= u[j];
+                }
+            }
+            return result;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error hashing PIN", e);
+        }
+    }
+}
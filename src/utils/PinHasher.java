@@ -0,0 +1,28 @@
+package com.fortis.utils;
+
+/**
+ * Strategy for hashing and verifying PINs
+ * Implementations must compare hashes in constant time
+ */
+public interface PinHasher {
+    
+    /**
+     * Hash a PIN into its stored representation
+     */
+    String hash(String pin);
+    
+    /**
+     * Check a PIN against a stored hash produced by this hasher
+     */
+    boolean matches(String pin, String storedHash);
+    
+    /**
+     * True if the stored value was produced by this hasher
+     */
+    boolean supports(String storedHash);
+    
+    /**
+     * True if the stored value should be replaced with a fresh hash (e.g. cost changed)
+     */
+    boolean needsRehash(String storedHash);
+}
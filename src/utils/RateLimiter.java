@@ -0,0 +1,162 @@
+package com.fortis.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed rate limiter using GCRA (the generic cell rate algorithm)
+ * GCRA behaves exactly like a token bucket with the given refill rate and
+ * burst, but each bucket is a single "theoretical arrival time" (TAT), so an
+ * acquire is one CAS and never takes a lock.
+ *
+ * A bucket whose TAT has passed is full again and holds no information, so
+ * it can be dropped and recreated later. Idle buckets are swept when new
+ * keys arrive, at most once per sweep interval; while the table is full,
+ * new keys share one overflow bucket, which keeps memory bounded and
+ * rejections cheap even under a flood of distinct keys.
+ *
+ * User and account ids take the long-keyed path, a ConcurrentLongMap with
+ * no boxing; other keys, such as client addresses, a ConcurrentHashMap.
+ */
+public class RateLimiter {
+    private static final long SWEEP_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final String name;
+    private final long intervalNanos;  // one token every interval
+    private final long toleranceNanos; // how far TAT may run ahead of now
+    private final int maxKeys;
+    private final ConcurrentHashMap<Object, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentLongMap<Bucket> longBuckets = new ConcurrentLongMap<>();
+    private final AtomicInteger longKeys = new AtomicInteger(); // longBuckets.size() locks every segment
+    private final Bucket overflow;
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * Single GCRA bucket
+     */
+    public static final class Bucket {
+        private final AtomicLong tat;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+
+        Bucket(long intervalNanos, long toleranceNanos, long now) {
+            this.intervalNanos = intervalNanos;
+            this.toleranceNanos = toleranceNanos;
+            this.tat = new AtomicLong(now);
+        }
+
+        public Bucket(double ratePerSecond, int burst) {
+            this(interval(ratePerSecond), interval(ratePerSecond) * (long) Math.max(1, burst),
+                    System.nanoTime());
+        }
+
+        public boolean tryAcquire(long now) {
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + intervalNanos;
+                if (next - now > toleranceNanos) {
+                    return false;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Give back a token, used when a later limit rejects the same request
+         */
+        public void release() {
+            tat.addAndGet(-intervalNanos);
+        }
+
+        boolean isIdle(long now) {
+            return tat.get() - now <= 0;
+        }
+    }
+
+    /**
+     * @param ratePerSecond sustained rate per key
+     * @param burst         requests a key may make at once after being idle
+     * @param maxKeys       keys tracked before new keys share the overflow bucket
+     */
+    public RateLimiter(String name, double ratePerSecond, int burst, int maxKeys) {
+        this.name = name;
+        this.intervalNanos = interval(ratePerSecond);
+        this.toleranceNanos = intervalNanos * (long) Math.max(1, burst);
+        this.maxKeys = maxKeys;
+        this.overflow = new Bucket(intervalNanos, toleranceNanos, System.nanoTime());
+    }
+
+    private static long interval(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        return Math.max(1, (long) (1e9 / ratePerSecond));
+    }
+
+    /**
+     * Take one token for key; returns the bucket it came from, or null if rejected
+     */
+    public Bucket tryAcquire(Object key, long now) {
+        Bucket bucket = bucketFor(key, now);
+        return bucket.tryAcquire(now) ? bucket : null;
+    }
+
+    /**
+     * Take one token for a long key (user or account id), without boxing it
+     */
+    public Bucket tryAcquire(long key, long now) {
+        Bucket bucket = longBuckets.get(key);
+        if (bucket == null) {
+            bucket = isFull(now) ? overflow : longBuckets.computeIfAbsent(key, k -> {
+                longKeys.incrementAndGet();
+                return new Bucket(intervalNanos, toleranceNanos, now);
+            });
+        }
+        return bucket.tryAcquire(now) ? bucket : null;
+    }
+
+    private Bucket bucketFor(Object key, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (isFull(now)) {
+            return overflow;
+        }
+        return buckets.computeIfAbsent(key, k -> new Bucket(intervalNanos, toleranceNanos, now));
+    }
+
+    /**
+     * On a miss: sweep if the interval has passed, then check the key bound
+     * At most one sweep per interval, however many misses arrive: a full
+     * table sends misses to the overflow bucket rather than sweeping again.
+     */
+    private boolean isFull(long now) {
+        long last = lastSweep.get();
+        if (now - last > SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            sweep(now);
+        }
+        return size() >= maxKeys;
+    }
+
+    /**
+     * Drop buckets that have refilled completely
+     * A request racing with the removal may land on the dropped bucket; at
+     * worst that key gets one extra burst.
+     */
+    private void sweep(long now) {
+        buckets.values().removeIf(b -> b.isIdle(now));
+        longKeys.addAndGet(-longBuckets.removeIf(b -> b.isIdle(now)));
+    }
+
+    public int size() {
+        return buckets.size() + longKeys.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,141 @@
+package com.fortis.utils;
+
+/**
+ * RateLimits - Request rate limits shared by every entry point
+ * Money movements are limited per user, per source account and globally;
+ * REST calls per client address and globally. Checks run before any lock,
+ * database or audit work, so a rejected request costs a few CAS operations.
+ *
+ * Each limit is configured as "rate,burst" (requests per second, and how
+ * many may arrive at once after an idle period):
+ *   fortis.ratelimit.user    - default 20,40
+ *   fortis.ratelimit.account - default 10,30
+ *   fortis.ratelimit.global  - default 5000,10000
+ *   fortis.ratelimit.client  - REST, default 50,100
+ * The limits are opt-in: fortis.ratelimit=true enables them.
+ */
+public class RateLimits {
+    private static RateLimits instance;
+
+    public static final String USER = "user";
+    public static final String ACCOUNT = "account";
+    public static final String GLOBAL = "global";
+    public static final String CLIENT = "client";
+
+    private final boolean enabled;
+    private final RateLimiter users;
+    private final RateLimiter accounts;
+    private final RateLimiter clients;
+    private final RateLimiter.Bucket global;
+    private final MetricsRegistry.Counter userRejections;
+    private final MetricsRegistry.Counter accountRejections;
+    private final MetricsRegistry.Counter globalRejections;
+    private final MetricsRegistry.Counter clientRejections;
+
+    private RateLimits() {
+        this.enabled = AppConfig.isRateLimitEnabled();
+        int maxKeys = AppConfig.getRateLimitMaxKeys();
+        this.users = limiter(USER, "20,40", maxKeys);
+        this.accounts = limiter(ACCOUNT, "10,30", maxKeys);
+        this.clients = limiter(CLIENT, "50,100", maxKeys);
+        double[] g = parse(GLOBAL, "5000,10000");
+        this.global = new RateLimiter.Bucket(g[0], (int) g[1]);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        String help = "Requests rejected by rate limits";
+        this.userRejections = metrics.counter("fortis_rate_limited_total", help, "scope", USER);
+        this.accountRejections = metrics.counter("fortis_rate_limited_total", help, "scope", ACCOUNT);
+        this.globalRejections = metrics.counter("fortis_rate_limited_total", help, "scope", GLOBAL);
+        this.clientRejections = metrics.counter("fortis_rate_limited_total", help, "scope", CLIENT);
+        String keysHelp = "Keys currently tracked by rate limits";
+        metrics.gauge("fortis_rate_limiter_keys", keysHelp, users::size, "scope", USER);
+        metrics.gauge("fortis_rate_limiter_keys", keysHelp, accounts::size, "scope", ACCOUNT);
+        metrics.gauge("fortis_rate_limiter_keys", keysHelp, clients::size, "scope", CLIENT);
+    }
+
+    public static synchronized RateLimits getInstance() {
+        if (instance == null) {
+            instance = new RateLimits();
+        }
+        return instance;
+    }
+
+    private static RateLimiter limiter(String scope, String defaults, int maxKeys) {
+        double[] spec = parse(scope, defaults);
+        return new RateLimiter(scope, spec[0], (int) spec[1], maxKeys);
+    }
+
+    private static double[] parse(String scope, String defaults) {
+        String spec = AppConfig.getRateLimit(scope, defaults);
+        try {
+            String[] parts = spec.split(",");
+            double rate = Double.parseDouble(parts[0].trim());
+            int burst = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : (int) Math.ceil(rate);
+            if (rate > 0 && burst > 0) {
+                return new double[]{rate, burst};
+            }
+        } catch (NumberFormatException e) {
+            // fall through to defaults
+        }
+        System.err.println("Invalid rate limit fortis.ratelimit." + scope + "=" + spec + ", using " + defaults);
+        String[] parts = defaults.split(",");
+        return new double[]{Double.parseDouble(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take a token for a money movement
+     * @param userId    acting user, or 0 when there is no user context
+     * @param accountId source account
+     * @return null if allowed, otherwise the scope of the limit that was hit
+     */
+    public String tryAcquire(long userId, long accountId) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.nanoTime();
+        RateLimiter.Bucket user = null;
+        if (userId > 0 && (user = users.tryAcquire(userId, now)) == null) {
+            userRejections.increment();
+            return USER;
+        }
+        RateLimiter.Bucket account = accounts.tryAcquire(accountId, now);
+        if (account == null) {
+            if (user != null) user.release();
+            accountRejections.increment();
+            return ACCOUNT;
+        }
+        if (!global.tryAcquire(now)) {
+            if (user != null) user.release();
+            account.release();
+            globalRejections.increment();
+            return GLOBAL;
+        }
+        return null;
+    }
+
+    /**
+     * Take a token for a REST call from the given client address
+     * @return null if allowed, otherwise the scope of the limit that was hit
+     */
+    public String tryAcquireClient(String address) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.nanoTime();
+        RateLimiter.Bucket client = clients.tryAcquire(address, now);
+        if (client == null) {
+            clientRejections.increment();
+            return CLIENT;
+        }
+        if (!global.tryAcquire(now)) {
+            client.release();
+            globalRejections.increment();
+            return GLOBAL;
+        }
+        return null;
+    }
+}
@@ -1,29 +1,51 @@
 package com.fortis.utils;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
 /**
  * Security utilities for PIN hashing and validation
+ * New hashes use the configured PinHasher (salted PBKDF2 by default,
+ * cost set with -Dfortis.pin.iterations). Legacy SHA-256 hashes still
+ * verify and are flagged for rehash on the next successful login.
  */
 public class SecurityUtils {
+    private static final int DEFAULT_PIN_ITERATIONS = 10000;
+    private static final PinHasher LEGACY_HASHER = new Sha256PinHasher();
+    
+    private static volatile PinHasher pinHasher = 
+        new Pbkdf2PinHasher(Integer.getInteger("fortis.pin.iterations", DEFAULT_PIN_ITERATIONS));
+    
+    public static PinHasher getPinHasher() {
+        return pinHasher;
+    }
+    
+    public static void setPinHasher(PinHasher hasher) {
+        pinHasher = hasher;
+    }
     
     public static String hashPin(String pin) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(pin.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error hashing PIN", e);
+        return pinHasher.hash(pin);
+    }
+    
+    /**
+     * Verify a PIN against a stored hash in any supported format
+     */
+    public static boolean verifyPin(String pin, String storedHash) {
+        if (pin == null || storedHash == null) return false;
+        PinHasher current = pinHasher;
+        if (current.supports(storedHash)) {
+            return current.matches(pin, storedHash);
+        }
+        if (LEGACY_HASHER.supports(storedHash)) {
+            return LEGACY_HASHER.matches(pin, storedHash);
         }
+        return false;
+    }
+    
+    /**
+     * True if the stored hash is legacy or was produced with different cost settings
+     */
+    public static boolean needsRehash(String storedHash) {
+        PinHasher current = pinHasher;
+        return !current.supports(storedHash) || current.needsRehash(storedHash);
     }
     
     public static boolean validatePinFormat(String pin) {
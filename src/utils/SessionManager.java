@@ -2,22 +2,26 @@ package com.fortis.utils;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Session Manager - Tracks user session statistics
+ * Counters are LongAdders so concurrent sessions can record without locking
  */
 public class SessionManager {
     private static SessionManager instance;
-    private LocalDateTime sessionStart;
-    private int transactionCount;
-    private int errorCount;
-    private int successCount;
+    private volatile LocalDateTime sessionStart;
+    private final LongAdder transactionCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder successCount = new LongAdder();
     
     private SessionManager() {
         this.sessionStart = LocalDateTime.now();
-        this.transactionCount = 0;
-        this.errorCount = 0;
-        this.successCount = 0;
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        String help = "Session operations since the last reset";
+        metrics.gauge("fortis_session_operations", help, transactionCount::sum, "result", "all");
+        metrics.gauge("fortis_session_operations", help, successCount::sum, "result", "success");
+        metrics.gauge("fortis_session_operations", help, errorCount::sum, "result", "error");
     }
     
     public static synchronized SessionManager getInstance() {
@@ -29,31 +33,31 @@ public class SessionManager {
     
     public void reset() {
         this.sessionStart = LocalDateTime.now();
-        this.transactionCount = 0;
-        this.errorCount = 0;
-        this.successCount = 0;
+        transactionCount.reset();
+        errorCount.reset();
+        successCount.reset();
     }
     
     public void recordTransaction(boolean success) {
-        transactionCount++;
+        transactionCount.increment();
         if (success) {
-            successCount++;
+            successCount.increment();
         } else {
-            errorCount++;
+            errorCount.increment();
         }
     }
     
     public void recordError() {
-        errorCount++;
+        errorCount.increment();
     }
     
     public long getSessionDurationMinutes() {
         return ChronoUnit.MINUTES.between(sessionStart, LocalDateTime.now());
     }
     
-    public int getTransactionCount() { return transactionCount; }
-    public int getErrorCount() { return errorCount; }
-    public int getSuccessCount() { return successCount; }
+    public int getTransactionCount() { return transactionCount.intValue(); }
+    public int getErrorCount() { return errorCount.intValue(); }
+    public int getSuccessCount() { return successCount.intValue(); }
     public LocalDateTime getSessionStart() { return sessionStart; }
     
     public void printSessionSummary() {
@@ -61,11 +65,11 @@ public class SessionManager {
         System.out.println("║                    SESSION SUMMARY                         ║");
         System.out.println("╠════════════════════════════════════════════════════════════╣");
         System.out.println("║  " + ANSIColors.WHITE + "✔ Transactions: " + ANSIColors.BOLD_GREEN + 
-            String.format("%-42d", transactionCount) + ANSIColors.BOLD_CYAN + "║");
+            String.format("%-42d", getTransactionCount()) + ANSIColors.BOLD_CYAN + "║");
         System.out.println("║  " + ANSIColors.WHITE + "✔ Successful: " + ANSIColors.BOLD_GREEN + 
-            String.format("%-44d", successCount) + ANSIColors.BOLD_CYAN + "║");
+            String.format("%-44d", getSuccessCount()) + ANSIColors.BOLD_CYAN + "║");
         System.out.println("║  " + ANSIColors.WHITE + "✖ Errors: " + ANSIColors.BOLD_RED + 
-            String.format("%-49d", errorCount) + ANSIColors.BOLD_CYAN + "║");
+            String.format("%-49d", getErrorCount()) + ANSIColors.BOLD_CYAN + "║");
         System.out.println("║  " + ANSIColors.WHITE + "⏱ Duration: " + ANSIColors.BOLD_YELLOW + 
             String.format("%-44s", getSessionDurationMinutes() + " mins") + ANSIColors.BOLD_CYAN + "║");
         System.out.println("╚════════════════════════════════════════════════════════════╝" + ANSIColors.RESET);
@@ -0,0 +1,51 @@
+package com.fortis.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Legacy unsalted SHA-256 hex hasher
+ * Kept only to verify hashes written before salted hashing was introduced
+ */
+public class Sha256PinHasher implements PinHasher {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error hashing PIN", e);
+        }
+    });
+    
+    @Override
+    public String hash(String pin) {
+        MessageDigest md = DIGEST.get();
+        md.reset();
+        byte[] hash = md.digest(pin.getBytes(StandardCharsets.UTF_8));
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+    
+    @Override
+    public boolean matches(String pin, String storedHash) {
+        return MessageDigest.isEqual(
+            hash(pin).getBytes(StandardCharsets.US_ASCII),
+            storedHash.getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.length() == 64 && storedHash.indexOf('$') < 0;
+    }
+    
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return true; // always migrate away from unsalted hashes
+    }
+}
@@ -1,95 +1,401 @@
 package com.fortis.utils;
 
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * System Health Monitor - Monitors system resources and status
+ * A background sampler records GC activity, allocation rate, lock contention,
+ * WAL/audit queue depth and database connection state once a minute and keeps
+ * the last hour, so the health screen can show trends as well as a snapshot.
+ * Persistence and database figures are read from the MetricsRegistry, so
+ * checking health never opens a connection or a log file.
  */
 public class SystemHealthMonitor {
-    
+
+    private static final long SAMPLE_INTERVAL_SECONDS = 60;
+    private static final int HISTORY_SIZE = 60;
+    private static final int TREND_BUCKET = 5;
+    private static final int INNER_WIDTH = 60;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final Sample[] history = new Sample[HISTORY_SIZE];
+    private static int historyCount;
+    private static int historyNext;
+
+    private static ScheduledExecutorService sampler;
+    private static final AtomicLong maxPauseMillis = new AtomicLong();
+    private static final LatencyHistogram gcPauses = new LatencyHistogram();
+
+    // Baseline of cumulative counters at the previous recorded sample
+    private static long lastSampleNanos;
+    private static long lastGcCount;
+    private static long lastGcMillis;
+    private static long lastAllocatedBytes;
+    private static long lastBlockedMillis;
+    private static long lastWaitedMillis;
+    private static long lastBlockedCount;
+    private static double lastDbConnects;
+    private static Map<Long, Long> lastThreadAllocated = new HashMap<>();
+    private static Map<Long, Long> lastThreadBlocked = new HashMap<>();
+
+    /**
+     * One sample; counters are deltas over the preceding interval
+     */
+    private static final class Sample {
+        LocalDateTime time;
+        long heapUsedMb;
+        long heapMaxMb;
+        int threads;
+        long gcCount;
+        long gcMillis;
+        long maxPauseMillis;
+        double allocMbPerSec;
+        long blockedMillis;
+        long waitedMillis;
+        long blockedCount;
+        int walQueue;
+        int auditQueue;
+        double dbOpen;
+        long dbConnects;
+        List<String> topAllocators = new ArrayList<>();
+        List<String> topBlocked = new ArrayList<>();
+    }
+
+    /**
+     * Start the background sampler; safe to call more than once
+     */
+    public static synchronized void start() {
+        if (sampler != null) return;
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads.isThreadContentionMonitoringSupported()) {
+            threads.setThreadContentionMonitoringEnabled(true);
+        }
+        registerGcListeners();
+        collect(true);
+        historyCount = 0;
+        historyNext = 0;
+
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "health-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                collect(true);
+            } catch (RuntimeException e) {
+                System.err.println("Health sample failed: " + e.getMessage());
+            }
+        }, SAMPLE_INTERVAL_SECONDS, SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Record every GC pause as it happens; the MXBean totals alone hide pause length
+     */
+    private static void registerGcListeners() {
+        MetricsRegistry.Histogram pauseMetric = MetricsRegistry.getInstance()
+                .histogram("fortis_gc_pause_seconds", "Garbage collection pause duration", 1e-3);
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter)) continue;
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                        (CompositeData) notification.getUserData());
+                if (isConcurrentCycle(info)) {
+                    return;
+                }
+                long millis = info.getGcInfo().getDuration();
+                gcPauses.record(millis);
+                pauseMetric.record(millis);
+                maxPauseMillis.accumulateAndGet(millis, Math::max);
+            }, null, null);
+        }
+    }
+
+    /**
+     * Whether the notification is for a collection that mostly runs alongside the application
+     * Its duration is the whole cycle, not a pause: G1's concurrent cycle, CMS,
+     * and the cycle beans of ZGC and Shenandoah, whose pauses have beans of their own.
+     */
+    private static boolean isConcurrentCycle(GarbageCollectionNotificationInfo info) {
+        String name = info.getGcName();
+        return name.contains("Cycles") || name.contains("Concurrent")
+                || info.getGcAction().contains("concurrent");
+    }
+
+    /**
+     * Take a sample relative to the last recorded one
+     * When record is true the sample is appended to the history and becomes
+     * the new baseline; otherwise it is a live view of the current interval.
+     */
+    private static synchronized Sample collect(boolean record) {
+        long now = System.nanoTime();
+        double seconds = lastSampleNanos == 0 ? 0 : (now - lastSampleNanos) / 1e9;
+        Sample s = new Sample();
+        s.time = LocalDateTime.now();
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        s.heapUsedMb = heap.getUsed() / (1024 * 1024);
+        s.heapMaxMb = (heap.getMax() > 0 ? heap.getMax() : heap.getCommitted()) / (1024 * 1024);
+
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        s.gcCount = gcCount - lastGcCount;
+        s.gcMillis = gcMillis - lastGcMillis;
+        s.maxPauseMillis = record ? maxPauseMillis.getAndSet(0) : maxPauseMillis.get();
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        s.threads = threadBean.getThreadCount();
+        long[] ids = threadBean.getAllThreadIds();
+        ThreadInfo[] infos = threadBean.getThreadInfo(ids);
+
+        Map<Long, Long> threadAllocated = new HashMap<>();
+        long allocated = 0;
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                long[] bytes = sunBean.getThreadAllocatedBytes(ids);
+                for (int i = 0; i < ids.length; i++) {
+                    if (bytes[i] > 0) threadAllocated.put(ids[i], bytes[i]);
+                }
+                // Carry the running total forward so threads that exit do not make it go backwards
+                allocated = lastAllocatedBytes;
+                for (Map.Entry<Long, Long> e : threadAllocated.entrySet()) {
+                    allocated += e.getValue() - lastThreadAllocated.getOrDefault(e.getKey(), 0L);
+                }
+            }
+        }
+        s.allocMbPerSec = seconds > 0 ? (allocated - lastAllocatedBytes) / seconds / (1024 * 1024) : 0;
+
+        Map<Long, Long> threadBlocked = new HashMap<>();
+        long blockedMillis = 0;
+        long waitedMillis = 0;
+        long blockedCount = 0;
+        Map<Long, String> names = new HashMap<>();
+        for (ThreadInfo info : infos) {
+            if (info == null) continue;
+            names.put(info.getThreadId(), info.getThreadName());
+            blockedCount += info.getBlockedCount();
+            if (info.getBlockedTime() > 0) {
+                blockedMillis += info.getBlockedTime();
+                threadBlocked.put(info.getThreadId(), info.getBlockedTime());
+            }
+            if (info.getWaitedTime() > 0) waitedMillis += info.getWaitedTime();
+        }
+        s.blockedMillis = Math.max(0, blockedMillis - lastBlockedMillis);
+        s.waitedMillis = Math.max(0, waitedMillis - lastWaitedMillis);
+        s.blockedCount = Math.max(0, blockedCount - lastBlockedCount);
+        s.topAllocators = top(threadAllocated, lastThreadAllocated, names, 1024 * 1024, " MB");
+        s.topBlocked = top(threadBlocked, lastThreadBlocked, names, 1, " ms");
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        s.walQueue = (int) zeroIfMissing(metrics.value("fortis_wal_queue_depth"));
+        s.auditQueue = (int) zeroIfMissing(metrics.value("fortis_audit_queue_depth"));
+        s.dbOpen = metrics.value("fortis_db_connections_open");
+        double connects = zeroIfMissing(metrics.value("fortis_db_connects_total"));
+        s.dbConnects = (long) (connects - lastDbConnects);
+
+        if (record) {
+            lastSampleNanos = now;
+            lastGcCount = gcCount;
+            lastGcMillis = gcMillis;
+            lastAllocatedBytes = allocated;
+            lastBlockedMillis = blockedMillis;
+            lastWaitedMillis = waitedMillis;
+            lastBlockedCount = blockedCount;
+            lastDbConnects = connects;
+            lastThreadAllocated = threadAllocated;
+            lastThreadBlocked = threadBlocked;
+
+            history[historyNext] = s;
+            historyNext = (historyNext + 1) % HISTORY_SIZE;
+            historyCount = Math.min(historyCount + 1, HISTORY_SIZE);
+        }
+        return s;
+    }
+
+    private static List<String> top(Map<Long, Long> current, Map<Long, Long> previous,
+                                    Map<Long, String> names, long unit, String suffix) {
+        List<String> result = new ArrayList<>();
+        current.entrySet().stream()
+                .map(e -> new long[]{e.getKey(), e.getValue() - previous.getOrDefault(e.getKey(), 0L)})
+                .filter(d -> d[1] >= unit)
+                .sorted((a, b) -> Long.compare(b[1], a[1]))
+                .limit(3)
+                .forEach(d -> result.add(names.getOrDefault(d[0], "thread-" + d[0]) + " " + d[1] / unit + suffix));
+        return result;
+    }
+
+    private static double zeroIfMissing(double v) {
+        return Double.isNaN(v) ? 0 : v;
+    }
+
+    /**
+     * History samples, oldest first
+     */
+    private static synchronized List<Sample> getHistory() {
+        List<Sample> samples = new ArrayList<>(historyCount);
+        int start = (historyNext - historyCount + HISTORY_SIZE) % HISTORY_SIZE;
+        for (int i = 0; i < historyCount; i++) {
+            samples.add(history[(start + i) % HISTORY_SIZE]);
+        }
+        return samples;
+    }
+
     public static void printHealthCheck() {
         displayHealthStatus();
     }
-    
+
     public static void displayHealthStatus() {
+        start();
         TerminalUI.printHeader("SYSTEM HEALTH MONITOR");
-        
-        // Simulate database status (always connected in standalone mode)
-        boolean dbConnected = true;
-        
-        // Thread Information
+
+        Sample now = collect(false);
         ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
-        int activeThreads = threadBean.getThreadCount();
-        int peakThreads = threadBean.getPeakThreadCount();
-        
-        // Memory Information
-        Runtime runtime = Runtime.getRuntime();
-        long totalMemory = runtime.totalMemory() / (1024 * 1024);
-        long freeMemory = runtime.freeMemory() / (1024 * 1024);
-        long usedMemory = totalMemory - freeMemory;
-        long maxMemory = runtime.maxMemory() / (1024 * 1024);
-        
-        System.out.println(ANSIColors.BOLD_BLUE + "╔════════════════════════════════════════════════════════════╗");
-        System.out.println("║                    SYSTEM HEALTH STATUS                    ║");
-        System.out.println("╠════════════════════════════════════════════════════════════╣");
-        System.out.println("║                                                            ║");
-        System.out.println("║  " + ANSIColors.BOLD_WHITE + "DATABASE STATUS" + ANSIColors.BOLD_BLUE + "                                          ║");
-        System.out.println("║    " + ANSIColors.WHITE + "Connection: " + 
-            (dbConnected ? ANSIColors.BOLD_GREEN + "✔ CONNECTED" : ANSIColors.BOLD_RED + "✖ DISCONNECTED") + 
-            ANSIColors.BOLD_BLUE + "                                   ║");
-        System.out.println("║    " + ANSIColors.WHITE + "Connection Pool: " + ANSIColors.BOLD_GREEN + "OK" + 
-            ANSIColors.BOLD_BLUE + "                                      ║");
-        System.out.println("║                                                            ║");
-        System.out.println("║  " + ANSIColors.BOLD_WHITE + "THREAD INFORMATION" + ANSIColors.BOLD_BLUE + "                                     ║");
-        System.out.println("║    " + ANSIColors.WHITE + "Active Threads: " + ANSIColors.BOLD_YELLOW + 
-            String.format("%-38d", activeThreads) + ANSIColors.BOLD_BLUE + "║");
-        System.out.println("║    " + ANSIColors.WHITE + "Peak Threads: " + ANSIColors.BOLD_YELLOW + 
-            String.format("%-40d", peakThreads) + ANSIColors.BOLD_BLUE + "║");
-        System.out.println("║                                                            ║");
-        System.out.println("║  " + ANSIColors.BOLD_WHITE + "MEMORY USAGE" + ANSIColors.BOLD_BLUE + "                                          ║");
-        System.out.println("║    " + ANSIColors.WHITE + "Used Memory: " + ANSIColors.BOLD_CYAN + 
-            String.format("%-38s", usedMemory + " MB") + ANSIColors.BOLD_BLUE + "║");
-        System.out.println("║    " + ANSIColors.WHITE + "Total Memory: " + ANSIColors.BOLD_CYAN + 
-            String.format("%-37s", totalMemory + " MB") + ANSIColors.BOLD_BLUE + "║");
-        System.out.println("║    " + ANSIColors.WHITE + "Max Memory: " + ANSIColors.BOLD_CYAN + 
-            String.format("%-39s", maxMemory + " MB") + ANSIColors.BOLD_BLUE + "║");
-        System.out.println("║    " + ANSIColors.WHITE + "Free Memory: " + ANSIColors.BOLD_GREEN + 
-            String.format("%-38s", freeMemory + " MB") + ANSIColors.BOLD_BLUE + "║");
-        System.out.println("║                                                            ║");
-        
-        // Health Score
-        int healthScore = calculateHealthScore(dbConnected, activeThreads, usedMemory, maxMemory);
-        String healthStatus = getHealthStatus(healthScore);
-        String healthColor = getHealthColor(healthScore);
-        
-        System.out.println("║  " + ANSIColors.BOLD_WHITE + "OVERALL HEALTH" + ANSIColors.BOLD_BLUE + "                                        ║");
-        System.out.println("║    " + ANSIColors.WHITE + "Health Score: " + healthColor + 
-            String.format("%-38s", healthScore + "/100 - " + healthStatus) + ANSIColors.BOLD_BLUE + "║");
-        System.out.println("║                                                            ║");
-        System.out.println("╚════════════════════════════════════════════════════════════╝" + ANSIColors.RESET);
-    }
-    
-    private static int calculateHealthScore(boolean dbConnected, int activeThreads, long usedMemory, long maxMemory) {
+        String db = Double.isNaN(now.dbOpen) ? "STANDALONE (no database in use)"
+                : now.dbOpen > 0 ? "✔ CONNECTED" : "✖ DISCONNECTED";
+        String dbColor = Double.isNaN(now.dbOpen) ? ANSIColors.BOLD_YELLOW
+                : now.dbOpen > 0 ? ANSIColors.BOLD_GREEN : ANSIColors.BOLD_RED;
+
+        System.out.println(ANSIColors.BOLD_BLUE + "╔" + "═".repeat(INNER_WIDTH) + "╗");
+        System.out.println("║" + center("SYSTEM HEALTH STATUS") + "║");
+        System.out.println("╠" + "═".repeat(INNER_WIDTH) + "╣");
+        section("DATABASE STATUS");
+        row("Connection: ", db, dbColor);
+        row("Reconnects (this interval): ", String.valueOf(now.dbConnects),
+                now.dbConnects > 1 ? ANSIColors.BOLD_YELLOW : ANSIColors.BOLD_GREEN);
+        section("PERSISTENCE QUEUES");
+        row("WAL writers waiting: ", String.valueOf(now.walQueue), queueColor(now.walQueue));
+        row("Audit writers waiting: ", String.valueOf(now.auditQueue), queueColor(now.auditQueue));
+        section("THREADS & CONTENTION");
+        row("Active Threads: ", String.valueOf(now.threads), ANSIColors.BOLD_YELLOW);
+        row("Peak Threads: ", String.valueOf(threadBean.getPeakThreadCount()), ANSIColors.BOLD_YELLOW);
+        row("Blocked: ", now.blockedCount + " times, " + now.blockedMillis + " ms", ANSIColors.BOLD_YELLOW);
+        row("Waited: ", now.waitedMillis + " ms", ANSIColors.BOLD_YELLOW);
+        for (String t : now.topBlocked) {
+            row("  blocked ", t, ANSIColors.CYAN);
+        }
+        section("MEMORY & GC");
+        row("Heap: ", now.heapUsedMb + " / " + now.heapMaxMb + " MB", ANSIColors.BOLD_CYAN);
+        row("Allocation rate: ", String.format("%.1f MB/s", now.allocMbPerSec), ANSIColors.BOLD_CYAN);
+        for (String t : now.topAllocators) {
+            row("  alloc ", t, ANSIColors.CYAN);
+        }
+        row("GC: ", now.gcCount + " collections, " + now.gcMillis + " ms, max pause "
+                + now.maxPauseMillis + " ms", ANSIColors.BOLD_CYAN);
+        row("GC pause p99 / max: ", gcPauses.getValueAtPercentile(99) + " / " + gcPauses.getMax() + " ms",
+                ANSIColors.BOLD_CYAN);
+
+        int healthScore = calculateHealthScore(now);
+        section("OVERALL HEALTH");
+        row("Health Score: ", healthScore + "/100 - " + getHealthStatus(healthScore), getHealthColor(healthScore));
+        System.out.println("║" + " ".repeat(INNER_WIDTH) + "║");
+        System.out.println("╚" + "═".repeat(INNER_WIDTH) + "╝" + ANSIColors.RESET);
+
+        printTrend();
+    }
+
+    /**
+     * Last hour in five-minute buckets
+     */
+    private static void printTrend() {
+        List<Sample> samples = getHistory();
+        System.out.println(ANSIColors.BOLD_WHITE + "\nLAST HOUR (" + TREND_BUCKET + "-minute buckets)" + ANSIColors.RESET);
+        if (samples.isEmpty()) {
+            System.out.println(ANSIColors.WHITE + "  No history yet - samples are taken every "
+                    + SAMPLE_INTERVAL_SECONDS + "s" + ANSIColors.RESET);
+            return;
+        }
+        System.out.println(String.format("  %-5s %7s %7s %7s %9s %9s %6s",
+                "Time", "Heap MB", "GC ms", "Pause", "Alloc/s", "Blocked", "Queue"));
+        for (int i = 0; i < samples.size(); i += TREND_BUCKET) {
+            List<Sample> bucket = samples.subList(i, Math.min(i + TREND_BUCKET, samples.size()));
+            Sample last = bucket.get(bucket.size() - 1);
+            long gc = 0, pause = 0, blocked = 0, queue = 0;
+            double alloc = 0;
+            for (Sample s : bucket) {
+                gc += s.gcMillis;
+                pause = Math.max(pause, s.maxPauseMillis);
+                blocked += s.blockedMillis;
+                queue = Math.max(queue, s.walQueue + s.auditQueue);
+                alloc += s.allocMbPerSec;
+            }
+            System.out.println(String.format("  %-5s %7d %7d %7d %7.1fMB %7dms %6d",
+                    last.time.format(TIME), last.heapUsedMb, gc, pause, alloc / bucket.size(), blocked, queue));
+        }
+    }
+
+    private static void section(String title) {
+        System.out.println("║" + " ".repeat(INNER_WIDTH) + "║");
+        System.out.println("║  " + ANSIColors.BOLD_WHITE + pad(title, INNER_WIDTH - 2) + ANSIColors.BOLD_BLUE + "║");
+    }
+
+    private static void row(String label, String value, String color) {
+        int width = INNER_WIDTH - 4 - label.length();
+        System.out.println("║    " + ANSIColors.WHITE + label + color + pad(value, width) + ANSIColors.BOLD_BLUE + "║");
+    }
+
+    private static String pad(String s, int width) {
+        if (width <= 0) return "";
+        if (s.length() > width) return s.substring(0, width);
+        return s + " ".repeat(width - s.length());
+    }
+
+    private static String center(String s) {
+        int left = (INNER_WIDTH - s.length()) / 2;
+        return " ".repeat(left) + s + " ".repeat(INNER_WIDTH - s.length() - left);
+    }
+
+    private static String queueColor(int depth) {
+        if (depth == 0) return ANSIColors.BOLD_GREEN;
+        return depth < 5 ? ANSIColors.BOLD_YELLOW : ANSIColors.BOLD_RED;
+    }
+
+    private static int calculateHealthScore(Sample s) {
         int score = 100;
-        
-        if (!dbConnected) score -= 50;
-        if (activeThreads > 50) score -= 20;
-        
-        double memoryUsagePercent = (double) usedMemory / maxMemory * 100;
+
+        if (!Double.isNaN(s.dbOpen) && s.dbOpen == 0) score -= 50;
+        if (s.threads > 50) score -= 20;
+
+        double memoryUsagePercent = s.heapMaxMb == 0 ? 0 : (double) s.heapUsedMb / s.heapMaxMb * 100;
         if (memoryUsagePercent > 80) score -= 20;
         else if (memoryUsagePercent > 60) score -= 10;
-        
+
+        if (s.maxPauseMillis > 500) score -= 10;
+        if (s.walQueue + s.auditQueue >= 5) score -= 10;
+
         return Math.max(0, score);
     }
-    
+
     private static String getHealthStatus(int score) {
         if (score >= 80) return "EXCELLENT";
         if (score >= 60) return "GOOD";
         if (score >= 40) return "FAIR";
         return "CRITICAL";
     }
-    
+
     private static String getHealthColor(int score) {
         if (score >= 80) return ANSIColors.BOLD_GREEN;
         if (score >= 60) return ANSIColors.BOLD_YELLOW;
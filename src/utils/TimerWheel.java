@@ -0,0 +1,113 @@
+package com.fortis.utils;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timer wheel - schedules many timeouts on a single thread
+ * Scheduling and cancelling are O(1); each tick only visits one bucket.
+ * Precision is one tick, which is plenty for session expiry.
+ */
+public class TimerWheel {
+    private final long tickMillis;
+    private final ConcurrentLinkedQueue<Timeout>[] buckets;
+    private final int mask;
+    private final long startMillis;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.tickMillis = Math.max(1, unit.toMillis(tickDuration));
+        this.buckets = (ConcurrentLinkedQueue<Timeout>[]) new ConcurrentLinkedQueue<?>[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = wheelSize - 1;
+        this.startMillis = System.currentTimeMillis();
+
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Handle returned by schedule(), can be cancelled
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Run task once after the given delay
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long delayTicks = Math.max(1, (unit.toMillis(delay) + tickMillis - 1) / tickMillis);
+        long deadlineTick = currentTick() + delayTicks;
+        Timeout timeout = new Timeout(task, deadlineTick);
+        buckets[(int) (deadlineTick & mask)].offer(timeout);
+        return timeout;
+    }
+
+    private long currentTick() {
+        return (System.currentTimeMillis() - startMillis) / tickMillis;
+    }
+
+    private void run() {
+        long tick = currentTick();
+        while (running) {
+            long sleep = startMillis + (tick + 1) * tickMillis - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                }
+            }
+            tick++;
+            expire(buckets[(int) (tick & mask)], tick);
+        }
+    }
+
+    private void expire(ConcurrentLinkedQueue<Timeout> bucket, long tick) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.deadlineTick <= tick) {
+                it.remove();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Timer task failed: " + e.getMessage());
+                }
+            }
+            // otherwise the deadline is a later lap around the wheel
+        }
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+}
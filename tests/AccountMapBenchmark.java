@@ -0,0 +1,148 @@
+package com.fortis.tests;
+
+import com.fortis.utils.ConcurrentLongMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Account-id map benchmark: ConcurrentHashMap<Long, V> against ConcurrentLongMap
+ * Measures the retained heap per entry (heap after filling minus heap before,
+ * with the values allocated up front so only the map itself is counted) and
+ * get() throughput for random existing ids from several threads. Ids are
+ * dense from 1, as account ids are, and most fall outside the Long cache.
+ * Results are written as JMH-compatible JSON.
+ *
+ * System properties:
+ *   bench.maps          - comma-separated maps (default chm,long)
+ *   bench.accounts      - entries (default 1000000)
+ *   bench.threads       - reader threads (default 4)
+ *   bench.iterations    - measurement iterations (default 5)
+ *   bench.seconds       - seconds per iteration (default 1)
+ *   bench.out           - JSON output path (default bench-results/account-map.json)
+ */
+public class AccountMapBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * The operations measured, so both maps run the same loop
+     */
+    private interface LongKeyed {
+        Object get(long key);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] maps = System.getProperty("bench.maps", "chm,long").split(",");
+        int accounts = Integer.getInteger("bench.accounts", 1_000_000);
+        int threads = Integer.getInteger("bench.threads", 4);
+        int iterations = Integer.getInteger("bench.iterations", 5);
+        int seconds = Integer.getInteger("bench.seconds", 1);
+
+        System.out.println("=== ACCOUNT MAP BENCHMARK ===\n");
+        System.out.println(accounts + " accounts, " + threads + " reader threads\n");
+        BenchmarkReport report = new BenchmarkReport();
+        Object[] values = new Object[accounts];
+        for (int i = 0; i < accounts; i++) {
+            values[i] = new Object();
+        }
+
+        System.out.println(String.format("%-6s %14s %16s %12s", "Map", "bytes/entry", "gets/s", "± error"));
+        System.out.println("─".repeat(51));
+        for (String name : maps) {
+            double[] footprint = new double[iterations];
+            LongKeyed map = null;
+            for (int i = 0; i < iterations; i++) {
+                map = null;
+                long before = usedHeap();
+                map = fill(name, values);
+                footprint[i] = (double) (usedHeap() - before) / accounts;
+            }
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                measureGets(map, accounts, threads, seconds);
+            }
+            double[] throughput = new double[iterations];
+            for (int i = 0; i < iterations; i++) {
+                throughput[i] = measureGets(map, accounts, threads, seconds);
+            }
+            double mean = BenchmarkReport.mean(throughput);
+            double error = iterations > 1
+                    ? 3.29 * BenchmarkReport.stdDev(throughput, mean) / Math.sqrt(iterations) : 0;
+            System.out.println(String.format("%-6s %14.1f %16.0f %12.0f",
+                    name, BenchmarkReport.mean(footprint), mean, error));
+
+            report.add("com.fortis.utils.ConcurrentLongMap.footprint", "ss",
+                    BenchmarkReport.params("map", name, "accounts", accounts), footprint, "B/entry", 1);
+            report.add("com.fortis.utils.ConcurrentLongMap.get", "thrpt",
+                    BenchmarkReport.params("map", name, "accounts", accounts), throughput, "ops/s", threads);
+        }
+
+        report.write(System.getProperty("bench.out", "bench-results/account-map.json"));
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    private static LongKeyed fill(String name, Object[] values) {
+        switch (name) {
+            case "chm": {
+                ConcurrentHashMap<Long, Object> map = new ConcurrentHashMap<>();
+                for (int i = 0; i < values.length; i++) {
+                    map.put(i + 1L, values[i]);
+                }
+                return map::get;
+            }
+            case "long": {
+                ConcurrentLongMap<Object> map = new ConcurrentLongMap<>();
+                for (int i = 0; i < values.length; i++) {
+                    map.put(i + 1L, values[i]);
+                }
+                return map::get;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown map: " + name);
+        }
+    }
+
+    /**
+     * Random gets from all threads for the given time; returns total gets per second
+     */
+    private static double measureGets(LongKeyed map, int accounts, int threads, int seconds)
+            throws InterruptedException {
+        AtomicLong total = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] readers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            readers[t] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long ops = 0;
+                int misses = 0;
+                do {
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        if (map.get(rnd.nextInt(accounts) + 1L) == null) misses++;
+                    }
+                    ops += BATCH_SIZE;
+                } while (System.nanoTime() < deadline);
+                if (misses > 0) {
+                    throw new IllegalStateException(misses + " existing ids not found");
+                }
+                total.addAndGet(ops);
+            });
+            readers[t].start();
+        }
+        long start = System.nanoTime();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        return total.get() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,134 @@
+package com.fortis.tests;
+
+import com.fortis.utils.AppendOnlyLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test AppendOnlyLog snapshots under concurrent appends
+ * A snapshot must keep exactly the elements it pinned, however many are
+ * appended later, and readers must never see a hole below the pinned size.
+ */
+public class AppendOnlyLogTest {
+
+    private static final int APPENDERS = 4;
+    private static final int PER_APPENDER = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== APPEND-ONLY LOG TEST ===\n");
+
+        AppendOnlyLogTest test = new AppendOnlyLogTest();
+        test.testSnapshotIsolation();
+        test.testConcurrentAppendAndRead();
+
+        System.out.println("\n=== ALL TESTS COMPLETED ===");
+    }
+
+    /**
+     * Test 1: A snapshot keeps its size and contents across chunk and directory growth
+     */
+    public void testSnapshotIsolation() {
+        System.out.println("Test 1: Snapshot Isolation");
+        System.out.println("─".repeat(50));
+
+        AppendOnlyLog<Integer> log = new AppendOnlyLog<>();
+        List<Integer> empty = log.snapshot();
+        for (int i = 0; i < 1500; i++) {
+            log.append(i);
+        }
+        List<Integer> early = log.snapshot();
+        List<Integer> more = new ArrayList<>();
+        for (int i = 1500; i < 40_000; i++) { // past the initial 16-chunk directory
+            more.add(i);
+        }
+        log.appendAll(more);
+        List<Integer> late = log.snapshot();
+
+        boolean passed = empty.isEmpty() && early.size() == 1500 && late.size() == 40_000
+                && log.size() == 40_000;
+        for (int i = 0; i < late.size(); i++) {
+            passed &= late.get(i) == i && (i >= early.size() || early.get(i) == i);
+        }
+        boolean bounded = false;
+        try {
+            early.get(1500);
+        } catch (IndexOutOfBoundsException e) {
+            bounded = true;
+        }
+        boolean readOnly = false;
+        try {
+            early.add(-1);
+        } catch (UnsupportedOperationException e) {
+            readOnly = true;
+        }
+        System.out.println("Sizes: empty " + empty.size() + ", early " + early.size() + ", late " + late.size());
+        System.out.println("Contents in order: " + passed + ", bounded: " + bounded + ", read-only: " + readOnly);
+        report(passed && bounded && readOnly);
+    }
+
+    /**
+     * Test 2: Readers snapshot while appenders race; every pinned element is present
+     */
+    public void testConcurrentAppendAndRead() throws Exception {
+        System.out.println("Test 2: Concurrent Append and Read");
+        System.out.println("─".repeat(50));
+
+        AppendOnlyLog<long[]> log = new AppendOnlyLog<>();
+        AtomicBoolean appending = new AtomicBoolean(true);
+        AtomicInteger holes = new AtomicInteger();
+        AtomicInteger snapshots = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(APPENDERS + 2);
+        List<Future<?>> appenders = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int a = 0; a < APPENDERS; a++) {
+            long appender = a;
+            appenders.add(executor.submit(() -> {
+                for (long seq = 0; seq < PER_APPENDER; seq++) {
+                    log.append(new long[] {appender, seq});
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            readers.add(executor.submit(() -> {
+                while (appending.get()) {
+                    List<long[]> snapshot = log.snapshot();
+                    long[] last = new long[APPENDERS];
+                    Arrays.fill(last, -1);
+                    for (long[] element : snapshot) {
+                        if (element == null || element[1] != last[(int) element[0]] + 1) {
+                            holes.incrementAndGet();
+                            break;
+                        }
+                        last[(int) element[0]] = element[1];
+                    }
+                    snapshots.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> f : appenders) f.get(60, TimeUnit.SECONDS);
+        appending.set(false);
+        for (Future<?> f : readers) f.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        long[] counts = new long[APPENDERS];
+        for (long[] element : log.snapshot()) {
+            counts[(int) element[0]]++;
+        }
+        boolean complete = log.size() == APPENDERS * PER_APPENDER;
+        for (long count : counts) {
+            complete &= count == PER_APPENDER;
+        }
+        System.out.println("Size: " + log.size() + " (expected " + APPENDERS * PER_APPENDER + ")");
+        System.out.println("Snapshots scanned: " + snapshots.get() + ", with holes or reordering: " + holes.get());
+        report(complete && holes.get() == 0);
+    }
+
+    private static void report(boolean passed) {
+        System.out.println(passed ? "✓ Test passed\n" : "✗ Test failed\n");
+    }
+}
@@ -0,0 +1,201 @@
+package com.fortis.tests;
+
+import com.fortis.model.BankAccount;
+import com.fortis.model.User;
+import com.fortis.service.BankingService;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput benchmark for BankingService deposit, withdraw, transfer and history
+ * Each operation is measured over a grid of account counts, thread counts and
+ * hot-account skew, with warmup and several measurement iterations per point.
+ * Persistence is disabled by default and the data/log directories point at a
+ * temp directory, so the benchmark never touches the real data files.
+ * Results are written as JMH-compatible JSON.
+ *
+ * System properties:
+ *   bench.accounts   - comma-separated account counts (default 100,10000)
+ *   bench.threads    - comma-separated thread counts (default 1,4,16)
+ *   bench.hot        - comma-separated hot-account probabilities (default 0,0.9)
+ *   bench.ops        - operations to run (default deposit,withdraw,transfer,history)
+ *   bench.iterations - measurement iterations (default 5)
+ *   bench.seconds    - seconds per iteration (default 1)
+ *   bench.out        - JSON output path (default bench-results/banking_service.json)
+ *   fortis.persistence=true to include persistence (backend from fortis.repository)
+ *   fortis.shards=N to measure the sharded single-writer engine
+ *   fortis.ratelimit=true to include the request rate limits
+ */
+public class BankingServiceBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final double HOT_SET_FRACTION = 0.01;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    private final User admin = new User(1L, "bench-admin", "", User.UserRole.ADMIN, LocalDateTime.now());
+    private BankingService service;
+    private final List<Long> accountIds = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        File tempDir = Files.createTempDirectory("fortis-bench").toFile();
+        if (System.getProperty("fortis.data.dir") == null) {
+            System.setProperty("fortis.data.dir", new File(tempDir, "data").getPath());
+        }
+        if (System.getProperty("fortis.log.dir") == null) {
+            System.setProperty("fortis.log.dir", new File(tempDir, "logs").getPath());
+        }
+        if (System.getProperty("fortis.persistence") == null) {
+            System.setProperty("fortis.persistence", "false");
+        }
+
+        System.out.println("=== BANKING SERVICE BENCHMARK ===\n");
+        System.out.println("Data dir: " + System.getProperty("fortis.data.dir"));
+        System.out.println("Persistence: " + System.getProperty("fortis.persistence") + "\n");
+
+        new BankingServiceBenchmark().run();
+
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    private void run() throws Exception {
+        int[] accountCounts = intList("bench.accounts", "100,10000");
+        int[] threadCounts = intList("bench.threads", "1,4,16");
+        double[] hotProbabilities = Arrays.stream(System.getProperty("bench.hot", "0,0.9").split(","))
+                .mapToDouble(Double::parseDouble).toArray();
+        String[] ops = System.getProperty("bench.ops", "deposit,withdraw,transfer,history").split(",");
+        int iterations = Integer.getInteger("bench.iterations", 5);
+        int seconds = Integer.getInteger("bench.seconds", 1);
+
+        service = BankingService.getInstance();
+        BenchmarkReport report = new BenchmarkReport();
+
+        System.out.println(String.format("%-10s %9s %8s %6s %16s %12s",
+                "Operation", "Accounts", "Threads", "Hot", "ops/sec", "± error"));
+        System.out.println("─".repeat(66));
+
+        Arrays.sort(accountCounts);
+        for (int accounts : accountCounts) {
+            ensureAccounts(accounts);
+            List<Long> ids = accountIds.subList(0, accounts);
+            for (String op : ops) {
+                for (int threads : threadCounts) {
+                    for (double hot : hotProbabilities) {
+                        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                            measure(op, ids, threads, hot, seconds);
+                        }
+                        double[] samples = new double[iterations];
+                        for (int i = 0; i < iterations; i++) {
+                            samples[i] = measure(op, ids, threads, hot, seconds);
+                        }
+                        double mean = BenchmarkReport.mean(samples);
+                        double error = iterations > 1
+                                ? 3.29 * BenchmarkReport.stdDev(samples, mean) / Math.sqrt(iterations) : 0;
+                        System.out.println(String.format("%-10s %9d %8d %6.2f %16.1f %12.1f",
+                                op, accounts, threads, hot, mean, error));
+
+                        report.add("com.fortis.service.BankingService." + op, "thrpt",
+                                BenchmarkReport.params("accounts", accounts, "hotProbability", hot,
+                                        "persistence", System.getProperty("fortis.persistence"),
+                                        "shards", Integer.getInteger("fortis.shards", 0)),
+                                samples, "ops/s", threads);
+                    }
+                }
+            }
+        }
+
+        report.write(System.getProperty("bench.out", "bench-results/banking_service.json"));
+    }
+
+    /**
+     * Create CURRENT accounts with a large balance so withdrawals never run dry
+     */
+    private void ensureAccounts(int count) {
+        if (accountIds.isEmpty()) {
+            for (BankAccount acc : service.getAllAccounts()) {
+                if ("CURRENT".equals(acc.getAccountType())) {
+                    acc.setBalance(INITIAL_BALANCE);
+                    accountIds.add(acc.getAccountId());
+                }
+            }
+        }
+        while (accountIds.size() < count) {
+            long id = service.createAccount("Bench " + accountIds.size(), INITIAL_BALANCE,
+                    "CURRENT", admin.getUserId(), admin);
+            accountIds.add(id);
+        }
+    }
+
+    /**
+     * Run one iteration and return operations per second
+     */
+    private double measure(String op, List<Long> ids, int threads, double hotProbability, int seconds)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder completed = new LongAdder();
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        int hotSetSize = Math.max(1, (int) (ids.size() * HOT_SET_FRACTION));
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                start.await();
+                long end = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < end) {
+                    long from = pick(ids, hotSetSize, hotProbability, rnd);
+                    switch (op) {
+                        case "deposit":
+                            service.deposit(from, AMOUNT, "bench", admin);
+                            break;
+                        case "withdraw":
+                            service.withdraw(from, AMOUNT, "bench", admin);
+                            break;
+                        case "transfer":
+                            long to = pick(ids, hotSetSize, hotProbability, rnd);
+                            if (to == from) continue;
+                            service.transfer(from, to, AMOUNT, "bench", admin);
+                            break;
+                        case "history":
+                            service.getTransactionHistory(from, admin);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown operation: " + op);
+                    }
+                    completed.increment();
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return completed.sum() / (elapsed / 1e9);
+    }
+
+    private static long pick(List<Long> ids, int hotSetSize, double hotProbability, ThreadLocalRandom rnd) {
+        if (hotProbability > 0 && rnd.nextDouble() < hotProbability) {
+            return ids.get(rnd.nextInt(hotSetSize));
+        }
+        return ids.get(rnd.nextInt(ids.size()));
+    }
+
+    private static int[] intList(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,93 @@
+package com.fortis.tests;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects benchmark scores and writes them as JMH-compatible JSON
+ * (benchmark, mode, params, primaryMetric) so existing JMH result
+ * viewers and diff tools can compare runs between releases.
+ */
+public class BenchmarkReport {
+
+    private final List<String> entries = new ArrayList<>();
+
+    /**
+     * Record one measured configuration
+     *
+     * @param samples per-iteration scores, used for mean and 99.9% error
+     */
+    public void add(String benchmark, String mode, Map<String, ?> params,
+                    double[] samples, String unit, int threads) {
+        double mean = mean(samples);
+        double error = samples.length > 1 ? 3.29 * stdDev(samples, mean) / Math.sqrt(samples.length) : Double.NaN;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("  {\n");
+        sb.append("    \"benchmark\": \"").append(benchmark).append("\",\n");
+        sb.append("    \"mode\": \"").append(mode).append("\",\n");
+        sb.append("    \"threads\": ").append(threads).append(",\n");
+        sb.append("    \"measurementIterations\": ").append(samples.length).append(",\n");
+        sb.append("    \"params\": {");
+        int i = 0;
+        for (Map.Entry<String, ?> e : params.entrySet()) {
+            if (i++ > 0) sb.append(", ");
+            sb.append("\"").append(e.getKey()).append("\": \"").append(e.getValue()).append("\"");
+        }
+        sb.append("},\n");
+        sb.append("    \"primaryMetric\": {\n");
+        sb.append("      \"score\": ").append(number(mean)).append(",\n");
+        sb.append("      \"scoreError\": ").append(number(error)).append(",\n");
+        sb.append("      \"scoreUnit\": \"").append(unit).append("\",\n");
+        sb.append("      \"rawData\": [[");
+        for (int j = 0; j < samples.length; j++) {
+            if (j > 0) sb.append(", ");
+            sb.append(number(samples[j]));
+        }
+        sb.append("]]\n");
+        sb.append("    }\n");
+        sb.append("  }");
+        entries.add(sb.toString());
+    }
+
+    public void write(String path) throws IOException {
+        File file = new File(path);
+        if (file.getParentFile() != null) file.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("[");
+            out.println(String.join(",\n", entries));
+            out.println("]");
+        }
+        System.out.println("Results written to " + file.getPath());
+    }
+
+    public static Map<String, Object> params(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            map.put(String.valueOf(keyValues[i]), keyValues[i + 1]);
+        }
+        return map;
+    }
+
+    static double mean(double[] values) {
+        double sum = 0;
+        for (double v : values) sum += v;
+        return values.length > 0 ? sum / values.length : 0;
+    }
+
+    static double stdDev(double[] values, double mean) {
+        double sq = 0;
+        for (double v : values) sq += (v - mean) * (v - mean);
+        return Math.sqrt(sq / (values.length - 1));
+    }
+
+    private static String number(double v) {
+        return Double.isNaN(v) || Double.isInfinite(v) ? "\"NaN\"" : String.format(java.util.Locale.ROOT, "%.3f", v);
+    }
+}
@@ -0,0 +1,225 @@
+package com.fortis.tests;
+
+import com.fortis.model.TransactionRecord;
+import com.fortis.model.TransactionRecord.TransactionStatus;
+import com.fortis.model.TransactionRecord.TransactionType;
+import com.fortis.persistence.ColumnarTransactionLog;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test ColumnarTransactionLog read-back
+ * Every record must read back field for field, whether it was encoded into
+ * the columns or kept whole because it does not fit the encoding.
+ */
+public class ColumnarTransactionLogTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== COLUMNAR TRANSACTION LOG TEST ===\n");
+
+        ColumnarTransactionLogTest test = new ColumnarTransactionLogTest();
+        test.testRoundTrip();
+        test.testIrregularRecords();
+        test.testAccountFilterAndFind();
+        test.testConcurrentAppendAndRead();
+
+        System.out.println("\n=== ALL TESTS COMPLETED ===");
+    }
+
+    /**
+     * Test 1: Encoded rows read back equal to their records across several chunks
+     */
+    public void testRoundTrip() {
+        System.out.println("Test 1: Round Trip");
+        System.out.println("─".repeat(50));
+
+        ColumnarTransactionLog log = new ColumnarTransactionLog();
+        List<TransactionRecord> records = new ArrayList<>();
+        for (int n = 0; n < 20_000; n++) {
+            TransactionRecord record = regular(n);
+            records.add(record);
+            log.append(record);
+        }
+        List<TransactionRecord> snapshot = log.snapshot();
+        int wrong = 0;
+        for (int n = 0; n < records.size(); n++) {
+            if (!same(snapshot.get(n), records.get(n))) wrong++;
+        }
+        System.out.println("Rows: " + snapshot.size() + ", read back wrong: " + wrong);
+        report(snapshot.size() == records.size() && wrong == 0);
+    }
+
+    /**
+     * Test 2: Records outside the encoding are kept whole and read back unchanged
+     */
+    public void testIrregularRecords() {
+        System.out.println("Test 2: Irregular Records");
+        System.out.println("─".repeat(50));
+
+        List<TransactionRecord> records = List.of(
+                record("LEGACY-0001", "12.50", "Imported", TransactionStatus.COMPLETED, START),
+                record("TXN1767258000000-00ab", "1.00", "Lowercase hex", TransactionStatus.COMPLETED, START),
+                record("TXN0123-AB", "1.00", "Leading zero", TransactionStatus.COMPLETED, START),
+                record("TXN1767258000000-ABCD", "123456789012345678901234.56", "Huge", TransactionStatus.COMPLETED, START),
+                record("TXN1767258000000-ABCD", "1E+300", "Huge scale", TransactionStatus.COMPLETED, START),
+                record("TXN1767258000000-ABCD", "5.00", "No time", TransactionStatus.COMPLETED, null),
+                record("TXN1767258000000-ABCD", "5.00", "Far future", TransactionStatus.COMPLETED,
+                        LocalDateTime.of(2300, 1, 1, 0, 0)),
+                record("TXN99999999999999-ABCD", "5.00", "Id far from time", TransactionStatus.COMPLETED, START),
+                record(null, "5.00", "No id", TransactionStatus.PENDING, START),
+                record("TXN1767258000000-0000ABCD", "-0.0100", null, TransactionStatus.REVERSED,
+                        START.plusNanos(123_456_789)));
+
+        ColumnarTransactionLog log = new ColumnarTransactionLog();
+        log.appendAll(records);
+        List<TransactionRecord> snapshot = log.snapshot();
+        int wrong = 0;
+        for (int i = 0; i < records.size(); i++) {
+            if (!same(snapshot.get(i), records.get(i))) {
+                System.out.println("  Row " + i + " reads back as " + snapshot.get(i));
+                wrong++;
+            }
+        }
+        System.out.println("Rows: " + snapshot.size() + ", read back wrong: " + wrong);
+        report(wrong == 0);
+    }
+
+    /**
+     * Test 3: forAccount and find match a plain scan of the same records
+     */
+    public void testAccountFilterAndFind() {
+        System.out.println("Test 3: Account Filter and Find");
+        System.out.println("─".repeat(50));
+
+        ColumnarTransactionLog log = new ColumnarTransactionLog();
+        List<TransactionRecord> records = new ArrayList<>();
+        for (int n = 0; n < 10_000; n++) {
+            TransactionRecord record = n % 100 == 0
+                    ? new TransactionRecord("LEGACY-" + n, n % 7, 3, new BigDecimal("1.00"),
+                            TransactionType.TRANSFER, "Imported", TransactionStatus.COMPLETED, START)
+                    : regular(n);
+            records.add(record);
+            log.append(record);
+        }
+        ColumnarTransactionLog.Snapshot snapshot = log.snapshot();
+
+        int mismatches = 0;
+        for (long account = 0; account < 8; account++) {
+            List<TransactionRecord> expected = new ArrayList<>();
+            for (TransactionRecord record : records) {
+                if (record.getFromAccountId() == account || record.getToAccountId() == account) {
+                    expected.add(record);
+                }
+            }
+            List<TransactionRecord> found = snapshot.forAccount(account);
+            if (found.size() != expected.size()) {
+                mismatches++;
+                continue;
+            }
+            for (int i = 0; i < found.size(); i++) {
+                if (!same(found.get(i), expected.get(i))) mismatches++;
+            }
+        }
+        int notFound = 0;
+        for (int n = 0; n < records.size(); n += 37) {
+            TransactionRecord found = snapshot.find(records.get(n).getTransactionId());
+            if (found == null || !same(found, records.get(n))) notFound++;
+        }
+        boolean absent = snapshot.find("TXN1-FFFF") == null && snapshot.find("nothing") == null
+                && snapshot.find(null) == null;
+        System.out.println("Account filter mismatches: " + mismatches);
+        System.out.println("Ids not found: " + notFound + ", unknown ids absent: " + absent);
+        report(mismatches == 0 && notFound == 0 && absent);
+    }
+
+    /**
+     * Test 4: Snapshots taken during appends read back every row below their size
+     */
+    public void testConcurrentAppendAndRead() throws Exception {
+        System.out.println("Test 4: Concurrent Append and Read");
+        System.out.println("─".repeat(50));
+
+        int appenders = 4;
+        int perAppender = 25_000;
+        ColumnarTransactionLog log = new ColumnarTransactionLog();
+        AtomicBoolean appending = new AtomicBoolean(true);
+        AtomicInteger wrong = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(appenders + 1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int a = 0; a < appenders; a++) {
+            int base = a * perAppender;
+            writers.add(executor.submit(() -> {
+                for (int n = base; n < base + perAppender; n++) {
+                    log.append(regular(n));
+                }
+            }));
+        }
+        Future<?> reader = executor.submit(() -> {
+            while (appending.get()) {
+                for (TransactionRecord row : log.snapshot()) {
+                    if (!same(row, regular(indexOf(row)))) wrong.incrementAndGet();
+                }
+            }
+        });
+        for (Future<?> f : writers) f.get(60, TimeUnit.SECONDS);
+        appending.set(false);
+        reader.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        boolean[] seen = new boolean[appenders * perAppender];
+        for (TransactionRecord row : log.snapshot()) {
+            if (!same(row, regular(indexOf(row)))) wrong.incrementAndGet();
+            seen[indexOf(row)] = true;
+        }
+        int missing = 0;
+        for (boolean s : seen) {
+            if (!s) missing++;
+        }
+        System.out.println("Rows: " + log.size() + ", missing: " + missing + ", read back wrong: " + wrong.get());
+        report(log.size() == seen.length && missing == 0 && wrong.get() == 0);
+    }
+
+    /**
+     * Record n, shaped like BankingService's and the same every time it is built
+     */
+    private static TransactionRecord regular(int n) {
+        TransactionType type = TransactionType.values()[n % 3];
+        return new TransactionRecord("TXN" + (1_767_258_000_000L + n) + "-" + String.format("%08X", n * 2_654_435_761L & 0xFFFFFFFFL),
+                type == TransactionType.DEPOSIT ? 0 : n % 8, type == TransactionType.WITHDRAWAL ? 0 : (n + 3) % 8,
+                BigDecimal.valueOf(100L + n * 7L, 2), type, "Description " + (n % 13),
+                n % 50 == 0 ? TransactionStatus.FAILED : TransactionStatus.COMPLETED,
+                START.plusNanos(n * 1_000_123L));
+    }
+
+    private static int indexOf(TransactionRecord row) {
+        String id = row.getTransactionId();
+        return (int) (Long.parseLong(id.substring(3, id.indexOf('-'))) - 1_767_258_000_000L);
+    }
+
+    private static TransactionRecord record(String id, String amount, String description,
+                                            TransactionStatus status, LocalDateTime timestamp) {
+        return new TransactionRecord(id, 1, 2, new BigDecimal(amount), TransactionType.TRANSFER,
+                description, status, timestamp);
+    }
+
+    private static boolean same(TransactionRecord a, TransactionRecord b) {
+        return Objects.equals(a.getTransactionId(), b.getTransactionId())
+                && a.getFromAccountId() == b.getFromAccountId() && a.getToAccountId() == b.getToAccountId()
+                && Objects.equals(a.getAmount(), b.getAmount()) && a.getType() == b.getType()
+                && a.getStatus() == b.getStatus() && Objects.equals(a.getTimestamp(), b.getTimestamp())
+                && Objects.equals(a.getDescription(), b.getDescription());
+    }
+
+    private static void report(boolean passed) {
+        System.out.println(passed ? "✓ Test passed\n" : "✗ Test failed\n");
+    }
+}
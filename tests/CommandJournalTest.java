@@ -0,0 +1,227 @@
+package com.fortis.tests;
+
+import com.fortis.persistence.CommandJournal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test CommandJournal recovery from failed batch writes
+ * A rejected batch must never come back on replay, and must not damage
+ * the records written before or after it.
+ */
+public class CommandJournalTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== COMMAND JOURNAL TEST ===\n");
+
+        CommandJournalTest test = new CommandJournalTest();
+        test.testPartialWriteFailure();
+        test.testFsyncFailure();
+        test.testUndoFailure();
+
+        System.out.println("\n=== ALL TESTS COMPLETED ===");
+    }
+
+    /**
+     * Test 1: A write that fails halfway is cut off; the next batch follows the last good one
+     */
+    public void testPartialWriteFailure() throws IOException {
+        System.out.println("Test 1: Partial Write Failure");
+        System.out.println("─".repeat(50));
+
+        File file = tempFile();
+        FaultyChannel channel = FaultyChannel.open(file);
+        CommandJournal journal = new CommandJournal(channel, false);
+        journal.replay(ignored());
+        batch(journal, 1, 3);
+        journal.flush();
+
+        channel.failWriteAfter = 20; // 20 bytes of the batch reach the file
+        batch(journal, 4, 6);
+        boolean threw = flushFails(journal);
+        channel.failWriteAfter = -1;
+
+        batch(journal, 7, 9);
+        journal.flush();
+        journal.close();
+
+        List<Long> replayed = replay(file);
+        System.out.println("Failed flush threw: " + threw);
+        System.out.println("Replayed: " + replayed);
+        System.out.println("Expected: [1, 2, 3, 7, 8, 9]");
+        report(threw && replayed.equals(List.of(1L, 2L, 3L, 7L, 8L, 9L)));
+    }
+
+    /**
+     * Test 2: A batch whose fsync fails is rejected, so it must not be replayed
+     */
+    public void testFsyncFailure() throws IOException {
+        System.out.println("Test 2: Fsync Failure");
+        System.out.println("─".repeat(50));
+
+        File file = tempFile();
+        FaultyChannel channel = FaultyChannel.open(file);
+        CommandJournal journal = new CommandJournal(channel, true);
+        journal.replay(ignored());
+        batch(journal, 1, 2);
+        journal.flush();
+
+        channel.failForce = true;
+        batch(journal, 3, 4);
+        boolean threw = flushFails(journal);
+        channel.failForce = false;
+
+        batch(journal, 5, 5);
+        journal.flush();
+        journal.close();
+
+        List<Long> replayed = replay(file);
+        System.out.println("Failed flush threw: " + threw);
+        System.out.println("Replayed: " + replayed);
+        System.out.println("Expected: [1, 2, 5]");
+        report(threw && replayed.equals(List.of(1L, 2L, 5L)));
+    }
+
+    /**
+     * Test 3: If the failed batch cannot be cut off, every later batch is refused
+     */
+    public void testUndoFailure() throws IOException {
+        System.out.println("Test 3: Failure That Cannot Be Undone");
+        System.out.println("─".repeat(50));
+
+        File file = tempFile();
+        FaultyChannel channel = FaultyChannel.open(file);
+        CommandJournal journal = new CommandJournal(channel, false);
+        journal.replay(ignored());
+        batch(journal, 1, 2);
+        journal.flush();
+
+        channel.failWriteAfter = 10;
+        channel.failTruncate = true;
+        batch(journal, 3, 4);
+        boolean firstThrew = flushFails(journal);
+        channel.failWriteAfter = -1;
+        channel.failTruncate = false;
+
+        batch(journal, 5, 6);
+        boolean laterThrew = flushFails(journal);
+        channel.close();
+
+        List<Long> replayed = replay(file); // the torn batch is the tail, and replay drops it
+        System.out.println("Failed flush threw: " + firstThrew + ", later flush threw: " + laterThrew);
+        System.out.println("Replayed: " + replayed);
+        System.out.println("Expected: [1, 2]");
+        report(firstThrew && laterThrew && replayed.equals(List.of(1L, 2L)));
+    }
+
+    private static void batch(CommandJournal journal, long from, long to) {
+        for (long s = from; s <= to; s++) {
+            journal.append(s, (byte) 1, s, 0, 100 * s, System.currentTimeMillis(), "command " + s);
+        }
+    }
+
+    private static boolean flushFails(CommandJournal journal) {
+        try {
+            journal.flush();
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static List<Long> replay(File file) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (CommandJournal journal = new CommandJournal(file, false)) {
+            journal.replay((sequence, type, accountId, otherId, amountCents, timestamp, text) -> {
+                if (accountId != sequence || amountCents != 100 * sequence || !text.equals("command " + sequence)) {
+                    throw new IllegalStateException("Record " + sequence + " replayed wrong");
+                }
+                sequences.add(sequence);
+            });
+        }
+        return sequences;
+    }
+
+    private static CommandJournal.Visitor ignored() {
+        return (sequence, type, accountId, otherId, amountCents, timestamp, text) -> { };
+    }
+
+    private static File tempFile() throws IOException {
+        File file = Files.createTempFile("fortis-journal", ".log").toFile();
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void report(boolean passed) {
+        System.out.println(passed ? "✓ Test passed\n" : "✗ Test failed\n");
+    }
+
+    /**
+     * File channel that can fail positional writes part way, fsyncs and truncation
+     */
+    private static final class FaultyChannel extends FileChannel {
+        private final FileChannel file;
+        int failWriteAfter = -1; // bytes of the next positional write to let through, -1 for no failure
+        boolean failForce;
+        boolean failTruncate;
+
+        private FaultyChannel(FileChannel file) {
+            this.file = file;
+        }
+
+        static FaultyChannel open(File path) throws IOException {
+            return new FaultyChannel(FileChannel.open(path.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE));
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            if (failWriteAfter < 0) {
+                return file.write(src, position);
+            }
+            ByteBuffer part = src.duplicate();
+            part.limit(Math.min(src.limit(), src.position() + failWriteAfter));
+            file.write(part, position);
+            src.position(part.position());
+            throw new IOException("Injected write failure");
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failForce) throw new IOException("Injected fsync failure");
+            file.force(metaData);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) throw new IOException("Injected truncate failure");
+            file.truncate(size);
+            return this;
+        }
+
+        @Override public int read(ByteBuffer dst) throws IOException { return file.read(dst); }
+        @Override public long read(ByteBuffer[] dsts, int offset, int length) throws IOException { return file.read(dsts, offset, length); }
+        @Override public int write(ByteBuffer src) throws IOException { return file.write(src); }
+        @Override public long write(ByteBuffer[] srcs, int offset, int length) throws IOException { return file.write(srcs, offset, length); }
+        @Override public long position() throws IOException { return file.position(); }
+        @Override public FileChannel position(long newPosition) throws IOException { file.position(newPosition); return this; }
+        @Override public long size() throws IOException { return file.size(); }
+        @Override public long transferTo(long position, long count, WritableByteChannel target) throws IOException { return file.transferTo(position, count, target); }
+        @Override public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException { return file.transferFrom(src, position, count); }
+        @Override public int read(ByteBuffer dst, long position) throws IOException { return file.read(dst, position); }
+        @Override public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException { return file.map(mode, position, size); }
+        @Override public FileLock lock(long position, long size, boolean shared) throws IOException { return file.lock(position, size, shared); }
+        @Override public FileLock tryLock(long position, long size, boolean shared) throws IOException { return file.tryLock(position, size, shared); }
+        @Override protected void implCloseChannel() throws IOException { file.close(); }
+    }
+}
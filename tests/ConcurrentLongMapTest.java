@@ -0,0 +1,255 @@
+package com.fortis.tests;
+
+import com.fortis.utils.ConcurrentLongMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test ConcurrentLongMap under concurrent access
+ * Lock-free readers must never miss a published key or see a wrong value,
+ * including while segment tables are being rebuilt.
+ */
+public class ConcurrentLongMapTest {
+
+    private static final int THREADS = 4;
+    private static final int KEYS_PER_THREAD = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== CONCURRENT LONG MAP TEST ===\n");
+
+        ConcurrentLongMapTest test = new ConcurrentLongMapTest();
+        test.testConcurrentPutAcrossRebuilds();
+        test.testConcurrentRemove();
+        test.testTombstoneReuse();
+        test.testZeroKey();
+        test.testComputeIfAbsentCreatesOnce();
+        test.testRemoveIf();
+
+        System.out.println("\n=== ALL TESTS COMPLETED ===");
+    }
+
+    /**
+     * Test 1: Readers check every key a writer has published while tables grow from 8 slots
+     */
+    public void testConcurrentPutAcrossRebuilds() throws Exception {
+        System.out.println("Test 1: Concurrent Put Across Rebuilds");
+        System.out.println("─".repeat(50));
+
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>(1);
+        AtomicLong[] published = new AtomicLong[THREADS];
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        for (int w = 0; w < THREADS; w++) {
+            AtomicLong done = published[w] = new AtomicLong();
+            long base = (long) w * KEYS_PER_THREAD;
+            writers.add(executor.submit(() -> {
+                for (int i = 1; i <= KEYS_PER_THREAD; i++) {
+                    map.put(base + i, (base + i) * 3);
+                    done.set(i);
+                }
+            }));
+        }
+        for (int r = 0; r < THREADS; r++) {
+            readers.add(executor.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (writing.get()) {
+                    int w = rnd.nextInt(THREADS);
+                    long upTo = published[w].get();
+                    if (upTo == 0) continue;
+                    long key = (long) w * KEYS_PER_THREAD + 1 + rnd.nextLong(upTo);
+                    Long value = map.get(key);
+                    if (value == null || value != key * 3) misses.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> f : writers) f.get(60, TimeUnit.SECONDS);
+        writing.set(false);
+        for (Future<?> f : readers) f.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        int wrong = 0;
+        for (long key = 1; key <= (long) THREADS * KEYS_PER_THREAD; key++) {
+            Long value = map.get(key);
+            if (value == null || value != key * 3) wrong++;
+        }
+        System.out.println("Size: " + map.size() + " (expected " + THREADS * KEYS_PER_THREAD + ")");
+        System.out.println("Reader misses during writes: " + misses.get());
+        System.out.println("Wrong entries afterwards: " + wrong);
+        report(misses.get() == 0 && wrong == 0 && map.size() == THREADS * KEYS_PER_THREAD);
+    }
+
+    /**
+     * Test 2: Concurrent removes of odd keys leave exactly the even keys
+     */
+    public void testConcurrentRemove() throws Exception {
+        System.out.println("Test 2: Concurrent Remove");
+        System.out.println("─".repeat(50));
+
+        int keys = THREADS * KEYS_PER_THREAD;
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>(16);
+        for (long key = 1; key <= keys; key++) {
+            map.put(key, key);
+        }
+
+        AtomicInteger removed = new AtomicInteger();
+        AtomicInteger evenMisses = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < THREADS; w++) {
+            long from = (long) w * KEYS_PER_THREAD + 1;
+            futures.add(executor.submit(() -> {
+                for (long key = from; key < from + KEYS_PER_THREAD; key++) {
+                    if (key % 2 == 1 && map.remove(key) != null) removed.incrementAndGet();
+                    if (key % 2 == 1 && map.remove(key) != null) removed.incrementAndGet(); // already gone
+                }
+            }));
+            futures.add(executor.submit(() -> {
+                for (long key = from + 1; key < from + KEYS_PER_THREAD; key += 2) {
+                    if (map.get(key) == null) evenMisses.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        int wrong = 0;
+        for (long key = 1; key <= keys; key++) {
+            if ((map.get(key) != null) != (key % 2 == 0)) wrong++;
+        }
+        System.out.println("Removed: " + removed.get() + " (expected " + keys / 2 + ")");
+        System.out.println("Size: " + map.size() + " (expected " + keys / 2 + ")");
+        System.out.println("Even keys missed: " + evenMisses.get() + ", wrong entries: " + wrong);
+        report(removed.get() == keys / 2 && map.size() == keys / 2 && evenMisses.get() == 0 && wrong == 0);
+    }
+
+    /**
+     * Test 3: Removed slots are reused by re-puts and cleared by rebuilds under churn
+     */
+    public void testTombstoneReuse() {
+        System.out.println("Test 3: Tombstone Reuse");
+        System.out.println("─".repeat(50));
+
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>(1);
+        boolean reput = map.put(42, "a") == null && map.remove(42).equals("a")
+                && map.get(42) == null && map.put(42, "b") == null
+                && map.size() == 1 && map.get(42).equals("b");
+
+        // A sliding window of 100 live keys over a million distinct ones,
+        // so nearly every insert lands in a table full of tombstones
+        for (long key = 1_000; key < 1_001_000; key++) {
+            map.put(key, "v" + key);
+            if (key >= 1_100) map.remove(key - 100);
+        }
+        int wrong = 0;
+        for (long key = 1_000; key < 1_001_000; key++) {
+            boolean live = key >= 1_000_900;
+            String value = map.get(key);
+            if (live ? !("v" + key).equals(value) : value != null) wrong++;
+        }
+        List<String> values = map.values();
+        System.out.println("Re-put after remove: " + reput);
+        System.out.println("Size after churn: " + map.size() + " (expected 101), values: " + values.size());
+        System.out.println("Wrong entries: " + wrong);
+        report(reput && wrong == 0 && map.size() == 101 && values.size() == 101);
+    }
+
+    /**
+     * Test 4: Key 0 is kept outside the tables but behaves like any other key
+     */
+    public void testZeroKey() {
+        System.out.println("Test 4: Zero Key");
+        System.out.println("─".repeat(50));
+
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        boolean passed = map.get(0) == null && !map.containsKey(0)
+                && map.put(0, "zero") == null && map.get(0).equals("zero")
+                && map.putIfAbsent(0, "other").equals("zero")
+                && map.put(0, "again").equals("zero")
+                && map.put(Long.MIN_VALUE, "min") == null && map.put(-1, "minus") == null
+                && map.size() == 3 && map.values().contains("again")
+                && map.remove(0).equals("again") && map.get(0) == null && map.remove(0) == null
+                && map.get(Long.MIN_VALUE).equals("min") && map.get(-1).equals("minus")
+                && map.size() == 2
+                && map.computeIfAbsent(0, k -> "made").equals("made") && map.get(0).equals("made");
+        System.out.println("Zero, negative and minimum keys behave like ordinary keys: " + passed);
+        report(passed);
+    }
+
+    /**
+     * Test 5: Racing computeIfAbsent calls create each value once and all see the same one
+     */
+    public void testComputeIfAbsentCreatesOnce() throws Exception {
+        System.out.println("Test 5: computeIfAbsent Uniqueness");
+        System.out.println("─".repeat(50));
+
+        int keys = 20_000;
+        ConcurrentLongMap<Object> map = new ConcurrentLongMap<>(1);
+        AtomicInteger creations = new AtomicInteger();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Object[]>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                Object[] seen = new Object[keys];
+                start.await();
+                for (int key = 0; key < keys; key++) {
+                    seen[key] = map.computeIfAbsent(key, k -> {
+                        creations.incrementAndGet();
+                        return new Object();
+                    });
+                }
+                return seen;
+            }));
+        }
+        List<Object[]> results = new ArrayList<>();
+        for (Future<Object[]> f : futures) results.add(f.get(60, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        int disagreements = 0;
+        for (int key = 0; key < keys; key++) {
+            Object stored = map.get(key);
+            for (Object[] seen : results) {
+                if (seen[key] != stored) disagreements++;
+            }
+        }
+        System.out.println("Creations: " + creations.get() + " (expected " + keys + ")");
+        System.out.println("Threads disagreeing with the stored value: " + disagreements);
+        report(creations.get() == keys && disagreements == 0 && map.size() == keys);
+    }
+
+    /**
+     * Test 6: removeIf drops exactly the matching values, key 0 included, and the slots can be re-put
+     */
+    public void testRemoveIf() {
+        System.out.println("Test 6: removeIf");
+        System.out.println("─".repeat(50));
+
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>(1);
+        for (long key = 0; key < 10_000; key++) {
+            map.put(key, key);
+        }
+        int removed = map.removeIf(v -> v % 3 == 0);
+        int wrong = 0;
+        for (long key = 0; key < 10_000; key++) {
+            Long value = map.get(key);
+            if (key % 3 == 0 ? value != null : value == null || value != key) wrong++;
+        }
+        boolean reput = map.put(0, 0L) == null && map.put(3, 3L) == null && map.get(3) == 3L;
+        System.out.println("Removed: " + removed + " (expected 3334), wrong entries: " + wrong);
+        System.out.println("Size: " + map.size() + " (expected 6668), re-put after removal: " + reput);
+        report(removed == 3334 && wrong == 0 && reput && map.size() == 6668);
+    }
+
+    private static void report(boolean passed) {
+        System.out.println(passed ? "✓ Test passed\n" : "✗ Test failed\n");
+    }
+}
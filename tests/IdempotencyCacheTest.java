@@ -0,0 +1,194 @@
+package com.fortis.tests;
+
+import com.fortis.persistence.IdempotencyCache;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Test IdempotencyCache replay, concurrency, retries and the key file
+ * A key runs its action at most once while it is remembered; results the
+ * remember predicate rejects, and failures, leave the key free for a retry.
+ */
+public class IdempotencyCacheTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final Function<String, String> NO_LOOKUP = id -> null;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== IDEMPOTENCY CACHE TEST ===\n");
+
+        IdempotencyCacheTest test = new IdempotencyCacheTest();
+        test.testReplay();
+        test.testConcurrentDuplicates();
+        test.testRetryAfterRejectedResult();
+        test.testKeyFileReload();
+        test.testSizeBound();
+
+        System.out.println("\n=== ALL TESTS COMPLETED ===");
+    }
+
+    /**
+     * Test 1: A repeated key returns the first result; a null key always runs
+     */
+    public void testReplay() {
+        System.out.println("Test 1: Replay");
+        System.out.println("─".repeat(50));
+
+        IdempotencyCache<String> cache = memoryCache(HOUR, 100);
+        AtomicInteger runs = new AtomicInteger();
+        String first = cache.execute("key-1", () -> "result-" + runs.incrementAndGet(), NO_LOOKUP);
+        String second = cache.execute("key-1", () -> "result-" + runs.incrementAndGet(), NO_LOOKUP);
+        String other = cache.execute("key-2", () -> "result-" + runs.incrementAndGet(), NO_LOOKUP);
+        cache.execute(null, () -> "result-" + runs.incrementAndGet(), NO_LOOKUP);
+        cache.execute(null, () -> "result-" + runs.incrementAndGet(), NO_LOOKUP);
+
+        boolean rejected = false;
+        try {
+            cache.execute("bad\tkey", () -> "x", NO_LOOKUP);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        System.out.println("First: " + first + ", repeat: " + second + ", other key: " + other);
+        System.out.println("Actions run: " + runs.get() + " (expected 4), invalid key rejected: " + rejected);
+        report(first.equals("result-1") && second.equals(first) && other.equals("result-2")
+                && runs.get() == 4 && rejected && cache.size() == 2);
+    }
+
+    /**
+     * Test 2: Duplicates arriving while the first request runs wait for its result
+     */
+    public void testConcurrentDuplicates() throws Exception {
+        System.out.println("Test 2: Concurrent Duplicates");
+        System.out.println("─".repeat(50));
+
+        int threads = 8;
+        IdempotencyCache<String> cache = memoryCache(HOUR, 100);
+        AtomicInteger runs = new AtomicInteger();
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cache.execute("transfer-42", () -> {
+                    sleep(200);
+                    return "result-" + runs.incrementAndGet();
+                }, NO_LOOKUP);
+            }));
+        }
+        int same = 0;
+        for (Future<String> f : futures) {
+            if (f.get(30, TimeUnit.SECONDS).equals("result-1")) same++;
+        }
+        executor.shutdown();
+
+        System.out.println("Actions run: " + runs.get() + " (expected 1)");
+        System.out.println("Callers given the first result: " + same + " of " + threads);
+        report(runs.get() == 1 && same == threads);
+    }
+
+    /**
+     * Test 3: A rejected result or an exception lets the same key run again
+     */
+    public void testRetryAfterRejectedResult() {
+        System.out.println("Test 3: Retry After Rejected Result");
+        System.out.println("─".repeat(50));
+
+        IdempotencyCache<String> cache = memoryCache(HOUR, 100);
+        String failed = cache.execute("key", () -> "failed", NO_LOOKUP);
+        boolean threw = false;
+        try {
+            cache.execute("key", () -> {
+                throw new IllegalStateException("Ledger unavailable");
+            }, NO_LOOKUP);
+        } catch (IllegalStateException e) {
+            threw = true;
+        }
+        String retried = cache.execute("key", () -> "ok-1", NO_LOOKUP);
+        String replayed = cache.execute("key", () -> "ok-2", NO_LOOKUP);
+
+        System.out.println("Rejected: " + failed + ", exception passed on: " + threw);
+        System.out.println("Retry: " + retried + ", then replayed: " + replayed);
+        report(threw && retried.equals("ok-1") && replayed.equals("ok-1"));
+    }
+
+    /**
+     * Test 4: Remembered keys survive a reopen and resolve through the lookup; expired ones do not
+     */
+    public void testKeyFileReload() throws Exception {
+        System.out.println("Test 4: Key File Reload");
+        System.out.println("─".repeat(50));
+
+        File file = Files.createTempFile("fortis-idempotency", ".keys").toFile();
+        file.deleteOnExit();
+        try (IdempotencyCache<String> cache = fileCache(file, HOUR)) {
+            cache.execute("kept", () -> "ok-1", NO_LOOKUP);
+            cache.execute("forgotten", () -> "failed", NO_LOOKUP);
+        }
+
+        AtomicInteger runs = new AtomicInteger();
+        String replayed;
+        String rerun;
+        try (IdempotencyCache<String> cache = fileCache(file, HOUR)) {
+            replayed = cache.execute("kept", () -> "ok-" + (10 + runs.incrementAndGet()),
+                    id -> id.equals("ok-1") ? "resolved " + id : null);
+            rerun = cache.execute("forgotten", () -> "ok-" + (10 + runs.incrementAndGet()), NO_LOOKUP);
+        }
+        boolean expired;
+        try (IdempotencyCache<String> cache = fileCache(file, 0)) {
+            expired = cache.size() == 0;
+        }
+
+        System.out.println("Reloaded key: " + replayed + ", forgotten key ran again: " + rerun);
+        System.out.println("Expired keys dropped on reload: " + expired);
+        report(replayed.equals("resolved ok-1") && rerun.equals("ok-11") && runs.get() == 1 && expired);
+    }
+
+    /**
+     * Test 5: The oldest keys are evicted beyond the size bound
+     */
+    public void testSizeBound() {
+        System.out.println("Test 5: Size Bound");
+        System.out.println("─".repeat(50));
+
+        IdempotencyCache<String> cache = memoryCache(HOUR, 100);
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            cache.execute("key-" + i, () -> "ok-" + n, NO_LOOKUP);
+        }
+        String newest = cache.execute("key-999", () -> "rerun", NO_LOOKUP);
+        String oldest = cache.execute("key-0", () -> "rerun", NO_LOOKUP);
+
+        System.out.println("Size: " + cache.size() + " (bound 100)");
+        System.out.println("Newest replayed: " + newest + ", oldest evicted and rerun: " + oldest);
+        report(cache.size() <= 101 && newest.equals("ok-999") && oldest.equals("rerun"));
+    }
+
+    private static IdempotencyCache<String> memoryCache(long ttlMillis, int maxEntries) {
+        return new IdempotencyCache<>("test", null, ttlMillis, maxEntries,
+                Function.identity(), result -> result.startsWith("ok") || result.startsWith("result"));
+    }
+
+    private static IdempotencyCache<String> fileCache(File file, long ttlMillis) {
+        return new IdempotencyCache<>("test", file, ttlMillis, 100,
+                Function.identity(), result -> result.startsWith("ok"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(boolean passed) {
+        System.out.println(passed ? "✓ Test passed\n" : "✗ Test failed\n");
+    }
+}
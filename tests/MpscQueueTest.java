@@ -0,0 +1,112 @@
+package com.fortis.tests;
+
+import com.fortis.utils.MpscQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Test MpscQueue with many producers and one consumer
+ * Every offered element must be polled exactly once, and each producer's
+ * elements must come out in the order it offered them.
+ */
+public class MpscQueueTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== MPSC QUEUE TEST ===\n");
+
+        MpscQueueTest test = new MpscQueueTest();
+        test.testSingleThreadFifo();
+        test.testConcurrentProducers();
+
+        System.out.println("\n=== ALL TESTS COMPLETED ===");
+    }
+
+    /**
+     * Test 1: Interleaved offers and polls on one thread are first in, first out
+     */
+    public void testSingleThreadFifo() {
+        System.out.println("Test 1: Single-Thread FIFO");
+        System.out.println("─".repeat(50));
+
+        MpscQueue<Integer> queue = new MpscQueue<>();
+        boolean passed = queue.isEmpty() && queue.poll() == null;
+        int next = 0;
+        int expected = 0;
+        for (int round = 1; round <= 100; round++) {
+            for (int i = 0; i < round; i++) {
+                queue.offer(next++);
+            }
+            for (int i = 0; i < round / 2 + 1 && !queue.isEmpty(); i++) {
+                passed &= queue.poll() == expected++;
+            }
+        }
+        Integer value;
+        while ((value = queue.poll()) != null) {
+            passed &= value == expected++;
+        }
+        passed &= expected == next && queue.isEmpty();
+
+        boolean nullRejected = false;
+        try {
+            queue.offer(null);
+        } catch (NullPointerException e) {
+            nullRejected = true;
+        }
+        System.out.println("Polled " + expected + " of " + next + " in order: " + passed);
+        System.out.println("Null rejected: " + nullRejected);
+        report(passed && nullRejected && queue.poll() == null);
+    }
+
+    /**
+     * Test 2: Producers racing on the tail lose nothing and keep their own order
+     */
+    public void testConcurrentProducers() throws Exception {
+        System.out.println("Test 2: Concurrent Producers");
+        System.out.println("─".repeat(50));
+
+        MpscQueue<long[]> queue = new MpscQueue<>();
+        CyclicBarrier start = new CyclicBarrier(PRODUCERS);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long seq = 0; seq < PER_PRODUCER; seq++) {
+                    queue.offer(new long[] {producer, seq});
+                }
+                return null;
+            }));
+        }
+
+        long[] nextSeq = new long[PRODUCERS];
+        int received = 0;
+        int outOfOrder = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (received < PRODUCERS * PER_PRODUCER && System.nanoTime() < deadline) {
+            long[] element = queue.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (element[1] != nextSeq[(int) element[0]]) outOfOrder++;
+            nextSeq[(int) element[0]] = element[1] + 1;
+            received++;
+        }
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        System.out.println("Received: " + received + " (expected " + PRODUCERS * PER_PRODUCER + ")");
+        System.out.println("Out of order: " + outOfOrder + ", left over: " + !queue.isEmpty());
+        report(received == PRODUCERS * PER_PRODUCER && outOfOrder == 0 && queue.poll() == null);
+    }
+
+    private static void report(boolean passed) {
+        System.out.println(passed ? "✓ Test passed\n" : "✗ Test failed\n");
+    }
+}
@@ -0,0 +1,173 @@
+package com.fortis.tests;
+
+import com.fortis.model.BankAccount.AccountStatus;
+import com.fortis.persistence.OffHeapAccountTable;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Off-heap account table benchmark: footprint, build time and transfers
+ * Builds a table of dense account ids, alternating savings and current
+ * accounts, and measures the direct memory it reserves (as reported by the
+ * JVM's direct buffer pool), the heap it adds, and the time to build it.
+ * Then runs random transfers from several threads and checks that money is
+ * conserved, that floors hold, that a frozen account is never touched, and
+ * that balance and version read back as a pair. Results are written as
+ * JMH-compatible JSON.
+ *
+ * System properties:
+ *   bench.accounts      - accounts (default 10000000)
+ *   bench.threads       - transfer threads (default 4)
+ *   bench.iterations    - measurement iterations (default 3)
+ *   bench.seconds       - seconds of transfers per iteration (default 1)
+ *   bench.out           - JSON output path (default bench-results/offheap-accounts.json)
+ */
+public class OffHeapAccountTableBenchmark {
+
+    private static final long OPENING_CENTS = 500_000;
+    private static final int BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int accounts = Integer.getInteger("bench.accounts", 10_000_000);
+        int threads = Integer.getInteger("bench.threads", 4);
+        int iterations = Integer.getInteger("bench.iterations", 3);
+        int seconds = Integer.getInteger("bench.seconds", 1);
+
+        System.out.println("=== OFF-HEAP ACCOUNT TABLE BENCHMARK ===\n");
+        System.out.println(accounts + " accounts, " + threads + " transfer threads\n");
+        BenchmarkReport report = new BenchmarkReport();
+        System.out.println(String.format("%-9s %12s %12s %10s %14s", "Iteration", "direct MB", "heap B/acct", "build ms", "transfers/s"));
+        System.out.println("─".repeat(61));
+
+        double[] direct = new double[iterations];
+        double[] heap = new double[iterations];
+        double[] build = new double[iterations];
+        double[] throughput = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long directBefore = settledDirectMemory();
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            OffHeapAccountTable table = build(accounts);
+            build[i] = (System.nanoTime() - start) / 1e6;
+            heap[i] = (double) (usedHeap() - heapBefore) / accounts;
+            direct[i] = (directMemory() - directBefore) / (1024.0 * 1024.0);
+            if (table.allocatedBytes() > directMemory() - directBefore) {
+                throw new IllegalStateException("Direct buffer pool does not cover the table");
+            }
+
+            throughput[i] = transfer(table, accounts, threads, seconds);
+            verify(table, accounts);
+            System.out.println(String.format("%-9d %12.1f %12.2f %10.0f %14.0f",
+                    i + 1, direct[i], heap[i], build[i], throughput[i]));
+            table = null;
+        }
+
+        report.add("com.fortis.persistence.OffHeapAccountTable.directMemory", "ss",
+                BenchmarkReport.params("accounts", accounts), direct, "MB", 1);
+        report.add("com.fortis.persistence.OffHeapAccountTable.heapFootprint", "ss",
+                BenchmarkReport.params("accounts", accounts), heap, "B/account", 1);
+        report.add("com.fortis.persistence.OffHeapAccountTable.build", "ss",
+                BenchmarkReport.params("accounts", accounts), build, "ms", 1);
+        report.add("com.fortis.persistence.OffHeapAccountTable.transfer", "thrpt",
+                BenchmarkReport.params("accounts", accounts), throughput, "ops/s", threads);
+        report.write(System.getProperty("bench.out", "bench-results/offheap-accounts.json"));
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    private static OffHeapAccountTable build(int accounts) {
+        OffHeapAccountTable table = new OffHeapAccountTable();
+        for (long id = 1; id <= accounts; id++) {
+            table.create(id, id % 2 == 1 ? OffHeapAccountTable.TYPE_SAVINGS : OffHeapAccountTable.TYPE_CURRENT,
+                    (id + 1) / 2, OPENING_CENTS);
+        }
+        table.setStatus(accounts, AccountStatus.FROZEN); // transfers to or from it must be refused
+        return table;
+    }
+
+    /**
+     * Random transfers from all threads for the given time; returns successful transfers per second
+     */
+    private static double transfer(OffHeapAccountTable table, int accounts, int threads, int seconds)
+            throws InterruptedException {
+        AtomicLong total = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long done = 0;
+                do {
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        long from = rnd.nextInt(accounts) + 1L;
+                        long to = rnd.nextInt(accounts) + 1L;
+                        if (from != to && table.transfer(from, to, rnd.nextLong(1, 200_000))) done++;
+                    }
+                } while (System.nanoTime() < deadline);
+                total.addAndGet(done);
+            });
+            workers[t].start();
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return total.get() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Money is conserved, floors hold, and balance and version agree as a pair
+     */
+    private static void verify(OffHeapAccountTable table, int accounts) {
+        long sum = 0;
+        for (long id = 1; id <= accounts; id++) {
+            long[] pair = table.getBalanceAndVersion(id);
+            if (pair[0] < table.getFloorCents(id) || pair[1] != table.getVersion(id)
+                    || pair[0] != table.getBalanceCents(id)) {
+                throw new IllegalStateException("Account " + id + " reads back inconsistently");
+            }
+            sum += pair[0];
+        }
+        if (sum != OPENING_CENTS * accounts) {
+            throw new IllegalStateException("Money not conserved: " + sum + " != " + OPENING_CENTS * accounts);
+        }
+        if (table.getBalanceCents(accounts) != OPENING_CENTS || table.getVersion(accounts) != 2) {
+            throw new IllegalStateException("Frozen account changed");
+        }
+    }
+
+    /**
+     * Direct memory in use once the buffers of earlier tables have been freed;
+     * their cleaners run after the GC that finds them, so wait for it to stop falling
+     */
+    private static long settledDirectMemory() throws InterruptedException {
+        long previous;
+        long current = directMemory();
+        do {
+            previous = current;
+            usedHeap();
+            Thread.sleep(100);
+            current = directMemory();
+        } while (current < previous);
+        return current;
+    }
+
+    private static long directMemory() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        throw new IllegalStateException("No direct buffer pool");
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
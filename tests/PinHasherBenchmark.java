@@ -0,0 +1,111 @@
+package com.fortis.tests;
+
+import com.fortis.utils.Pbkdf2PinHasher;
+import com.fortis.utils.PinHasher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Login throughput benchmark for the PIN hasher
+ * Runs PIN verification at a fixed concurrency for several PBKDF2 cost
+ * factors and reports throughput and latency percentiles, so a cost can
+ * be picked that keeps login p99 within budget at peak load.
+ *
+ * Usage: PinHasherBenchmark [threads] [secondsPerCost] [cost1,cost2,...]
+ */
+public class PinHasherBenchmark {
+
+    private static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int DEFAULT_SECONDS = 5;
+    private static final int WARMUP_SECONDS = 2;
+    private static final int[] DEFAULT_COSTS = {1000, 5000, 10000, 25000, 50000, 100000};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int[] costs = args.length > 2
+                ? Arrays.stream(args[2].split(",")).mapToInt(Integer::parseInt).toArray()
+                : DEFAULT_COSTS;
+
+        System.out.println("=== PIN HASHER LOGIN BENCHMARK ===\n");
+        System.out.println("Threads: " + threads + ", measurement: " + seconds + "s per cost\n");
+        System.out.println(String.format("%-10s %12s %10s %10s %10s %10s",
+                "Iterations", "Logins/sec", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        System.out.println("─".repeat(67));
+
+        for (int cost : costs) {
+            PinHasher hasher = new Pbkdf2PinHasher(cost);
+            String stored = hasher.hash("1234");
+
+            run(hasher, stored, threads, WARMUP_SECONDS);
+            Result result = run(hasher, stored, threads, seconds);
+
+            System.out.println(String.format("%-10d %12.1f %10.2f %10.2f %10.2f %10.2f",
+                    cost, result.throughput, result.percentile(50), result.percentile(99),
+                    result.percentile(99.9), result.percentile(100)));
+        }
+
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    /**
+     * Verify the PIN from all threads for the given duration
+     */
+    private static Result run(PinHasher hasher, String stored, int threads, int seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                start.await();
+                long end = System.nanoTime() + durationNanos;
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    if (!hasher.matches("1234", stored)) {
+                        throw new IllegalStateException("PIN verification failed");
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - now;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        List<long[]> perThread = new ArrayList<>();
+        for (Future<long[]> f : futures) {
+            perThread.add(f.get());
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        long[] all = perThread.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, all.length / (elapsed / 1e9));
+    }
+
+    private static class Result {
+        final long[] sortedNanos;
+        final double throughput;
+
+        Result(long[] sortedNanos, double throughput) {
+            this.sortedNanos = sortedNanos;
+            this.throughput = throughput;
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) return 0;
+            int idx = (int) Math.ceil(p / 100.0 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, Math.min(idx, sortedNanos.length - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.fortis.tests;
+
+import com.fortis.model.BankAccount;
+import com.fortis.model.CurrentAccount;
+import com.fortis.model.TransactionRecord;
+import com.fortis.model.TransactionRecord.TransactionStatus;
+import com.fortis.model.TransactionRecord.TransactionType;
+import com.fortis.model.User;
+import com.fortis.persistence.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Side-by-side latency benchmark for the repository backends
+ * Every operation the services perform is timed against the memory, file
+ * and JDBC repositories. Each iteration starts from an empty store seeded
+ * with the same accounts, users and loans, so append-heavy operations do
+ * not carry state between iterations. Results are written as
+ * JMH-compatible JSON.
+ *
+ * The JDBC backend uses an embedded in-memory H2 database in MySQL mode by
+ * default; it is skipped if the driver is not on the classpath.
+ *
+ * System properties:
+ *   bench.backends      - comma-separated backends (default memory,file,jdbc)
+ *   bench.ops           - operations to run (default all)
+ *   bench.accounts      - seeded accounts, users and loans (default 1000)
+ *   bench.iterations    - measurement iterations (default 5)
+ *   bench.seconds       - seconds per iteration (default 1)
+ *   bench.maxOps        - cap on operations per iteration (default 1000000)
+ *   bench.jdbc.url      - JDBC URL (default jdbc:h2:mem:fortis_repo;MODE=MySQL;DB_CLOSE_DELAY=-1)
+ *   bench.out           - JSON output path (default bench-results/repositories.json)
+ */
+public class RepositoryBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int BATCH_SIZE = 100;
+    private static final String[] OPS = {
+        "accountSave", "accountLoad", "transactionAppend", "userSave",
+        "loanAppend", "loanUpdate", "loanByUser", "notificationAppend", "notificationPage"
+    };
+    private static final String[] TABLES = {
+        "service_accounts", "service_transactions", "service_users",
+        "service_loans", "service_notifications", "service_notification_reads"
+    };
+
+    private final File tempDir;
+    private final int accountCount = Integer.getInteger("bench.accounts", 1000);
+    private final long maxOps = Long.getLong("bench.maxOps", 1_000_000);
+    private Connection conn;
+
+    private Repositories repositories;
+    private BankAccount[] accounts;
+    private User[] users;
+    private long sequence;
+
+    private RepositoryBenchmark(File tempDir) {
+        this.tempDir = tempDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File tempDir = Files.createTempDirectory("fortis-repo-bench").toFile();
+        System.out.println("=== REPOSITORY BENCHMARK ===\n");
+        System.out.println("Data dir: " + tempDir + "\n");
+        new RepositoryBenchmark(tempDir).run();
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    private void run() throws Exception {
+        String[] backends = System.getProperty("bench.backends", "memory,file,jdbc").split(",");
+        String[] ops = System.getProperty("bench.ops", String.join(",", OPS)).split(",");
+        int iterations = Integer.getInteger("bench.iterations", 5);
+        int seconds = Integer.getInteger("bench.seconds", 1);
+
+        BenchmarkReport report = new BenchmarkReport();
+        System.out.println(String.format("%-20s %-8s %14s %12s", "Operation", "Backend", "ns/op", "± error"));
+        System.out.println("─".repeat(57));
+
+        for (String backend : backends) {
+            if (Repositories.JDBC.equals(backend) && !openDatabase()) {
+                continue;
+            }
+            for (String op : ops) {
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    iteration(backend, op, seconds);
+                }
+                double[] samples = new double[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    samples[i] = iteration(backend, op, seconds);
+                }
+                double mean = BenchmarkReport.mean(samples);
+                double error = iterations > 1
+                        ? 3.29 * BenchmarkReport.stdDev(samples, mean) / Math.sqrt(iterations) : 0;
+                System.out.println(String.format("%-20s %-8s %14.1f %12.1f", op, backend, mean, error));
+
+                report.add("com.fortis.persistence.Repositories." + op, "avgt",
+                        BenchmarkReport.params("backend", backend, "accounts", accountCount),
+                        samples, "ns/op", 1);
+            }
+        }
+        if (conn != null) {
+            conn.close();
+        }
+
+        report.write(System.getProperty("bench.out", "bench-results/repositories.json"));
+    }
+
+    private boolean openDatabase() {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:h2:mem:fortis_repo;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try {
+            conn = DriverManager.getConnection(url, "sa", "");
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Skipping jdbc: cannot open " + url + " (" + e.getMessage() + ")");
+            return false;
+        }
+    }
+
+    /**
+     * Fresh, seeded repositories for one iteration, then time the operation
+     */
+    private double iteration(String backend, String op, int seconds) throws Exception {
+        setUp(backend);
+        try {
+            return measure(op, seconds);
+        } finally {
+            repositories.close();
+        }
+    }
+
+    private void setUp(String backend) throws Exception {
+        File dir = new File(tempDir, backend + "-" + (sequence++));
+        if (conn != null) {
+            try (Statement stmt = conn.createStatement()) {
+                for (String table : TABLES) {
+                    stmt.execute("DROP TABLE IF EXISTS " + table);
+                }
+            }
+        }
+        repositories = new Repositories(backend, dir, () -> conn);
+
+        accounts = new BankAccount[accountCount];
+        users = new User[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = new CurrentAccount(i + 1, String.format("ACC%04d", i + 1), "Bench " + i,
+                    new BigDecimal("100000.00"), new BigDecimal("100000.00"), i + 1);
+            repositories.accounts().save(accounts[i]);
+            users[i] = new User(i + 1, "bench" + i, "pbkdf2$1$salt$hash", User.UserRole.CUSTOMER,
+                    LocalDateTime.now());
+            repositories.users().save(users[i]);
+            repositories.loans().append("LN-" + i, i + 1, 1000, 12, "bench", "PENDING", "today");
+            repositories.notifications().append(i + 1, "Welcome", "today");
+        }
+        repositories.transactions();
+    }
+
+    /**
+     * Run the operation in batches until the time or op budget is spent; returns ns/op
+     */
+    private double measure(String op, int seconds) throws IOException {
+        long budget = seconds * 1_000_000_000L;
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                perform(op, ops + i);
+            }
+            ops += BATCH_SIZE;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < budget && ops < maxOps);
+        return (double) elapsed / ops;
+    }
+
+    private void perform(String op, long n) throws IOException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int i = rnd.nextInt(accountCount);
+        switch (op) {
+            case "accountSave":
+                accounts[i].setBalance(BigDecimal.valueOf(rnd.nextLong(1, 1_000_000), 2));
+                repositories.accounts().save(accounts[i]);
+                break;
+            case "accountLoad":
+                if (n % accountCount == 0) {
+                    repositories.accounts().findAll(); // amortised over accountCount ops
+                }
+                break;
+            case "transactionAppend":
+                repositories.transactions().append(new TransactionRecord("TXN-" + n, i + 1, 0,
+                        new BigDecimal("10.00"), TransactionType.WITHDRAWAL, "bench", TransactionStatus.COMPLETED));
+                break;
+            case "userSave":
+                users[i].setLocked(!users[i].isLocked());
+                repositories.users().save(users[i]);
+                break;
+            case "loanAppend":
+                repositories.loans().append("LB-" + n, i + 1, 500, 6, "bench", "PENDING", "today");
+                break;
+            case "loanUpdate":
+                repositories.loans().updateStatus("LN-" + i, (n & 1) == 0 ? "APPROVED" : "PENDING");
+                break;
+            case "loanByUser":
+                repositories.loans().getByUser(i + 1);
+                break;
+            case "notificationAppend":
+                repositories.notifications().append(i + 1, "Received $10.00", "today");
+                break;
+            case "notificationPage":
+                repositories.notifications().readPage(i + 1, 0, 10);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + op);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.fortis.tests;
+
+import com.fortis.core.Account;
+import com.fortis.core.Transaction;
+import com.fortis.managers.AccountManager;
+import com.fortis.managers.RiskEngine;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency benchmark for RiskEngine scoring and the AccountManager reads it uses
+ * Runs against any JDBC database, by default an embedded in-memory H2 in MySQL
+ * mode, so scoring can be measured without a live MySQL server. The ledger
+ * tables are created with the columns the managers query and seeded at
+ * several transaction table sizes; each risk factor and the end-to-end score
+ * are timed separately. Results are written as JMH-compatible JSON.
+ *
+ * The embedded driver is not bundled; put the H2 jar in lib/ and add it to the
+ * classpath, or point bench.jdbc.url at any other database.
+ *
+ * System properties:
+ *   bench.jdbc.url      - JDBC URL (default jdbc:h2:mem:fortis_bench;MODE=MySQL;DB_CLOSE_DELAY=-1)
+ *   bench.jdbc.user     - JDBC user (default sa)
+ *   bench.jdbc.password - JDBC password (default empty)
+ *   bench.accounts      - number of seeded accounts (default 1000)
+ *   bench.rows          - comma-separated transaction table sizes (default 10000,100000,1000000)
+ *   bench.iterations    - measurement iterations (default 5)
+ *   bench.seconds       - seconds per iteration (default 1)
+ *   bench.out           - JSON output path (default bench-results/risk_engine.json)
+ */
+public class RiskEngineBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] FACTORS = {
+        "amount", "frequency", "accountAge", "velocity", "status", "getAccount", "todayTotal", "evaluate"
+    };
+
+    private static final String[] DDL = {
+        "DROP TABLE IF EXISTS transactions",
+        "DROP TABLE IF EXISTS accounts",
+        "CREATE TABLE accounts (" +
+            "account_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+            "account_number VARCHAR(20) NOT NULL UNIQUE, " +
+            "account_holder VARCHAR(100) NOT NULL, " +
+            "balance DECIMAL(15,2) NOT NULL, " +
+            "account_type VARCHAR(10) NOT NULL, " +
+            "status VARCHAR(10) NOT NULL, " +
+            "created_at TIMESTAMP NOT NULL, " +
+            "daily_limit DECIMAL(15,2) NOT NULL, " +
+            "risk_level VARCHAR(10) DEFAULT 'LOW', " +
+            "last_transaction_at TIMESTAMP NULL)",
+        "CREATE TABLE transactions (" +
+            "transaction_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+            "transaction_uuid VARCHAR(36) NOT NULL UNIQUE, " +
+            "from_account_id BIGINT NOT NULL, " +
+            "to_account_id BIGINT NOT NULL, " +
+            "amount DECIMAL(15,2) NOT NULL, " +
+            "state VARCHAR(15) NOT NULL, " +
+            "risk_score INT DEFAULT 0, " +
+            "risk_factors VARCHAR(500), " +
+            "description VARCHAR(255), " +
+            "initiated_at TIMESTAMP NOT NULL, " +
+            "completed_at TIMESTAMP NULL, " +
+            "error_message VARCHAR(500))",
+        "CREATE INDEX idx_txn_from_state_time ON transactions (from_account_id, state, initiated_at)",
+        "CREATE INDEX idx_txn_to_time ON transactions (to_account_id, initiated_at)"
+    };
+
+    private final RiskEngine riskEngine = new RiskEngine();
+    private final AccountManager accountManager = new AccountManager();
+    private Connection conn;
+    private long[] accountIds;
+    private Account[] accounts;
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:h2:mem:fortis_bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        System.out.println("=== RISK ENGINE BENCHMARK ===\n");
+        System.out.println("JDBC URL: " + url + "\n");
+
+        RiskEngineBenchmark bench = new RiskEngineBenchmark();
+        try {
+            bench.conn = DriverManager.getConnection(url,
+                    System.getProperty("bench.jdbc.user", "sa"),
+                    System.getProperty("bench.jdbc.password", ""));
+        } catch (SQLException e) {
+            System.err.println("Cannot open " + url + ": " + e.getMessage());
+            System.err.println("Add the H2 driver jar from lib/ to the classpath or set -Dbench.jdbc.url");
+            System.exit(1);
+        }
+
+        try {
+            bench.run();
+        } finally {
+            bench.conn.close();
+        }
+
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    private void run() throws Exception {
+        int accountCount = Integer.getInteger("bench.accounts", 1000);
+        int[] rowCounts = Arrays.stream(System.getProperty("bench.rows", "10000,100000,1000000").split(","))
+                .mapToInt(Integer::parseInt).sorted().toArray();
+        int iterations = Integer.getInteger("bench.iterations", 5);
+        int seconds = Integer.getInteger("bench.seconds", 1);
+
+        BenchmarkReport report = new BenchmarkReport();
+        System.out.println(String.format("%-12s %10s %14s %12s", "Factor", "Rows", "ns/op", "± error"));
+        System.out.println("─".repeat(51));
+
+        for (int rows : rowCounts) {
+            seed(accountCount, rows);
+            for (String factor : FACTORS) {
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    measure(factor, seconds);
+                }
+                double[] samples = new double[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    samples[i] = measure(factor, seconds);
+                }
+                double mean = BenchmarkReport.mean(samples);
+                double error = iterations > 1
+                        ? 3.29 * BenchmarkReport.stdDev(samples, mean) / Math.sqrt(iterations) : 0;
+                System.out.println(String.format("%-12s %10d %14.1f %12.1f", factor, rows, mean, error));
+
+                report.add("com.fortis.managers.RiskEngine." + factor, "avgt",
+                        BenchmarkReport.params("accounts", accountCount, "rows", rows),
+                        samples, "ns/op", 1);
+            }
+        }
+
+        report.write(System.getProperty("bench.out", "bench-results/risk_engine.json"));
+    }
+
+    /**
+     * Recreate the ledger tables and fill them with accounts and transaction history
+     * History is spread over the last 60 days with a share of it in the last
+     * hour, so the frequency and velocity windows match realistic row counts.
+     */
+    private void seed(int accountCount, int rows) throws SQLException {
+        long start = System.currentTimeMillis();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : DDL) {
+                stmt.execute(sql);
+            }
+        }
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        LocalDateTime now = LocalDateTime.now();
+        String[] riskLevels = {"LOW", "LOW", "LOW", "MEDIUM", "HIGH"};
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO accounts (account_number, account_holder, balance, account_type, status, " +
+                "created_at, daily_limit, risk_level) VALUES (?, ?, ?, ?, 'ACTIVE', ?, 100000.00, ?)")) {
+            for (int i = 0; i < accountCount; i++) {
+                stmt.setString(1, String.format("ACC%010d", i));
+                stmt.setString(2, "Bench " + i);
+                stmt.setBigDecimal(3, BigDecimal.valueOf(rnd.nextLong(1_000, 500_000)));
+                stmt.setString(4, i % 2 == 0 ? "SAVINGS" : "CURRENT");
+                stmt.setTimestamp(5, Timestamp.valueOf(now.minusDays(rnd.nextInt(0, 365))));
+                stmt.setString(6, riskLevels[rnd.nextInt(riskLevels.length)]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        accountIds = new long[accountCount];
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT account_id FROM accounts ORDER BY account_id")) {
+            int i = 0;
+            while (rs.next() && i < accountCount) {
+                accountIds[i++] = rs.getLong(1);
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO transactions (transaction_uuid, from_account_id, to_account_id, amount, state, " +
+                "risk_score, description, initiated_at, completed_at) VALUES (?, ?, ?, ?, ?, ?, 'bench', ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                long from = accountIds[rnd.nextInt(accountCount)];
+                long to = accountIds[rnd.nextInt(accountCount)];
+                LocalDateTime at = rnd.nextInt(10) == 0
+                        ? now.minusSeconds(rnd.nextInt(3600))
+                        : now.minusMinutes(rnd.nextInt(60 * 24 * 60));
+                stmt.setString(1, new java.util.UUID(rnd.nextLong(), i).toString());
+                stmt.setLong(2, from);
+                stmt.setLong(3, to);
+                stmt.setBigDecimal(4, BigDecimal.valueOf(rnd.nextLong(1, 20_000)));
+                stmt.setString(5, rnd.nextInt(20) == 0 ? "ROLLED_BACK" : "COMMITTED");
+                stmt.setInt(6, rnd.nextInt(0, 80));
+                stmt.setTimestamp(7, Timestamp.valueOf(at));
+                stmt.setTimestamp(8, Timestamp.valueOf(at.plusNanos(5_000_000)));
+                stmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+
+        accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = accountManager.getAccount(accountIds[i], conn);
+        }
+        System.out.println(String.format("  seeded %d accounts, %d transactions in %d ms",
+                accountCount, rows, System.currentTimeMillis() - start));
+    }
+
+    /**
+     * Run one iteration of a factor and return the average ns per call
+     */
+    private double measure(String factor, int seconds) throws SQLException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        long ops = 0;
+        long sink = 0;
+        long begin = System.nanoTime();
+        long end = begin + durationNanos;
+
+        while (System.nanoTime() < end) {
+            int a = rnd.nextInt(accountIds.length);
+            int b = rnd.nextInt(accountIds.length);
+            switch (factor) {
+                case "amount":
+                    sink += riskEngine.calculateAmountRisk(BigDecimal.valueOf(rnd.nextLong(1, 80_000)),
+                            accounts[a].getBalance());
+                    break;
+                case "frequency":
+                    sink += riskEngine.calculateFrequencyRisk(accountIds[a], conn);
+                    break;
+                case "accountAge":
+                    sink += riskEngine.calculateAccountAgeRisk(accounts[a]);
+                    break;
+                case "velocity":
+                    sink += riskEngine.calculateVelocityRisk(accountIds[a], conn);
+                    break;
+                case "status":
+                    sink += riskEngine.calculateStatusRisk(accounts[a], accounts[b]);
+                    break;
+                case "getAccount":
+                    sink += accountManager.getAccount(accountIds[a], conn).getAccountId();
+                    break;
+                case "todayTotal":
+                    sink += accountManager.getTodayTransferTotal(accountIds[a], conn).signum();
+                    break;
+                case "evaluate":
+                    Transaction txn = new Transaction(accountIds[a], accountIds[b],
+                            BigDecimal.valueOf(rnd.nextLong(1, 80_000)), "bench");
+                    sink += riskEngine.evaluateTransaction(txn, conn).getTotalScore();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown factor: " + factor);
+            }
+            ops++;
+        }
+
+        long elapsed = System.nanoTime() - begin;
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink); // keep results live
+        }
+        return (double) elapsed / Math.max(1, ops);
+    }
+}
@@ -0,0 +1,164 @@
+package com.fortis.tests;
+
+import com.fortis.service.SequencedBankingCore;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput benchmark for SequencedBankingCore
+ * Publisher threads push deposits, withdrawals or transfers into the ring and
+ * count completions from the callbacks; an iteration ends when every
+ * published command has been applied. Afterwards the journal is replayed
+ * into a fresh core and the balances are compared with the live ones.
+ * The audit and persistence stages are off, so the numbers are the
+ * journaler and business-logic path. Results are written as JMH-compatible JSON.
+ *
+ * System properties:
+ *   bench.accounts   - accounts to open (default 10000)
+ *   bench.threads    - comma-separated publisher thread counts (default 1,4)
+ *   bench.ops        - operations to run (default deposit,withdraw,transfer)
+ *   bench.ring       - ring size (default 65536)
+ *   bench.sync       - fsync every journal batch (default false)
+ *   bench.iterations - measurement iterations (default 5)
+ *   bench.seconds    - seconds per iteration (default 1)
+ *   bench.out        - JSON output path (default bench-results/sequenced_core.json)
+ */
+public class SequencedCoreBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    private final int accountCount = Integer.getInteger("bench.accounts", 10000);
+    private final int ringSize = Integer.getInteger("bench.ring", 65536);
+    private final boolean sync = Boolean.getBoolean("bench.sync");
+    private final LongAdder completed = new LongAdder();
+    private final SequencedBankingCore.Callback callback = (id, record, error) -> completed.increment();
+
+    public static void main(String[] args) throws Exception {
+        File tempDir = Files.createTempDirectory("fortis-core-bench").toFile();
+        System.out.println("=== SEQUENCED CORE BENCHMARK ===\n");
+        System.out.println("Journal dir: " + tempDir + "\n");
+        new SequencedCoreBenchmark().run(new File(tempDir, "commands.journal"));
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    private void run(File journalFile) throws Exception {
+        int[] threadCounts = Arrays.stream(System.getProperty("bench.threads", "1,4").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        String[] ops = System.getProperty("bench.ops", "deposit,withdraw,transfer").split(",");
+        int iterations = Integer.getInteger("bench.iterations", 5);
+        int seconds = Integer.getInteger("bench.seconds", 1);
+
+        SequencedBankingCore core = new SequencedBankingCore(journalFile, ringSize, sync, null, null, null);
+        CountDownLatch opened = new CountDownLatch(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            core.openAccount("Bench " + i, "CURRENT", INITIAL_BALANCE, 1L, (id, record, error) -> opened.countDown());
+        }
+        opened.await();
+
+        BenchmarkReport report = new BenchmarkReport();
+        System.out.println(String.format("%-10s %8s %16s %12s", "Operation", "Threads", "ops/sec", "± error"));
+        System.out.println("─".repeat(49));
+
+        for (String op : ops) {
+            for (int threads : threadCounts) {
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    measure(core, op, threads, seconds);
+                }
+                double[] samples = new double[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    samples[i] = measure(core, op, threads, seconds);
+                }
+                double mean = BenchmarkReport.mean(samples);
+                double error = iterations > 1
+                        ? 3.29 * BenchmarkReport.stdDev(samples, mean) / Math.sqrt(iterations) : 0;
+                System.out.println(String.format("%-10s %8d %16.1f %12.1f", op, threads, mean, error));
+
+                report.add("com.fortis.service.SequencedBankingCore." + op, "thrpt",
+                        BenchmarkReport.params("accounts", accountCount, "ringSize", ringSize, "sync", sync),
+                        samples, "ops/s", threads);
+            }
+        }
+        long commands = core.getAppliedSequence() + 1;
+        core.close();
+
+        // Replay the journal into a fresh core and check it reproduces the live state
+        long start = System.nanoTime();
+        SequencedBankingCore replayed = new SequencedBankingCore(journalFile, ringSize, sync, null, null, null);
+        double replaySeconds = (System.nanoTime() - start) / 1e9;
+        int mismatches = 0;
+        for (long id = 1; id <= accountCount; id++) {
+            if (core.getAccount(id).getBalance().compareTo(replayed.getAccount(id).getBalance()) != 0) {
+                mismatches++;
+            }
+        }
+        replayed.close();
+        System.out.println(String.format("\nReplay: %d commands in %.2f s (%.0f commands/s), %d balance mismatches",
+                commands, replaySeconds, commands / replaySeconds, mismatches));
+        report.add("com.fortis.service.SequencedBankingCore.replay", "thrpt",
+                BenchmarkReport.params("accounts", accountCount, "commands", commands),
+                new double[]{commands / replaySeconds}, "ops/s", 1);
+
+        report.write(System.getProperty("bench.out", "bench-results/sequenced_core.json"));
+    }
+
+    /**
+     * Publish for the given time, wait until everything is applied, return applied ops per second
+     */
+    private double measure(SequencedBankingCore core, String op, int threads, int seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder submitted = new LongAdder();
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> futures = new ArrayList<>();
+        long completedBefore = completed.sum();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                start.await();
+                long end = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < end) {
+                    long from = 1 + rnd.nextInt(accountCount);
+                    switch (op) {
+                        case "deposit":
+                            core.deposit(from, AMOUNT, "bench", callback);
+                            break;
+                        case "withdraw":
+                            core.withdraw(from, AMOUNT, "bench", callback);
+                            break;
+                        case "transfer":
+                            long to = 1 + rnd.nextInt(accountCount);
+                            if (to == from) continue;
+                            core.transfer(from, to, AMOUNT, "bench", callback);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown operation: " + op);
+                    }
+                    submitted.increment();
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        while (completed.sum() - completedBefore < submitted.sum()) {
+            Thread.onSpinWait();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return submitted.sum() / (elapsed / 1e9);
+    }
+}
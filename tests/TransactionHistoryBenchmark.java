@@ -0,0 +1,172 @@
+package com.fortis.tests;
+
+import com.fortis.model.TransactionRecord;
+import com.fortis.model.TransactionRecord.TransactionStatus;
+import com.fortis.model.TransactionRecord.TransactionType;
+import com.fortis.persistence.ColumnarTransactionLog;
+import com.fortis.utils.AppendOnlyLog;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Transaction history benchmark: TransactionRecord objects against ColumnarTransactionLog
+ * Builds the same history in both stores, with ids, amounts and timestamps
+ * shaped like BankingService's and each description its own string, as
+ * parsed user input is. Measures retained heap per record and the time to
+ * scan the history for one account, the access pattern of statements and
+ * history views, and checks that columnar rows read back equal to the
+ * records they were built from. Results are written as JMH-compatible JSON.
+ *
+ * System properties:
+ *   bench.stores        - comma-separated stores (default objects,columnar)
+ *   bench.records       - history size (default 1000000)
+ *   bench.accounts      - accounts the history is spread over (default 10000)
+ *   bench.iterations    - measurement iterations (default 5)
+ *   bench.out           - JSON output path (default bench-results/transaction-history.json)
+ */
+public class TransactionHistoryBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final String[] DESCRIPTIONS = {"Salary", "ATM withdrawal", "Rent", "Groceries", "Online transfer"};
+
+    public static void main(String[] args) throws Exception {
+        String[] stores = System.getProperty("bench.stores", "objects,columnar").split(",");
+        int records = Integer.getInteger("bench.records", 1_000_000);
+        int accounts = Integer.getInteger("bench.accounts", 10_000);
+        int iterations = Integer.getInteger("bench.iterations", 5);
+
+        System.out.println("=== TRANSACTION HISTORY BENCHMARK ===\n");
+        System.out.println(records + " records over " + accounts + " accounts\n");
+        BenchmarkReport report = new BenchmarkReport();
+        System.out.println(String.format("%-10s %14s %16s %12s", "Store", "bytes/record", "scan ms/account", "± error"));
+        System.out.println("─".repeat(55));
+
+        for (String store : stores) {
+            double[] footprint = new double[iterations];
+            List<TransactionRecord> history = null;
+            for (int i = 0; i < iterations; i++) {
+                history = null;
+                long before = usedHeap();
+                history = build(store, records, accounts);
+                footprint[i] = (double) (usedHeap() - before) / records;
+            }
+            if (store.equals("columnar")) {
+                verify(history, accounts);
+            }
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                scan(history, accounts);
+            }
+            double[] scanMillis = new double[iterations];
+            for (int i = 0; i < iterations; i++) {
+                scanMillis[i] = scan(history, accounts);
+            }
+            double mean = BenchmarkReport.mean(scanMillis);
+            double error = iterations > 1
+                    ? 3.29 * BenchmarkReport.stdDev(scanMillis, mean) / Math.sqrt(iterations) : 0;
+            System.out.println(String.format("%-10s %14.1f %16.2f %12.2f",
+                    store, BenchmarkReport.mean(footprint), mean, error));
+
+            report.add("com.fortis.persistence.ColumnarTransactionLog.footprint", "ss",
+                    BenchmarkReport.params("store", store, "records", records), footprint, "B/record", 1);
+            report.add("com.fortis.persistence.ColumnarTransactionLog.accountScan", "avgt",
+                    BenchmarkReport.params("store", store, "records", records), scanMillis, "ms/op", 1);
+        }
+
+        report.write(System.getProperty("bench.out", "bench-results/transaction-history.json"));
+        System.out.println("\n=== BENCHMARK COMPLETED ===");
+    }
+
+    /**
+     * Record n, the same every time it is built
+     */
+    private static TransactionRecord record(long n, int accounts, LocalDateTime start) {
+        SplittableRandom rnd = new SplittableRandom(n);
+        String id = "TXN" + (1_767_258_000_000L + n) + "-" + String.format("%08X", rnd.nextInt());
+        long from = rnd.nextInt(accounts) + 1;
+        long to = rnd.nextInt(accounts) + 1;
+        BigDecimal amount = BigDecimal.valueOf(rnd.nextLong(100, 10_000_000), 2);
+        TransactionType type = TransactionType.values()[(int) (n % 3)];
+        return new TransactionRecord(id, type == TransactionType.DEPOSIT ? 0L : from,
+                type == TransactionType.WITHDRAWAL ? 0L : to, amount, type,
+                new String(DESCRIPTIONS[(int) (n % DESCRIPTIONS.length)]),
+                n % 50 == 0 ? TransactionStatus.FAILED : TransactionStatus.COMPLETED,
+                start.plusNanos(n * 1_000_123L)); // microsecond-precise, like LocalDateTime.now()
+    }
+
+    private static List<TransactionRecord> build(String store, int records, int accounts) {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        switch (store) {
+            case "objects": {
+                AppendOnlyLog<TransactionRecord> log = new AppendOnlyLog<>();
+                for (int n = 0; n < records; n++) {
+                    log.append(record(n, accounts, start));
+                }
+                return log.snapshot();
+            }
+            case "columnar": {
+                ColumnarTransactionLog log = new ColumnarTransactionLog();
+                for (int n = 0; n < records; n++) {
+                    log.append(record(n, accounts, start));
+                }
+                return log.snapshot();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown store: " + store);
+        }
+    }
+
+    /**
+     * Rebuild a sample of records and compare them field by field with the stored rows
+     */
+    private static void verify(List<TransactionRecord> history, int accounts) {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int n = 0; n < history.size(); n += 997) {
+            TransactionRecord row = history.get(n);
+            TransactionRecord expected = record(n, accounts, start);
+            if (!row.getTransactionId().equals(expected.getTransactionId())
+                    || row.getFromAccountId() != expected.getFromAccountId()
+                    || row.getToAccountId() != expected.getToAccountId()
+                    || !row.getAmount().equals(expected.getAmount()) || row.getType() != expected.getType()
+                    || row.getStatus() != expected.getStatus()
+                    || !row.getTimestamp().equals(expected.getTimestamp())
+                    || !row.getDescription().equals(expected.getDescription())) {
+                throw new IllegalStateException("Row " + n + " reads back as " + row);
+            }
+        }
+    }
+
+    /**
+     * Sum one random account's committed amounts, through the store's account
+     * filter where it has one as BankingService does; returns ms per scan
+     */
+    private static double scan(List<TransactionRecord> history, int accounts) {
+        long account = ThreadLocalRandom.current().nextInt(accounts) + 1;
+        long start = System.nanoTime();
+        List<TransactionRecord> rows = history instanceof ColumnarTransactionLog.Snapshot
+                ? ((ColumnarTransactionLog.Snapshot) history).forAccount(account) : history;
+        BigDecimal total = BigDecimal.ZERO;
+        for (TransactionRecord t : rows) {
+            if ((t.getFromAccountId() == account || t.getToAccountId() == account)
+                    && t.getStatus() == TransactionStatus.COMPLETED) {
+                total = total.add(t.getAmount());
+            }
+        }
+        if (total.signum() < 0) {
+            throw new IllegalStateException("Negative total");
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,346 @@
+package com.fortis.tests;
+
+import com.fortis.core.Account;
+import com.fortis.core.Transaction;
+import com.fortis.core.TransactionState;
+import com.fortis.managers.TransactionManager;
+import com.fortis.managers.TransferStageTimer;
+import com.fortis.persistence.EmbeddedLedgerStore;
+import com.fortis.utils.AppConfig;
+import com.fortis.utils.LatencyHistogram;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for TransactionManager.executeTransfer
+ * Transfers are issued at a fixed target rate regardless of how fast earlier
+ * ones complete. Latency is measured from each transfer's intended start
+ * time, so queueing behind a slow transfer is counted instead of hidden
+ * (coordinated-omission correction). Accounts are picked with a Zipfian skew.
+ * Reports throughput, rollback rate and latency percentiles per state stage.
+ *
+ * System properties:
+ *   load.accounts   - number of accounts, ids firstAccount..firstAccount+n-1 (default 100)
+ *   load.firstAccount - lowest account id (default 1)
+ *   load.zipf       - Zipf exponent, 0 = uniform (default 0.99)
+ *   load.amount     - fixed:V | uniform:MIN:MAX | lognormal:MU:SIGMA (default uniform:1:500)
+ *   load.rate       - target transfers per second (default 200)
+ *   load.seconds    - measurement duration (default 30)
+ *   load.warmup     - warmup seconds, not reported (default 5)
+ *   load.threads    - worker threads (default 32)
+ *   load.async      - true to issue through executeTransferAsync instead of worker threads
+ *   fortis.stage.timing=true to also report TransactionManager's internal stages
+ *   fortis.ledger=embedded to run against the embedded ledger; missing accounts are created
+ *   fortis.ratelimit=true to include the request rate limits
+ */
+public class TransactionLoadGenerator {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99, 100};
+    private static final TransactionState[] STAGES = {
+        TransactionState.VALIDATED, TransactionState.RISK_CHECK,
+        TransactionState.COMMITTED, TransactionState.ROLLED_BACK
+    };
+
+    private final TransactionManager tm = new TransactionManager();
+    private final long firstAccount = Long.getLong("load.firstAccount", 1);
+    private final ZipfSampler accounts = new ZipfSampler(Integer.getInteger("load.accounts", 100),
+            Double.parseDouble(System.getProperty("load.zipf", "0.99")));
+    private final AmountDistribution amounts = AmountDistribution.parse(
+            System.getProperty("load.amount", "uniform:1:500"));
+
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final Map<TransactionState, LatencyHistogram> stageTimes = new EnumMap<>(TransactionState.class);
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder rolledBack = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> rollbackReasons = new ConcurrentHashMap<>();
+    private final boolean async = Boolean.getBoolean("load.async");
+    private volatile boolean recording;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== TRANSACTION LOAD GENERATOR ===\n");
+        new TransactionLoadGenerator().run();
+        System.out.println("\n=== LOAD RUN COMPLETED ===");
+    }
+
+    /**
+     * Create the accounts the run needs in the embedded ledger
+     */
+    private void seedLedger() throws Exception {
+        EmbeddedLedgerStore ledger = EmbeddedLedgerStore.getInstance();
+        long last = firstAccount + accounts.size() - 1;
+        int created = 0;
+        while (ledger.getAccount(last) == null) {
+            ledger.createAccount("Load Test " + (ledger.getAccountCount() + 1), new BigDecimal("1000000000"),
+                    Account.AccountType.CURRENT, new BigDecimal("1000000000"));
+            created++;
+        }
+        System.out.println(String.format("Embedded ledger: %d accounts (%d created), %d transactions",
+                ledger.getAccountCount(), created, ledger.getTransactionCount()));
+    }
+
+    private void run() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+        int seconds = Integer.getInteger("load.seconds", 30);
+        int warmup = Integer.getInteger("load.warmup", 5);
+        int threads = Integer.getInteger("load.threads", 32);
+
+        for (TransactionState stage : STAGES) {
+            stageTimes.put(stage, new LatencyHistogram());
+        }
+        if (AppConfig.isEmbeddedLedger()) {
+            seedLedger();
+        }
+
+        System.out.println(String.format("Accounts: %d (zipf %.2f), amount: %s",
+                accounts.size(), accounts.exponent, amounts));
+        System.out.println(String.format("Target rate: %.0f/s, threads: %s, warmup: %ds, duration: %ds\n",
+                rate, async ? "async" : String.valueOf(threads), warmup, seconds));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long periodNanos = (long) (1e9 / rate);
+
+        if (warmup > 0) {
+            issue(executor, periodNanos, TimeUnit.SECONDS.toNanos(warmup));
+        }
+        TransferStageTimer.reset();
+        recording = true;
+        long begin = System.nanoTime();
+        long issued = issue(executor, periodNanos, TimeUnit.SECONDS.toNanos(seconds));
+        recording = false;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+
+        report(issued, elapsed, rate);
+    }
+
+    /**
+     * Dispatch transfers on a fixed schedule for the given duration
+     * If the dispatcher falls behind it catches up immediately but keeps each
+     * transfer's original intended start time.
+     */
+    private long issue(ExecutorService executor, long periodNanos, long durationNanos) throws Exception {
+        List<Future<?>> pending = new ArrayList<>();
+        long start = System.nanoTime();
+        long count = 0;
+        while (true) {
+            long intended = start + count * periodNanos;
+            if (intended - start >= durationNanos) break;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            pending.add(async ? transferAsync(intended) : executor.submit(() -> transfer(intended)));
+            count++;
+        }
+        for (Future<?> f : pending) {
+            f.get();
+        }
+        return count;
+    }
+
+    private void transfer(long intendedStart) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long from = firstAccount + accounts.next(rnd);
+        long to = pickDestination(rnd, from);
+
+        long actualStart = System.nanoTime();
+        Transaction txn;
+        try {
+            txn = tm.executeTransfer(from, to, amounts.next(rnd), "Load test");
+        } catch (RuntimeException e) {
+            if (recording) errors.increment();
+            return;
+        }
+        record(txn, intendedStart, actualStart);
+    }
+
+    /**
+     * Issue one transfer through the async API; the dispatcher thread never blocks on it
+     */
+    private CompletableFuture<?> transferAsync(long intendedStart) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long from = firstAccount + accounts.next(rnd);
+        long to = pickDestination(rnd, from);
+
+        long actualStart = System.nanoTime();
+        return tm.executeTransferAsync(from, to, amounts.next(rnd), "Load test")
+                .whenComplete((txn, error) -> {
+                    if (error != null) {
+                        if (recording) errors.increment();
+                    } else {
+                        record(txn, intendedStart, actualStart);
+                    }
+                });
+    }
+
+    private long pickDestination(ThreadLocalRandom rnd, long from) {
+        long to;
+        do {
+            to = firstAccount + accounts.next(rnd);
+        } while (to == from && accounts.size() > 1);
+        return to;
+    }
+
+    private void record(Transaction txn, long intendedStart, long actualStart) {
+        long end = System.nanoTime();
+        if (!recording) return;
+
+        responseTime.record(end - intendedStart);
+        serviceTime.record(end - actualStart);
+        recordStages(txn);
+
+        if (txn.isSuccessful()) {
+            committed.increment();
+        } else {
+            rolledBack.increment();
+            String reason = txn.getErrorMessage() == null ? "unknown" : txn.getErrorMessage();
+            rollbackReasons.computeIfAbsent(reason.replaceAll("[0-9]+", "N"), k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Time spent reaching each state from the state before it
+     */
+    private void recordStages(Transaction txn) {
+        long previous = txn.getStateEnteredNanos(TransactionState.INIT);
+        for (TransactionState stage : STAGES) {
+            long entered = txn.getStateEnteredNanos(stage);
+            if (entered != 0) {
+                stageTimes.get(stage).record(entered - previous);
+                previous = entered;
+            }
+        }
+    }
+
+    private void report(long issued, double elapsed, double rate) {
+        long done = committed.sum() + rolledBack.sum();
+        System.out.println("\nResults");
+        System.out.println("─".repeat(60));
+        System.out.println(String.format("Issued:       %d (target %.0f/s)", issued, rate));
+        System.out.println(String.format("Completed:    %d in %.1fs = %.1f/s", done, elapsed, done / elapsed));
+        System.out.println(String.format("Committed:    %d", committed.sum()));
+        System.out.println(String.format("Rolled back:  %d (%.2f%%)", rolledBack.sum(),
+                done == 0 ? 0 : 100.0 * rolledBack.sum() / done));
+        System.out.println(String.format("Errors:       %d", errors.sum()));
+        rollbackReasons.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(5)
+                .forEach(e -> System.out.println(String.format("  %6d  %s", e.getValue().sum(), e.getKey())));
+
+        StringBuilder header = new StringBuilder(String.format("\n%-22s %9s", "Latency (ms)", "count"));
+        for (double p : PERCENTILES) {
+            header.append(String.format(" %9s", p == 100 ? "max" : "p" + trim(p)));
+        }
+        System.out.println(header);
+        System.out.println("─".repeat(header.length() - 1));
+        printRow("response (corrected)", responseTime);
+        printRow("service", serviceTime);
+        for (TransactionState stage : STAGES) {
+            printRow("→ " + stage, stageTimes.get(stage));
+        }
+        if (TransferStageTimer.isEnabled()) {
+            for (TransferStageTimer.Stage stage : TransferStageTimer.Stage.values()) {
+                printRow("  " + stage.name().toLowerCase(), TransferStageTimer.getHistogram(stage));
+            }
+        }
+    }
+
+    private static void printRow(String name, LatencyHistogram h) {
+        StringBuilder row = new StringBuilder(String.format("%-22s %9d", name, h.getCount()));
+        for (double p : PERCENTILES) {
+            row.append(String.format(" %9.2f", h.getValueAtPercentile(p) / 1e6));
+        }
+        System.out.println(row);
+    }
+
+    private static String trim(double p) {
+        return p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p);
+    }
+
+    /**
+     * Zipf(s) rank sampler over [0, n) using an inverted cumulative table
+     */
+    static class ZipfSampler {
+        final double exponent;
+        private final double[] cdf;
+
+        ZipfSampler(int n, double exponent) {
+            if (n < 1) throw new IllegalArgumentException("Need at least one account");
+            this.exponent = exponent;
+            this.cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        int size() {
+            return cdf.length;
+        }
+
+        int next(ThreadLocalRandom rnd) {
+            int idx = Arrays.binarySearch(cdf, rnd.nextDouble());
+            return Math.min(idx >= 0 ? idx : -idx - 1, cdf.length - 1);
+        }
+    }
+
+    /**
+     * Transfer amount distribution, rounded to cents
+     */
+    static class AmountDistribution {
+        private final String kind;
+        private final double a;
+        private final double b;
+
+        private AmountDistribution(String kind, double a, double b) {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+        }
+
+        static AmountDistribution parse(String spec) {
+            String[] parts = spec.split(":");
+            switch (parts[0]) {
+                case "fixed":
+                    return new AmountDistribution("fixed", Double.parseDouble(parts[1]), 0);
+                case "uniform":
+                case "lognormal":
+                    return new AmountDistribution(parts[0], Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                default:
+                    throw new IllegalArgumentException("Unknown amount distribution: " + spec);
+            }
+        }
+
+        BigDecimal next(ThreadLocalRandom rnd) {
+            double v;
+            switch (kind) {
+                case "uniform":
+                    v = a + rnd.nextDouble() * (b - a);
+                    break;
+                case "lognormal":
+                    v = Math.exp(a + b * rnd.nextGaussian());
+                    break;
+                default:
+                    v = a;
+            }
+            return BigDecimal.valueOf(Math.max(0.01, v)).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        @Override
+        public String toString() {
+            return kind.equals("fixed") ? "fixed " + a : String.format("%s(%s, %s)", kind, a, b);
+        }
+    }
+}